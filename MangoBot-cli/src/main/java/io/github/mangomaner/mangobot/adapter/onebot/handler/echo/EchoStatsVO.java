@@ -0,0 +1,35 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.echo;
+
+import lombok.Data;
+
+/**
+ * OneBot API 请求等待表统计
+ */
+@Data
+public class EchoStatsVO {
+
+    /**
+     * 当前等待响应的请求数
+     */
+    private int inFlight;
+
+    /**
+     * 最早发出且仍在等待的请求已等待的时间（毫秒），无等待请求时为 0
+     */
+    private long oldestAgeMillis;
+
+    /**
+     * 累计收到响应的请求数
+     */
+    private long completed;
+
+    /**
+     * 累计超时的请求数
+     */
+    private long timedOut;
+
+    /**
+     * 累计因连接断开而失败的请求数
+     */
+    private long disconnected;
+}
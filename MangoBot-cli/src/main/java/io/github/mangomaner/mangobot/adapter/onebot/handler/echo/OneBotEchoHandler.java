@@ -1,85 +1,218 @@
 package io.github.mangomaner.mangobot.adapter.onebot.handler.echo;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 负责处理 WebSocket 的 Echo 响应，实现异步转同步
+ * 负责处理 WebSocket 的 Echo 响应
+ * <p>
+ * echo 为单调递增的序号，等待表按序号排序（首个即最早发出的请求），另按截止时间排序供清理线程使用。
+ * 每个请求归属于发出它的连接，连接断开时立即以异常完成该连接的所有请求；
+ * 清理线程定期以 {@link TimeoutException} 完成已过截止时间的请求。等待响应期间不占用调用方线程。
  */
 @Component
 @Slf4j
 public class OneBotEchoHandler {
 
-    private final Map<String, CompletableFuture<OneBotApiResponse>> pendingRequests = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper;
+    private static final long SWEEP_INTERVAL_MILLIS = 250;
 
-    public OneBotEchoHandler(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentNavigableMap<Long, Pending> pendingRequests = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentSkipListSet<Pending> deadlines = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Pending::deadlineNanos).thenComparingLong(Pending::seq));
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneBot-Echo-Sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param sessionId     发出请求的连接
+     * @param startNanos    发出时间（{@link System#nanoTime()}）
+     * @param deadlineNanos 截止时间（{@link System#nanoTime()}）
+     */
+    private record Pending(long seq, String sessionId, long startNanos, long deadlineNanos,
+                           CompletableFuture<OneBotApiResponse> future) {
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 分配一个新的 echo
+     */
+    public String nextEcho() {
+        return Long.toString(sequence.incrementAndGet());
     }
 
     /**
      * 注册一个等待中的请求
+     * @param echo 由 {@link #nextEcho()} 分配的请求标识
+     * @param sessionId 发出请求的连接，连接断开时请求失败
+     * @param timeout 超时时间
+     * @param unit 超时时间单位
+     * @return CompletableFuture 在收到响应的线程或清理线程上完成
+     */
+    public CompletableFuture<OneBotApiResponse> register(String echo, String sessionId, long timeout, TimeUnit unit) {
+        Long seq = parseEcho(echo);
+        if (seq == null) {
+            throw new IllegalArgumentException("echo 不是由 nextEcho 分配的: " + echo);
+        }
+        long now = System.nanoTime();
+        Pending pending = new Pending(seq, sessionId, now, now + unit.toNanos(timeout), new CompletableFuture<>());
+        pendingRequests.put(seq, pending);
+        deadlines.add(pending);
+        return pending.future();
+    }
+
+    /**
+     * 判断是否存在等待该 echo 的请求
+     */
+    public boolean isPending(String echo) {
+        Long seq = parseEcho(echo);
+        return seq != null && pendingRequests.containsKey(seq);
+    }
+
+    /**
+     * 以已解码的响应完成等待中的请求
      * @param echo 请求的唯一标识
-     * @return CompletableFuture 用于等待结果
+     * @param response 解码后的响应
+     * @return true 如果存在对应的等待中请求
      */
-    public CompletableFuture<OneBotApiResponse> register(String echo) {
-        CompletableFuture<OneBotApiResponse> future = new CompletableFuture<>();
-        pendingRequests.put(echo, future);
-        return future;
+    public boolean complete(String echo, OneBotApiResponse response) {
+        Pending pending = remove(echo);
+        if (pending == null) {
+            return false;
+        }
+        completed.incrementAndGet();
+        pending.future().complete(response);
+        return true;
     }
 
     /**
-     * 处理收到的 Echo 消息
-     * @param jsonRaw 原始 JSON 字符串
-     * @return true 如果是 Echo 消息并已处理，false 否则
+     * 以异常完成等待中的请求（响应无法解析时），避免调用方一直等到超时
      */
-    public boolean handleEcho(String jsonRaw) {
-        try {
-            JsonNode node = objectMapper.readTree(jsonRaw);
-            if (node.has("echo")) {
-                String echo = node.get("echo").asText();
-                CompletableFuture<OneBotApiResponse> future = pendingRequests.remove(echo);
-                if (future != null) {
-                    try {
-                        OneBotApiResponse response = objectMapper.treeToValue(node, OneBotApiResponse.class);
-                        future.complete(response);
-                        return true;
-                    } catch (Exception e) {
-                        future.completeExceptionally(e);
-                        return true; // 即使解析失败也视为已处理，避免后续误判
-                    }
-                }
+    public void completeExceptionally(String echo, Throwable cause) {
+        Pending pending = remove(echo);
+        if (pending != null) {
+            pending.future().completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 发送失败时撤销等待中的请求
+     */
+    public void cancel(String echo) {
+        Pending pending = remove(echo);
+        if (pending != null) {
+            pending.future().cancel(false);
+        }
+    }
+
+    /**
+     * 连接断开：该连接发出的请求不会再收到响应，立即以异常完成
+     */
+    public void failSession(String sessionId) {
+        int failed = 0;
+        for (Pending pending : pendingRequests.values()) {
+            if (sessionId.equals(pending.sessionId()) && pendingRequests.remove(pending.seq(), pending)) {
+                deadlines.remove(pending);
+                pending.future().completeExceptionally(new IllegalStateException("OneBot 连接已断开: " + sessionId));
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            disconnected.addAndGet(failed);
+            log.warn("OneBot 连接断开，{} 个等待中的请求已失败: {}", failed, sessionId);
+        }
+    }
+
+    /**
+     * 获取等待表统计
+     */
+    public EchoStatsVO getStats() {
+        EchoStatsVO vo = new EchoStatsVO();
+        vo.setInFlight(pendingRequests.size());
+        Map.Entry<Long, Pending> oldest = pendingRequests.firstEntry();
+        if (oldest != null) {
+            vo.setOldestAgeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.getValue().startNanos()));
+        }
+        vo.setCompleted(completed.get());
+        vo.setTimedOut(timedOut.get());
+        vo.setDisconnected(disconnected.get());
+        return vo;
+    }
+
+    /**
+     * 完成所有已过截止时间的请求
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        for (Pending pending : deadlines) {
+            if (pending.deadlineNanos() - now > 0) {
+                return;
+            }
+            deadlines.remove(pending);
+            if (pendingRequests.remove(pending.seq(), pending)) {
+                timedOut.incrementAndGet();
+                pending.future().completeExceptionally(new TimeoutException("等待 OneBot 响应超时: " + pending.seq()));
             }
-        } catch (Exception e) {
-            // Ignore parse errors, let normal event parser handle it
         }
-        return false;
+    }
+
+    private Pending remove(String echo) {
+        Long seq = parseEcho(echo);
+        Pending pending = seq == null ? null : pendingRequests.remove(seq);
+        if (pending != null) {
+            deadlines.remove(pending);
+        }
+        return pending;
     }
 
     /**
-     * 等待响应，带超时控制
+     * 解析 echo 序号，不是本进程分配的 echo 返回 null
      */
-    public OneBotApiResponse waitForResponse(String echo, long timeout, TimeUnit unit) {
-        CompletableFuture<OneBotApiResponse> future = pendingRequests.get(echo);
-        if (future == null) {
-            throw new IllegalStateException("Echo " + echo + " 未注册");
+    private static Long parseEcho(String echo) {
+        if (echo == null || echo.isEmpty() || !Character.isDigit(echo.charAt(0))) {
+            return null;
         }
         try {
-            return future.get(timeout, unit);
-        } catch (TimeoutException e) {
-            pendingRequests.remove(echo);
-            throw new RuntimeException("等待 OneBot 响应超时: " + echo, e);
-        } catch (Exception e) {
-            pendingRequests.remove(echo);
-            throw new RuntimeException("获取 OneBot 响应失败: " + echo, e);
+            return Long.parseLong(echo);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        for (Pending pending : pendingRequests.values()) {
+            pending.future().cancel(false);
         }
+        pendingRequests.clear();
+        deadlines.clear();
     }
 }
@@ -2,19 +2,15 @@ package io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_eve
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
-import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
-import io.github.mangomaner.mangobot.events.onebot.message.OneBotMessageSentEvent;
-import io.github.mangomaner.mangobot.events.onebot.message.OneBotPrivateMessageEvent;
-import io.github.mangomaner.mangobot.events.onebot.meta.OneBotHeartbeatEvent;
-import io.github.mangomaner.mangobot.events.onebot.meta.OneBotLifecycleEvent;
-import io.github.mangomaner.mangobot.events.onebot.notice.*;
 
 import java.io.IOException;
 
+/**
+ * 通过 {@code readValue(json, OneBotBaseEvent.class)} 反序列化时使用，判别逻辑与 {@link OneBotFrameDecoder} 一致
+ */
 public class OneBotEventDeserializer extends StdDeserializer<OneBotEvent> {
 
     public OneBotEventDeserializer() {
@@ -26,79 +22,21 @@ public class OneBotEventDeserializer extends StdDeserializer<OneBotEvent> {
     }
 
     @Override
-    public OneBotEvent deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
-        ObjectMapper mapper = (ObjectMapper) p.getCodec();
-        JsonNode node = mapper.readTree(p);
-        
-        if (!node.has("post_type")) {
+    public OneBotEvent deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
             return null;
         }
-        
-        String postType = node.get("post_type").asText();
-        Class<? extends OneBotEvent> targetClass = null;
+        TokenBuffer buffer = ctxt.bufferForInputBuffering(p);
+        OneBotFrameDecoder.Discriminators discriminators = OneBotFrameDecoder.bufferObject(p, buffer);
 
-        switch (postType) {
-            case "message":
-                if (node.has("message_type")) {
-                    String messageType = node.get("message_type").asText();
-                    if ("group".equals(messageType)) {
-                        targetClass = OneBotGroupMessageEvent.class;
-                    } else if ("private".equals(messageType)) {
-                        targetClass = OneBotPrivateMessageEvent.class;
-                    }
-                }
-                break;
-            case "message_sent":
-                targetClass = OneBotMessageSentEvent.class;
-                break;
-            case "meta_event":
-                if (node.has("meta_event_type")) {
-                    String metaType = node.get("meta_event_type").asText();
-                    if ("heartbeat".equals(metaType)) {
-                        targetClass = OneBotHeartbeatEvent.class;
-                    } else if ("lifecycle".equals(metaType)) {
-                        targetClass = OneBotLifecycleEvent.class;
-                    }
-                }
-                break;
-            case "notice":
-                if (node.has("notice_type")) {
-                    String noticeType = node.get("notice_type").asText();
-                    switch (noticeType) {
-                        case "notify":
-                            targetClass = PokeEvent.class;
-                            break;
-                        case "group_decrease":
-                            targetClass = OneBotGroupDecreaseEvent.class;
-                            break;
-                        case "group_increase":
-                            targetClass = OneBotGroupIncreaseEvent.class;
-                            break;
-                        case "group_ban":
-                            targetClass = OneBotGroupBanEvent.class;
-                            break;
-                        case "essence":
-                            targetClass = OneBotEssenceEvent.class;
-                            break;
-                        case "group_recall":
-                            targetClass = OneBotGroupRecallEvent.class;
-                            break;
-                        case "group_upload":
-                            targetClass = OneBotGroupUploadEvent.class;
-                            break;
-                        case "group_msg_emoji_like":
-                            targetClass = OneBotGroupMsgEmojiLikeEvent.class;
-                            break;
-                    }
-                }
-                break;
+        Class<? extends OneBotEvent> targetClass = discriminators.resolveEventClass();
+        if (targetClass == null) {
+            // Fallback or ignore
+            return null;
         }
-
-        if (targetClass != null) {
-            return mapper.treeToValue(node, targetClass);
+        try (JsonParser bufferParser = buffer.asParser(p.getCodec())) {
+            bufferParser.nextToken();
+            return ctxt.readValue(bufferParser, targetClass);
         }
-        
-        // Fallback or ignore
-        return null;
     }
 }
@@ -0,0 +1,32 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event;
+
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiResponse;
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+
+/**
+ * 一帧 OneBot WebSocket 消息的解码结果：API 调用响应（带 echo）或上报事件，二者至多其一
+ *
+ * @param echo     响应的 echo 标识，事件帧为 null
+ * @param response API 调用响应，事件帧为 null
+ * @param event    上报事件，响应帧或无法识别的帧为 null
+ */
+public record OneBotFrame(String echo, OneBotApiResponse response, OneBotEvent event) {
+
+    private static final OneBotFrame UNKNOWN = new OneBotFrame(null, null, null);
+
+    public static OneBotFrame ofEcho(String echo, OneBotApiResponse response) {
+        return new OneBotFrame(echo, response, null);
+    }
+
+    public static OneBotFrame ofEvent(OneBotEvent event) {
+        return event == null ? UNKNOWN : new OneBotFrame(null, null, event);
+    }
+
+    public static OneBotFrame unknown() {
+        return UNKNOWN;
+    }
+
+    public boolean isEcho() {
+        return echo != null;
+    }
+}
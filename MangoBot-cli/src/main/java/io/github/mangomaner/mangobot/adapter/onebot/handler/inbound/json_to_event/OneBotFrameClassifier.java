@@ -0,0 +1,225 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event;
+
+/**
+ * OneBot 帧快速分类器
+ * <p>
+ * 在字符层面扫描 JSON 顶层字段（跳过嵌套对象、数组和字符串内容），识别心跳元事件和 API 响应，
+ * 使这两类高频帧不必进入通用的 Jackson 解码流程。扫描过程中除结果对象和 echo 字符串外不产生分配。
+ * <p>
+ * 任何无法确定的情况（格式异常、echo 含转义字符等）都归类为 {@link Kind#OTHER}，交由 {@link OneBotFrameDecoder} 处理。
+ */
+public final class OneBotFrameClassifier {
+
+    public enum Kind {
+        /**
+         * 心跳元事件
+         */
+        HEARTBEAT,
+        /**
+         * API 调用响应（带 echo 且无 post_type）
+         */
+        ECHO,
+        /**
+         * 其他帧，需完整解码
+         */
+        OTHER
+    }
+
+    /**
+     * 分类结果
+     *
+     * @param kind     帧类型
+     * @param echo     ECHO 帧的 echo 标识
+     * @param interval HEARTBEAT 帧的心跳间隔（毫秒），缺失时为 0
+     */
+    public record Result(Kind kind, String echo, long interval) {
+    }
+
+    private static final Result OTHER = new Result(Kind.OTHER, null, 0L);
+
+    private OneBotFrameClassifier() {}
+
+    public static Result classify(String json) {
+        int length = json.length();
+        int i = skipWhitespace(json, 0);
+        if (i >= length || json.charAt(i) != '{') {
+            return OTHER;
+        }
+        i++;
+
+        boolean metaEvent = false;
+        boolean heartbeat = false;
+        boolean hasPostType = false;
+        long interval = 0L;
+        int echoStart = -1;
+        int echoEnd = -1;
+
+        while (true) {
+            i = skipWhitespace(json, i);
+            if (i >= length) {
+                return OTHER;
+            }
+            char c = json.charAt(i);
+            if (c == '}') {
+                break;
+            }
+            if (c == ',') {
+                i++;
+                continue;
+            }
+            if (c != '"') {
+                return OTHER;
+            }
+
+            int keyStart = i + 1;
+            int keyEnd = skipString(json, i);
+            if (keyEnd < 0) {
+                return OTHER;
+            }
+            i = skipWhitespace(json, keyEnd + 1);
+            if (i >= length || json.charAt(i) != ':') {
+                return OTHER;
+            }
+            i = skipWhitespace(json, i + 1);
+            if (i >= length) {
+                return OTHER;
+            }
+
+            int valueStart = i;
+            int valueEnd = skipValue(json, i);
+            if (valueEnd < 0) {
+                return OTHER;
+            }
+
+            if (keyEquals(json, keyStart, keyEnd, "post_type")) {
+                hasPostType = true;
+                metaEvent = stringValueEquals(json, valueStart, valueEnd, "meta_event");
+                if (!metaEvent) {
+                    // 普通事件，无需继续扫描
+                    return OTHER;
+                }
+            } else if (keyEquals(json, keyStart, keyEnd, "meta_event_type")) {
+                heartbeat = stringValueEquals(json, valueStart, valueEnd, "heartbeat");
+            } else if (keyEquals(json, keyStart, keyEnd, "interval")) {
+                interval = parseLong(json, valueStart, valueEnd);
+            } else if (keyEquals(json, keyStart, keyEnd, "echo")) {
+                if (json.charAt(valueStart) == '"') {
+                    echoStart = valueStart + 1;
+                    echoEnd = valueEnd - 1;
+                } else if (!json.startsWith("null", valueStart)) {
+                    echoStart = valueStart;
+                    echoEnd = valueEnd;
+                }
+            }
+            i = valueEnd;
+        }
+
+        if (hasPostType) {
+            return metaEvent && heartbeat ? new Result(Kind.HEARTBEAT, null, interval) : OTHER;
+        }
+        if (echoStart >= 0 && !containsEscape(json, echoStart, echoEnd)) {
+            return new Result(Kind.ECHO, json.substring(echoStart, echoEnd), 0L);
+        }
+        return OTHER;
+    }
+
+    private static int skipWhitespace(String json, int i) {
+        int length = json.length();
+        while (i < length) {
+            char c = json.charAt(i);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @param i 开头引号的位置
+     * @return 结尾引号的位置，格式错误返回 -1
+     */
+    private static int skipString(String json, int i) {
+        int length = json.length();
+        for (int j = i + 1; j < length; j++) {
+            char c = json.charAt(j);
+            if (c == '\\') {
+                j++;
+            } else if (c == '"') {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 跳过一个值（字符串、数字、字面量、对象或数组）
+     *
+     * @return 值之后第一个字符的位置，格式错误返回 -1
+     */
+    private static int skipValue(String json, int i) {
+        int length = json.length();
+        char c = json.charAt(i);
+        if (c == '"') {
+            int end = skipString(json, i);
+            return end < 0 ? -1 : end + 1;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            for (int j = i; j < length; j++) {
+                char d = json.charAt(j);
+                if (d == '"') {
+                    j = skipString(json, j);
+                    if (j < 0) {
+                        return -1;
+                    }
+                } else if (d == '{' || d == '[') {
+                    depth++;
+                } else if (d == '}' || d == ']') {
+                    if (--depth == 0) {
+                        return j + 1;
+                    }
+                }
+            }
+            return -1;
+        }
+        int j = i;
+        while (j < length) {
+            char d = json.charAt(j);
+            if (d == ',' || d == '}' || d == ']' || d == ' ' || d == '\n' || d == '\r' || d == '\t') {
+                break;
+            }
+            j++;
+        }
+        return j == i ? -1 : j;
+    }
+
+    private static boolean containsEscape(String json, int start, int end) {
+        for (int j = start; j < end; j++) {
+            if (json.charAt(j) == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean keyEquals(String json, int start, int end, String key) {
+        return end - start == key.length() && json.regionMatches(start, key, 0, key.length());
+    }
+
+    private static boolean stringValueEquals(String json, int start, int end, String value) {
+        return json.charAt(start) == '"' && keyEquals(json, start + 1, end - 1, value);
+    }
+
+    private static long parseLong(String json, int start, int end) {
+        long value = 0L;
+        for (int j = start; j < end; j++) {
+            char c = json.charAt(j);
+            if (c < '0' || c > '9') {
+                return 0L;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiResponse;
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotMessageSentEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotPrivateMessageEvent;
+import io.github.mangomaner.mangobot.events.onebot.meta.OneBotHeartbeatEvent;
+import io.github.mangomaner.mangobot.events.onebot.meta.OneBotLifecycleEvent;
+import io.github.mangomaner.mangobot.events.onebot.notice.*;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+
+import java.io.IOException;
+
+/**
+ * OneBot 帧解码器
+ * <p>
+ * 使用流式 {@link JsonParser} 只扫描一遍原始 JSON：顶层字段的 token 写入 {@link TokenBuffer}，
+ * 同时记录 {@code echo}、{@code post_type}、{@code message_type}、{@code meta_event_type}、{@code notice_type}，
+ * 扫描结束后直接从缓冲区绑定到最终的事件类或 {@link OneBotApiResponse}，不构建中间 JsonNode 树。
+ */
+public final class OneBotFrameDecoder {
+
+    private static final ObjectReader RESPONSE_READER = JsonCodec.reader(OneBotApiResponse.class);
+
+    private OneBotFrameDecoder() {}
+
+    /**
+     * 解码一帧消息
+     *
+     * @param json 原始 JSON
+     * @return 解码结果，无法识别的帧返回 {@link OneBotFrame#unknown()}
+     */
+    public static OneBotFrame decode(String json) throws JsonProcessingException {
+        try (JsonParser parser = JsonCodec.mapper().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return OneBotFrame.unknown();
+            }
+            TokenBuffer buffer = new TokenBuffer(parser);
+            Discriminators discriminators = bufferObject(parser, buffer);
+
+            if (discriminators.echo != null && discriminators.postType == null) {
+                OneBotApiResponse response = RESPONSE_READER.readValue(buffer.asParserOnFirstToken());
+                return OneBotFrame.ofEcho(discriminators.echo, response);
+            }
+
+            Class<? extends OneBotEvent> targetClass = discriminators.resolveEventClass();
+            if (targetClass == null) {
+                return OneBotFrame.unknown();
+            }
+            ObjectReader reader = JsonCodec.reader(targetClass);
+            return OneBotFrame.ofEvent(reader.readValue(buffer.asParserOnFirstToken()));
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw JsonMappingException.fromUnexpectedIOE(e);
+        }
+    }
+
+    /**
+     * 直接将 API 响应帧绑定为 {@link OneBotApiResponse}，用于已由 {@link OneBotFrameClassifier} 识别的响应
+     */
+    public static OneBotApiResponse decodeResponse(String json) throws JsonProcessingException {
+        return RESPONSE_READER.readValue(json);
+    }
+
+    /**
+     * 将当前对象（parser 位于 START_OBJECT）的全部 token 写入缓冲区，同时提取类型判别字段。
+     * 返回时 parser 位于对应的 END_OBJECT。
+     */
+    static Discriminators bufferObject(JsonParser parser, TokenBuffer buffer) throws IOException {
+        Discriminators discriminators = new Discriminators();
+        buffer.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            buffer.writeFieldName(name);
+            if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                discriminators.accept(name, parser);
+            }
+            buffer.copyCurrentStructure(parser);
+        }
+        buffer.writeEndObject();
+        return discriminators;
+    }
+
+    /**
+     * 顶层类型判别字段
+     */
+    static final class Discriminators {
+        String echo;
+        String postType;
+        String messageType;
+        String metaEventType;
+        String noticeType;
+
+        void accept(String name, JsonParser parser) throws IOException {
+            switch (name) {
+                case "echo" -> echo = parser.getText();
+                case "post_type" -> postType = parser.getText();
+                case "message_type" -> messageType = parser.getText();
+                case "meta_event_type" -> metaEventType = parser.getText();
+                case "notice_type" -> noticeType = parser.getText();
+                default -> {
+                }
+            }
+        }
+
+        Class<? extends OneBotEvent> resolveEventClass() {
+            if (postType == null) {
+                return null;
+            }
+            return switch (postType) {
+                case "message" -> {
+                    if ("group".equals(messageType)) {
+                        yield OneBotGroupMessageEvent.class;
+                    } else if ("private".equals(messageType)) {
+                        yield OneBotPrivateMessageEvent.class;
+                    }
+                    yield null;
+                }
+                case "message_sent" -> OneBotMessageSentEvent.class;
+                case "meta_event" -> {
+                    if ("heartbeat".equals(metaEventType)) {
+                        yield OneBotHeartbeatEvent.class;
+                    } else if ("lifecycle".equals(metaEventType)) {
+                        yield OneBotLifecycleEvent.class;
+                    }
+                    yield null;
+                }
+                case "notice" -> noticeType == null ? null : switch (noticeType) {
+                    case "notify" -> PokeEvent.class;
+                    case "group_decrease" -> OneBotGroupDecreaseEvent.class;
+                    case "group_increase" -> OneBotGroupIncreaseEvent.class;
+                    case "group_ban" -> OneBotGroupBanEvent.class;
+                    case "essence" -> OneBotEssenceEvent.class;
+                    case "group_recall" -> OneBotGroupRecallEvent.class;
+                    case "group_upload" -> OneBotGroupUploadEvent.class;
+                    case "group_msg_emoji_like" -> OneBotGroupMsgEmojiLikeEvent.class;
+                    default -> null;
+                };
+                default -> null;
+            };
+        }
+    }
+}
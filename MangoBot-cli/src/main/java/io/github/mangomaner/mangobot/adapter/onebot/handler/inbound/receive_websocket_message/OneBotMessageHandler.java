@@ -1,12 +1,14 @@
 package io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.receive_websocket_message;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.adapter.WebSocketProtocolAdapter;
 import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
 import io.github.mangomaner.mangobot.events.onebot.meta.OneBotHeartbeatEvent;
 import io.github.mangomaner.mangobot.events.onebot.meta.OneBotLifecycleEvent;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiResponse;
 import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotEchoHandler;
-import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotEventParser;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrame;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrameClassifier;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrameDecoder;
 import io.github.mangomaner.mangobot.infra.MangoEventPublisher;
 import io.github.mangomaner.mangobot.infra.websocket.ConnectionSessionManager;
 import io.github.mangomaner.mangobot.infra.websocket.model.ConnectionSession;
@@ -18,7 +20,6 @@ import org.springframework.stereotype.Component;
 public class OneBotMessageHandler implements WebSocketProtocolAdapter {
 
     private static final String PROTOCOL_TYPE = "onebot_qq";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private final MangoEventPublisher eventPublisher;
     private final ConnectionSessionManager sessionManager;
@@ -39,14 +40,37 @@ public class OneBotMessageHandler implements WebSocketProtocolAdapter {
 
     @Override
     public void onMessage(ConnectionSession session, String message) {
-        if (echoHandler.handleEcho(message)) {
-            log.debug("收到 echo 消息: {}", message);
-            return;
+        OneBotFrameClassifier.Result classified = OneBotFrameClassifier.classify(message);
+        switch (classified.kind()) {
+            case HEARTBEAT -> {
+                sessionManager.updateHeartbeat(session, classified.interval());
+                return;
+            }
+            case ECHO -> {
+                handleEcho(classified.echo(), message);
+                return;
+            }
+            default -> {
+            }
         }
 
         try {
-            OneBotEvent event = OneBotEventParser.parse(message);
-            
+            OneBotFrame frame = OneBotFrameDecoder.decode(message);
+            if (frame.isEcho()) {
+                if (echoHandler.complete(frame.echo(), frame.response())) {
+                    log.debug("收到 echo 消息: {}", message);
+                } else {
+                    log.debug("收到无等待请求的 echo 消息: {}", message);
+                }
+                return;
+            }
+
+            OneBotEvent event = frame.event();
+            if (event == null) {
+                log.debug("忽略无法识别的消息: {}", message);
+                return;
+            }
+
             if (event instanceof OneBotHeartbeatEvent heartbeat) {
                 sessionManager.updateHeartbeat(session, heartbeat.getInterval());
                 return;
@@ -67,6 +91,25 @@ public class OneBotMessageHandler implements WebSocketProtocolAdapter {
         }
     }
 
+    /**
+     * 处理 API 响应：仅在存在等待中的请求时才解析响应内容
+     */
+    private void handleEcho(String echo, String message) {
+        if (!echoHandler.isPending(echo)) {
+            log.debug("收到无等待请求的 echo 消息: {}", message);
+            return;
+        }
+        try {
+            OneBotApiResponse response = OneBotFrameDecoder.decodeResponse(message);
+            if (echoHandler.complete(echo, response)) {
+                log.debug("收到 echo 消息: {}", message);
+            }
+        } catch (Exception e) {
+            echoHandler.completeExceptionally(echo, e);
+            log.error("解析 echo 响应失败: {}", message, e);
+        }
+    }
+
     @Override
     public void onConnect(ConnectionSession session) {
         log.info("OneBot 连接建立: {}", session.getRemoteAddress());
@@ -77,5 +120,6 @@ public class OneBotMessageHandler implements WebSocketProtocolAdapter {
     public void onDisconnect(ConnectionSession session) {
         log.info("OneBot 连接断开: selfId={}", session.getSelfId());
         sessionManager.removeSession(session);
+        echoHandler.failSession(session.getSessionId());
     }
 }
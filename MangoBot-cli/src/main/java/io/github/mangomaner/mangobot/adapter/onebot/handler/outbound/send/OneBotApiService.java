@@ -1,5 +1,6 @@
 package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
@@ -7,73 +8,122 @@ import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiRespon
 import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotEchoHandler;
 import io.github.mangomaner.mangobot.adapter.onebot.model.dto.OneBotApiRequest;
 import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.build_sending_message.OneBotSendingMessage;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
 import io.github.mangomaner.mangobot.adapter.onebot.model.vo.*;
 import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageParser;
 import io.github.mangomaner.mangobot.infra.websocket.ConnectionSessionManager;
 import io.github.mangomaner.mangobot.infra.websocket.model.ConnectionSession;
-import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.module.message.journal.MessageWriteJournal;
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
 import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
-import io.github.mangomaner.mangobot.module.message.privateMessage.service.PrivateMessagesService;
+import io.github.mangomaner.mangobot.module.message.segment.MessageSegmentStorage;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.java_websocket.WebSocket;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * OneBot API 调用
+ * <p>
+ * 每个 API 同时提供同步方法和以 {@code Async} 结尾的异步方法。异步方法发送请求后立即返回 CompletableFuture，
+ * 等待响应期间不占用线程，超时由 {@link OneBotEchoHandler} 的清理线程统一触发，适合并发发起大量调用；
+ * 已发出的请求在虚拟线程上完成（包括超时），后续回调中可以继续调用同步 API。
+ * 同步方法等待异步结果，失败或超时时记录日志并返回 null（与原有行为一致）。
+ * <p>
+ * 除查询类 API 外，请求先进入 {@link OutboundScheduler} 按速率和优先级排队，再写入 WebSocket。
+ * 登录信息、群列表、群成员、陌生人信息等查询结果由 {@link OneBotMetadataCache} 缓存，返回的列表不可修改。
+ */
 @Service
 @Slf4j
 public class OneBotApiService {
 
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * get_forward_msg 响应中 messages 字段的结构
+     */
+    private static final TypeReference<List<Map<String, Object>>> FORWARD_NODES = new TypeReference<>() {};
+
+    /**
+     * 响应解析与后续回调在虚拟线程上执行，避免占用 WebSocket 接收线程（回调中的同步调用会等待同一线程投递的响应）
+     */
+    private final ExecutorService callbackExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("OneBot-Api-Callback-", 0).factory());
+
     private final ConnectionSessionManager sessionManager;
     private final ObjectMapper objectMapper;
     private final OneBotEchoHandler oneBotEchoHandler;
-    private final GroupMessagesService groupMessagesService;
-    private final PrivateMessagesService privateMessagesService;
+    private final MessageWriteJournal messageWriteJournal;
     private final OneBotMessageParser messageParser;
+    private final MessageSegmentStorage messageSegmentStorage;
+    private final OneBotMetadataCache metadataCache;
+
+    private final OutboundScheduler outboundScheduler = new OutboundScheduler(this::sendNow);
 
     public OneBotApiService(
             ConnectionSessionManager sessionManager,
             ObjectMapper objectMapper,
             OneBotEchoHandler oneBotEchoHandler,
-            GroupMessagesService groupMessagesService,
-            PrivateMessagesService privateMessagesService,
-            OneBotMessageParser messageParser) {
+            MessageWriteJournal messageWriteJournal,
+            OneBotMessageParser messageParser,
+            MessageSegmentStorage messageSegmentStorage,
+            OneBotMetadataCache metadataCache) {
         this.sessionManager = sessionManager;
         this.objectMapper = objectMapper;
         this.oneBotEchoHandler = oneBotEchoHandler;
-        this.groupMessagesService = groupMessagesService;
-        this.privateMessagesService = privateMessagesService;
+        this.messageWriteJournal = messageWriteJournal;
         this.messageParser = messageParser;
+        this.messageSegmentStorage = messageSegmentStorage;
+        this.metadataCache = metadataCache;
     }
 
     public MessageId sendPrivateMsg(long botId, long userId, OneBotSendingMessage message) {
+        return await(sendPrivateMsgAsync(botId, userId, message));
+    }
+
+    public CompletableFuture<MessageId> sendPrivateMsgAsync(long botId, long userId, OneBotSendingMessage message) {
         Map<String, Object> params = new HashMap<>();
         params.put("user_id", userId);
         params.put("message", message.getMessage());
 
-        MessageId result = callApi(botId, "send_private_msg", params, MessageId.class);
-        
-        savePrivateMessage(botId, userId, message, result);
-        
-        return result;
+        return outboundScheduler.submit(botId, "send_private_msg", params, OutboundPriority.MESSAGE, message.getMessage())
+                .thenApply(receipt -> {
+                    MessageId result = convert(receipt.data(), MessageId.class);
+                    savePrivateMessage(botId, userId, receipt.message(), result);
+                    return result;
+                });
     }
 
     public MessageId sendGroupMsg(long botId, long groupId, OneBotSendingMessage message) {
+        return await(sendGroupMsgAsync(botId, groupId, message));
+    }
+
+    public CompletableFuture<MessageId> sendGroupMsgAsync(long botId, long groupId, OneBotSendingMessage message) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("message", message.getMessage());
-        
-        MessageId result = callApi(botId, "send_group_msg", params, MessageId.class);
-        
-        saveGroupMessage(botId, groupId, message, result);
-        
-        return result;
+
+        return outboundScheduler.submit(botId, "send_group_msg", params, OutboundPriority.MESSAGE, message.getMessage())
+                .thenApply(receipt -> {
+                    MessageId result = convert(receipt.data(), MessageId.class);
+                    // 合并发送时，合并后的完整内容由实际发出的请求保存一次
+                    if (receipt.primary()) {
+                        saveGroupMessage(botId, groupId, receipt.message(), result);
+                    }
+                    return result;
+                });
     }
 
-    private void savePrivateMessage(long botId, long userId, OneBotSendingMessage message, MessageId result) {
-        if (result == null || privateMessagesService == null || messageParser == null) {
+    private void savePrivateMessage(long botId, long userId, List<OneBotMessageSegment> message, MessageId result) {
+        if (result == null || messageWriteJournal == null || messageParser == null) {
             return;
         }
         try {
@@ -82,17 +132,17 @@ public class OneBotApiService {
             privateMessages.setFriendId(String.valueOf(userId));
             privateMessages.setMessageId(String.valueOf(result.getMessageId()));
             privateMessages.setSenderId(String.valueOf(botId));
-            privateMessages.setMessageSegments(objectMapper.writeValueAsString(message.getMessage()));
+            messageSegmentStorage.write(privateMessages, message);
             privateMessages.setMessageTime(System.currentTimeMillis());
-            privateMessages.setParseMessage(messageParser.parseMessage(message.getMessage(), botId));
-            privateMessagesService.save(privateMessages);
+            privateMessages.setParseMessage(messageParser.parseMessage(message, botId));
+            messageWriteJournal.appendPrivate(privateMessages);
         } catch (Exception e) {
             log.error("Failed to save private message", e);
         }
     }
 
-    private void saveGroupMessage(long botId, long groupId, OneBotSendingMessage message, MessageId result) {
-        if (result == null || groupMessagesService == null || messageParser == null) {
+    private void saveGroupMessage(long botId, long groupId, List<OneBotMessageSegment> message, MessageId result) {
+        if (result == null || messageWriteJournal == null || messageParser == null) {
             return;
         }
         try {
@@ -101,76 +151,120 @@ public class OneBotApiService {
             groupMessages.setGroupId(String.valueOf(groupId));
             groupMessages.setMessageId(String.valueOf(result.getMessageId()));
             groupMessages.setSenderId(String.valueOf(botId));
-            groupMessages.setMessageSegments(objectMapper.writeValueAsString(message.getMessage()));
+            messageSegmentStorage.write(groupMessages, message);
             groupMessages.setMessageTime(System.currentTimeMillis());
-            groupMessages.setParseMessage(messageParser.parseMessage(message.getMessage(), botId));
-            groupMessagesService.addGroupMessage(groupMessages);
+            groupMessages.setParseMessage(messageParser.parseMessage(message, botId));
+            messageWriteJournal.appendGroup(groupMessages);
         } catch (Exception e) {
             log.error("Failed to save group message", e);
         }
     }
 
     public Void sendGroupPoke(long botId, long groupId, long userId) {
+        return await(sendGroupPokeAsync(botId, groupId, userId));
+    }
+
+    public CompletableFuture<Void> sendGroupPokeAsync(long botId, long groupId, long userId) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
-        return callApi(botId, "group_poke", params, Void.class);
+        return callApiAsync(botId, "group_poke", params, Void.class);
     }
 
     public Void sendPrivatePoke(long botId, long userId) {
+        return await(sendPrivatePokeAsync(botId, userId));
+    }
+
+    public CompletableFuture<Void> sendPrivatePokeAsync(long botId, long userId) {
         Map<String, Object> params = new HashMap<>();
         params.put("user_id", userId);
-        return callApi(botId, "friend_poke", params, Void.class);
+        return callApiAsync(botId, "friend_poke", params, Void.class);
     }
 
     public void deleteMsg(long botId, int messageId) {
+        await(deleteMsgAsync(botId, messageId));
+    }
+
+    public CompletableFuture<Void> deleteMsgAsync(long botId, int messageId) {
         Map<String, Object> params = new HashMap<>();
         params.put("message_id", messageId);
-        callApiVoid(botId, "delete_msg", params);
+        return callApiVoidAsync(botId, "delete_msg", params);
     }
 
     public MessageId sendGroupForwardMsg(long botId, long groupId, Object messages) {
+        return await(sendGroupForwardMsgAsync(botId, groupId, messages));
+    }
+
+    public CompletableFuture<MessageId> sendGroupForwardMsgAsync(long botId, long groupId, Object messages) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("messages", messages);
-        return callApi(botId, "send_group_forward_msg", params, MessageId.class);
+        return callApiAsync(botId, "send_group_forward_msg", params, MessageId.class);
     }
 
     public MessageId sendPrivateForwardMsg(long botId, long userId, Object messages) {
+        return await(sendPrivateForwardMsgAsync(botId, userId, messages));
+    }
+
+    public CompletableFuture<MessageId> sendPrivateForwardMsgAsync(long botId, long userId, Object messages) {
         Map<String, Object> params = new HashMap<>();
         params.put("user_id", userId);
         params.put("messages", messages);
-        return callApi(botId, "send_private_forward_msg", params, MessageId.class);
+        return callApiAsync(botId, "send_private_forward_msg", params, MessageId.class);
     }
 
     public GroupInfo getGroupInfo(long botId, long groupId, boolean noCache) {
+        return await(getGroupInfoAsync(botId, groupId, noCache));
+    }
+
+    public CompletableFuture<GroupInfo> getGroupInfoAsync(long botId, long groupId, boolean noCache) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("no_cache", noCache);
-        return callApi(botId, "get_group_info", params, GroupInfo.class);
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.GROUP_INFO, groupId, 0, noCache,
+                () -> callApiAsync(botId, "get_group_info", params, GroupInfo.class));
     }
 
     @Deprecated
     public MessageId sendMsg(long botId, String messageType, Long userId, Long groupId, Object message) {
+        return await(sendMsgAsync(botId, messageType, userId, groupId, message));
+    }
+
+    @Deprecated
+    public CompletableFuture<MessageId> sendMsgAsync(long botId, String messageType, Long userId, Long groupId, Object message) {
         Map<String, Object> params = new HashMap<>();
         params.put("message_type", messageType);
         if (userId != null) params.put("user_id", userId);
         if (groupId != null) params.put("group_id", groupId);
         params.put("message", message);
-        return callApi(botId, "send_msg", params, MessageId.class);
+        return callApiAsync(botId, "send_msg", params, MessageId.class);
     }
 
     public MessageInfo getMsg(long botId, int messageId) {
+        return await(getMsgAsync(botId, messageId));
+    }
+
+    public CompletableFuture<MessageInfo> getMsgAsync(long botId, int messageId) {
         Map<String, Object> params = new HashMap<>();
         params.put("message_id", messageId);
-        return callApi(botId, "get_msg", params, MessageInfo.class);
+        return callApiAsync(botId, "get_msg", params, MessageInfo.class);
     }
 
     public List<OneBotGroupMessageEvent> getForwardMsg(long botId, String id) {
+        return await(getForwardMsgAsync(botId, id));
+    }
+
+    public CompletableFuture<List<OneBotGroupMessageEvent>> getForwardMsgAsync(long botId, String id) {
         Map<String, Object> params = new HashMap<>();
         params.put("id", id);
-        Map<String, Object> apiResult = callApi(botId, "get_forward_msg", params, Map.class);
-        List<Map<String, Object>> result = (List<Map<String, Object>>) apiResult.get("messages");
+        return callApiRawAsync(botId, "get_forward_msg", params).thenApply(this::parseForwardMessages);
+    }
+
+    private List<OneBotGroupMessageEvent> parseForwardMessages(Object data) {
+        if (!(data instanceof Map<?, ?> apiResult) || apiResult.get("messages") == null) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> result = objectMapper.convertValue(apiResult.get("messages"), FORWARD_NODES);
 
         List<OneBotGroupMessageEvent> resultList = new ArrayList<>();
         for (Map<String, Object> item : result) {
@@ -189,196 +283,332 @@ public class OneBotApiService {
     }
 
     public void sendLike(long botId, long userId, int times) {
+        await(sendLikeAsync(botId, userId, times));
+    }
+
+    public CompletableFuture<Void> sendLikeAsync(long botId, long userId, int times) {
         Map<String, Object> params = new HashMap<>();
         params.put("user_id", userId);
         params.put("times", times);
-        callApiVoid(botId, "send_like", params);
+        return callApiVoidAsync(botId, "send_like", params);
     }
 
     public void setGroupKick(long botId, long groupId, long userId, boolean rejectAddRequest) {
+        await(setGroupKickAsync(botId, groupId, userId, rejectAddRequest));
+    }
+
+    public CompletableFuture<Void> setGroupKickAsync(long botId, long groupId, long userId, boolean rejectAddRequest) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("reject_add_request", rejectAddRequest);
-        callApiVoid(botId, "set_group_kick", params);
+        return callApiVoidAsync(botId, "set_group_kick", params)
+                .thenRun(() -> metadataCache.invalidateMembers(botId, groupId, userId));
     }
 
     public void setGroupBan(long botId, long groupId, long userId, long duration) {
+        await(setGroupBanAsync(botId, groupId, userId, duration));
+    }
+
+    public CompletableFuture<Void> setGroupBanAsync(long botId, long groupId, long userId, long duration) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("duration", duration);
-        callApiVoid(botId, "set_group_ban", params);
+        return callApiVoidAsync(botId, "set_group_ban", params)
+                .thenRun(() -> metadataCache.invalidateMembers(botId, groupId, userId));
     }
 
     public void setGroupWholeBan(long botId, long groupId, boolean enable) {
+        await(setGroupWholeBanAsync(botId, groupId, enable));
+    }
+
+    public CompletableFuture<Void> setGroupWholeBanAsync(long botId, long groupId, boolean enable) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("enable", enable);
-        callApiVoid(botId, "set_group_whole_ban", params);
+        return callApiVoidAsync(botId, "set_group_whole_ban", params);
     }
 
     public void setGroupAdmin(long botId, long groupId, long userId, boolean enable) {
+        await(setGroupAdminAsync(botId, groupId, userId, enable));
+    }
+
+    public CompletableFuture<Void> setGroupAdminAsync(long botId, long groupId, long userId, boolean enable) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("enable", enable);
-        callApiVoid(botId, "set_group_admin", params);
+        return callApiVoidAsync(botId, "set_group_admin", params)
+                .thenRun(() -> metadataCache.invalidateMembers(botId, groupId, userId));
     }
 
     public void setGroupAnonymous(long botId, long groupId, boolean enable) {
+        await(setGroupAnonymousAsync(botId, groupId, enable));
+    }
+
+    public CompletableFuture<Void> setGroupAnonymousAsync(long botId, long groupId, boolean enable) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("enable", enable);
-        callApiVoid(botId, "set_group_anonymous", params);
+        return callApiVoidAsync(botId, "set_group_anonymous", params);
     }
 
     public void setGroupCard(long botId, long groupId, long userId, String card) {
+        await(setGroupCardAsync(botId, groupId, userId, card));
+    }
+
+    public CompletableFuture<Void> setGroupCardAsync(long botId, long groupId, long userId, String card) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("card", card);
-        callApiVoid(botId, "set_group_card", params);
+        return callApiVoidAsync(botId, "set_group_card", params)
+                .thenRun(() -> metadataCache.invalidateMembers(botId, groupId, userId));
     }
 
     public void setGroupName(long botId, long groupId, String groupName) {
+        await(setGroupNameAsync(botId, groupId, groupName));
+    }
+
+    public CompletableFuture<Void> setGroupNameAsync(long botId, long groupId, String groupName) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("group_name", groupName);
-        callApiVoid(botId, "set_group_name", params);
+        return callApiVoidAsync(botId, "set_group_name", params)
+                .thenRun(() -> metadataCache.invalidateGroup(botId, groupId));
     }
 
     public void setGroupLeave(long botId, long groupId, boolean isDismiss) {
+        await(setGroupLeaveAsync(botId, groupId, isDismiss));
+    }
+
+    public CompletableFuture<Void> setGroupLeaveAsync(long botId, long groupId, boolean isDismiss) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("is_dismiss", isDismiss);
-        callApiVoid(botId, "set_group_leave", params);
+        return callApiVoidAsync(botId, "set_group_leave", params)
+                .thenRun(() -> metadataCache.invalidateGroup(botId, groupId));
     }
 
     public void setGroupSpecialTitle(long botId, long groupId, long userId, String specialTitle, long duration) {
+        await(setGroupSpecialTitleAsync(botId, groupId, userId, specialTitle, duration));
+    }
+
+    public CompletableFuture<Void> setGroupSpecialTitleAsync(long botId, long groupId, long userId, String specialTitle, long duration) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("special_title", specialTitle);
         params.put("duration", duration);
-        callApiVoid(botId, "set_group_special_title", params);
+        return callApiVoidAsync(botId, "set_group_special_title", params)
+                .thenRun(() -> metadataCache.invalidateMembers(botId, groupId, userId));
     }
 
     public void setFriendAddRequest(long botId, String flag, boolean approve, String remark) {
+        await(setFriendAddRequestAsync(botId, flag, approve, remark));
+    }
+
+    public CompletableFuture<Void> setFriendAddRequestAsync(long botId, String flag, boolean approve, String remark) {
         Map<String, Object> params = new HashMap<>();
         params.put("flag", flag);
         params.put("approve", approve);
         params.put("remark", remark);
-        callApiVoid(botId, "set_friend_add_request", params);
+        return callApiVoidAsync(botId, "set_friend_add_request", params);
     }
 
     public void setGroupAddRequest(long botId, String flag, String subType, boolean approve, String reason) {
+        await(setGroupAddRequestAsync(botId, flag, subType, approve, reason));
+    }
+
+    public CompletableFuture<Void> setGroupAddRequestAsync(long botId, String flag, String subType, boolean approve, String reason) {
         Map<String, Object> params = new HashMap<>();
         params.put("flag", flag);
         params.put("sub_type", subType);
         params.put("approve", approve);
         params.put("reason", reason);
-        callApiVoid(botId, "set_group_add_request", params);
+        return callApiVoidAsync(botId, "set_group_add_request", params);
     }
 
     public LoginInfo getLoginInfo(long botId) {
-        return callApi(botId, "get_login_info", new HashMap<>(), LoginInfo.class);
+        return await(getLoginInfoAsync(botId));
+    }
+
+    public CompletableFuture<LoginInfo> getLoginInfoAsync(long botId) {
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.LOGIN_INFO, 0, 0, false,
+                () -> callApiAsync(botId, "get_login_info", new HashMap<>(), LoginInfo.class));
     }
 
     public StrangerInfo getStrangerInfo(long botId, long userId, boolean noCache) {
+        return await(getStrangerInfoAsync(botId, userId, noCache));
+    }
+
+    public CompletableFuture<StrangerInfo> getStrangerInfoAsync(long botId, long userId, boolean noCache) {
         Map<String, Object> params = new HashMap<>();
         params.put("user_id", userId);
         params.put("no_cache", noCache);
-        return callApi(botId, "get_stranger_info", params, StrangerInfo.class);
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.STRANGER_INFO, 0, userId, noCache,
+                () -> callApiAsync(botId, "get_stranger_info", params, StrangerInfo.class));
     }
 
     public List<FriendInfo> getFriendList(long botId) {
-        return callApiList(botId, "get_friend_list", new HashMap<>(), FriendInfo.class);
+        return await(getFriendListAsync(botId));
+    }
+
+    public CompletableFuture<List<FriendInfo>> getFriendListAsync(long botId) {
+        return callApiListAsync(botId, "get_friend_list", new HashMap<>(), FriendInfo.class);
     }
 
     public List<GroupInfo> getGroupList(long botId) {
-        return callApiList(botId, "get_group_list", new HashMap<>(), GroupInfo.class);
+        return await(getGroupListAsync(botId));
+    }
+
+    public CompletableFuture<List<GroupInfo>> getGroupListAsync(long botId) {
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.GROUP_LIST, 0, 0, false,
+                () -> callApiListAsync(botId, "get_group_list", new HashMap<>(), GroupInfo.class)
+                        .thenApply(Collections::unmodifiableList));
     }
 
     public GroupMemberInfo getGroupMemberInfo(long botId, long groupId, long userId, boolean noCache) {
+        return await(getGroupMemberInfoAsync(botId, groupId, userId, noCache));
+    }
+
+    public CompletableFuture<GroupMemberInfo> getGroupMemberInfoAsync(long botId, long groupId, long userId, boolean noCache) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("user_id", userId);
         params.put("no_cache", noCache);
-        return callApi(botId, "get_group_member_info", params, GroupMemberInfo.class);
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.GROUP_MEMBER_INFO, groupId, userId, noCache,
+                () -> callApiAsync(botId, "get_group_member_info", params, GroupMemberInfo.class));
     }
 
     public List<GroupMemberInfo> getGroupMemberList(long botId, long groupId) {
+        return await(getGroupMemberListAsync(botId, groupId));
+    }
+
+    public CompletableFuture<List<GroupMemberInfo>> getGroupMemberListAsync(long botId, long groupId) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
-        return callApiList(botId, "get_group_member_list", params, GroupMemberInfo.class);
+        return metadataCache.get(botId, OneBotMetadataCache.Kind.GROUP_MEMBER_LIST, groupId, 0, false,
+                () -> callApiListAsync(botId, "get_group_member_list", params, GroupMemberInfo.class)
+                        .thenApply(Collections::unmodifiableList));
     }
 
     public GroupHonorInfo getGroupHonorInfo(long botId, long groupId, String type) {
+        return await(getGroupHonorInfoAsync(botId, groupId, type));
+    }
+
+    public CompletableFuture<GroupHonorInfo> getGroupHonorInfoAsync(long botId, long groupId, String type) {
         Map<String, Object> params = new HashMap<>();
         params.put("group_id", groupId);
         params.put("type", type);
-        return callApi(botId, "get_group_honor_info", params, GroupHonorInfo.class);
+        return callApiAsync(botId, "get_group_honor_info", params, GroupHonorInfo.class);
     }
 
     public FileInfo getRecord(long botId, String file, String outFormat) {
+        return await(getRecordAsync(botId, file, outFormat));
+    }
+
+    public CompletableFuture<FileInfo> getRecordAsync(long botId, String file, String outFormat) {
         Map<String, Object> params = new HashMap<>();
         params.put("file", file);
         params.put("out_format", outFormat);
-        return callApi(botId, "get_record", params, FileInfo.class);
+        return callApiAsync(botId, "get_record", params, FileInfo.class);
     }
 
     public FileInfo getImage(long botId, String file) {
+        return await(getImageAsync(botId, file));
+    }
+
+    public CompletableFuture<FileInfo> getImageAsync(long botId, String file) {
         Map<String, Object> params = new HashMap<>();
         params.put("file", file);
-        return callApi(botId, "get_image", params, FileInfo.class);
+        return callApiAsync(botId, "get_image", params, FileInfo.class);
     }
 
     public CanSendInfo canSendImage(long botId) {
-        return callApi(botId, "can_send_image", new HashMap<>(), CanSendInfo.class);
+        return await(canSendImageAsync(botId));
+    }
+
+    public CompletableFuture<CanSendInfo> canSendImageAsync(long botId) {
+        return callApiAsync(botId, "can_send_image", new HashMap<>(), CanSendInfo.class);
     }
 
     public CanSendInfo canSendRecord(long botId) {
-        return callApi(botId, "can_send_record", new HashMap<>(), CanSendInfo.class);
+        return await(canSendRecordAsync(botId));
+    }
+
+    public CompletableFuture<CanSendInfo> canSendRecordAsync(long botId) {
+        return callApiAsync(botId, "can_send_record", new HashMap<>(), CanSendInfo.class);
     }
 
     public void callApiVoid(long botId, String action, Map<String, Object> params) {
-        callApi(botId, action, params, Void.class);
+        await(callApiVoidAsync(botId, action, params));
     }
 
     public <T> List<T> callApiList(long botId, String action, Map<String, Object> params, Class<T> elementType) {
-        Object data = callApiRaw(botId, action, params);
-        if (data == null) {
-            return Collections.emptyList();
-        }
-        CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
-        return objectMapper.convertValue(data, listType);
+        return await(callApiListAsync(botId, action, params, elementType));
     }
 
     public <T> T callApi(long botId, String action, Map<String, Object> params, Class<T> responseType) {
-        Object data = callApiRaw(botId, action, params);
-        if (data == null) {
-            return null;
+        return await(callApiAsync(botId, action, params, responseType));
+    }
+
+    public CompletableFuture<Void> callApiVoidAsync(long botId, String action, Map<String, Object> params) {
+        return callApiAsync(botId, action, params, Void.class);
+    }
+
+    public <T> CompletableFuture<List<T>> callApiListAsync(long botId, String action, Map<String, Object> params, Class<T> elementType) {
+        CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        return callApiRawAsync(botId, action, params)
+                .thenApply(data -> data == null ? Collections.<T>emptyList() : objectMapper.convertValue(data, listType));
+    }
+
+    public <T> CompletableFuture<T> callApiAsync(long botId, String action, Map<String, Object> params, Class<T> responseType) {
+        return callApiRawAsync(botId, action, params).thenApply(data -> convert(data, responseType));
+    }
+
+    private <T> T convert(Object data, Class<T> responseType) {
+        return data == null ? null : objectMapper.convertValue(data, responseType);
+    }
+
+    /**
+     * 发送请求并返回响应的 data 字段，机器人未连接、发送失败或超时时以异常完成
+     */
+    public CompletableFuture<Object> callApiRawAsync(long botId, String action, Map<String, Object> params) {
+        OutboundPriority priority = OutboundPriority.of(action);
+        if (priority == null) {
+            return sendNow(botId, action, params);
         }
-        return objectMapper.convertValue(data, responseType);
+        return outboundScheduler.submit(botId, action, params, priority, null).thenApply(OutboundReceipt::data);
     }
 
-    private Object callApiRaw(long botId, String action, Map<String, Object> params) {
+    /**
+     * 获取各 Bot 的发送调度统计
+     */
+    public List<OutboundStatsVO> getOutboundStats() {
+        return outboundScheduler.getStats();
+    }
+
+    /**
+     * 立即写入 WebSocket，不经发送调度
+     */
+    private CompletableFuture<Object> sendNow(long botId, String action, Map<String, Object> params) {
         ConnectionSession session = sessionManager.getSessionBySelfId(botId);
         if (session == null || !session.isConnected()) {
             log.error("机器人 {} 未连接或会话不存在，无法发送 API 请求: {}", botId, action);
-            return null;
+            return CompletableFuture.failedFuture(new IllegalStateException("机器人 " + botId + " 未连接"));
         }
 
-        String echo = UUID.randomUUID().toString();
+        String echo = oneBotEchoHandler.nextEcho();
         OneBotApiRequest request = new OneBotApiRequest();
         request.setAction(action);
         request.setParams(params);
         request.setEcho(echo);
 
+        CompletableFuture<OneBotApiResponse> response =
+                oneBotEchoHandler.register(echo, session.getSessionId(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
         try {
-            oneBotEchoHandler.register(echo);
-            
             String json = objectMapper.writeValueAsString(request);
             log.debug("发送 API 请求 [{}]: {}", action, json);
 
@@ -386,18 +616,39 @@ public class OneBotApiService {
             synchronized (connection) {
                 connection.send(json);
             }
-            
-            OneBotApiResponse response = oneBotEchoHandler.waitForResponse(echo, 60, TimeUnit.SECONDS);
-            
-            if (response.getRetcode() != 0) {
-                log.warn("API 调用返回非零状态: {} - {}", response.getRetcode(), response.getMessage());
-            }
-            
-            return response.getData();
-            
         } catch (Exception e) {
+            oneBotEchoHandler.cancel(echo);
             log.error("发送 API 请求失败: {}", action, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return response.handleAsync((result, e) -> {
+            if (e != null) {
+                log.error("发送 API 请求失败: {}", action, e);
+                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+            }
+            if (result.getRetcode() != 0) {
+                log.warn("API 调用返回非零状态: {} - {}", result.getRetcode(), result.getMessage());
+            }
+            return result.getData();
+        }, callbackExecutor);
+    }
+
+    /**
+     * 同步等待异步调用的结果，失败时返回 null（失败原因已在 {@link #sendNow} 中记录）
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            log.debug("API 调用未返回结果: {}", e.getMessage());
             return null;
         }
     }
+
+    @PreDestroy
+    public void shutdown() {
+        outboundScheduler.shutdown();
+        callbackExecutor.shutdownNow();
+    }
 }
@@ -0,0 +1,141 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
+import io.github.mangomaner.mangobot.events.onebot.notice.OneBotGroupBanEvent;
+import io.github.mangomaner.mangobot.events.onebot.notice.OneBotGroupDecreaseEvent;
+import io.github.mangomaner.mangobot.events.onebot.notice.OneBotGroupIncreaseEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * OneBot 元数据缓存
+ * <p>
+ * 缓存登录信息、群列表、群信息、群成员、陌生人信息等查询结果，按类型设置过期时间。
+ * 同一 key 同时只有一个请求在途，并发调用方共用同一次往返；请求失败或返回空时不缓存。
+ * 调用方传入 noCache 时跳过缓存直接请求，并以新结果替换缓存。
+ * <p>
+ * 群成员变动、禁言通知到达时，失效对应的群成员、群信息；Bot 自身入群 / 退群时失效群列表。
+ */
+@Component
+@MangoBotEventListener
+public class OneBotMetadataCache {
+
+    private static final long MAXIMUM_SIZE = 20_000;
+
+    public enum Kind {
+        LOGIN_INFO(Duration.ofMinutes(30)),
+        GROUP_LIST(Duration.ofMinutes(5)),
+        GROUP_INFO(Duration.ofMinutes(5)),
+        GROUP_MEMBER_LIST(Duration.ofMinutes(2)),
+        GROUP_MEMBER_INFO(Duration.ofMinutes(2)),
+        STRANGER_INFO(Duration.ofMinutes(10));
+
+        final long ttlNanos;
+
+        Kind(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+    }
+
+    /**
+     * @param groupId 不涉及群时为 0
+     * @param userId  不涉及用户时为 0
+     */
+    private record Key(long botId, Kind kind, long groupId, long userId) {}
+
+    private final AsyncCache<Key, Object> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(new Expiry<Key, Object>() {
+                @Override
+                public long expireAfterCreate(Key key, Object value, long currentTime) {
+                    return key.kind().ttlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+                    return key.kind().ttlNanos;
+                }
+
+                @Override
+                public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .buildAsync();
+
+    /**
+     * 读取缓存，未命中时调用 loader 请求协议端
+     *
+     * @param noCache 为 true 时跳过缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> get(long botId, Kind kind, long groupId, long userId, boolean noCache,
+                                        Supplier<CompletableFuture<V>> loader) {
+        Key key = new Key(botId, kind, groupId, userId);
+        if (noCache) {
+            CompletableFuture<V> fresh = loader.get();
+            cache.put(key, (CompletableFuture<Object>) fresh);
+            return fresh;
+        }
+        return (CompletableFuture<V>) cache.get(key, (k, executor) -> (CompletableFuture<Object>) loader.get());
+    }
+
+    public void invalidate(long botId, Kind kind, long groupId, long userId) {
+        cache.synchronous().invalidate(new Key(botId, kind, groupId, userId));
+    }
+
+    /**
+     * 失效群成员及群信息（成员数）
+     */
+    public void invalidateMembers(long botId, long groupId, long userId) {
+        invalidate(botId, Kind.GROUP_MEMBER_LIST, groupId, 0);
+        invalidate(botId, Kind.GROUP_INFO, groupId, 0);
+        if (userId == 0) {
+            cache.synchronous().asMap().keySet().removeIf(key -> key.botId() == botId
+                    && key.kind() == Kind.GROUP_MEMBER_INFO && key.groupId() == groupId);
+        } else {
+            invalidate(botId, Kind.GROUP_MEMBER_INFO, groupId, userId);
+        }
+    }
+
+    /**
+     * 失效 Bot 的群列表与指定群的全部信息
+     */
+    public void invalidateGroup(long botId, long groupId) {
+        invalidate(botId, Kind.GROUP_LIST, 0, 0);
+        invalidateMembers(botId, groupId, 0);
+    }
+
+    @MangoBotEventListener
+    public boolean onGroupIncrease(OneBotGroupIncreaseEvent event) {
+        if (event.getUserId() == event.getSelfId()) {
+            invalidateGroup(event.getSelfId(), event.getGroupId());
+        } else {
+            invalidateMembers(event.getSelfId(), event.getGroupId(), event.getUserId());
+        }
+        return true;
+    }
+
+    @MangoBotEventListener
+    public boolean onGroupDecrease(OneBotGroupDecreaseEvent event) {
+        if (event.getUserId() == event.getSelfId() || "kick_me".equals(event.getSubType())) {
+            invalidateGroup(event.getSelfId(), event.getGroupId());
+        } else {
+            invalidateMembers(event.getSelfId(), event.getGroupId(), event.getUserId());
+        }
+        return true;
+    }
+
+    @MangoBotEventListener
+    public boolean onGroupBan(OneBotGroupBanEvent event) {
+        // user_id 为 0 表示全员禁言
+        invalidateMembers(event.getSelfId(), event.getGroupId(), event.getUserId());
+        return true;
+    }
+}
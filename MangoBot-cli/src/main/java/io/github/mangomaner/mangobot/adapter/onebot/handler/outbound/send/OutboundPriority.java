@@ -0,0 +1,37 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
+
+/**
+ * 发送调度优先级，同一 Bot 的待发送请求按优先级、再按提交顺序发出
+ */
+public enum OutboundPriority {
+
+    /**
+     * 消息发送与撤回
+     */
+    MESSAGE,
+
+    /**
+     * 群管理、请求处理等其他写操作
+     */
+    NORMAL,
+
+    /**
+     * 戳一戳、点赞等批量互动
+     */
+    BULK;
+
+    /**
+     * 按 API 名称确定优先级，查询类 API（get_* / can_*）不触发风控，返回 null 表示不经调度直接发送
+     */
+    public static OutboundPriority of(String action) {
+        if (action.startsWith("get_") || action.startsWith("can_")) {
+            return null;
+        }
+        return switch (action) {
+            case "send_msg", "send_group_msg", "send_private_msg",
+                 "send_group_forward_msg", "send_private_forward_msg", "delete_msg" -> MESSAGE;
+            case "group_poke", "friend_poke", "send_like" -> BULK;
+            default -> NORMAL;
+        };
+    }
+}
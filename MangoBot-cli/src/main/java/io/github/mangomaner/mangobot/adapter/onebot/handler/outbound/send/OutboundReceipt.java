@@ -0,0 +1,15 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+
+import java.util.List;
+
+/**
+ * 调度发送的结果
+ *
+ * @param data    响应的 data 字段
+ * @param message 实际发出的消息段，合并发送时为合并后的内容；非消息请求为 null
+ * @param primary 是否为实际发出的请求；被合并进前一条消息的请求为 false，与前一条共用同一个消息 ID
+ */
+public record OutboundReceipt(Object data, List<OneBotMessageSegment> message, boolean primary) {
+}
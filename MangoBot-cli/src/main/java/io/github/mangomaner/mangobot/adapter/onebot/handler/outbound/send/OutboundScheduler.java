@@ -0,0 +1,397 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.TextSegment;
+import io.github.mangomaner.mangobot.api.MangoConfigApi;
+import io.github.mangomaner.mangobot.infra.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 发送调度
+ * <p>
+ * 位于 {@link OneBotApiService} 与 WebSocket 之间，限制每个 Bot 的发送速率，避免突发发送触发 QQ 风控：
+ * <ul>
+ *     <li>每个 Bot 一个令牌桶，另按目标群各一个令牌桶，两者都有令牌时才发送</li>
+ *     <li>待发送请求按 {@link OutboundPriority} 排序，消息优先于群管理，群管理优先于戳一戳、点赞</li>
+ *     <li>开启合并后，纯文本群消息在队列中等待合并窗口，窗口内发往同一群的后续纯文本消息合并为一条（以换行分隔）</li>
+ *     <li>同一群的请求按提交顺序发出：窗口内到达不可合并的请求时立即结束窗口，仍在窗口内的请求之后的同群请求不会先发</li>
+ * </ul>
+ * 每个有请求的 Bot 占用一个虚拟线程按上述规则依次发出；请求发出后不等待响应即处理下一个。
+ * <p>
+ * 相关系统配置（0 表示不限制 / 不合并）。默认不限速也不合并，升级后发送行为不变，由运维按账号情况开启：
+ * <ul>
+ *     <li>{@code onebot.send.bot_rate}：单个 Bot 每分钟发送数，{@code onebot.send.bot_burst}：允许的突发数</li>
+ *     <li>{@code onebot.send.group_rate}：单个群每分钟发送数，{@code onebot.send.group_burst}：允许的突发数</li>
+ *     <li>{@code onebot.send.coalesce_window_ms}：纯文本群消息合并窗口</li>
+ * </ul>
+ */
+@Slf4j
+public class OutboundScheduler {
+
+    public static final String BOT_RATE_KEY = "onebot.send.bot_rate";
+    public static final String BOT_BURST_KEY = "onebot.send.bot_burst";
+    public static final String GROUP_RATE_KEY = "onebot.send.group_rate";
+    public static final String GROUP_BURST_KEY = "onebot.send.group_burst";
+    public static final String COALESCE_WINDOW_KEY = "onebot.send.coalesce_window_ms";
+
+    private static final int DEFAULT_BOT_RATE = 0;
+    private static final int DEFAULT_BOT_BURST = 5;
+    private static final int DEFAULT_GROUP_RATE = 0;
+    private static final int DEFAULT_GROUP_BURST = 3;
+
+    /**
+     * 合并后单条消息的文本长度上限，超过后不再合并
+     */
+    private static final int MAX_COALESCED_LENGTH = 3000;
+
+    /**
+     * 实际发送请求，由 {@link OneBotApiService} 提供
+     */
+    @FunctionalInterface
+    public interface Sender {
+        CompletableFuture<Object> send(long botId, String action, Map<String, Object> params);
+    }
+
+    private final Sender sender;
+
+    /**
+     * 读取系统配置，返回 null 表示未配置
+     */
+    private final Function<String, String> configReader;
+
+    private final Map<Long, BotLane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public OutboundScheduler(Sender sender) {
+        this(sender, MangoConfigApi::getSystemConfigValue);
+    }
+
+    public OutboundScheduler(Sender sender, Function<String, String> configReader) {
+        this.sender = sender;
+        this.configReader = configReader;
+    }
+
+    /**
+     * 提交请求
+     *
+     * @param priority 优先级
+     * @param message  群消息 / 私聊消息的消息段，用于合并；其他请求为 null
+     */
+    public CompletableFuture<OutboundReceipt> submit(long botId, String action, Map<String, Object> params,
+                                                     OutboundPriority priority, List<OneBotMessageSegment> message) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("发送调度已停止"));
+        }
+        Object groupId = params.get("group_id");
+        Request request = new Request(sequence.incrementAndGet(), priority, action, params,
+                groupId instanceof Number number ? number.longValue() : null, message);
+        lanes.computeIfAbsent(botId, BotLane::new).enqueue(request);
+        return request.future;
+    }
+
+    /**
+     * 获取各 Bot 的发送调度统计
+     */
+    public List<OutboundStatsVO> getStats() {
+        List<OutboundStatsVO> result = new ArrayList<>();
+        for (BotLane lane : lanes.values()) {
+            result.add(lane.stats());
+        }
+        result.sort(Comparator.comparingLong(OutboundStatsVO::getBotId));
+        return result;
+    }
+
+    public void shutdown() {
+        running = false;
+        for (BotLane lane : lanes.values()) {
+            lane.shutdown();
+        }
+    }
+
+    private static final class Request {
+        final long seq;
+        final OutboundPriority priority;
+        final String action;
+        final Map<String, Object> params;
+        final Long groupId;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<OutboundReceipt> future = new CompletableFuture<>();
+
+        /**
+         * 可合并的纯文本群消息才有值，合并时追加
+         */
+        List<OneBotMessageSegment> message;
+
+        /**
+         * 被合并进本请求的后续请求
+         */
+        final List<Request> merged = new ArrayList<>();
+
+        /**
+         * 合并窗口结束前不发送
+         */
+        long readyAt;
+
+        Request(long seq, OutboundPriority priority, String action, Map<String, Object> params, Long groupId,
+                List<OneBotMessageSegment> message) {
+            this.seq = seq;
+            this.priority = priority;
+            this.action = action;
+            this.params = params;
+            this.groupId = groupId;
+            this.message = message;
+            this.readyAt = enqueuedAt;
+        }
+
+        boolean coalescable() {
+            return "send_group_msg".equals(action) && groupId != null && message != null && !message.isEmpty()
+                    && message.stream().allMatch(segment -> segment instanceof TextSegment);
+        }
+
+        int textLength() {
+            int length = 0;
+            for (OneBotMessageSegment segment : message) {
+                String text = ((TextSegment) segment).getText();
+                length += text == null ? 0 : text.length();
+            }
+            return length;
+        }
+    }
+
+    private final class BotLane {
+        final long botId;
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition changed = lock.newCondition();
+        final TreeSet<Request> queue = new TreeSet<>(
+                Comparator.<Request>comparingInt(request -> request.priority.ordinal()).thenComparingLong(request -> request.seq));
+        final TokenBucket botBucket;
+        final Map<Long, TokenBucket> groupBuckets = new HashMap<>();
+
+        /**
+         * 各群最后一个仍在排队、可继续合并的纯文本消息
+         */
+        final Map<Long, Request> coalescing = new HashMap<>();
+
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong maxQueueMillis = new AtomicLong();
+        volatile long lastQueueMillis;
+        volatile long lastRoundTripMillis;
+
+        final Thread thread;
+
+        BotLane(long botId) {
+            this.botId = botId;
+            this.botBucket = new TokenBucket(DEFAULT_BOT_RATE, DEFAULT_BOT_BURST, System.nanoTime());
+            this.thread = Thread.ofVirtual().name("OneBot-Outbound-" + botId).start(this::run);
+        }
+
+        void enqueue(Request request) {
+            long window = TimeUnit.MILLISECONDS.toNanos(readInt(COALESCE_WINDOW_KEY, 0));
+            boolean coalescable = window > 0 && request.coalescable();
+            lock.lock();
+            try {
+                if (request.groupId != null) {
+                    Request previous = coalescing.get(request.groupId);
+                    if (coalescable && previous != null && queue.contains(previous)
+                            && request.enqueuedAt - previous.enqueuedAt <= window
+                            && previous.textLength() + request.textLength() <= MAX_COALESCED_LENGTH) {
+                        merge(previous, request);
+                        return;
+                    }
+                    if (coalescable) {
+                        request.readyAt = request.enqueuedAt + window;
+                        coalescing.put(request.groupId, request);
+                    } else {
+                        // 中间插入了其他请求，之后的消息不能再并入更早的消息，更早的消息也不必再等待窗口结束
+                        Request closed = coalescing.remove(request.groupId);
+                        if (closed != null && closed.readyAt - request.enqueuedAt > 0) {
+                            closed.readyAt = request.enqueuedAt;
+                        }
+                    }
+                }
+                queue.add(request);
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void merge(Request target, Request request) {
+            List<OneBotMessageSegment> combined = new ArrayList<>(target.message.size() + request.message.size() + 1);
+            combined.addAll(target.message);
+            TextSegment separator = new TextSegment();
+            separator.setType("text");
+            separator.setData(new TextSegment.TextData());
+            separator.getData().setText("\n");
+            combined.add(separator);
+            combined.addAll(request.message);
+            target.message = combined;
+            target.params.put("message", combined);
+            target.merged.add(request);
+            coalesced.incrementAndGet();
+        }
+
+        private void run() {
+            while (running) {
+                Request next;
+                try {
+                    next = take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                dispatch(next);
+            }
+        }
+
+        /**
+         * 等待下一个可以发送的请求：Bot 和目标群都有令牌，已过合并窗口，且同群更早的请求都已发出或可发出
+         */
+        private Request take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    if (queue.isEmpty()) {
+                        changed.await();
+                        continue;
+                    }
+                    long now = System.nanoTime();
+                    botBucket.configure(readInt(BOT_RATE_KEY, DEFAULT_BOT_RATE), readInt(BOT_BURST_KEY, DEFAULT_BOT_BURST));
+                    long wait = botBucket.nanosUntilAvailable(now);
+                    if (wait > 0) {
+                        changed.awaitNanos(wait);
+                        continue;
+                    }
+                    int groupRate = readInt(GROUP_RATE_KEY, DEFAULT_GROUP_RATE);
+                    int groupBurst = readInt(GROUP_BURST_KEY, DEFAULT_GROUP_BURST);
+                    // 各群最早一个仍在合并窗口内的请求，同群之后的请求等它发出
+                    Map<Long, Long> held = new HashMap<>();
+                    for (Request request : queue) {
+                        if (request.groupId != null && request.readyAt - now > 0) {
+                            held.merge(request.groupId, request.seq, Math::min);
+                        }
+                    }
+                    wait = Long.MAX_VALUE;
+                    for (Request request : queue) {
+                        if (request.readyAt - now > 0) {
+                            wait = Math.min(wait, request.readyAt - now);
+                            continue;
+                        }
+                        TokenBucket groupBucket = null;
+                        if (request.groupId != null) {
+                            Long holder = held.get(request.groupId);
+                            if (holder != null && holder < request.seq) {
+                                continue;
+                            }
+                            groupBucket = groupBuckets.computeIfAbsent(request.groupId,
+                                    id -> new TokenBucket(groupRate, groupBurst, now));
+                            groupBucket.configure(groupRate, groupBurst);
+                            long groupWait = groupBucket.nanosUntilAvailable(now);
+                            if (groupWait > 0) {
+                                wait = Math.min(wait, groupWait);
+                                continue;
+                            }
+                            groupBucket.acquire(now);
+                        }
+                        botBucket.acquire(now);
+                        queue.remove(request);
+                        if (request.groupId != null) {
+                            coalescing.remove(request.groupId, request);
+                        }
+                        return request;
+                    }
+                    changed.awaitNanos(wait);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void dispatch(Request request) {
+            long start = System.nanoTime();
+            long queueMillis = TimeUnit.NANOSECONDS.toMillis(start - request.enqueuedAt);
+            lastQueueMillis = queueMillis;
+            maxQueueMillis.accumulateAndGet(queueMillis, Math::max);
+            sent.incrementAndGet();
+
+            CompletableFuture<Object> response;
+            try {
+                response = sender.send(botId, request.action, request.params);
+            } catch (Exception e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((data, error) -> {
+                lastRoundTripMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (error != null) {
+                    request.future.completeExceptionally(error);
+                    request.merged.forEach(merged -> merged.future.completeExceptionally(error));
+                    return;
+                }
+                request.future.complete(new OutboundReceipt(data, request.message, true));
+                request.merged.forEach(merged -> merged.future.complete(new OutboundReceipt(data, merged.message, false)));
+            });
+        }
+
+        OutboundStatsVO stats() {
+            OutboundStatsVO vo = new OutboundStatsVO();
+            vo.setBotId(botId);
+            lock.lock();
+            try {
+                vo.setQueued(queue.size());
+            } finally {
+                lock.unlock();
+            }
+            vo.setSent(sent.get());
+            vo.setCoalesced(coalesced.get());
+            vo.setLastQueueMillis(lastQueueMillis);
+            vo.setMaxQueueMillis(maxQueueMillis.get());
+            vo.setLastRoundTripMillis(lastRoundTripMillis);
+            return vo;
+        }
+
+        void shutdown() {
+            thread.interrupt();
+            lock.lock();
+            try {
+                IllegalStateException stopped = new IllegalStateException("发送调度已停止");
+                for (Request request : queue) {
+                    request.future.completeExceptionally(stopped);
+                    request.merged.forEach(merged -> merged.future.completeExceptionally(stopped));
+                }
+                queue.clear();
+                coalescing.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private int readInt(String key, int defaultValue) {
+        try {
+            String value = configReader.apply(key);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send;
+
+import lombok.Data;
+
+/**
+ * 单个 Bot 的发送调度统计
+ */
+@Data
+public class OutboundStatsVO {
+
+    private long botId;
+
+    /**
+     * 当前排队等待发送的请求数
+     */
+    private int queued;
+
+    /**
+     * 累计发出的请求数
+     */
+    private long sent;
+
+    /**
+     * 累计被合并进前一条消息的请求数
+     */
+    private long coalesced;
+
+    /**
+     * 最近一次发送前在队列中的等待时间（毫秒）
+     */
+    private long lastQueueMillis;
+
+    /**
+     * 启动以来在队列中的最长等待时间（毫秒）
+     */
+    private long maxQueueMillis;
+
+    /**
+     * 最近一次从发出到收到响应的时间（毫秒）
+     */
+    private long lastRoundTripMillis;
+}
@@ -2,8 +2,10 @@ package io.github.mangomaner.mangobot.adapter.onebot.utils;
 
 import io.github.mangomaner.mangobot.adapter.onebot.model.segment.*;
 import io.github.mangomaner.mangobot.module.agent.workspace.ImageParseService;
+import io.github.mangomaner.mangobot.module.file.model.domain.BotFiles;
 import io.github.mangomaner.mangobot.module.file.model.dto.AddFileRequest;
 import io.github.mangomaner.mangobot.module.file.service.BotFilesService;
+import io.github.mangomaner.mangobot.utils.ContentHashUtils;
 import io.github.mangomaner.mangobot.utils.FileUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,52 +13,102 @@ import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class OneBotMessageFileProcessor {
 
+    /**
+     * 判定为近似图片的最大感知哈希汉明距离（64 位中）
+     */
+    private static final int MAX_PERCEPTUAL_DISTANCE = 4;
+
     private final BotFilesService botFilesService;
     private final ImageParseService imageParseService;
 
+    /**
+     * 登记消息中的文件类消息段
+     * <p>
+     * 先用一次查询找出已登记的图片，只为新图片下载、计算哈希和生成描述，
+     * 最后用一条批量 upsert 语句登记全部文件；转发消息中的大量图片也只写入一次，并发处理同一文件时不会冲突。
+     */
     public void processReceivedFiles(List<OneBotMessageSegment> segments) {
+        List<AddFileRequest> requests = new ArrayList<>();
+        List<ImageSegment> images = new ArrayList<>();
         for (OneBotMessageSegment segment : segments) {
             if (segment instanceof FileSegment fileSegment) {
-                processFileSegment(fileSegment);
+                requests.add(buildFileRequest(fileSegment));
             } else if (segment instanceof ImageSegment imageSegment) {
-                processImageSegment(imageSegment);
+                images.add(imageSegment);
             } else if (segment instanceof VideoSegment videoSegment) {
-                processVideoSegment(videoSegment);
+                requests.add(buildVideoRequest(videoSegment));
             } else if (segment instanceof RecordSegment recordSegment) {
-                processRecordSegment(recordSegment);
+                requests.add(buildRecordRequest(recordSegment));
+            }
+        }
+
+        if (!images.isEmpty()) {
+            Set<String> registered = findRegisteredImages(images);
+            for (ImageSegment image : images) {
+                AddFileRequest request = buildImageRequest(image, registered);
+                if (request != null) {
+                    requests.add(request);
+                    registered.add(request.getFileId());
+                }
             }
         }
+
+        if (!requests.isEmpty()) {
+            botFilesService.upsertFiles(requests);
+        }
     }
 
-    private void processFileSegment(FileSegment segment) {
+    private AddFileRequest buildFileRequest(FileSegment segment) {
         FileSegment.FileData data = segment.getData();
         AddFileRequest request = new AddFileRequest();
         request.setFileId(data.getFileId());
         request.setFileType("file");
         request.setUrl(data.getUrl());
-        request.setFileSize(Integer.parseInt(data.getFileSize()));
+        request.setFileSize(data.getFileSize() == null ? null : Integer.parseInt(data.getFileSize()));
         request.setDescription(data.getFile());
-        botFilesService.addFile(request);
+        return request;
+    }
+
+    /**
+     * 查询消息中已登记的图片 file_id（本地路径图片以文件名登记）
+     */
+    private Set<String> findRegisteredImages(List<ImageSegment> images) {
+        Set<String> fileIds = new HashSet<>();
+        for (ImageSegment image : images) {
+            String fileId = image.getData().getFile();
+            if (fileId != null) {
+                fileIds.add(isLocalFilePath(fileId) ? extractFileName(fileId) : fileId);
+            }
+        }
+        Set<String> registered = new HashSet<>();
+        for (BotFiles file : botFilesService.getFilesByFileIds(fileIds)) {
+            registered.add(file.getFileId());
+        }
+        return registered;
     }
 
-    private void processImageSegment(ImageSegment segment) {
+    /**
+     * 为未登记的图片准备登记请求（下载、计算哈希、复用相同图片或生成描述）
+     *
+     * @return 图片已登记时返回 null
+     */
+    private AddFileRequest buildImageRequest(ImageSegment segment, Set<String> registered) {
         ImageSegment.ImageData data = segment.getData();
 
         int subType = data.getSubType() != null ? data.getSubType() : 0;
         String url = data.getUrl();
         String fileId = data.getFile();
 
-        if (botFilesService.getFileByFileId(fileId) != null) {
-            return;
-        }
-
         String fileType;
         switch (subType) {
             case 1, 11 -> fileType = "meme";
@@ -64,8 +116,10 @@ public class OneBotMessageFileProcessor {
         }
 
         if (isLocalFilePath(fileId)) {
-            saveLocalImageFile(fileId, fileType, subType);
-            return;
+            return registered.contains(extractFileName(fileId)) ? null : buildLocalImageRequest(fileId, fileType, subType);
+        }
+        if (registered.contains(fileId)) {
+            return null;
         }
 
         AddFileRequest request = new AddFileRequest();
@@ -80,19 +134,40 @@ public class OneBotMessageFileProcessor {
             default -> "data/image";
         };
 
+        byte[] content = null;
         try {
-            String fileName = extractFileName(fileId);
-            String filePath = targetDir + "/" + fileName;
-            Path targetPath = FileUtils.resolvePath(filePath);
-            FileUtils.downloadFile(url, targetPath);
-            request.setFilePath(filePath);
-            log.info("Downloaded image: fileId={}, subType={}, url={}, filePath={}", fileId, subType, url, filePath);
+            content = FileUtils.downloadBytes(url);
         } catch (Exception e) {
             log.error("Failed to download image: fileId={}, subType={}, url={}", fileId, subType, url, e);
         }
 
-        String description = null;
-        if (url != null && !url.isEmpty()) {
+        if (content != null) {
+            request.setContentHash(ContentHashUtils.sha256Hex(content));
+            request.setPerceptualHash(ContentHashUtils.perceptualHash(content));
+
+            BotFiles duplicate = findDuplicate(request);
+            if (duplicate != null) {
+                request.setFilePath(duplicate.getFilePath());
+                if (fileType.equals(duplicate.getFileType())) {
+                    request.setDescription(duplicate.getDescription());
+                }
+                log.info("Reused stored image: fileId={}, duplicateOf={}, filePath={}", fileId, duplicate.getFileId(), duplicate.getFilePath());
+            }
+
+            if (request.getFilePath() == null) {
+                try {
+                    String filePath = targetDir + "/" + extractFileName(fileId);
+                    FileUtils.writeBytes(FileUtils.resolvePath(filePath), content);
+                    request.setFilePath(filePath);
+                    log.info("Downloaded image: fileId={}, subType={}, url={}, filePath={}", fileId, subType, url, filePath);
+                } catch (Exception e) {
+                    log.error("Failed to save image: fileId={}, subType={}, url={}", fileId, subType, url, e);
+                }
+            }
+        }
+
+        if (request.getDescription() == null && url != null && !url.isEmpty()) {
+            String description;
             if (subType == 1 || subType == 11) {
                 description = imageParseService.parseMeme(url);
             } else {
@@ -102,28 +177,56 @@ public class OneBotMessageFileProcessor {
             if (description != null) {
                 log.info("Parsed image description: fileId={}, description={}", fileId, description);
             }
+            request.setDescription(description);
+        }
+
+        return request;
+    }
+
+    /**
+     * 按内容查找已存储的相同或近似图片：先精确匹配 SHA-256，再按感知哈希匹配近似图片。
+     * 优先返回同类型且已有描述的记录。
+     */
+    private BotFiles findDuplicate(AddFileRequest request) {
+        BotFiles sameContent = null;
+        for (BotFiles file : botFilesService.getFilesByContentHash(request.getContentHash())) {
+            if (file.getFilePath() == null) {
+                continue;
+            }
+            if (request.getFileType().equals(file.getFileType()) && file.getDescription() != null) {
+                return file;
+            }
+            if (sameContent == null) {
+                sameContent = file;
+            }
         }
-        request.setDescription(description);
 
-        botFilesService.addFile(request);
+        Long perceptualHash = request.getPerceptualHash();
+        if (perceptualHash != null && perceptualHash != 0L && perceptualHash != -1L) {
+            BotFiles similar = botFilesService.findSimilarImage(request.getFileType(), perceptualHash, MAX_PERCEPTUAL_DISTANCE);
+            if (similar != null && similar.getFilePath() != null) {
+                return similar;
+            }
+        }
+        return sameContent;
     }
 
-    private void processVideoSegment(VideoSegment segment) {
+    private AddFileRequest buildVideoRequest(VideoSegment segment) {
         VideoSegment.VideoData data = segment.getData();
         AddFileRequest request = new AddFileRequest();
         request.setFileId(data.getFile());
         request.setFileType("video");
         request.setUrl(data.getUrl());
-        botFilesService.addFile(request);
+        return request;
     }
 
-    private void processRecordSegment(RecordSegment segment) {
+    private AddFileRequest buildRecordRequest(RecordSegment segment) {
         RecordSegment.RecordData data = segment.getData();
         AddFileRequest request = new AddFileRequest();
         request.setFileId(data.getFile());
         request.setFileType("record");
         request.setUrl(data.getUrl());
-        botFilesService.addFile(request);
+        return request;
     }
 
     private boolean isLocalFilePath(String fileId) {
@@ -134,15 +237,11 @@ public class OneBotMessageFileProcessor {
                fileId.startsWith("/") || fileId.startsWith("\\\\");
     }
 
-    private void saveLocalImageFile(String filePath, String fileType, int subType) {
+    private AddFileRequest buildLocalImageRequest(String filePath, String fileType, int subType) {
         try {
             String fileName = extractFileName(filePath);
             String relativePath = extractRelativePath(filePath);
 
-            if (botFilesService.getFileByFileId(fileName) != null) {
-                return;
-            }
-
             AddFileRequest request = new AddFileRequest();
             request.setFileId(fileName);
             request.setFileType(fileType);
@@ -154,10 +253,11 @@ public class OneBotMessageFileProcessor {
                 request.setFileSize((int) Files.size(localPath));
             }
 
-            botFilesService.addFile(request);
             log.info("Saved local image file: fileId={}, filePath={}, fileType={}", fileName, relativePath, fileType);
+            return request;
         } catch (Exception e) {
             log.warn("Failed to save local image file: {}", filePath, e);
+            return null;
         }
     }
 
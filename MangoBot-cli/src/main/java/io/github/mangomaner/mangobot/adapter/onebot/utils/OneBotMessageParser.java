@@ -1,40 +1,87 @@
 package io.github.mangomaner.mangobot.adapter.onebot.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.adapter.onebot.model.segment.*;
 import io.github.mangomaner.mangobot.module.file.model.domain.BotFiles;
 import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
 import io.github.mangomaner.mangobot.module.file.service.BotFilesService;
-import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OneBotApiService;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 消息段解析为文本
+ * <p>
+ * 回复和合并转发的引用内容由 {@link OneBotReferenceResolver} 提供，解析时不等待远程请求：
+ * 内容未就绪时先写入占位文本，{@link #parse} 返回的 refreshed 在内容到达后以重新解析的结果完成，供调用方回写 parse_message。
+ * 合并转发最多展开 {@value #MAX_DEPTH} 层。
+ */
 @Slf4j
 @Component
 public class OneBotMessageParser {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * 引用内容的最大展开深度，同时也是重新解析的最大轮数（每轮可能发现更深一层的转发）
+     */
+    private static final int MAX_DEPTH = 2;
+
+    /**
+     * 回复中引用原文的最大长度
+     */
+    private static final int MAX_QUOTE_LENGTH = 100;
 
     @Resource
-    @Lazy
-    private OneBotApiService oneBotApiService;
+    private OneBotReferenceResolver referenceResolver;
 
     @Resource
     private BotFilesService botFilesService;
 
+    /**
+     * @param text      当前可得的解析结果
+     * @param refreshed 引用内容到达后重新解析的结果；没有待获取的内容时为 null
+     */
+    public record ParsedMessage(String text, CompletableFuture<String> refreshed) {}
+
     public String parseMessage(List<OneBotMessageSegment> segments, Long botId) {
+        return parseSegments(segments, botId, 0, null);
+    }
+
+    public ParsedMessage parse(List<OneBotMessageSegment> segments, Long botId) {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        String text = parseSegments(segments, botId, 0, pending);
+        return new ParsedMessage(text, pending.isEmpty() ? null : refresh(segments, botId, pending, 1));
+    }
+
+    private CompletableFuture<String> refresh(List<OneBotMessageSegment> segments, Long botId,
+                                              List<CompletableFuture<?>> pending, int round) {
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> {
+                    List<CompletableFuture<?>> next = new ArrayList<>();
+                    String text = parseSegments(segments, botId, 0, next);
+                    if (next.isEmpty() || round >= MAX_DEPTH) {
+                        return CompletableFuture.completedFuture(text);
+                    }
+                    return refresh(segments, botId, next, round + 1);
+                });
+    }
+
+    /**
+     * @param pending 收集尚未就绪的引用内容，为 null 时只发起请求、不跟踪结果
+     */
+    private String parseSegments(List<OneBotMessageSegment> segments, Long botId, int depth,
+                                 List<CompletableFuture<?>> pending) {
         if (segments == null || segments.isEmpty()) {
             return "";
         }
 
         StringBuilder result = new StringBuilder();
         for (OneBotMessageSegment segment : segments) {
-            String parsed = parseSegment(segment, botId);
+            String parsed = parseSegment(segment, botId, depth, pending);
             if (parsed != null && !parsed.isEmpty()) {
                 result.append(parsed);
             }
@@ -42,7 +89,7 @@ public class OneBotMessageParser {
         return result.toString();
     }
 
-    private String parseSegment(OneBotMessageSegment segment, Long botId) {
+    private String parseSegment(OneBotMessageSegment segment, Long botId, int depth, List<CompletableFuture<?>> pending) {
         try {
             String type = segment.getType();
             switch (type) {
@@ -63,9 +110,9 @@ public class OneBotMessageParser {
                 case "record":
                     return parseRecordSegment((RecordSegment) segment);
                 case "forward":
-                    return parseForwardSegment((ForwardSegment) segment, botId);
+                    return parseForwardSegment((ForwardSegment) segment, botId, depth, pending);
                 case "reply":
-                    return parseReplySegment((ReplySegment) segment, botId);
+                    return parseReplySegment((ReplySegment) segment, botId, depth, pending);
                 default:
                     log.warn("Unknown message segment type: {}", type);
                     return "";
@@ -76,9 +123,34 @@ public class OneBotMessageParser {
         }
     }
 
-    private String parseReplySegment(ReplySegment segment, Long botId) {
+    private String parseReplySegment(ReplySegment segment, Long botId, int depth, List<CompletableFuture<?>> pending) {
         ReplySegment.ReplyData data = segment.getData();
-        return "回复：" + oneBotApiService.getMsg(botId, Integer.parseInt(data.getId()));
+        // 引用内容中的回复不再展开
+        if (data == null || data.getId() == null || depth > 0) {
+            return "";
+        }
+        String placeholder = "[回复消息 ID=" + data.getId() + "]";
+
+        CompletableFuture<OneBotReferenceResolver.Quote> future = referenceResolver.reply(botId, data.getId());
+        if (!future.isDone()) {
+            if (pending != null) {
+                pending.add(future);
+            }
+            return placeholder;
+        }
+        OneBotReferenceResolver.Quote quote = future.join();
+        if (quote == null || quote.missing()) {
+            return placeholder;
+        }
+
+        String text = quote.parsedText() != null
+                ? quote.parsedText()
+                : parseSegments(quote.segments(), botId, depth + 1, pending);
+        if (text.length() > MAX_QUOTE_LENGTH) {
+            text = text.substring(0, MAX_QUOTE_LENGTH) + "…";
+        }
+        String sender = quote.senderName() != null ? quote.senderName() + "(" + quote.senderId() + ")" : quote.senderId();
+        return "[回复 " + sender + "：" + text + "]";
     }
 
     private String parseTextSegment(TextSegment segment) {
@@ -169,7 +241,7 @@ public class OneBotMessageParser {
         }
         
         try {
-            JsonNode jsonNode = objectMapper.readTree(jsonStr);
+            JsonNode jsonNode = JsonCodec.mapper().readTree(jsonStr);
             StringBuilder result = new StringBuilder();
             if(jsonNode.has("prompt")){
                 result.append(jsonNode.get("prompt").asText()).append(" ");
@@ -213,7 +285,7 @@ public class OneBotMessageParser {
         return "语音";
     }
 
-    private String parseForwardSegment(ForwardSegment segment, Long botId) {
+    private String parseForwardSegment(ForwardSegment segment, Long botId, int depth, List<CompletableFuture<?>> pending) {
         ForwardSegment.ForwardData data = segment.getData();
         if (data == null) {
             return "";
@@ -223,25 +295,36 @@ public class OneBotMessageParser {
         if (id == null || id.isEmpty()) {
             return "转发消息";
         }
+        String placeholder = "转发消息：[合并转发消息 ID=" + id + "]";
+        if (depth >= MAX_DEPTH) {
+            return placeholder;
+        }
 
-        List<OneBotGroupMessageEvent> event = null;
-        event = oneBotApiService.getForwardMsg(botId, id);
+        CompletableFuture<List<OneBotGroupMessageEvent>> future = referenceResolver.forward(botId, id);
+        if (!future.isDone()) {
+            if (pending != null) {
+                pending.add(future);
+            }
+            return placeholder;
+        }
+        List<OneBotGroupMessageEvent> event = future.join();
 
         if (event == null || event.isEmpty()) {
-            return "转发消息：[合并转发消息 ID=" + id + "]";
+            return placeholder;
         }
 
         StringBuilder sb = new StringBuilder();
         for (OneBotGroupMessageEvent e : event) {
-            String message = parseMessage(e.getMessage(), botId);
-            sb.append(e.getSender().getNickname()).append("发送消息：").append(message).append("\n");
+            String message = parseSegments(e.getMessage(), botId, depth + 1, pending);
+            String nickname = e.getSender() != null ? e.getSender().getNickname() : String.valueOf(e.getUserId());
+            sb.append(nickname).append("发送消息：").append(message).append("\n");
         }
         String result = sb.toString();
 
         if(!result.isEmpty()){
             return "转发消息：\n" + result;
         } else {
-            return "转发消息：[合并转发消息 ID=" + id + "]";
+            return placeholder;
         }
     }
 }
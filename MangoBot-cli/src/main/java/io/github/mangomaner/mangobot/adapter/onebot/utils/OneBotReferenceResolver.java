@@ -0,0 +1,209 @@
+package io.github.mangomaner.mangobot.adapter.onebot.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OneBotApiService;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.vo.MessageInfo;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 回复与合并转发的引用内容
+ * <p>
+ * 回复目标依次从本地消息库（group_messages 按 message_id）、get_msg 结果缓存中查找，都未命中时异步请求协议端；
+ * 合并转发内容在首次解析到时异步获取并缓存。远程请求不阻塞调用线程，同时进行的请求数有上限，
+ * 排队过多时不再发起新请求，调用方保留占位文本。
+ * <p>
+ * 返回的 future 不会异常完成：请求失败或目标不存在时以空结果完成，空结果只缓存较短时间。
+ */
+@Slf4j
+@Component
+public class OneBotReferenceResolver {
+
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+
+    private static final int MAX_QUEUED_FETCHES = 256;
+
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    private static final long TTL_NANOS = Duration.ofMinutes(10).toNanos();
+
+    private static final long MISSING_TTL_NANOS = Duration.ofSeconds(30).toNanos();
+
+    /**
+     * 被回复的消息；来自本地消息库时只有 parsedText，来自协议端时只有 segments
+     */
+    public record Quote(String senderId, String senderName, String parsedText, List<OneBotMessageSegment> segments) {
+
+        static final Quote MISSING = new Quote(null, null, null, List.of());
+
+        public boolean missing() {
+            return this == MISSING;
+        }
+    }
+
+    private record Key(long botId, boolean forward, String id) {}
+
+    private final BiFunction<String, String, GroupMessages> localLookup;
+    private final BiFunction<Long, Integer, CompletableFuture<MessageInfo>> getMsg;
+    private final BiFunction<Long, String, CompletableFuture<List<OneBotGroupMessageEvent>>> getForwardMsg;
+
+    private final ExecutorService fetchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("OneBot-Reference-", 0).factory());
+
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT_FETCHES);
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AsyncCache<Key, Object> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(new Expiry<Key, Object>() {
+                @Override
+                public long expireAfterCreate(Key key, Object value, long currentTime) {
+                    return value == Quote.MISSING || value == Collections.EMPTY_LIST ? MISSING_TTL_NANOS : TTL_NANOS;
+                }
+
+                @Override
+                public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .buildAsync();
+
+    @Autowired
+    public OneBotReferenceResolver(@Lazy OneBotApiService oneBotApiService, GroupMessagesService groupMessagesService) {
+        this(groupMessagesService::getByMessageId, oneBotApiService::getMsgAsync, oneBotApiService::getForwardMsgAsync);
+    }
+
+    public OneBotReferenceResolver(BiFunction<String, String, GroupMessages> localLookup,
+                                   BiFunction<Long, Integer, CompletableFuture<MessageInfo>> getMsg,
+                                   BiFunction<Long, String, CompletableFuture<List<OneBotGroupMessageEvent>>> getForwardMsg) {
+        this.localLookup = localLookup;
+        this.getMsg = getMsg;
+        this.getForwardMsg = getForwardMsg;
+    }
+
+    /**
+     * 查找被回复的消息，本地消息库命中时返回已完成的 future
+     *
+     * @return 以 {@link Quote#MISSING} 完成表示找不到；以 null 完成表示请求队列已满，未发起请求
+     */
+    public CompletableFuture<Quote> reply(long botId, String messageId) {
+        try {
+            GroupMessages local = localLookup.apply(String.valueOf(botId), messageId);
+            if (local != null && local.getParseMessage() != null) {
+                return CompletableFuture.completedFuture(new Quote(local.getSenderId(), null, local.getParseMessage(), null));
+            }
+        } catch (Exception e) {
+            log.warn("查询本地消息失败, botId={}, messageId={}", botId, messageId, e);
+        }
+
+        int id;
+        try {
+            id = Integer.parseInt(messageId);
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(Quote.MISSING);
+        }
+        return load(new Key(botId, false, messageId), () -> getMsg.apply(botId, id)
+                .thenApply(info -> info == null ? Quote.MISSING : toQuote(info)), Quote.MISSING);
+    }
+
+    /**
+     * 获取合并转发的消息列表
+     *
+     * @return 以空列表完成表示找不到；以 null 完成表示请求队列已满，未发起请求
+     */
+    public CompletableFuture<List<OneBotGroupMessageEvent>> forward(long botId, String id) {
+        return load(new Key(botId, true, id), () -> getForwardMsg.apply(botId, id)
+                .thenApply(events -> events == null || events.isEmpty()
+                        ? Collections.<OneBotGroupMessageEvent>emptyList()
+                        : Collections.unmodifiableList(events)), Collections.emptyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> load(Key key, Supplier<CompletableFuture<T>> request, T missing) {
+        return (CompletableFuture<T>) cache.get(key, (k, executor) -> {
+            if (queued.incrementAndGet() > MAX_QUEUED_FETCHES) {
+                queued.decrementAndGet();
+                // null 结果不进入缓存，下次解析时重试
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queued.decrementAndGet();
+                    return missing;
+                }
+                try {
+                    return request.get().join();
+                } catch (Exception e) {
+                    log.debug("获取引用内容失败: {}", k, e);
+                    return missing;
+                } finally {
+                    permits.release();
+                    queued.decrementAndGet();
+                }
+            }, fetchExecutor);
+        });
+    }
+
+    private Quote toQuote(MessageInfo info) {
+        String senderId = null;
+        String senderName = null;
+        if (info.getSender() instanceof Map<?, ?> sender) {
+            Object userId = sender.get("user_id");
+            senderId = userId == null ? null : String.valueOf(userId);
+            Object card = sender.get("card");
+            Object nickname = sender.get("nickname");
+            senderName = card != null && !card.toString().isEmpty() ? card.toString()
+                    : nickname == null ? null : nickname.toString();
+        }
+
+        List<OneBotMessageSegment> segments = new ArrayList<>();
+        if (info.getMessage() instanceof List<?> raw) {
+            for (Object item : raw) {
+                try {
+                    segments.add(JsonCodec.mapper().convertValue(item, OneBotMessageSegment.class));
+                } catch (Exception e) {
+                    // 未支持的消息段类型
+                    log.debug("跳过无法解析的消息段: {}", item);
+                }
+            }
+        }
+        return new Quote(senderId, senderName, null, segments);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+}
@@ -46,7 +46,7 @@ public class MangoAgentApi {
      * @param botId  Bot ID
      * @param chatId 群聊ID/私聊ID
      * @param source 会话来源
-     * @return 会话视图对象，如果不存在则返回 null
+     * @return 会话视图对象（不含消息数量），不存在时自动创建；结果按 (botId, chatId, source) 缓存
      */
     public static ChatSessionVO getSessionByBotIdAndChatId(String botId, String chatId, SessionSource source) {
         checkServices();
@@ -192,6 +192,21 @@ public class MangoConfigApi {
         return value != null ? value : defaultValue;
     }
 
+    /**
+     * 判断列表类 Bot 配置（如群/私聊黑白名单）是否包含指定 ID
+     *
+     * <p>列表解析结果会被缓存，配置更新时自动失效。
+     *
+     * @param configKey 配置键
+     * @param botId     Bot ID
+     * @param id        待检查的 ID（群号或 QQ 号）
+     * @return 是否包含
+     */
+    public static boolean botConfigListContains(String configKey, Long botId, long id) {
+        checkServices();
+        return botConfigService.getConfigIdSet(configKey, botId != null ? botId.toString() : null).contains(id);
+    }
+
     /**
      * 根据 Key 和 Bot ID 更新 Bot 配置值
      * 
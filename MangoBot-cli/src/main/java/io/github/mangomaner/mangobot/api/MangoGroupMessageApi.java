@@ -2,12 +2,14 @@ package io.github.mangomaner.mangobot.api;
 
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.UpdateMessageRequest;
 import io.github.mangomaner.mangobot.module.message.model.vo.GroupMessageVO;
 import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 
 import java.util.List;
 
@@ -41,11 +43,21 @@ public class MangoGroupMessageApi {
         return service.getMessagesByMessageId(request);
     }
 
+    public static CursorPage<GroupMessages> getMessageHistory(QueryMessageHistoryRequest request) {
+        checkService();
+        return service.getMessageHistory(request);
+    }
+
     public static List<GroupMessages> getMessagesBySender(QueryMessagesBySenderRequest request) {
         checkService();
         return service.getMessagesBySender(request);
     }
 
+    public static CursorPage<GroupMessages> pageMessagesBySender(QueryMessagesBySenderRequest request) {
+        checkService();
+        return service.pageMessagesBySender(request);
+    }
+
     public static List<GroupMessages> searchMessages(SearchMessagesRequest request) {
         checkService();
         return service.searchMessages(request);
@@ -7,10 +7,12 @@ import io.github.mangomaner.mangobot.adapter.onebot.model.vo.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * OneBot API (静态工具类)
  * 提供对 OneBot 协议的 API 调用能力，包括发送消息、群管理、获取信息等。
+ * 以 Async 结尾的方法不阻塞调用线程，返回的 CompletableFuture 在收到响应后完成，失败或超时时以异常完成。
  */
 public class MangoOneBotApi {
 
@@ -356,4 +358,92 @@ public class MangoOneBotApi {
         checkService();
         return service.callApi(botId, action, params, responseType);
     }
+
+    /**
+     * 异步发送私聊消息
+     */
+    public static CompletableFuture<MessageId> sendPrivateMsgAsync(long botId, long userId, OneBotSendingMessage message) {
+        checkService();
+        return service.sendPrivateMsgAsync(botId, userId, message);
+    }
+
+    /**
+     * 异步发送群消息
+     */
+    public static CompletableFuture<MessageId> sendGroupMsgAsync(long botId, long groupId, OneBotSendingMessage message) {
+        checkService();
+        return service.sendGroupMsgAsync(botId, groupId, message);
+    }
+
+    /**
+     * 异步获取消息
+     */
+    public static CompletableFuture<MessageInfo> getMsgAsync(long botId, int messageId) {
+        checkService();
+        return service.getMsgAsync(botId, messageId);
+    }
+
+    /**
+     * 异步获取合并转发消息
+     */
+    public static CompletableFuture<List<OneBotGroupMessageEvent>> getForwardMsgAsync(long botId, String id) {
+        checkService();
+        return service.getForwardMsgAsync(botId, id);
+    }
+
+    /**
+     * 异步获取群信息
+     */
+    public static CompletableFuture<GroupInfo> getGroupInfoAsync(long botId, long groupId, boolean noCache) {
+        checkService();
+        return service.getGroupInfoAsync(botId, groupId, noCache);
+    }
+
+    /**
+     * 异步获取群成员信息
+     */
+    public static CompletableFuture<GroupMemberInfo> getGroupMemberInfoAsync(long botId, long groupId, long userId, boolean noCache) {
+        checkService();
+        return service.getGroupMemberInfoAsync(botId, groupId, userId, noCache);
+    }
+
+    /**
+     * 异步获取群成员列表
+     */
+    public static CompletableFuture<List<GroupMemberInfo>> getGroupMemberListAsync(long botId, long groupId) {
+        checkService();
+        return service.getGroupMemberListAsync(botId, groupId);
+    }
+
+    /**
+     * 异步获取陌生人信息
+     */
+    public static CompletableFuture<StrangerInfo> getStrangerInfoAsync(long botId, long userId, boolean noCache) {
+        checkService();
+        return service.getStrangerInfoAsync(botId, userId, noCache);
+    }
+
+    /**
+     * 通用异步 API 调用方法 (返回 void)
+     */
+    public static CompletableFuture<Void> callApiVoidAsync(long botId, String action, Map<String, Object> params) {
+        checkService();
+        return service.callApiVoidAsync(botId, action, params);
+    }
+
+    /**
+     * 通用异步 API 调用方法 (返回 List)
+     */
+    public static <T> CompletableFuture<List<T>> callApiListAsync(long botId, String action, Map<String, Object> params, Class<T> elementType) {
+        checkService();
+        return service.callApiListAsync(botId, action, params, elementType);
+    }
+
+    /**
+     * 通用异步 API 调用方法 (返回指定类型)
+     */
+    public static <T> CompletableFuture<T> callApiAsync(long botId, String action, Map<String, Object> params, Class<T> responseType) {
+        checkService();
+        return service.callApiAsync(botId, action, params, responseType);
+    }
 }
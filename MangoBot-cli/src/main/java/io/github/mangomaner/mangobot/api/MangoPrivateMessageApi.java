@@ -2,12 +2,14 @@ package io.github.mangomaner.mangobot.api;
 
 import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.UpdateMessageRequest;
 import io.github.mangomaner.mangobot.module.message.model.vo.PrivateMessageVO;
 import io.github.mangomaner.mangobot.module.message.privateMessage.service.PrivateMessagesService;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 
 import java.util.List;
 
@@ -41,11 +43,21 @@ public class MangoPrivateMessageApi {
         return service.getMessagesByMessageId(request);
     }
 
+    public static CursorPage<PrivateMessages> getMessageHistory(QueryMessageHistoryRequest request) {
+        checkService();
+        return service.getMessageHistory(request);
+    }
+
     public static List<PrivateMessages> getMessagesBySender(QueryMessagesBySenderRequest request) {
         checkService();
         return service.getMessagesBySender(request);
     }
 
+    public static CursorPage<PrivateMessages> pageMessagesBySender(QueryMessagesBySenderRequest request) {
+        checkService();
+        return service.pageMessagesBySender(request);
+    }
+
     public static List<PrivateMessages> searchMessages(SearchMessagesRequest request) {
         checkService();
         return service.searchMessages(request);
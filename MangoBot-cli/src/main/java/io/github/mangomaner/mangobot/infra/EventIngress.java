@@ -0,0 +1,251 @@
+package io.github.mangomaner.mangobot.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotBaseEvent;
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.message.OneBotMessageEvent;
+import io.github.mangomaner.mangobot.api.MangoConfigApi;
+import io.github.mangomaner.mangobot.infra.model.IngressStatsVO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事件入口队列
+ * <p>
+ * 位于 WebSocket 读取线程与会话通道之间，限制排队事件总数，队列满时按 {@link IngressPolicy} 背压或丢弃。
+ * 只有来自协议端的事件（{@link OneBotBaseEvent}）受限，配置变更等内部事件可能由监听器线程发布，
+ * 对其限流会导致通道自我阻塞，因此直接放行。
+ * <p>
+ * 相关系统配置：
+ * <ul>
+ *     <li>{@code event.ingress.policy}：队列满时的处理策略</li>
+ *     <li>{@code event.ingress.capacity}：所有会话排队事件总数上限</li>
+ *     <li>{@code event.ingress.lane_capacity}：单个会话排队事件上限（DROP_OLDEST 策略）</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class EventIngress {
+
+    public static final String POLICY_KEY = "event.ingress.policy";
+    public static final String CAPACITY_KEY = "event.ingress.capacity";
+    public static final String LANE_CAPACITY_KEY = "event.ingress.lane_capacity";
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_LANE_CAPACITY = 1_000;
+
+    /**
+     * DROP_NOTICE_FIRST 策略下，通知类事件可占用的队列比例
+     */
+    private static final double NOTICE_WATERMARK = 0.8;
+
+    private static final long BLOCK_WAIT_MILLIS = 100;
+
+    private static final int DROP_LOG_INTERVAL = 1000;
+
+    /**
+     * 按会话分道执行：同一群/私聊内事件严格有序，不同会话并发处理
+     */
+    private final KeyedLaneExecutor laneExecutor = new KeyedLaneExecutor("Event-Lane-");
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Map<Long, BotStats> stats = new ConcurrentHashMap<>();
+
+    private final Object capacityMonitor = new Object();
+
+    private final AtomicInteger blockedProducers = new AtomicInteger();
+
+    /**
+     * 提交事件分发任务
+     *
+     * @param event    事件
+     * @param dispatch 分发任务
+     */
+    public void submit(OneBotEvent event, Runnable dispatch) {
+        EventLaneKey key = EventLaneKey.of(event);
+        if (!(event instanceof OneBotBaseEvent)) {
+            laneExecutor.execute(key, dispatch);
+            return;
+        }
+
+        BotStats botStats = stats.computeIfAbsent(event.getSelfId(), BotStats::new);
+        if (!admit(event, key)) {
+            recordDrop(botStats, event);
+            return;
+        }
+
+        queued.incrementAndGet();
+        botStats.queued.incrementAndGet();
+        botStats.enqueued.incrementAndGet();
+        laneExecutor.execute(key, new IngressTask(dispatch, botStats, event));
+    }
+
+    /**
+     * 按策略判断是否接收事件，必要时阻塞或淘汰旧事件
+     */
+    private boolean admit(OneBotEvent event, EventLaneKey key) {
+        int capacity = readInt(CAPACITY_KEY, DEFAULT_CAPACITY);
+        IngressPolicy policy = IngressPolicy.fromConfig(readConfig(POLICY_KEY));
+
+        switch (policy) {
+            case BLOCK -> {
+                awaitCapacity(capacity);
+                return true;
+            }
+            case DROP_OLDEST -> {
+                int laneCapacity = readInt(LANE_CAPACITY_KEY, DEFAULT_LANE_CAPACITY);
+                while (queued.get() >= capacity || laneExecutor.pendingTasks(key) >= laneCapacity) {
+                    Runnable oldest = laneExecutor.pollOldest(key);
+                    if (oldest == null) {
+                        // 本会话没有可淘汰的事件，队列被其他会话占满
+                        return queued.get() < capacity;
+                    }
+                    if (oldest instanceof IngressTask task) {
+                        task.discard();
+                    }
+                }
+                return true;
+            }
+            default -> {
+                int limit = event instanceof OneBotMessageEvent
+                        ? capacity
+                        : (int) (capacity * NOTICE_WATERMARK);
+                return queued.get() < limit;
+            }
+        }
+    }
+
+    private void awaitCapacity(int capacity) {
+        if (queued.get() < capacity) {
+            return;
+        }
+        blockedProducers.incrementAndGet();
+        try {
+            synchronized (capacityMonitor) {
+                while (queued.get() >= capacity) {
+                    capacityMonitor.wait(BLOCK_WAIT_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            blockedProducers.decrementAndGet();
+        }
+    }
+
+    private void release(BotStats botStats) {
+        queued.decrementAndGet();
+        botStats.queued.decrementAndGet();
+        if (blockedProducers.get() > 0) {
+            synchronized (capacityMonitor) {
+                capacityMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void recordDrop(BotStats botStats, OneBotEvent event) {
+        long dropped = botStats.dropped.incrementAndGet();
+        if (dropped == 1 || dropped % DROP_LOG_INTERVAL == 0) {
+            log.warn("事件入口队列已满，丢弃事件: botId={}, event={}, 累计丢弃={}, 当前排队={}",
+                    botStats.botId, event.getClass().getSimpleName(), dropped, queued.get());
+        }
+    }
+
+    /**
+     * 获取各 Bot 的入口队列统计
+     */
+    public List<IngressStatsVO> getStats() {
+        List<IngressStatsVO> result = new ArrayList<>();
+        for (BotStats botStats : stats.values()) {
+            IngressStatsVO vo = new IngressStatsVO();
+            vo.setBotId(botStats.botId);
+            vo.setQueued(botStats.queued.get());
+            vo.setEnqueued(botStats.enqueued.get());
+            vo.setDropped(botStats.dropped.get());
+            vo.setLastLagMillis(botStats.lastLagMillis);
+            vo.setMaxLagMillis(botStats.maxLagMillis.get());
+            result.add(vo);
+        }
+        result.sort(Comparator.comparingLong(IngressStatsVO::getBotId));
+        return result;
+    }
+
+    private String readConfig(String key) {
+        try {
+            return MangoConfigApi.getSystemConfigValue(key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private int readInt(String key, int defaultValue) {
+        String value = readConfig(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        laneExecutor.shutdown();
+    }
+
+    private static final class BotStats {
+        final long botId;
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong enqueued = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong maxLagMillis = new AtomicLong();
+        volatile long lastLagMillis;
+
+        BotStats(long botId) {
+            this.botId = botId;
+        }
+    }
+
+    /**
+     * 计入队列统计的分发任务，执行或被淘汰时释放占用的队列位置
+     */
+    private final class IngressTask implements Runnable {
+        final Runnable dispatch;
+        final BotStats botStats;
+        final OneBotEvent event;
+        final long enqueuedAt = System.nanoTime();
+
+        IngressTask(Runnable dispatch, BotStats botStats, OneBotEvent event) {
+            this.dispatch = dispatch;
+            this.botStats = botStats;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueuedAt);
+            botStats.lastLagMillis = lag;
+            botStats.maxLagMillis.accumulateAndGet(lag, Math::max);
+            release(botStats);
+            dispatch.run();
+        }
+
+        void discard() {
+            release(botStats);
+            recordDrop(botStats, event);
+        }
+    }
+}
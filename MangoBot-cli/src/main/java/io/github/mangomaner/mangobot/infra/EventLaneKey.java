@@ -0,0 +1,73 @@
+package io.github.mangomaner.mangobot.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotMessageSentEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotPrivateMessageEvent;
+import io.github.mangomaner.mangobot.events.onebot.notice.*;
+
+/**
+ * 事件分道键
+ * <p>
+ * 同一 Bot 下同一群（或同一私聊对象）的消息与通知落在同一通道上，保证会话内顺序；
+ * 无法归属到会话的事件（元事件、配置变更等）按 Bot 共用一个通道。
+ *
+ * @param selfId 机器人 ID
+ * @param scope  会话类型
+ * @param id     群号或用户 ID，{@link Scope#BOT} 时为 0
+ */
+public record EventLaneKey(long selfId, Scope scope, long id) {
+
+    public enum Scope {
+        GROUP, PRIVATE, BOT
+    }
+
+    public static EventLaneKey of(OneBotEvent event) {
+        long selfId = event.getSelfId();
+        if (event instanceof OneBotGroupMessageEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotPrivateMessageEvent e) {
+            return new EventLaneKey(selfId, Scope.PRIVATE, e.getUserId());
+        }
+        if (event instanceof OneBotMessageSentEvent e) {
+            if (e.getGroupId() != null) {
+                return group(selfId, e.getGroupId());
+            }
+            if (e.getTargetId() != null) {
+                return new EventLaneKey(selfId, Scope.PRIVATE, e.getTargetId());
+            }
+        }
+        if (event instanceof PokeEvent e) {
+            return e.getGroupId() != null
+                    ? group(selfId, e.getGroupId())
+                    : new EventLaneKey(selfId, Scope.PRIVATE, e.getUserId());
+        }
+        if (event instanceof OneBotGroupRecallEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotGroupMsgEmojiLikeEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotGroupBanEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotGroupIncreaseEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotGroupDecreaseEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotGroupUploadEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        if (event instanceof OneBotEssenceEvent e) {
+            return group(selfId, e.getGroupId());
+        }
+        return new EventLaneKey(selfId, Scope.BOT, 0L);
+    }
+
+    private static EventLaneKey group(long selfId, long groupId) {
+        return new EventLaneKey(selfId, Scope.GROUP, groupId);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.mangomaner.mangobot.infra;
+
+/**
+ * 事件入口队列满时的处理策略，对应系统配置 {@code event.ingress.policy}
+ */
+public enum IngressPolicy {
+
+    /**
+     * 阻塞 WebSocket 读取线程，直到队列有空位（不丢弃任何事件）
+     */
+    BLOCK,
+
+    /**
+     * 优先丢弃通知类事件：队列超过水位线后不再接收通知，消息在队列完全占满时才丢弃
+     */
+    DROP_NOTICE_FIRST,
+
+    /**
+     * 丢弃同一会话中最早排队的事件，为新事件腾出位置
+     */
+    DROP_OLDEST;
+
+    public static IngressPolicy fromConfig(String value) {
+        if (value != null) {
+            for (IngressPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return DROP_NOTICE_FIRST;
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.mangomaner.mangobot.infra;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 key 分道的有序执行器
+ * <p>
+ * 同一 key 的任务严格按提交顺序串行执行，不同 key 的任务并发执行。
+ * 每条有任务的通道占用一个虚拟线程，通道排空后立即回收，空闲的 key 不占用任何资源。
+ * <p>
+ * 通道的创建、入队判定和回收都在 {@link ConcurrentHashMap#compute} 中针对同一 key 原子完成，
+ * 保证不会出现任务已入队却没有线程处理的情况。
+ */
+@Slf4j
+public class KeyedLaneExecutor {
+
+    private final ConcurrentHashMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final ExecutorService laneThreads;
+
+    public KeyedLaneExecutor(String threadNamePrefix) {
+        this.laneThreads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+    }
+
+    /**
+     * 提交任务到指定 key 的通道
+     */
+    public void execute(Object key, Runnable task) {
+        Lane[] started = new Lane[1];
+        lanes.compute(key, (k, lane) -> {
+            if (lane == null) {
+                lane = new Lane(k);
+            }
+            lane.tasks.add(task);
+            lane.pending.incrementAndGet();
+            if (!lane.running) {
+                lane.running = true;
+                started[0] = lane;
+            }
+            return lane;
+        });
+        if (started[0] != null) {
+            laneThreads.execute(started[0]);
+        }
+    }
+
+    /**
+     * 指定通道中尚未开始执行的任务数量
+     */
+    public int pendingTasks(Object key) {
+        Lane lane = lanes.get(key);
+        return lane == null ? 0 : lane.pending.get();
+    }
+
+    /**
+     * 从指定通道移除最早提交且尚未开始执行的任务
+     *
+     * @return 被移除的任务，通道为空时返回 null
+     */
+    public Runnable pollOldest(Object key) {
+        Lane lane = lanes.get(key);
+        return lane == null ? null : lane.poll();
+    }
+
+    /**
+     * 当前活跃（有待执行任务）的通道数量
+     */
+    public int activeLanes() {
+        return lanes.size();
+    }
+
+    public void shutdown() {
+        laneThreads.shutdown();
+    }
+
+    private final class Lane implements Runnable {
+        final Object key;
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        /** 仅在 compute 中读写 */
+        boolean running;
+
+        Lane(Object key) {
+            this.key = key;
+        }
+
+        Runnable poll() {
+            Runnable task = tasks.poll();
+            if (task != null) {
+                pending.decrementAndGet();
+            }
+            return task;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                while ((task = poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        log.error("通道 {} 执行任务时出错", key, e);
+                    }
+                }
+                if (tryRetire()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 队列为空时回收通道；回收判定期间若有新任务入队则继续执行
+         */
+        private boolean tryRetire() {
+            boolean[] retired = new boolean[1];
+            lanes.compute(key, (k, lane) -> {
+                if (lane != this) {
+                    return lane;
+                }
+                if (tasks.isEmpty()) {
+                    running = false;
+                    retired[0] = true;
+                    return null;
+                }
+                return this;
+            });
+            return retired[0];
+        }
+    }
+}
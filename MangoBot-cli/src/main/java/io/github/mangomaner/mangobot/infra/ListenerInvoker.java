@@ -0,0 +1,22 @@
+package io.github.mangomaner.mangobot.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+
+/**
+ * 监听器调用器
+ * <p>
+ * 由 {@link ListenerInvokers} 在注册监听器时生成。
+ * 该接口必须保持 public：插件监听器的实现类定义在插件类加载器中，需要能够访问此接口。
+ */
+@FunctionalInterface
+public interface ListenerInvoker {
+
+    /**
+     * 调用监听方法
+     *
+     * @param bean  监听器实例
+     * @param event 事件对象
+     * @return 是否继续传播
+     */
+    boolean invoke(Object bean, OneBotEvent event) throws Throwable;
+}
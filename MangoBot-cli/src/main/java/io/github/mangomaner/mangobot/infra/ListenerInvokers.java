@@ -0,0 +1,146 @@
+package io.github.mangomaner.mangobot.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 监听器调用器工厂
+ * <p>
+ * 注册监听器时将监听方法编译为直接调用，避免每次分发事件都经过 {@link Method#invoke} 和结果装箱。
+ * 优先通过 {@link LambdaMetafactory} 生成实现类，失败时依次退化为 {@link MethodHandle} 和反射调用。
+ * <p>
+ * LambdaMetafactory 要求调用方 Lookup 具有完整权限，而跨类加载器（跨模块）的 {@code privateLookupIn} 会丢失 MODULE 权限。
+ * 因此监听器不在本类所在模块时（如插件类加载器加载的监听器），先在监听器所在包中定义一个锚点类，
+ * 由它在插件模块内调用 {@code MethodHandles.lookup()}，再以此取得监听器类的完整权限 Lookup。
+ */
+@Slf4j
+public final class ListenerInvokers {
+
+    private static final String ANCHOR_SIMPLE_NAME = "MangoBotListenerLookup$$Anchor";
+
+    private static final String LOOKUP_DESCRIPTOR = "()Ljava/lang/invoke/MethodHandles$Lookup;";
+
+    private ListenerInvokers() {}
+
+    /**
+     * 为监听方法生成调用器，依次尝试 LambdaMetafactory、MethodHandle、反射
+     */
+    public static ListenerInvoker compile(Method method) {
+        if (!Modifier.isStatic(method.getModifiers())) {
+            try {
+                return lambda(method);
+            } catch (Throwable e) {
+                log.info("监听器 {} 无法通过 LambdaMetafactory 编译，退化为 MethodHandle: {}", method, e.toString());
+            }
+        }
+        try {
+            return methodHandle(method);
+        } catch (Throwable e) {
+            log.debug("监听器 {} 无法通过 MethodHandle 编译，退化为反射调用", method, e);
+        }
+        return reflective(method);
+    }
+
+    /**
+     * 通过 LambdaMetafactory 生成直接调用监听方法的实现类，仅支持实例方法
+     */
+    public static ListenerInvoker lambda(Method method) throws Throwable {
+        MethodHandles.Lookup lookup = fullPrivilegeLookup(method.getDeclaringClass());
+        MethodHandle target = lookup.unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "invoke",
+                MethodType.methodType(ListenerInvoker.class),
+                MethodType.methodType(boolean.class, Object.class, OneBotEvent.class),
+                target,
+                MethodType.methodType(boolean.class, method.getDeclaringClass(), method.getParameterTypes()[0]));
+        return (ListenerInvoker) site.getTarget().invokeExact();
+    }
+
+    /**
+     * 取得目标类的完整权限 Lookup，目标类在其他模块时经由同包锚点类获取
+     */
+    static MethodHandles.Lookup fullPrivilegeLookup(Class<?> target) throws Throwable {
+        MethodHandles.Lookup own = MethodHandles.lookup();
+        if (target.getModule() == ListenerInvokers.class.getModule()) {
+            return MethodHandles.privateLookupIn(target, own);
+        }
+        // 跨模块的 privateLookupIn 仍有 PACKAGE 权限，足以在目标包中定义锚点类
+        MethodHandles.Lookup packageLookup = MethodHandles.privateLookupIn(target, own);
+        Class<?> anchor = anchorClass(packageLookup);
+        MethodHandles.Lookup anchorLookup = (MethodHandles.Lookup) packageLookup
+                .findStatic(anchor, "lookup", MethodType.methodType(MethodHandles.Lookup.class))
+                .invokeExact();
+        return MethodHandles.privateLookupIn(target, anchorLookup);
+    }
+
+    private static Class<?> anchorClass(MethodHandles.Lookup packageLookup) throws IllegalAccessException {
+        String packageName = packageLookup.lookupClass().getPackageName();
+        String name = packageName.isEmpty() ? ANCHOR_SIMPLE_NAME : packageName + "." + ANCHOR_SIMPLE_NAME;
+        // 同一类加载器的同一包只定义一次
+        synchronized (ListenerInvokers.class) {
+            try {
+                return packageLookup.findClass(name);
+            } catch (ClassNotFoundException e) {
+                return packageLookup.defineClass(anchorBytes(name.replace('.', '/')));
+            }
+        }
+    }
+
+    /**
+     * 锚点类：{@code public static Lookup lookup() { return MethodHandles.lookup(); }}
+     */
+    private static byte[] anchorBytes(String internalName) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+                internalName, null, "java/lang/Object", null);
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "lookup", LOOKUP_DESCRIPTOR, null, null);
+        method.visitCode();
+        method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", LOOKUP_DESCRIPTOR, false);
+        method.visitInsn(Opcodes.ARETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * 通过类型适配后的 MethodHandle 调用监听方法
+     */
+    public static ListenerInvoker methodHandle(Method method) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle target = lookup.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+        MethodHandle handle = target.asType(MethodType.methodType(boolean.class, Object.class, OneBotEvent.class));
+        return (bean, event) -> (boolean) handle.invokeExact(bean, event);
+    }
+
+    /**
+     * 反射调用监听方法
+     */
+    public static ListenerInvoker reflective(Method method) {
+        method.setAccessible(true);
+        return (bean, event) -> {
+            try {
+                return (boolean) method.invoke(bean, event);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -1,7 +1,5 @@
 package io.github.mangomaner.mangobot.infra;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.annotation.PluginPriority;
 import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
 import io.github.mangomaner.mangobot.api.MangoConfigApi;
@@ -16,10 +14,7 @@ import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 @Component
 @Slf4j
@@ -29,10 +24,23 @@ public class MangoEventPublisher {
     private ApplicationContext applicationContext;
 
     @Resource
-    private ObjectMapper objectMapper;
+    private EventIngress eventIngress;
+
+    /**
+     * 按声明事件类型分组的监听器注册表。写时复制：注册/注销时整体替换，发布线程只读取快照。
+     */
+    private volatile Map<Class<?>, ListenerMethod[]> registrations = Map.of();
+
+    /**
+     * 分发表：具体事件类 -> 按优先级排好序的全部匹配监听器。
+     * 某类事件首次发布时计算，注册表变化时整体重建，发布路径上只做一次 Map 查找。
+     */
+    private volatile Map<Class<?>, ListenerMethod[]> dispatchTable = Map.of();
+
+    private final Object registrationLock = new Object();
+
+    private long registrationSequence;
 
-    private final Map<Class<?>, List<ListenerMethod>> listenerCache = new ConcurrentHashMap<>();
-    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 10, 1000, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
 
     /**
      * 初始化时自动扫描 Spring 容器中带有 @MangoBotEventListener 注解的 Bean，
@@ -60,7 +68,7 @@ public class MangoEventPublisher {
     }
 
     /**
-     * 多线程发布事件
+     * 多线程发布事件，事件经 {@link EventIngress} 按会话分道，同一会话内按发布顺序执行
      * @param event
      */
     public void publish(OneBotEvent event) {
@@ -69,20 +77,22 @@ public class MangoEventPublisher {
             return;
         }
 
-        executor.execute(() -> {
-            List<ListenerMethod> listeners = getListenersForEvent(event.getClass());
-            for (ListenerMethod listener : listeners) {
-                try {
-                    boolean result = (boolean) listener.method.invoke(listener.bean, event);
-                    if (!result) {
-                        log.debug("监听器 {} 返回 false，停止传播。", listener.method.getName());
-                        break;
-                    }
-                } catch (Exception e) {
-                    log.error("执行监听器时出错: {}", listener.method.getName(), e);
+        eventIngress.submit(event, () -> dispatch(event));
+    }
+
+    private void dispatch(OneBotEvent event) {
+        ListenerMethod[] listeners = getListenersForEvent(event.getClass());
+        for (ListenerMethod listener : listeners) {
+            try {
+                boolean result = listener.invoker.invoke(listener.bean, event);
+                if (!result) {
+                    log.debug("监听器 {} 返回 false，停止传播。", listener.method.getName());
+                    break;
                 }
+            } catch (Throwable e) {
+                log.error("执行监听器时出错: {}", listener.method.getName(), e);
             }
-        });
+        }
     }
 
     /**
@@ -109,12 +119,8 @@ public class MangoEventPublisher {
         String enableListValue = MangoConfigApi.getBotConfigValue("group.enable_list", botId, "true");
         boolean isWhitelistMode = Boolean.parseBoolean(enableListValue);
 
-        String listValue = MangoConfigApi.getBotConfigValue(
-                isWhitelistMode ? "group.whitelist" : "group.blacklist", botId, "[]");
-
-        List<String> groupIdList = parseJsonArray(listValue);
-        String groupIdStr = String.valueOf(groupId);
-        boolean inList = groupIdList.contains(groupIdStr);
+        boolean inList = MangoConfigApi.botConfigListContains(
+                isWhitelistMode ? "group.whitelist" : "group.blacklist", botId, groupId);
 
         if (isWhitelistMode) {
             return !inList;
@@ -130,12 +136,8 @@ public class MangoEventPublisher {
         String enableListValue = MangoConfigApi.getBotConfigValue("private.enable_list", botId, "true");
         boolean isWhitelistMode = Boolean.parseBoolean(enableListValue);
 
-        String listValue = MangoConfigApi.getBotConfigValue(
-                isWhitelistMode ? "private.whitelist" : "private.blacklist", botId, "[]");
-
-        List<String> userIdList = parseJsonArray(listValue);
-        String userIdStr = String.valueOf(userId);
-        boolean inList = userIdList.contains(userIdStr);
+        boolean inList = MangoConfigApi.botConfigListContains(
+                isWhitelistMode ? "private.whitelist" : "private.blacklist", botId, userId);
 
         if (isWhitelistMode) {
             return !inList;
@@ -144,18 +146,6 @@ public class MangoEventPublisher {
         }
     }
 
-    /**
-     * 解析 JSON 数组字符串为 List
-     */
-    private List<String> parseJsonArray(String json) {
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            log.warn("解析黑白名单 JSON 失败: {}", json, e);
-            return Collections.emptyList();
-        }
-    }
-
     /**
      * 注册监听器
      * @param method
@@ -183,10 +173,16 @@ public class MangoEventPublisher {
             priority = method.getAnnotation(PluginPriority.class).value();
         }
 
-        ListenerMethod listenerMethod = new ListenerMethod(instance, method, priority);
-        listenerCache.computeIfAbsent(eventType, k -> new ArrayList<>()).add(listenerMethod);
-        // 添加新监听器后重新排序
-        Collections.sort(listenerCache.get(eventType));
+        synchronized (registrationLock) {
+            ListenerMethod listenerMethod = new ListenerMethod(instance, method, priority, registrationSequence++);
+            Map<Class<?>, ListenerMethod[]> updated = new HashMap<>(registrations);
+            ListenerMethod[] existing = updated.getOrDefault(eventType, new ListenerMethod[0]);
+            ListenerMethod[] listeners = Arrays.copyOf(existing, existing.length + 1);
+            listeners[existing.length] = listenerMethod;
+            Arrays.sort(listeners);
+            updated.put(eventType, listeners);
+            applyRegistrations(updated);
+        }
 
         log.info("已注册监听器: {} 用于事件: {}", method.getName(), eventType.getSimpleName());
     }
@@ -200,8 +196,8 @@ public class MangoEventPublisher {
             return;
         }
 
-        for (List<ListenerMethod> listeners : listenerCache.values()) {
-            listeners.removeIf(listener -> listener.bean == instance);
+        synchronized (registrationLock) {
+            applyRegistrations(removeListeners(listener -> listener.bean == instance));
         }
         log.info("已注销实例 {} 的所有监听器", instance.getClass().getSimpleName());
     }
@@ -223,28 +219,89 @@ public class MangoEventPublisher {
         }
 
         Class<?> eventType = parameterTypes[0];
-        List<ListenerMethod> listeners = listenerCache.get(eventType);
-
-        if (listeners != null) {
-            boolean removed = listeners.removeIf(listener -> listener.bean == instance && listener.method.equals(method));
+        boolean removed;
+        synchronized (registrationLock) {
+            Map<Class<?>, ListenerMethod[]> current = registrations;
+            Map<Class<?>, ListenerMethod[]> updated = removeListeners(
+                    listener -> listener.bean == instance && listener.method.equals(method));
+            removed = !sameListeners(current, updated);
             if (removed) {
-                log.info("已注销监听器: {} 用于事件: {}", method.getName(), eventType.getSimpleName());
+                applyRegistrations(updated);
             }
         }
+        if (removed) {
+            log.info("已注销监听器: {} 用于事件: {}", method.getName(), eventType.getSimpleName());
+        }
     }
 
+    /**
+     * 在当前注册表的副本上移除匹配的监听器，调用方需持有 registrationLock
+     */
+    private Map<Class<?>, ListenerMethod[]> removeListeners(Predicate<ListenerMethod> filter) {
+        Map<Class<?>, ListenerMethod[]> updated = new HashMap<>();
+        for (Map.Entry<Class<?>, ListenerMethod[]> entry : registrations.entrySet()) {
+            ListenerMethod[] remaining = Arrays.stream(entry.getValue())
+                    .filter(filter.negate())
+                    .toArray(ListenerMethod[]::new);
+            if (remaining.length > 0) {
+                updated.put(entry.getKey(), remaining);
+            }
+        }
+        return updated;
+    }
 
-    private List<ListenerMethod> getListenersForEvent(Class<?> eventClass) {
-        List<ListenerMethod> result = new ArrayList<>();
+    private boolean sameListeners(Map<Class<?>, ListenerMethod[]> a, Map<Class<?>, ListenerMethod[]> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (Map.Entry<Class<?>, ListenerMethod[]> entry : a.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), b.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        for (Map.Entry<Class<?>, List<ListenerMethod>> entry : listenerCache.entrySet()) {
-            if (entry.getKey().isAssignableFrom(eventClass)) {
-                result.addAll(entry.getValue());
+    /**
+     * 替换注册表并重建已有事件类的分发表，调用方需持有 registrationLock
+     */
+    private void applyRegistrations(Map<Class<?>, ListenerMethod[]> updated) {
+        registrations = updated;
+        Map<Class<?>, ListenerMethod[]> table = new HashMap<>();
+        for (Class<?> eventClass : dispatchTable.keySet()) {
+            table.put(eventClass, collectListeners(updated, eventClass));
+        }
+        dispatchTable = table;
+    }
+
+    private ListenerMethod[] getListenersForEvent(Class<?> eventClass) {
+        ListenerMethod[] listeners = dispatchTable.get(eventClass);
+        if (listeners != null) {
+            return listeners;
+        }
+
+        synchronized (registrationLock) {
+            listeners = dispatchTable.get(eventClass);
+            if (listeners == null) {
+                listeners = collectListeners(registrations, eventClass);
+                Map<Class<?>, ListenerMethod[]> table = new HashMap<>(dispatchTable);
+                table.put(eventClass, listeners);
+                dispatchTable = table;
             }
+            return listeners;
         }
+    }
 
-        Collections.sort(result);
-        return result;
+    private static ListenerMethod[] collectListeners(Map<Class<?>, ListenerMethod[]> source, Class<?> eventClass) {
+        List<ListenerMethod> result = new ArrayList<>();
+        for (Map.Entry<Class<?>, ListenerMethod[]> entry : source.entrySet()) {
+            if (entry.getKey().isAssignableFrom(eventClass)) {
+                Collections.addAll(result, entry.getValue());
+            }
+        }
+        ListenerMethod[] listeners = result.toArray(new ListenerMethod[0]);
+        Arrays.sort(listeners);
+        return listeners;
     }
 
     /**
@@ -252,31 +309,28 @@ public class MangoEventPublisher {
      * 格式示例：EventType -> Listener1 (priority=5) -> Listener2 (priority=10)
      */
     public void printAllListeners() {
-        if (listenerCache.isEmpty()) {
+        Map<Class<?>, ListenerMethod[]> snapshot = registrations;
+        if (snapshot.isEmpty()) {
             log.info("当前没有注册任何监听器。");
             return;
         }
 
         // 按事件类型排序（可选，便于阅读）
-        List<Class<?>> sortedEventTypes = new ArrayList<>(listenerCache.keySet());
+        List<Class<?>> sortedEventTypes = new ArrayList<>(snapshot.keySet());
         sortedEventTypes.sort(Comparator.comparing(Class::getSimpleName));
 
         for (Class<?> eventType : sortedEventTypes) {
-            List<ListenerMethod> listeners = listenerCache.get(eventType);
-            if (listeners == null || listeners.isEmpty()) continue;
+            ListenerMethod[] listeners = snapshot.get(eventType);
 
             // 构建格式：EventClass -> method1 (priority=X) -> method2 (priority=Y)
             StringBuilder line = new StringBuilder();
             line.append(eventType.getSimpleName()).append("：O");
 
-            // 监听器已按优先级排序（因 registerListener 中每次 add 后都 sort）
-            // 但为保险起见，再排一次（或直接使用）
-            listeners.stream()
-                    .sorted() // 确保按 priority 升序
-                    .forEach(listener -> {
-                        String methodName = listener.method.getDeclaringClass().getSimpleName() + "." + listener.method.getName();
-                        line.append(" -> ").append(methodName).append(" (priority=").append(listener.priority).append(")");
-                    });
+            // 注册表中的数组在注册时已按优先级排序
+            for (ListenerMethod listener : listeners) {
+                String methodName = listener.method.getDeclaringClass().getSimpleName() + "." + listener.method.getName();
+                line.append(" -> ").append(methodName).append(" (priority=").append(listener.priority).append(")");
+            }
 
             log.info(line.toString());
         }
@@ -286,17 +340,24 @@ public class MangoEventPublisher {
         final Object bean;
         final Method method;
         final int priority;
+        final long sequence;
+        final ListenerInvoker invoker;
 
-        public ListenerMethod(Object bean, Method method, int priority) {
+        public ListenerMethod(Object bean, Method method, int priority, long sequence) {
             this.bean = bean;
             this.method = method;
             this.priority = priority;
-            this.method.setAccessible(true);
+            this.sequence = sequence;
+            this.invoker = ListenerInvokers.compile(method);
         }
 
+        /**
+         * 优先级相同时按注册顺序执行，保证分发顺序稳定
+         */
         @Override
         public int compareTo(ListenerMethod o) {
-            return Integer.compare(this.priority, o.priority);
+            int result = Integer.compare(this.priority, o.priority);
+            return result != 0 ? result : Long.compare(this.sequence, o.sequence);
         }
     }
 }
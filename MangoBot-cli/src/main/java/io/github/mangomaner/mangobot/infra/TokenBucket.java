@@ -0,0 +1,63 @@
+package io.github.mangomaner.mangobot.infra;
+
+/**
+ * 令牌桶
+ * <p>
+ * 以固定速率补充令牌，最多积攒 burst 个，允许短时突发、长期不超过速率。速率为 0 表示不限制。
+ * 非线程安全，由调用方加锁；时间使用 {@link System#nanoTime()}。
+ */
+public class TokenBucket {
+
+    private double nanosPerToken;
+    private double burst;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double perMinute, int burst, long now) {
+        configure(perMinute, burst);
+        this.tokens = this.burst;
+        this.refilledAt = now;
+    }
+
+    /**
+     * 修改速率和容量，已积攒的令牌不超过新容量
+     *
+     * @param perMinute 每分钟补充的令牌数，0 表示不限制
+     * @param burst     最多积攒的令牌数
+     */
+    public void configure(double perMinute, int burst) {
+        this.nanosPerToken = perMinute > 0 ? 60_000_000_000d / perMinute : 0;
+        this.burst = Math.max(1, burst);
+        this.tokens = Math.min(tokens, this.burst);
+    }
+
+    /**
+     * 距离下一个令牌可用还需等待的纳秒数，0 表示当前可用
+     */
+    public long nanosUntilAvailable(long now) {
+        if (nanosPerToken == 0) {
+            return 0;
+        }
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+
+    /**
+     * 取走一个令牌，调用前需确认 {@link #nanosUntilAvailable} 为 0
+     */
+    public void acquire(long now) {
+        if (nanosPerToken == 0) {
+            return;
+        }
+        refill(now);
+        tokens = Math.max(0, tokens - 1);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed / nanosPerToken);
+            refilledAt = now;
+        }
+    }
+}
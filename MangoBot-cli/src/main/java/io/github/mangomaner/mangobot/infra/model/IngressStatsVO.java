@@ -0,0 +1,37 @@
+package io.github.mangomaner.mangobot.infra.model;
+
+import lombok.Data;
+
+/**
+ * 单个 Bot 的事件入口队列统计
+ */
+@Data
+public class IngressStatsVO {
+
+    private long botId;
+
+    /**
+     * 当前排队等待处理的事件数
+     */
+    private long queued;
+
+    /**
+     * 累计进入队列的事件数
+     */
+    private long enqueued;
+
+    /**
+     * 累计因背压策略被丢弃的事件数
+     */
+    private long dropped;
+
+    /**
+     * 最近一次分发时事件在队列中的等待时间（毫秒）
+     */
+    private long lastLagMillis;
+
+    /**
+     * 启动以来事件在队列中的最长等待时间（毫秒）
+     */
+    private long maxLagMillis;
+}
@@ -1,18 +1,17 @@
 package io.github.mangomaner.mangobot.message_handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.module.agent.factory.AgentFactory;
 import io.github.mangomaner.mangobot.annotation.PluginPriority;
 import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
 import io.github.mangomaner.mangobot.events.configuration.BotConfigChangedEvent;
 import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
 import io.github.mangomaner.mangobot.events.onebot.message.OneBotPrivateMessageEvent;
-import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.module.message.journal.MessageWriteJournal;
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
 import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
-import io.github.mangomaner.mangobot.module.message.privateMessage.service.PrivateMessagesService;
+import io.github.mangomaner.mangobot.module.message.segment.MessageSegmentStorage;
 import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageParser;
-import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageFileProcessor;
+import io.github.mangomaner.mangobot.message_handler.enrichment.MessageEnrichmentPipeline;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -22,19 +21,18 @@ import org.springframework.stereotype.Component;
 @MangoBotEventListener
 public class MessageStoreHandler {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Resource
-    private GroupMessagesService groupMessagesService;
+    private MessageWriteJournal messageWriteJournal;
 
     @Resource
-    private PrivateMessagesService privateMessagesService;
+    private MessageSegmentStorage messageSegmentStorage;
 
     @Resource
     private OneBotMessageParser messageParser;
 
     @Resource
-    private OneBotMessageFileProcessor oneBotMessageFileProcessor;
+    private MessageEnrichmentPipeline enrichmentPipeline;
 
     @Resource
     private AgentFactory agentFactory;
@@ -45,9 +43,8 @@ public class MessageStoreHandler {
         log.info("收到消息: " + event.getMessage());
 
         try {
-            oneBotMessageFileProcessor.processReceivedFiles(event.getMessage());
-
-            String parseMessage = messageParser.parseMessage(event.getMessage(), event.getSelfId());
+            OneBotMessageParser.ParsedMessage parsed = messageParser.parse(event.getMessage(), event.getSelfId());
+            String parseMessage = parsed.text();
             event.setParsedMessage(parseMessage);
 
             GroupMessages groupMessages = new GroupMessages();
@@ -55,11 +52,14 @@ public class MessageStoreHandler {
             groupMessages.setGroupId(String.valueOf(event.getGroupId()));
             groupMessages.setMessageId(String.valueOf(event.getMessageId()));
             groupMessages.setSenderId(String.valueOf(event.getUserId()));
-            groupMessages.setMessageSegments(objectMapper.writeValueAsString(event.getMessage()));
+            messageSegmentStorage.write(groupMessages, event.getMessage());
             groupMessages.setMessageTime(event.getTime() * 1000L);
             groupMessages.setParseMessage(parseMessage);
 
-            groupMessagesService.addGroupMessage(groupMessages);
+            // 富化结果与回复 / 转发的引用内容需要按 id 回写，待消息落库后再提交
+            messageWriteJournal.appendGroup(groupMessages)
+                    .thenAccept(saved -> enrichmentPipeline.submitGroupMessage(
+                            saved, event.getMessage(), event.getSelfId(), parsed.refreshed()));
         } catch (Exception e) {
             log.error("Failed to save group message", e);
         }
@@ -72,9 +72,8 @@ public class MessageStoreHandler {
         log.info("收到消息: " + event.getMessage());
 
         try {
-            oneBotMessageFileProcessor.processReceivedFiles(event.getMessage());
-
-            String parseMessage = messageParser.parseMessage(event.getMessage(), event.getSelfId());
+            OneBotMessageParser.ParsedMessage parsed = messageParser.parse(event.getMessage(), event.getSelfId());
+            String parseMessage = parsed.text();
             event.setParsedMessage(parseMessage);
 
             PrivateMessages privateMessages = new PrivateMessages();
@@ -82,10 +81,12 @@ public class MessageStoreHandler {
             privateMessages.setFriendId(String.valueOf(event.getUserId()));
             privateMessages.setMessageId(String.valueOf(event.getMessageId()));
             privateMessages.setSenderId(String.valueOf(event.getUserId()));
-            privateMessages.setMessageSegments(objectMapper.writeValueAsString(event.getMessage()));
+            messageSegmentStorage.write(privateMessages, event.getMessage());
             privateMessages.setMessageTime(event.getTime() * 1000L);
             privateMessages.setParseMessage(parseMessage);
-            privateMessagesService.save(privateMessages);
+            messageWriteJournal.appendPrivate(privateMessages)
+                    .thenAccept(saved -> enrichmentPipeline.submitPrivateMessage(
+                            saved, event.getMessage(), event.getSelfId(), parsed.refreshed()));
         } catch (Exception e) {
             log.error("Failed to save private message", e);
         }
@@ -0,0 +1,192 @@
+package io.github.mangomaner.mangobot.message_handler.enrichment;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.*;
+import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageFileProcessor;
+import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageParser;
+import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
+import io.github.mangomaner.mangobot.module.message.privateMessage.service.PrivateMessagesService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 消息富化流水线
+ * <p>
+ * 文件下载和视觉模型解析耗时较长，不在事件分发线程上执行。
+ * 消息先以即时解析结果入库，富化任务在独立的有界线程池中处理文件；
+ * 文件处理完成且回复 / 转发的引用内容到达后，按当前状态重新解析一次并回写 parse_message。
+ * 每条消息只有这一处回写，两个来源先后完成也不会互相覆盖。
+ * 文件处理队列已满时放弃文件处理；回写使用独立的单线程队列，不受文件处理积压影响，
+ * 回写队列也满时由触发回写的线程直接执行，不会丢弃。
+ */
+@Slf4j
+@Component
+public class MessageEnrichmentPipeline {
+
+    private static final int CORE_WORKERS = 2;
+
+    private static final int MAX_WORKERS = 4;
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final int WRITE_BACK_QUEUE_CAPACITY = 1024;
+
+    private final OneBotMessageFileProcessor fileProcessor;
+    private final OneBotMessageParser messageParser;
+    private final GroupMessagesService groupMessagesService;
+    private final PrivateMessagesService privateMessagesService;
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            CORE_WORKERS, MAX_WORKERS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "Message-Enrich-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * 重新解析与回写 parse_message，耗时短，与文件处理分开排队
+     */
+    private final ThreadPoolExecutor writeBackExecutor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(WRITE_BACK_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "Message-Enrich-WriteBack");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public MessageEnrichmentPipeline(OneBotMessageFileProcessor fileProcessor,
+                                     OneBotMessageParser messageParser,
+                                     GroupMessagesService groupMessagesService,
+                                     PrivateMessagesService privateMessagesService) {
+        this.fileProcessor = fileProcessor;
+        this.messageParser = messageParser;
+        this.groupMessagesService = groupMessagesService;
+        this.privateMessagesService = privateMessagesService;
+    }
+
+    /**
+     * 判断消息是否包含需要富化的文件类消息段
+     */
+    public boolean requiresEnrichment(List<OneBotMessageSegment> segments) {
+        if (segments == null) {
+            return false;
+        }
+        for (OneBotMessageSegment segment : segments) {
+            if (isFileSegment(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 提交已入库群消息的富化任务
+     *
+     * @param refreshed 解析时返回的引用内容刷新结果，没有待获取的引用时为 null
+     */
+    public void submitGroupMessage(GroupMessages message, List<OneBotMessageSegment> segments, Long botId,
+                                   CompletableFuture<String> refreshed) {
+        submit(segments, botId, message.getParseMessage(), refreshed,
+                parsed -> groupMessagesService.updateParseMessage(message.getBotId(), message.getGroupId(), message.getId(), parsed));
+    }
+
+    /**
+     * 提交已入库私聊消息的富化任务
+     *
+     * @param refreshed 解析时返回的引用内容刷新结果，没有待获取的引用时为 null
+     */
+    public void submitPrivateMessage(PrivateMessages message, List<OneBotMessageSegment> segments, Long botId,
+                                     CompletableFuture<String> refreshed) {
+        submit(segments, botId, message.getParseMessage(), refreshed,
+                parsed -> privateMessagesService.updateParseMessage(message.getBotId(), message.getFriendId(), message.getId(), parsed));
+    }
+
+    private void submit(List<OneBotMessageSegment> segments, Long botId, String storedParse,
+                        CompletableFuture<String> refreshed, Consumer<String> updater) {
+        boolean files = requiresEnrichment(segments);
+        // 只有图片描述与引用内容会改变解析结果，其他文件只需下载
+        boolean reparse = refreshed != null || (files && containsImage(segments));
+        if (!files && !reparse) {
+            return;
+        }
+
+        CompletableFuture<Void> processed = new CompletableFuture<>();
+        if (!files || !execute(() -> {
+            try {
+                fileProcessor.processReceivedFiles(segments);
+            } catch (Exception e) {
+                log.error("消息文件处理失败, botId={}", botId, e);
+            } finally {
+                processed.complete(null);
+            }
+        })) {
+            processed.complete(null);
+        }
+        if (!reparse) {
+            return;
+        }
+
+        CompletableFuture<?> ready = refreshed == null
+                ? processed
+                : CompletableFuture.allOf(processed, refreshed.handle((text, error) -> null));
+        // 回写在回写线程上执行，不占用刷新回调或写入线程
+        ready.thenRun(() -> writeBackExecutor.execute(() -> {
+            try {
+                String parsed = messageParser.parseMessage(segments, botId);
+                if (!Objects.equals(parsed, storedParse)) {
+                    updater.accept(parsed);
+                }
+            } catch (Exception e) {
+                log.error("消息富化失败, botId={}", botId, e);
+            }
+        }));
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("消息富化队列已满，放弃本次富化, queued={}", executor.getQueue().size());
+            return false;
+        }
+    }
+
+    private boolean isFileSegment(OneBotMessageSegment segment) {
+        return segment instanceof ImageSegment || segment instanceof FileSegment
+                || segment instanceof VideoSegment || segment instanceof RecordSegment;
+    }
+
+    private boolean containsImage(List<OneBotMessageSegment> segments) {
+        for (OneBotMessageSegment segment : segments) {
+            if (segment instanceof ImageSegment) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        writeBackExecutor.shutdown();
+    }
+}
@@ -9,6 +9,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.AgentMcpToolConfi
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
 import io.github.mangomaner.mangobot.module.agent.service.AgentMcpConfigService;
 import io.github.mangomaner.mangobot.module.agent.service.AgentMcpToolConfigService;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -35,7 +36,7 @@ public class McpToolSynchronizer {
 
     private final AgentMcpConfigService mcpConfigService;
     private final AgentMcpToolConfigService mcpToolConfigService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
 
     public McpClientWrapper connectAndSync(AgentMcpConfig config) {
         McpClientBuilder builder = McpClientBuilder.create(String.valueOf(config.getId()));
@@ -7,6 +7,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.AgentSkillConfig;
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
 import io.github.mangomaner.mangobot.module.agent.service.AgentSkillConfigService;
 import io.github.mangomaner.mangobot.utils.FileUtils;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -67,7 +68,7 @@ public class SkillManager {
     private static final String SKILLS_DIR = "data/skills";
     
     private final AgentSkillConfigService skillConfigService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
 
     /**
      * 获取 Skill 存储目录路径
@@ -3,6 +3,7 @@ package io.github.mangomaner.mangobot.module.agent.capability.tool;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.module.agent.model.domain.AgentJavaToolConfig;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -46,7 +47,7 @@ public class JavaToolLoader {
     /** 工厂加载：每次创建 Agent 时调用工厂创建新实例 */
     public static final String LOAD_TYPE_FACTORY = "FACTORY";
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
     
     /** 工具实例缓存：用于 INSTANCE 模式 */
     private final Map<String, Object> instanceCache = new ConcurrentHashMap<>();
@@ -27,6 +27,7 @@ import io.github.mangomaner.mangobot.module.agent.service.AgentSkillConfigServic
 import io.github.mangomaner.mangobot.system.common.BaseResponse;
 import io.github.mangomaner.mangobot.system.common.ErrorCode;
 import io.github.mangomaner.mangobot.system.exception.BusinessException;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -64,7 +65,7 @@ public class AgentCapabilityController {
     private final McpConnectionManager mcpConnectionManager;
     private final SkillManager skillManager;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
 
     // ==================== Java 工具 ====================
 
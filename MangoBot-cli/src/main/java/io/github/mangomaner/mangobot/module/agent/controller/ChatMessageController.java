@@ -4,6 +4,7 @@ import io.github.mangomaner.mangobot.module.agent.model.dto.ChatMessageWebReques
 import io.github.mangomaner.mangobot.module.agent.model.vo.ChatMessageWebVO;
 import io.github.mangomaner.mangobot.module.agent.service.ChatMessageWebService;
 import io.github.mangomaner.mangobot.system.common.BaseResponse;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 import io.github.mangomaner.mangobot.system.common.ResultUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -62,6 +63,20 @@ public class ChatMessageController {
         return ResultUtils.success(messages);
     }
 
+    /**
+     * 按游标分页获取会话消息
+     */
+    @GetMapping("/page")
+    @Operation(summary = "分页获取消息", description = "从最新消息开始按游标向前分页，页内按时间正序排列")
+    public BaseResponse<CursorPage<ChatMessageWebVO>> pageMessagesBySessionId(
+            @Parameter(description = "会话ID", required = true) @RequestParam Integer sessionId,
+            @Parameter(description = "上一页返回的 nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(required = false) Integer pageSize) {
+        log.info("分页获取消息，sessionId: {}, cursor: {}", sessionId, cursor);
+        CursorPage<ChatMessageWebVO> page = chatMessageService.pageMessagesBySessionId(sessionId, cursor, pageSize);
+        return ResultUtils.success(page);
+    }
+
     /**
      * 获取会话下指定角色的消息列表
      */
@@ -1,7 +1,5 @@
 package io.github.mangomaner.mangobot.module.agent.factory;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.ReActAgent;
 import io.agentscope.core.memory.autocontext.AutoContextMemory;
 import io.agentscope.core.model.OpenAIChatModel;
@@ -28,6 +26,7 @@ import io.github.mangomaner.mangobot.api.context.ChatContext;
 import io.github.mangomaner.mangobot.system.common.ErrorCode;
 import io.github.mangomaner.mangobot.system.exception.BusinessException;
 import io.github.mangomaner.mangobot.module.agent.service.*;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -70,7 +69,6 @@ public class AgentFactory {
     private final McpConnectionManager mcpConnectionManager;
     private final SkillManager skillManager;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * 创建 Agent
@@ -85,7 +83,7 @@ public class AgentFactory {
         String agentName = "MangoBot-" + sessionId;
         log.info("Creating ReActAgent for session: {}, name: {}", sessionId, agentName);
 
-        ChatSessionVO chatSession = chatSessionService.getSessionById(sessionId);
+        ChatSessionVO chatSession = chatSessionService.getSessionInfo(sessionId);
         SessionSource sessionSource = chatSession.getSource();
         if (sessionSource == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "会话来源不能为空");
@@ -249,7 +247,7 @@ public class AgentFactory {
         }
         
         try {
-            List<String> enabledSources = objectMapper.readValue(enabledListJson, new TypeReference<List<String>>() {});
+            List<String> enabledSources = JsonCodec.read(enabledListJson, JsonCodec.STRING_LIST);
             return enabledSources.contains(sessionSource.getSourceKey());
         } catch (Exception e) {
             log.warn("Failed to parse enabledList: {}", enabledListJson, e);
@@ -1,7 +1,6 @@
 package io.github.mangomaner.mangobot.module.agent.hook;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.hook.*;
 import io.agentscope.core.message.Msg;
 import io.agentscope.core.message.TextBlock;
@@ -9,6 +8,7 @@ import io.agentscope.core.message.ToolUseBlock;
 import io.github.mangomaner.mangobot.module.agent.model.vo.TokenUsageVO;
 import io.github.mangomaner.mangobot.module.agent.service.ChatMessageWebService;
 import io.github.mangomaner.mangobot.utils.TokenUsageUtils;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -152,8 +152,7 @@ public class StreamingToolHook implements Hook {
             }
 
             // 序列化为 JSON 并发送
-            ObjectMapper mapper = new ObjectMapper();
-            String json = mapper.writeValueAsString(tokenUsageVO);
+            String json = JsonCodec.write(tokenUsageVO);
             emit(agentName, "<TokenUsage>" + json + "</TokenUsage>\n");
             log.info("[TokenUsage] 输入: {} tokens, 输出: {} tokens, 耗时: {}s",
                     tokenUsageVO.getInputTokens(),
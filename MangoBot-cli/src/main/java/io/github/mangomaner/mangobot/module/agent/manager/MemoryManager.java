@@ -1,6 +1,6 @@
 package io.github.mangomaner.mangobot.module.agent.manager;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.agentscope.core.memory.autocontext.AutoContextConfig;
 import io.agentscope.core.memory.autocontext.AutoContextMemory;
 import io.agentscope.core.model.OpenAIChatModel;
@@ -11,6 +11,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.ChatSession;
 import io.github.mangomaner.mangobot.api.MangoModelApi;
 import io.github.mangomaner.mangobot.api.enums.ModelRole;
 import io.github.mangomaner.mangobot.system.mapper.agent.ChatSessionMapper;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -23,7 +24,6 @@ import java.util.*;
 public class MemoryManager {
 
     private final ChatSessionMapper chatSessionMapper;
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final Map<Integer, AutoContextMemory> sessionMemories = new HashMap<>();
     private final Map<Integer, DatabaseSession> sessionStores = new HashMap<>();
@@ -106,8 +106,7 @@ public class MemoryManager {
         DatabaseSession(String serialized) {
             if (serialized != null && !serialized.isEmpty()) {
                 try {
-                    ObjectMapper mapper = new ObjectMapper();
-                    Map<String, Object> data = mapper.readValue(serialized, Map.class);
+                    Map<String, Object> data = JsonCodec.read(serialized, JsonCodec.OBJECT_MAP);
                     
                     @SuppressWarnings("unchecked")
                     Map<String, String> singles = (Map<String, String>) data.get("singleValues");
@@ -128,11 +127,10 @@ public class MemoryManager {
 
         String serialize() {
             try {
-                ObjectMapper mapper = new ObjectMapper();
                 Map<String, Object> data = new HashMap<>();
                 data.put("singleValues", singleValues);
                 data.put("listValues", listValues);
-                return mapper.writeValueAsString(data);
+                return JsonCodec.write(data);
             } catch (Exception e) {
                 log.error("Failed to serialize session state", e);
                 return "{}";
@@ -142,8 +140,7 @@ public class MemoryManager {
         @Override
         public void save(SessionKey sessionKey, String key, State value) {
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                singleValues.put(key, mapper.writeValueAsString(value));
+                singleValues.put(key, JsonCodec.write(value));
             } catch (Exception e) {
                 log.error("Failed to save state", e);
             }
@@ -152,10 +149,9 @@ public class MemoryManager {
         @Override
         public void save(SessionKey sessionKey, String key, List<? extends State> values) {
             try {
-                ObjectMapper mapper = new ObjectMapper();
                 List<String> serialized = new ArrayList<>();
                 for (State value : values) {
-                    serialized.add(mapper.writeValueAsString(value));
+                    serialized.add(JsonCodec.write(value));
                 }
                 listValues.put(key, serialized);
             } catch (Exception e) {
@@ -170,8 +166,7 @@ public class MemoryManager {
                 return Optional.empty();
             }
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                return Optional.of(mapper.readValue(value, type));
+                return Optional.of(JsonCodec.read(value, type));
             } catch (Exception e) {
                 log.error("Failed to get state", e);
                 return Optional.empty();
@@ -185,10 +180,10 @@ public class MemoryManager {
                 return List.of();
             }
             try {
-                ObjectMapper mapper = new ObjectMapper();
+                ObjectReader reader = JsonCodec.reader(itemType);
                 List<T> result = new ArrayList<>();
                 for (String value : values) {
-                    result.add(mapper.readValue(value, itemType));
+                    result.add(reader.readValue(value));
                 }
                 return result;
             } catch (Exception e) {
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.module.agent.capability.tool.JavaToolLoader;
 import io.github.mangomaner.mangobot.module.agent.model.domain.AgentJavaToolConfig;
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -34,7 +35,7 @@ public class JavaToolVO {
     private List<SessionSource> enabledList;
     private List<SessionSource> availableList;
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = JsonCodec.mapper();
 
     public static JavaToolVO from(AgentJavaToolConfig config, JavaToolLoader loader) {
         JavaToolVO vo = new JavaToolVO();
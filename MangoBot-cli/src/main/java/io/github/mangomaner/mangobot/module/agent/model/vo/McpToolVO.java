@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.module.agent.model.domain.AgentMcpToolConfig;
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -23,7 +24,7 @@ public class McpToolVO {
     private List<SessionSource> enabledList;
     private List<SessionSource> availableList;
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = JsonCodec.mapper();
 
     public static McpToolVO from(AgentMcpToolConfig config) {
         McpToolVO vo = new McpToolVO();
@@ -4,6 +4,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.ChatMessageWeb;
 import com.baomidou.mybatisplus.extension.service.IService;
 import io.github.mangomaner.mangobot.module.agent.model.dto.ChatMessageWebRequest;
 import io.github.mangomaner.mangobot.module.agent.model.vo.ChatMessageWebVO;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 
 import java.util.List;
 
@@ -48,6 +49,18 @@ public interface ChatMessageWebService extends IService<ChatMessageWeb> {
      */
     List<ChatMessageWebVO> listMessagesBySessionId(Integer sessionId);
 
+    /**
+     * 按游标向前分页获取会话消息
+     * <p>
+     * 每页内按时间正序排列，nextCursor 指向本页最早的一条，用于继续加载更早的消息
+     *
+     * @param sessionId 会话ID
+     * @param cursor    上一页返回的 nextCursor，为空时从最新消息开始
+     * @param pageSize  每页数量
+     * @return 消息分页
+     */
+    CursorPage<ChatMessageWebVO> pageMessagesBySessionId(Integer sessionId, String cursor, Integer pageSize);
+
     /**
      * 获取会话下指定角色的消息列表
      *
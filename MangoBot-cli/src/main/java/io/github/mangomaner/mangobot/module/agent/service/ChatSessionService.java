@@ -31,6 +31,14 @@ public interface ChatSessionService extends IService<ChatSession> {
      */
     ChatSessionVO getSessionById(Integer id);
 
+    /**
+     * 根据ID获取会话基本信息，不统计消息数量
+     *
+     * @param id 会话ID
+     * @return 会话视图对象（messageCount 为 null）
+     */
+    ChatSessionVO getSessionInfo(Integer id);
+
     /**
      * 获取工作区下的所有会话列表
      *
@@ -60,7 +68,7 @@ public interface ChatSessionService extends IService<ChatSession> {
      *
      * @param botId  Bot ID
      * @param chatId 群聊ID/私聊ID
-     * @return 会话视图对象，如果不存在则返回 null
+     * @return 会话视图对象（不含消息数量），不存在时自动创建；结果按 (botId, chatId, source) 缓存
      */
     ChatSessionVO getSessionByBotIdAndChatId(String botId, String chatId, SessionSource source);
 }
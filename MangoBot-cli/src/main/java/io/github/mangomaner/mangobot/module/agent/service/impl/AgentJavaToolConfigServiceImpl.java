@@ -8,6 +8,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.AgentJavaToolConf
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
 import io.github.mangomaner.mangobot.module.agent.service.AgentJavaToolConfigService;
 import io.github.mangomaner.mangobot.system.mapper.agent.AgentJavaToolConfigMapper;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +19,7 @@ import java.util.List;
 public class AgentJavaToolConfigServiceImpl extends ServiceImpl<AgentJavaToolConfigMapper, AgentJavaToolConfig>
     implements AgentJavaToolConfigService{
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
 
     @Override
     public AgentJavaToolConfig getByClassName(String className) {
@@ -8,6 +8,7 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.AgentMcpToolConfi
 import io.github.mangomaner.mangobot.module.agent.model.enums.SessionSource;
 import io.github.mangomaner.mangobot.module.agent.service.AgentMcpToolConfigService;
 import io.github.mangomaner.mangobot.system.mapper.agent.AgentMcpToolConfigMapper;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -19,7 +20,7 @@ import java.util.stream.Collectors;
 public class AgentMcpToolConfigServiceImpl extends ServiceImpl<AgentMcpToolConfigMapper, AgentMcpToolConfig>
     implements AgentMcpToolConfigService{
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = JsonCodec.mapper();
 
     @Override
     public List<AgentMcpToolConfig> listByMcpConfigId(Integer mcpConfigId) {
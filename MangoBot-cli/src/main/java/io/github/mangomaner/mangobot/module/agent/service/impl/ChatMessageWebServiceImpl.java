@@ -7,7 +7,10 @@ import io.github.mangomaner.mangobot.module.agent.model.domain.ChatSession;
 import io.github.mangomaner.mangobot.module.agent.model.dto.ChatMessageWebRequest;
 import io.github.mangomaner.mangobot.module.agent.model.vo.ChatMessageWebVO;
 import io.github.mangomaner.mangobot.module.agent.service.ChatMessageWebService;
+import io.github.mangomaner.mangobot.module.message.archive.MessageArchiveStore;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 import io.github.mangomaner.mangobot.system.common.ErrorCode;
+import io.github.mangomaner.mangobot.system.common.KeysetCursor;
 import io.github.mangomaner.mangobot.system.exception.BusinessException;
 import io.github.mangomaner.mangobot.system.mapper.agent.ChatMessageWebMapper;
 import io.github.mangomaner.mangobot.system.mapper.agent.ChatSessionMapper;
@@ -18,8 +21,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +42,8 @@ public class ChatMessageWebServiceImpl extends ServiceImpl<ChatMessageWebMapper,
      */
     private final ChatSessionMapper chatSessionMapper;
 
+    private final MessageArchiveStore messageArchiveStore;
+
     /**
      * 角色常量：用户
      */
@@ -52,6 +59,16 @@ public class ChatMessageWebServiceImpl extends ServiceImpl<ChatMessageWebMapper,
      */
     private static final String ROLE_SYSTEM = "system";
 
+    /**
+     * 默认每页消息数
+     */
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * 每页消息数上限
+     */
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ChatMessageWebVO createMessage(ChatMessageWebRequest request) {
@@ -163,6 +180,38 @@ public class ChatMessageWebServiceImpl extends ServiceImpl<ChatMessageWebMapper,
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPage<ChatMessageWebVO> pageMessagesBySessionId(Integer sessionId, String cursor, Integer pageSize) {
+        if (sessionId == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "会话ID不能为空");
+        }
+        int size = pageSize == null || pageSize <= 0 ? PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+
+        // 按 (create_time, id) 倒序取 size + 1 条，走 (session_id, create_time) 索引，与翻到第几页无关
+        LambdaQueryWrapper<ChatMessageWeb> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ChatMessageWeb::getSessionId, sessionId);
+        KeysetCursor keyset = KeysetCursor.decode(cursor);
+        if (keyset != null) {
+            wrapper.apply("(create_time, id) < ({0}, {1})", new Date(keyset.time()), keyset.id());
+        }
+        wrapper.orderByDesc(ChatMessageWeb::getCreateTime)
+                .orderByDesc(ChatMessageWeb::getId)
+                .last("LIMIT " + (size + 1));
+
+        // 超出保留期的消息可能已移入归档
+        Function<ChatMessageWeb, KeysetCursor> cursorOf = message -> new KeysetCursor(message.getCreateTime().getTime(), message.getId());
+        List<ChatMessageWeb> fetched = messageArchiveStore.merge(this.list(wrapper), keyset, size + 1, cursorOf,
+                (before, floor, limit) -> messageArchiveStore.listChatSession(sessionId, before, floor, limit));
+        CursorPage<ChatMessageWeb> page = CursorPage.of(fetched, size, cursorOf);
+
+        // 页内转为时间正序，与 listMessagesBySessionId 一致
+        List<ChatMessageWebVO> records = new ArrayList<>(page.getRecords().size());
+        for (int i = page.getRecords().size() - 1; i >= 0; i--) {
+            records.add(convertToVO(page.getRecords().get(i)));
+        }
+        return new CursorPage<>(records, page.getNextCursor());
+    }
+
     @Override
     public List<ChatMessageWebVO> listMessagesBySessionIdAndRole(Integer sessionId, String role) {
         if (sessionId == null) {
@@ -1,7 +1,10 @@
 package io.github.mangomaner.mangobot.module.agent.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.mangomaner.mangobot.module.agent.model.domain.ChatMessageWeb;
 import io.github.mangomaner.mangobot.module.agent.model.domain.ChatSession;
 import io.github.mangomaner.mangobot.module.agent.model.dto.CreateChatSessionRequest;
@@ -22,7 +25,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,6 +54,20 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
      */
     private static final Integer STATUS_ARCHIVED = 0;
 
+    /**
+     * (botId, chatId, source) -> 会话，群消息每条都要取会话 ID，命中时不再查询数据库
+     */
+    private final Cache<SessionKey, ChatSessionVO> sessionsByChat = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    private record SessionKey(String botId, String chatId, SessionSource source) {
+        static SessionKey of(ChatSession session) {
+            return new SessionKey(session.getBotId(), session.getChatId(), session.getSource());
+        }
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ChatSessionVO createSession(CreateChatSessionRequest request) {
@@ -73,11 +93,21 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
         }
 
         log.info("创建会话成功，sessionId: {}, title: {}", session.getId(), session.getTitle());
-        return convertToVO(session);
+        return convertToVO(session, 0L);
     }
 
     @Override
     public ChatSessionVO getSessionById(Integer id) {
+        ChatSession session = requireSession(id);
+        return convertToVO(session, countMessages(List.of(session.getId())).getOrDefault(session.getId(), 0L));
+    }
+
+    @Override
+    public ChatSessionVO getSessionInfo(Integer id) {
+        return convertToVO(requireSession(id), null);
+    }
+
+    private ChatSession requireSession(Integer id) {
         if (id == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "会话ID不能为空");
         }
@@ -86,8 +116,7 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
         if (session == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "会话不存在");
         }
-
-        return convertToVO(session);
+        return session;
     }
 
     @Override
@@ -102,8 +131,10 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
 
         List<ChatSession> sessions = this.list(wrapper);
 
+        // 一次分组统计所有会话的消息数量
+        Map<Integer, Long> counts = countMessages(sessions.stream().map(ChatSession::getId).toList());
         return sessions.stream()
-                .map(this::convertToVO)
+                .map(session -> convertToVO(session, counts.getOrDefault(session.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
@@ -135,9 +166,10 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
                 throw new BusinessException(ErrorCode.SYSTEM_ERROR, "更新会话失败");
             }
             log.info("更新会话成功，sessionId: {}", id);
+            sessionsByChat.invalidate(SessionKey.of(session));
         }
 
-        return convertToVO(session);
+        return convertToVO(session, countMessages(List.of(session.getId())).getOrDefault(session.getId(), 0L));
     }
 
 
@@ -162,62 +194,80 @@ public class ChatSessionServiceImpl extends ServiceImpl<ChatSessionMapper, ChatS
             log.error("删除会话失败，sessionId: {}", id);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除会话失败");
         }
+        sessionsByChat.invalidate(SessionKey.of(session));
 
         log.info("删除会话成功，sessionId: {}", id);
     }
 
     @Override
     public ChatSessionVO getSessionByBotIdAndChatId(String botId, String chatId, SessionSource source) {
-        if (botId == null || chatId == null) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "botId 和 chatId 不能为空");
+        if (botId == null || chatId == null || source == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "botId、chatId 和 source 不能为空");
         }
+        // Caffeine 对同一个键的加载互斥，并发的首条消息只会创建一个会话
+        return sessionsByChat.get(new SessionKey(botId, chatId, source), this::loadOrCreateSession);
+    }
 
+    private ChatSessionVO loadOrCreateSession(SessionKey key) {
         LambdaQueryWrapper<ChatSession> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ChatSession::getBotId, botId)
-               .eq(ChatSession::getChatId, chatId)
-               .eq(ChatSession::getSource, source);
+        wrapper.eq(ChatSession::getBotId, key.botId())
+               .eq(ChatSession::getChatId, key.chatId())
+               .eq(ChatSession::getSource, key.source())
+               .orderByAsc(ChatSession::getId)
+               .last("LIMIT 1");
 
         ChatSession session = this.getOne(wrapper);
 
         if (session == null) {
             CreateChatSessionRequest request = CreateChatSessionRequest.builder()
-                    .title("群聊" + chatId)
-                    .botId(botId)
-                    .chatId(chatId)
-                    .source(SessionSource.GROUP)
+                    .title(key.source().getDescription() + key.chatId())
+                    .botId(key.botId())
+                    .chatId(key.chatId())
+                    .source(key.source())
                     .build();
-            return self.createSession(request);
+            ChatSessionVO created = self.createSession(request);
+            // 缓存的视图对象不携带消息数量，避免之后一直返回创建时的 0
+            created.setMessageCount(null);
+            return created;
         }
 
-        return convertToVO(session);
+        return convertToVO(session, null);
+    }
+
+    /**
+     * 按会话分组统计消息数量
+     */
+    private Map<Integer, Long> countMessages(List<Integer> sessionIds) {
+        Map<Integer, Long> counts = new HashMap<>();
+        if (sessionIds.isEmpty()) {
+            return counts;
+        }
+        QueryWrapper<ChatMessageWeb> wrapper = new QueryWrapper<>();
+        wrapper.select("session_id", "COUNT(*) AS message_count")
+               .in("session_id", sessionIds)
+               .groupBy("session_id");
+        for (Map<String, Object> row : chatMessageService.listMaps(wrapper)) {
+            counts.put(((Number) row.get("session_id")).intValue(), ((Number) row.get("message_count")).longValue());
+        }
+        return counts;
     }
 
     /**
      * 将实体转换为视图对象
      *
-     * @param session 会话实体
+     * @param session      会话实体
+     * @param messageCount 消息数量，只在详情与列表接口中统计，其他场景为 null
      * @return 会话视图对象
      */
-    private ChatSessionVO convertToVO(ChatSession session) {
+    private ChatSessionVO convertToVO(ChatSession session, Long messageCount) {
         if (session == null) {
             return null;
         }
 
         ChatSessionVO vo = new ChatSessionVO();
         BeanUtils.copyProperties(session, vo);
-
-        // 查询消息数量
-        long messageCount = chatMessageService.count(
-                new LambdaQueryWrapper<ChatMessageWeb>()
-                        .eq(ChatMessageWeb::getSessionId, session.getId())
-        );
         vo.setMessageCount(messageCount);
 
         return vo;
     }
 }
-
-
-
-
-
@@ -51,7 +51,7 @@ public class ChatService {
         }
 
         try {
-            chatSessionService.getSessionById(sessionId);
+            chatSessionService.getSessionInfo(sessionId);
         } catch (Exception e) {
             return Flux.just("<Error>会话不存在</Error>\n");
         }
@@ -0,0 +1,158 @@
+package io.github.mangomaner.mangobot.module.configuration.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.mangomaner.mangobot.annotation.PluginPriority;
+import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
+import io.github.mangomaner.mangobot.events.configuration.BotConfigChangedEvent;
+import io.github.mangomaner.mangobot.events.configuration.PluginConfigChangedEvent;
+import io.github.mangomaner.mangobot.events.configuration.SystemConfigChangedEvent;
+import io.github.mangomaner.mangobot.utils.LongHashSet;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 配置值缓存
+ * <p>
+ * 缓存解析后的系统、Bot、插件配置值（Bot 配置为回退到默认配置后的最终值），
+ * 列表类配置（群/私聊黑白名单）额外缓存为 {@link LongHashSet}。
+ * 各配置 Service 在写路径上同步失效对应条目，配置变更事件作为兜底再失效一次。
+ */
+@Slf4j
+@Component
+@MangoBotEventListener
+public class ConfigValueCache {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodec.mapper();
+
+    private static final int MAXIMUM_SIZE = 10_000;
+
+    private static final long EXPIRE_MINUTES = 30;
+
+    private record BotKey(String botId, String configKey) {}
+
+    private record PluginKey(Long pluginId, String botId, String configKey) {}
+
+    private final Cache<BotKey, Optional<String>> botValues = newCache();
+    private final Cache<BotKey, LongHashSet> botIdSets = newCache();
+    private final Cache<String, Optional<String>> systemValues = newCache();
+    private final Cache<PluginKey, Optional<String>> pluginValues = newCache();
+
+    private static <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build();
+    }
+
+    // ==================== 读取 ====================
+
+    public String getBotValue(String configKey, String botId, Supplier<String> loader) {
+        return botValues.get(new BotKey(botId, configKey), k -> Optional.ofNullable(loader.get())).orElse(null);
+    }
+
+    /**
+     * 获取列表类 Bot 配置解析后的 ID 集合
+     *
+     * @param loader 加载原始配置值（JSON 数组）
+     */
+    public LongHashSet getBotIdSet(String configKey, String botId, Supplier<String> loader) {
+        return botIdSets.get(new BotKey(botId, configKey), k -> parseIdSet(loader.get()));
+    }
+
+    public String getSystemValue(String configKey, Supplier<String> loader) {
+        return systemValues.get(configKey, k -> Optional.ofNullable(loader.get())).orElse(null);
+    }
+
+    public String getPluginValue(Long pluginId, String botId, String configKey, Supplier<String> loader) {
+        return pluginValues.get(new PluginKey(pluginId, botId, configKey), k -> Optional.ofNullable(loader.get())).orElse(null);
+    }
+
+    // ==================== 失效 ====================
+
+    /**
+     * 失效 Bot 配置。botId 为 null 表示默认配置变更，所有回退到该默认值的 Bot 一并失效。
+     */
+    public void invalidateBot(String botId, String configKey) {
+        if (botId == null) {
+            botValues.asMap().keySet().removeIf(key -> Objects.equals(key.configKey(), configKey));
+            botIdSets.asMap().keySet().removeIf(key -> Objects.equals(key.configKey(), configKey));
+        } else {
+            BotKey key = new BotKey(botId, configKey);
+            botValues.invalidate(key);
+            botIdSets.invalidate(key);
+        }
+    }
+
+    /**
+     * 失效指定 Bot 的全部配置
+     */
+    public void invalidateBot(String botId) {
+        botValues.asMap().keySet().removeIf(key -> Objects.equals(key.botId(), botId));
+        botIdSets.asMap().keySet().removeIf(key -> Objects.equals(key.botId(), botId));
+    }
+
+    public void invalidateSystem(String configKey) {
+        systemValues.invalidate(configKey);
+    }
+
+    public void invalidatePlugin(Long pluginId) {
+        pluginValues.asMap().keySet().removeIf(key -> Objects.equals(key.pluginId(), pluginId));
+    }
+
+    @MangoBotEventListener
+    @PluginPriority(-10)
+    public boolean onBotConfigChanged(BotConfigChangedEvent event) {
+        invalidateBot(event.getBotId(), event.getConfigKey());
+        return true;
+    }
+
+    @MangoBotEventListener
+    @PluginPriority(-10)
+    public boolean onSystemConfigChanged(SystemConfigChangedEvent event) {
+        invalidateSystem(event.getConfigKey());
+        return true;
+    }
+
+    @MangoBotEventListener
+    @PluginPriority(-10)
+    public boolean onPluginConfigChanged(PluginConfigChangedEvent event) {
+        invalidatePlugin(event.getPluginId());
+        return true;
+    }
+
+    private LongHashSet parseIdSet(String json) {
+        if (json == null || json.isBlank()) {
+            return LongHashSet.empty();
+        }
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(json);
+            if (!node.isArray()) {
+                log.warn("列表配置值不是 JSON 数组: {}", json);
+                return LongHashSet.empty();
+            }
+            List<Long> ids = new ArrayList<>(node.size());
+            for (JsonNode element : node) {
+                try {
+                    ids.add(Long.parseLong(element.asText().trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("列表配置中存在非数字 ID: {}", element);
+                }
+            }
+            return LongHashSet.of(ids);
+        } catch (Exception e) {
+            log.warn("解析列表配置 JSON 失败: {}", json, e);
+            return LongHashSet.empty();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.github.mangomaner.mangobot.module.configuration.model.domain.BotConfig
 import io.github.mangomaner.mangobot.module.configuration.model.dto.bot.CreateBotConfigRequest;
 import io.github.mangomaner.mangobot.module.configuration.model.dto.bot.UpdateBotConfigRequest;
 import io.github.mangomaner.mangobot.module.configuration.model.vo.BotConfigVO;
+import io.github.mangomaner.mangobot.utils.LongHashSet;
 
 import java.util.List;
 
@@ -43,6 +44,11 @@ public interface BotConfigService extends IService<BotConfig> {
      */
     String getConfigValue(String configKey, String botId);
 
+    /**
+     * 根据 Key 和 Bot ID 获取列表类配置（如群/私聊黑白名单）解析后的 ID 集合
+     */
+    LongHashSet getConfigIdSet(String configKey, String botId);
+
     /**
      * 根据 Key 获取配置值（仅默认配置）
      */
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.mangomaner.mangobot.module.configuration.core.ConfigValueCache;
 import io.github.mangomaner.mangobot.module.configuration.enums.ConfigType;
 import io.github.mangomaner.mangobot.events.configuration.BotConfigChangedEvent;
 import io.github.mangomaner.mangobot.module.configuration.model.config.ConfigMetadata;
@@ -15,6 +16,8 @@ import io.github.mangomaner.mangobot.module.configuration.model.dto.bot.UpdateBo
 import io.github.mangomaner.mangobot.module.configuration.model.vo.BotConfigVO;
 import io.github.mangomaner.mangobot.module.configuration.service.BotConfigService;
 import io.github.mangomaner.mangobot.infra.MangoEventPublisher;
+import io.github.mangomaner.mangobot.utils.LongHashSet;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -35,7 +38,10 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
     @Resource
     private ConfigTypeHandler configTypeHandler;
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    @Resource
+    private ConfigValueCache configValueCache;
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodec.mapper();
 
     @Override
     public List<BotConfigVO> getAllConfigs() {
@@ -117,8 +123,18 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
 
     @Override
     public String getConfigValue(String configKey, String botId) {
-        BotConfigVO config = getConfigByKeyAndBotId(configKey, botId);
-        return config != null ? config.getConfigValue() : null;
+        return configValueCache.getBotValue(configKey, botId, () -> {
+            BotConfigVO config = getConfigByKeyAndBotId(configKey, botId);
+            return config != null ? config.getConfigValue() : null;
+        });
+    }
+
+    @Override
+    public LongHashSet getConfigIdSet(String configKey, String botId) {
+        return configValueCache.getBotIdSet(configKey, botId, () -> {
+            BotConfigVO config = getConfigByKeyAndBotId(configKey, botId);
+            return config != null ? config.getConfigValue() : null;
+        });
     }
 
     @Override
@@ -157,6 +173,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
         config.setCategory(request.getCategory() != null ? request.getCategory() : "general");
         config.setEditable(request.getEditable() != null ? (request.getEditable() ? 1 : 0) : 1);
         this.save(config);
+        configValueCache.invalidateBot(config.getBotId(), config.getConfigKey());
         log.info("创建 Bot 配置成功: botId={}, key={}, type={}", config.getBotId(), config.getConfigKey(), configType);
         return convertToVO(config);
     }
@@ -169,6 +186,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
         }
 
         String oldValue = config.getConfigValue();
+        configValueCache.invalidateBot(config.getBotId(), config.getConfigKey());
 
         if (request.getBotId() != null) {
             config.setBotId(request.getBotId());
@@ -203,6 +221,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
         }
         config.setUpdatedAt(System.currentTimeMillis());
         this.updateById(config);
+        configValueCache.invalidateBot(config.getBotId(), config.getConfigKey());
 
         mangoEventPublisher.publish(new BotConfigChangedEvent(
                 config.getId(),
@@ -239,6 +258,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
             botConfig.setConfigValue(configValue);
             botConfig.setUpdatedAt(System.currentTimeMillis());
             boolean result = this.updateById(botConfig);
+            configValueCache.invalidateBot(botId, configKey);
 
             if (result) {
                 mangoEventPublisher.publish(new BotConfigChangedEvent(
@@ -279,6 +299,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
             }
             
             log.info("懒加载复制所有默认配置到 Bot 专属配置: botId={}, count={}", botId, defaultConfigs.size());
+            configValueCache.invalidateBot(botId);
             
             LambdaQueryWrapper<BotConfig> newBotWrapper = new LambdaQueryWrapper<>();
             newBotWrapper.eq(BotConfig::getConfigKey, configKey)
@@ -310,6 +331,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
             newConfig.setCategory(defaultConfig.getCategory());
             newConfig.setEditable(defaultConfig.getEditable());
             this.save(newConfig);
+            configValueCache.invalidateBot(botId, configKey);
             
             mangoEventPublisher.publish(new BotConfigChangedEvent(
                     newConfig.getId(),
@@ -338,6 +360,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
         botConfig.setConfigValue(configValue);
         botConfig.setUpdatedAt(System.currentTimeMillis());
         boolean result = this.updateById(botConfig);
+        configValueCache.invalidateBot(botId, configKey);
 
         if (result) {
             mangoEventPublisher.publish(new BotConfigChangedEvent(
@@ -373,6 +396,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
         config.setConfigValue(configValue);
         config.setUpdatedAt(System.currentTimeMillis());
         boolean result = this.updateById(config);
+        configValueCache.invalidateBot(null, configKey);
 
         if (result) {
             mangoEventPublisher.publish(new BotConfigChangedEvent(
@@ -396,6 +420,7 @@ public class BotConfigServiceImpl extends ServiceImpl<BotConfigMapper, BotConfig
             return false;
         }
         boolean result = this.removeById(id);
+        configValueCache.invalidateBot(config.getBotId(), config.getConfigKey());
         if (result) {
             log.info("删除 Bot 配置成功: botId={}, key={}", config.getBotId(), config.getConfigKey());
         }
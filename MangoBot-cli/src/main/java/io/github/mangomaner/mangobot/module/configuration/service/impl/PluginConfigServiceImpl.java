@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.mangomaner.mangobot.module.configuration.core.ConfigValueCache;
 import io.github.mangomaner.mangobot.module.configuration.enums.ConfigType;
 import io.github.mangomaner.mangobot.events.configuration.PluginConfigChangedEvent;
 import io.github.mangomaner.mangobot.module.configuration.model.config.ConfigMetadata;
@@ -17,6 +18,7 @@ import io.github.mangomaner.mangobot.module.configuration.service.PluginConfigSe
 import io.github.mangomaner.mangobot.infra.MangoEventPublisher;
 import io.github.mangomaner.mangobot.plugin.model.domain.Plugins;
 import io.github.mangomaner.mangobot.plugin.service.PluginsService;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -40,7 +42,10 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
     @Resource
     private ConfigTypeHandler configTypeHandler;
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    @Resource
+    private ConfigValueCache configValueCache;
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodec.mapper();
 
     @Override
     public List<PluginConfigVO> getAllConfigs() {
@@ -160,8 +165,10 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
 
     @Override
     public String getConfigValueByBotId(Long pluginId, String botId, String configKey) {
-        PluginConfigVO config = getConfig(pluginId, botId, configKey);
-        return config != null ? config.getConfigValue() : null;
+        return configValueCache.getPluginValue(pluginId, botId, configKey, () -> {
+            PluginConfigVO config = getConfig(pluginId, botId, configKey);
+            return config != null ? config.getConfigValue() : null;
+        });
     }
 
     @Override
@@ -194,6 +201,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             existing.setExplain(explain);
             existing.setUpdatedAt(System.currentTimeMillis());
             this.updateById(existing);
+            configValueCache.invalidatePlugin(pluginId);
             log.debug("更新插件配置: pluginId={}, key={}", pluginId, configKey);
         } else {
             PluginConfigEntity config = new PluginConfigEntity();
@@ -205,6 +213,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             config.setExplain(explain);
             config.setEditable(1);
             this.save(config);
+            configValueCache.invalidatePlugin(pluginId);
             log.debug("注册插件配置: pluginId={}, key={}, type={}", pluginId, configKey, type);
         }
     }
@@ -232,6 +241,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             existing.setEditable(definition.getEditable() ? 1 : 0);
             existing.setUpdatedAt(System.currentTimeMillis());
             this.updateById(existing);
+            configValueCache.invalidatePlugin(pluginId);
             log.debug("更新插件配置定义: pluginId={}, key={}", pluginId, definition.getKey());
         } else {
             PluginConfigEntity config = new PluginConfigEntity();
@@ -244,6 +254,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             config.setMetadata(metadataJson);
             config.setEditable(definition.getEditable() ? 1 : 0);
             this.save(config);
+            configValueCache.invalidatePlugin(pluginId);
             log.debug("注册插件配置定义: pluginId={}, key={}, type={}", pluginId, definition.getKey(), definition.getType());
         }
     }
@@ -295,6 +306,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
         }
         config.setUpdatedAt(System.currentTimeMillis());
         this.updateById(config);
+        configValueCache.invalidatePlugin(config.getPluginId());
 
         Plugins plugin = pluginsService.getById(config.getPluginId());
         String pluginName = plugin != null ? plugin.getPluginName() : "unknown";
@@ -333,6 +345,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
         config.setConfigValue(configValue);
         config.setUpdatedAt(System.currentTimeMillis());
         boolean result = this.updateById(config);
+        configValueCache.invalidatePlugin(pluginId);
 
         if (result) {
             Plugins plugin = pluginsService.getById(pluginId);
@@ -374,6 +387,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             botConfig.setConfigValue(configValue);
             botConfig.setUpdatedAt(System.currentTimeMillis());
             boolean result = this.updateById(botConfig);
+            configValueCache.invalidatePlugin(pluginId);
 
             if (result) {
                 Plugins plugin = pluginsService.getById(pluginId);
@@ -417,6 +431,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
                 newConfig.setEditable(defaultConfig.getEditable());
                 this.save(newConfig);
             }
+            configValueCache.invalidatePlugin(pluginId);
             
             log.info("懒加载复制所有默认配置到Bot专属配置: pluginId={}, botId={}, count={}", pluginId, botId, defaultConfigs.size());
             
@@ -452,6 +467,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
             newConfig.setExplain(defaultConfig.getExplain());
             newConfig.setEditable(defaultConfig.getEditable());
             this.save(newConfig);
+            configValueCache.invalidatePlugin(pluginId);
             
             Plugins plugin = pluginsService.getById(pluginId);
             String pluginName = plugin != null ? plugin.getPluginName() : "unknown";
@@ -483,6 +499,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
         botConfig.setConfigValue(configValue);
         botConfig.setUpdatedAt(System.currentTimeMillis());
         boolean result = this.updateById(botConfig);
+        configValueCache.invalidatePlugin(pluginId);
 
         if (result) {
             Plugins plugin = pluginsService.getById(pluginId);
@@ -508,6 +525,7 @@ public class PluginConfigServiceImpl extends ServiceImpl<PluginConfigMapper, Plu
         wrapper.eq(PluginConfigEntity::getPluginId, pluginId);
         List<PluginConfigEntity> configs = this.list(wrapper);
         this.remove(wrapper);
+        configValueCache.invalidatePlugin(pluginId);
         log.info("删除插件配置: pluginId={}, count={}", pluginId, configs.size());
     }
 
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.mangomaner.mangobot.module.configuration.core.ConfigValueCache;
 import io.github.mangomaner.mangobot.module.configuration.enums.ConfigType;
 import io.github.mangomaner.mangobot.events.configuration.SystemConfigChangedEvent;
 import io.github.mangomaner.mangobot.module.configuration.model.config.ConfigMetadata;
@@ -15,6 +16,7 @@ import io.github.mangomaner.mangobot.module.configuration.model.dto.system.Updat
 import io.github.mangomaner.mangobot.module.configuration.model.vo.SystemConfigVO;
 import io.github.mangomaner.mangobot.module.configuration.service.SystemConfigService;
 import io.github.mangomaner.mangobot.infra.MangoEventPublisher;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -33,7 +35,10 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
     @Resource
     private ConfigTypeHandler configTypeHandler;
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    @Resource
+    private ConfigValueCache configValueCache;
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodec.mapper();
 
     @Override
     public List<SystemConfigVO> getAllConfigs() {
@@ -61,19 +66,18 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
 
     @Override
     public String getConfigValue(String configKey) {
-        SystemConfigVO config = getConfigByKey(configKey);
-        return config != null ? config.getConfigValue() : null;
+        return configValueCache.getSystemValue(configKey, () -> {
+            LambdaQueryWrapper<SystemConfig> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(SystemConfig::getConfigKey, configKey);
+            SystemConfig config = this.getOne(wrapper);
+            return config != null ? config.getConfigValue() : null;
+        });
     }
 
     @Override
     public String getConfigValue(String configKey, String defaultValue) {
-        LambdaQueryWrapper<SystemConfig> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(SystemConfig::getConfigKey, configKey);
-        SystemConfig config = this.getOne(wrapper);
-        if (config == null) {
-            return defaultValue;
-        }
-        return config.getConfigValue() != null ? config.getConfigValue() : defaultValue;
+        String value = getConfigValue(configKey);
+        return value != null ? value : defaultValue;
     }
 
     @Override
@@ -94,6 +98,7 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
         config.setCategory(request.getCategory() != null ? request.getCategory() : "general");
         config.setEditable(request.getEditable() != null ? (request.getEditable() ? 1 : 0) : 1);
         this.save(config);
+        configValueCache.invalidateSystem(config.getConfigKey());
         log.info("创建系统配置成功: key={}, type={}", config.getConfigKey(), configType);
         return convertToVO(config);
     }
@@ -106,6 +111,7 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
         }
 
         String oldValue = config.getConfigValue();
+        configValueCache.invalidateSystem(config.getConfigKey());
 
         if (request.getConfigKey() != null) {
             config.setConfigKey(request.getConfigKey());
@@ -137,6 +143,7 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
         }
         config.setUpdatedAt(System.currentTimeMillis());
         this.updateById(config);
+        configValueCache.invalidateSystem(config.getConfigKey());
 
         mangoEventPublisher.publish(new SystemConfigChangedEvent(
                 config.getId(),
@@ -169,6 +176,7 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
         config.setConfigValue(configValue);
         config.setUpdatedAt(System.currentTimeMillis());
         boolean result = this.updateById(config);
+        configValueCache.invalidateSystem(configKey);
 
         if (result) {
             mangoEventPublisher.publish(new SystemConfigChangedEvent(
@@ -191,6 +199,7 @@ public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, Sys
             return false;
         }
         boolean result = this.removeById(id);
+        configValueCache.invalidateSystem(config.getConfigKey());
         if (result) {
             log.info("删除系统配置成功: key={}", config.getConfigKey());
         }
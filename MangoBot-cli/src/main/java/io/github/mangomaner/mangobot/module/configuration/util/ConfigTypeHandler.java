@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.module.configuration.enums.ConfigType;
 import io.github.mangomaner.mangobot.module.configuration.model.config.KeyValueItem;
 import io.github.mangomaner.mangobot.module.configuration.model.config.RangeValue;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -21,7 +22,7 @@ import java.util.*;
 @Component
 public class ConfigTypeHandler {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodec.mapper();
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
     private static final ZoneId DEFAULT_ZONE = ZoneId.systemDefault();
@@ -60,6 +60,16 @@ public class BotFiles implements Serializable {
      */
     private Long createTime;
 
+    /**
+     * 文件内容 SHA-256（十六进制）
+     */
+    private String contentHash;
+
+    /**
+     * 图片感知哈希（dHash），用于识别近似重复的图片
+     */
+    private Long perceptualHash;
+
     @TableField(exist = false)
     private static final long serialVersionUID = 1L;
 }
\ No newline at end of file
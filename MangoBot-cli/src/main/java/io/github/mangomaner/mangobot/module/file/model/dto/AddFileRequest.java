@@ -31,4 +31,10 @@ public class AddFileRequest {
 
     @Schema(description = "文件描述")
     private String description;
+
+    @Schema(description = "文件内容 SHA-256")
+    private String contentHash;
+
+    @Schema(description = "图片感知哈希")
+    private Long perceptualHash;
 }
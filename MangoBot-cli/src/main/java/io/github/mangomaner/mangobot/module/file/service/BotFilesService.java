@@ -5,6 +5,7 @@ import io.github.mangomaner.mangobot.module.file.model.dto.AddFileRequest;
 import io.github.mangomaner.mangobot.module.file.model.dto.UpdateFileRequest;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,10 +23,28 @@ public interface BotFilesService extends IService<BotFiles> {
 
     BotFiles getFileByFileId(String fileId);
 
+    /**
+     * 按 file_id 批量查询，一次查询返回所有已登记的文件
+     */
+    List<BotFiles> getFilesByFileIds(Collection<String> fileIds);
+
+    List<BotFiles> getFilesByContentHash(String contentHash);
+
+    BotFiles findSimilarImage(String fileType, long perceptualHash, int maxDistance);
+
     List<BotFiles> getFilesByType(String fileType);
 
     Boolean addFile(AddFileRequest request);
 
+    /**
+     * 批量登记文件：新文件插入，已登记的文件只补齐空字段并刷新链接
+     * <p>
+     * 单条语句完成，并发登记同一文件不会因唯一约束失败。
+     *
+     * @return 本批涉及的全部文件记录（含已存在的）
+     */
+    List<BotFiles> upsertFiles(List<AddFileRequest> requests);
+
     Boolean updateFile(UpdateFileRequest request);
 
     Boolean deleteFile(Long id);
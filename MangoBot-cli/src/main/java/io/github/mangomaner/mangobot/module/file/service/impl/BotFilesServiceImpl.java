@@ -10,7 +10,14 @@ import io.github.mangomaner.mangobot.module.file.service.BotFilesService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import io.github.mangomaner.mangobot.utils.ContentHashUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
 * @author mangoman
@@ -22,6 +29,18 @@ import java.util.List;
 public class BotFilesServiceImpl extends ServiceImpl<BotFilesMapper, BotFiles>
     implements BotFilesService {
 
+    /**
+     * 已有描述的图片感知哈希索引（文件记录 ID -> 哈希），首次查询时从数据库加载
+     */
+    private volatile Map<Long, PerceptualHashEntry> perceptualIndex;
+
+    /**
+     * 单条批量登记语句的最大行数（每行 10 个参数，远低于 SQLite 参数上限）
+     */
+    private static final int UPSERT_BATCH_SIZE = 200;
+
+    private record PerceptualHashEntry(long id, String fileType, long hash) {}
+
     @Override
     public List<BotFiles> getAllFiles() {
         return this.list();
@@ -46,6 +65,69 @@ public class BotFilesServiceImpl extends ServiceImpl<BotFilesMapper, BotFiles>
         return this.getOne(wrapper);
     }
 
+    @Override
+    public List<BotFiles> getFilesByFileIds(Collection<String> fileIds) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<BotFiles> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(BotFiles::getFileId, fileIds);
+        return this.list(wrapper);
+    }
+
+    @Override
+    public List<BotFiles> getFilesByContentHash(String contentHash) {
+        LambdaQueryWrapper<BotFiles> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(BotFiles::getContentHash, contentHash)
+                .orderByAsc(BotFiles::getId);
+        return this.list(wrapper);
+    }
+
+    @Override
+    public BotFiles findSimilarImage(String fileType, long perceptualHash, int maxDistance) {
+        PerceptualHashEntry best = null;
+        int bestDistance = maxDistance + 1;
+        for (PerceptualHashEntry entry : getPerceptualIndex().values()) {
+            if (!entry.fileType().equals(fileType)) {
+                continue;
+            }
+            int distance = ContentHashUtils.hammingDistance(entry.hash(), perceptualHash);
+            if (distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        return best != null ? this.getById(best.id()) : null;
+    }
+
+    private Map<Long, PerceptualHashEntry> getPerceptualIndex() {
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = perceptualIndex;
+                if (index == null) {
+                    index = new ConcurrentHashMap<>();
+                    LambdaQueryWrapper<BotFiles> wrapper = new LambdaQueryWrapper<>();
+                    wrapper.select(BotFiles::getId, BotFiles::getFileType, BotFiles::getPerceptualHash)
+                            .isNotNull(BotFiles::getPerceptualHash)
+                            .isNotNull(BotFiles::getDescription);
+                    for (BotFiles file : this.list(wrapper)) {
+                        indexPerceptualHash(index, file);
+                    }
+                    perceptualIndex = index;
+                    log.info("感知哈希索引加载完成, size={}", index.size());
+                }
+            }
+        }
+        return index;
+    }
+
+    private void indexPerceptualHash(Map<Long, PerceptualHashEntry> index, BotFiles file) {
+        if (file.getPerceptualHash() != null && file.getFileType() != null) {
+            index.put(file.getId(), new PerceptualHashEntry(file.getId(), file.getFileType(), file.getPerceptualHash()));
+        }
+    }
+
     @Override
     public List<BotFiles> getFilesByType(String fileType) {
         LambdaQueryWrapper<BotFiles> wrapper = new LambdaQueryWrapper<>();
@@ -66,8 +148,77 @@ public class BotFilesServiceImpl extends ServiceImpl<BotFilesMapper, BotFiles>
         files.setSubType(request.getSubType());
         files.setFileSize(request.getFileSize());
         files.setDescription(request.getDescription());
+        files.setContentHash(request.getContentHash());
+        files.setPerceptualHash(request.getPerceptualHash());
         files.setCreateTime(System.currentTimeMillis());
-        return this.save(files);
+        boolean saved = this.save(files);
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (saved && index != null && files.getDescription() != null) {
+            indexPerceptualHash(index, files);
+        }
+        return saved;
+    }
+
+    @Override
+    public List<BotFiles> upsertFiles(List<AddFileRequest> requests) {
+        // 同一批中重复的 file_id 合并为一行，ON CONFLICT 不能在一条语句里更新同一行两次
+        Map<String, BotFiles> byFileId = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (AddFileRequest request : requests) {
+            if (request.getFileId() == null || request.getFileId().isEmpty()) {
+                continue;
+            }
+            BotFiles file = byFileId.computeIfAbsent(request.getFileId(), fileId -> {
+                BotFiles created = new BotFiles();
+                created.setFileId(fileId);
+                created.setFileType(request.getFileType());
+                created.setCreateTime(now);
+                return created;
+            });
+            mergeMissing(file, request);
+        }
+        if (byFileId.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<BotFiles> files = new ArrayList<>(byFileId.values());
+        List<BotFiles> result = new ArrayList<>(files.size());
+        for (int from = 0; from < files.size(); from += UPSERT_BATCH_SIZE) {
+            result.addAll(this.baseMapper.upsertBatch(files.subList(from, Math.min(from + UPSERT_BATCH_SIZE, files.size()))));
+        }
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (index != null) {
+            for (BotFiles file : result) {
+                if (file.getDescription() != null) {
+                    indexPerceptualHash(index, file);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void mergeMissing(BotFiles file, AddFileRequest request) {
+        if (request.getUrl() != null) {
+            file.setUrl(request.getUrl());
+        }
+        if (file.getFilePath() == null) {
+            file.setFilePath(request.getFilePath());
+        }
+        if (file.getSubType() == null) {
+            file.setSubType(request.getSubType());
+        }
+        if (file.getFileSize() == null) {
+            file.setFileSize(request.getFileSize());
+        }
+        if (file.getDescription() == null) {
+            file.setDescription(request.getDescription());
+        }
+        if (file.getContentHash() == null) {
+            file.setContentHash(request.getContentHash());
+        }
+        if (file.getPerceptualHash() == null) {
+            file.setPerceptualHash(request.getPerceptualHash());
+        }
     }
 
     @Override
@@ -94,16 +245,30 @@ public class BotFilesServiceImpl extends ServiceImpl<BotFilesMapper, BotFiles>
         if (request.getDescription() != null) {
             files.setDescription(request.getDescription());
         }
-        return this.updateById(files);
+        boolean updated = this.updateById(files);
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (updated && index != null && files.getDescription() != null) {
+            indexPerceptualHash(index, files);
+        }
+        return updated;
     }
 
     @Override
     public Boolean deleteFile(Long id) {
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (index != null) {
+            index.remove(id);
+        }
         return this.removeById(id);
     }
 
     @Override
     public Boolean deleteFileByFileId(String fileId) {
+        BotFiles existing = this.getFileByFileId(fileId);
+        Map<Long, PerceptualHashEntry> index = perceptualIndex;
+        if (existing != null && index != null) {
+            index.remove(existing.getId());
+        }
         LambdaQueryWrapper<BotFiles> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(BotFiles::getFileId, fileId);
         return this.remove(wrapper);
@@ -0,0 +1,72 @@
+package io.github.mangomaner.mangobot.module.message.archive;
+
+import java.util.List;
+
+/**
+ * 可归档的表
+ * <p>
+ * 归档库中的表结构与主库一致（不含自增约束与外键），索引只保留按会话 / 发送者 / 消息 ID 读取历史所需的部分。
+ */
+enum ArchiveTable {
+
+    GROUP_MESSAGES("group_messages", "message_time", List.of("bot_id", "group_id"),
+            "id, bot_id, group_id, message_id, sender_id, message_segments, message_segments_blob, message_time, is_delete, parse_message",
+            "id INTEGER PRIMARY KEY, bot_id TEXT NOT NULL, group_id TEXT NOT NULL, message_id TEXT, sender_id TEXT, "
+                    + "message_segments TEXT, message_segments_blob BLOB, message_time INTEGER NOT NULL, is_delete INTEGER DEFAULT 0, parse_message TEXT",
+            List.of("bot_id, group_id, message_time", "bot_id, sender_id, message_time", "bot_id, message_id"),
+            true),
+
+    PRIVATE_MESSAGES("private_messages", "message_time", List.of("bot_id", "friend_id"),
+            "id, bot_id, friend_id, message_id, sender_id, message_segments, message_segments_blob, message_time, is_delete, parse_message",
+            "id INTEGER PRIMARY KEY, bot_id TEXT NOT NULL, friend_id TEXT NOT NULL, message_id TEXT, sender_id TEXT, "
+                    + "message_segments TEXT, message_segments_blob BLOB, message_time INTEGER NOT NULL, is_delete INTEGER DEFAULT 0, parse_message TEXT",
+            List.of("bot_id, friend_id, message_time", "bot_id, sender_id, message_time", "bot_id, message_id"),
+            true),
+
+    CHAT_MESSAGE_WEB("chat_message_web", "create_time", List.of("session_id"),
+            "id, session_id, role, content, create_time",
+            "id INTEGER PRIMARY KEY, session_id INTEGER NOT NULL, role VARCHAR(32) NOT NULL, content TEXT NOT NULL, create_time DATETIME",
+            List.of("session_id, create_time"),
+            false);
+
+    final String table;
+
+    /**
+     * 时间列（毫秒时间戳），决定消息归入哪个月份的归档库
+     */
+    final String timeColumn;
+
+    /**
+     * 会话键列，保留策略与归档批次都以会话为单位
+     */
+    final List<String> conversationColumns;
+
+    final String columns;
+
+    final String definition;
+
+    final List<String> indexes;
+
+    /**
+     * 是否有 is_delete 列，已软删除的消息超出保留期后直接清除，不进入归档
+     */
+    final boolean softDelete;
+
+    ArchiveTable(String table, String timeColumn, List<String> conversationColumns, String columns,
+                 String definition, List<String> indexes, boolean softDelete) {
+        this.table = table;
+        this.timeColumn = timeColumn;
+        this.conversationColumns = conversationColumns;
+        this.columns = columns;
+        this.definition = definition;
+        this.indexes = indexes;
+        this.softDelete = softDelete;
+    }
+
+    /**
+     * 会话键条件，如 {@code bot_id = ? AND group_id = ?}
+     */
+    String conversationFilter() {
+        return String.join(" AND ", conversationColumns.stream().map(column -> column + " = ?").toList());
+    }
+}
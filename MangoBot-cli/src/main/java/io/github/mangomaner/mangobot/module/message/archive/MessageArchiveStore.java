@@ -0,0 +1,346 @@
+package io.github.mangomaner.mangobot.module.message.archive;
+
+import io.github.mangomaner.mangobot.module.agent.model.domain.ChatMessageWeb;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
+import io.github.mangomaner.mangobot.system.common.KeysetCursor;
+import io.github.mangomaner.mangobot.utils.FileUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 消息归档库
+ * <p>
+ * 超出保留期的消息按消息时间（UTC 月份）存入 {@code data/archive/messages-YYYY-MM.db}，
+ * 每个归档库是结构与主库相同的独立 SQLite 文件，可以直接用任意 SQLite 工具打开，也可以整体备份或删除。
+ * <p>
+ * 读取历史时，热库（主库）返回的结果不足一页，或一页跨过了最新归档月份时，按同一键集游标继续在归档库中由新到旧查找，
+ * 与热库结果合并后返回，调用方无需区分消息在哪个库中。归档库以只读方式按次打开，不占用主库连接池。
+ */
+@Slf4j
+@Component
+public class MessageArchiveStore {
+
+    static final String ARCHIVE_DIR = "data/archive";
+
+    private static final Pattern FILE_NAME = Pattern.compile("messages-(\\d{4})-(\\d{2})\\.db");
+
+    private static final Comparator<KeysetCursor> NEWEST_FIRST =
+            Comparator.comparingLong(KeysetCursor::time).thenComparingLong(KeysetCursor::id).reversed();
+
+    private final Path archiveDir;
+
+    /**
+     * 归档库列表（由新到旧），首次使用时扫描目录，归档任务写入新月份后刷新
+     */
+    private volatile List<ArchiveFile> files;
+
+    public MessageArchiveStore() {
+        this(FileUtils.resolvePath(ARCHIVE_DIR));
+    }
+
+    public MessageArchiveStore(Path archiveDir) {
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * 归档库文件
+     *
+     * @param month 消息所属月份（UTC）
+     */
+    public record ArchiveFile(YearMonth month, Path path) {
+
+        public long startTime() {
+            return startOf(month);
+        }
+
+        public long endTime() {
+            return startOf(month.plusMonths(1));
+        }
+    }
+
+    @FunctionalInterface
+    public interface ArchiveQuery<T> {
+        /**
+         * 查询归档中游标之前、时间不早于 floor 的消息（倒序）
+         */
+        List<T> list(KeysetCursor before, long floor, int limit);
+    }
+
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    public List<ArchiveFile> files() {
+        List<ArchiveFile> current = files;
+        if (current == null) {
+            current = scan();
+            files = current;
+        }
+        return current;
+    }
+
+    public boolean hasArchives() {
+        return !files().isEmpty();
+    }
+
+    /**
+     * 重新扫描归档目录
+     */
+    public void refresh() {
+        files = scan();
+    }
+
+    Path pathOf(YearMonth month) {
+        return archiveDir.resolve(String.format("messages-%04d-%02d.db", month.getYear(), month.getMonthValue()));
+    }
+
+    static YearMonth monthOf(long time) {
+        return YearMonth.from(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC));
+    }
+
+    static long startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private List<ArchiveFile> scan() {
+        Path dir = archiveDir;
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.map(path -> {
+                        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                        return matcher.matches()
+                                ? new ArchiveFile(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), path)
+                                : null;
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(ArchiveFile::month).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("扫描消息归档目录失败: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    // ==================== 合并读取 ====================
+
+    /**
+     * 将热库查询结果与归档合并
+     *
+     * @param hot      热库中游标之前的消息（倒序，最多 limit 条）
+     * @param cursor   本次查询的游标，null 表示从最新开始
+     * @param limit    需要的条数
+     * @param cursorOf 消息的 (时间, id)
+     * @param archive  归档查询
+     * @return 合并后倒序的前 limit 条
+     */
+    public <T> List<T> merge(List<T> hot, KeysetCursor cursor, int limit,
+                             Function<T, KeysetCursor> cursorOf, ArchiveQuery<T> archive) {
+        List<ArchiveFile> current = files();
+        if (current.isEmpty()) {
+            return hot;
+        }
+        // 热库已取满一页时，只有时间不早于本页最后一条的归档消息可能插入本页
+        long floor = hot.size() >= limit ? cursorOf.apply(hot.get(hot.size() - 1)).time() : Long.MIN_VALUE;
+        if (floor >= current.get(0).endTime()) {
+            return hot;
+        }
+        List<T> archived = archive.list(cursor, floor, limit);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<T> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        for (T message : archived) {
+            KeysetCursor key = cursorOf.apply(message);
+            // 归档与删除之间进程中断时，同一条消息可能同时存在于两边
+            if (hot.stream().noneMatch(h -> cursorOf.apply(h).equals(key))) {
+                merged.add(message);
+            }
+        }
+        merged.sort(Comparator.comparing(cursorOf, NEWEST_FIRST));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    // ==================== 群消息 ====================
+
+    public List<GroupMessages> listGroupConversation(String botId, String groupId, KeysetCursor before, long floor, int limit) {
+        return list(ArchiveTable.GROUP_MESSAGES, "bot_id = ? AND group_id = ?", Arrays.asList(botId, groupId),
+                before, floor, limit, MessageArchiveStore::readGroup);
+    }
+
+    public List<GroupMessages> listGroupBySender(String botId, String senderId, KeysetCursor before, long floor, int limit) {
+        return list(ArchiveTable.GROUP_MESSAGES, "bot_id = ? AND sender_id = ?", Arrays.asList(botId, senderId),
+                before, floor, limit, MessageArchiveStore::readGroup);
+    }
+
+    public GroupMessages findGroupMessage(String botId, String groupId, String messageId) {
+        return find(ArchiveTable.GROUP_MESSAGES, "bot_id = ? AND message_id = ? AND group_id = ?",
+                Arrays.asList(botId, messageId, groupId), MessageArchiveStore::readGroup);
+    }
+
+    // ==================== 私聊消息 ====================
+
+    public List<PrivateMessages> listPrivateConversation(String botId, String friendId, KeysetCursor before, long floor, int limit) {
+        return list(ArchiveTable.PRIVATE_MESSAGES, "bot_id = ? AND friend_id = ?", Arrays.asList(botId, friendId),
+                before, floor, limit, MessageArchiveStore::readPrivate);
+    }
+
+    public List<PrivateMessages> listPrivateBySender(String botId, String senderId, KeysetCursor before, long floor, int limit) {
+        return list(ArchiveTable.PRIVATE_MESSAGES, "bot_id = ? AND sender_id = ?", Arrays.asList(botId, senderId),
+                before, floor, limit, MessageArchiveStore::readPrivate);
+    }
+
+    public PrivateMessages findPrivateMessage(String botId, String friendId, String messageId) {
+        return find(ArchiveTable.PRIVATE_MESSAGES, "bot_id = ? AND message_id = ? AND friend_id = ?",
+                Arrays.asList(botId, messageId, friendId), MessageArchiveStore::readPrivate);
+    }
+
+    // ==================== Web 对话消息 ====================
+
+    public List<ChatMessageWeb> listChatSession(Integer sessionId, KeysetCursor before, long floor, int limit) {
+        return list(ArchiveTable.CHAT_MESSAGE_WEB, "session_id = ?", Arrays.asList(sessionId),
+                before, floor, limit, MessageArchiveStore::readChat);
+    }
+
+    /**
+     * 由新到旧逐个归档库查询，各月份时间范围互不重叠，依次拼接即为整体倒序
+     */
+    private <T> List<T> list(ArchiveTable table, String filter, List<?> args,
+                             KeysetCursor before, long floor, int limit, RowReader<T> reader) {
+        String time = table.timeColumn;
+        StringBuilder sql = new StringBuilder("SELECT ").append(table.columns)
+                .append(" FROM ").append(table.table).append(" WHERE ").append(filter);
+        if (before != null) {
+            sql.append(" AND (").append(time).append(", id) < (?, ?)");
+        }
+        if (floor != Long.MIN_VALUE) {
+            sql.append(" AND ").append(time).append(" >= ?");
+        }
+        sql.append(" ORDER BY ").append(time).append(" DESC, id DESC LIMIT ?");
+
+        List<T> result = new ArrayList<>();
+        for (ArchiveFile file : files()) {
+            if (result.size() >= limit || file.endTime() <= floor) {
+                break;
+            }
+            if (before != null && file.startTime() > before.time()) {
+                continue;
+            }
+            try (Connection connection = open(file.path());
+                 PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (Object arg : args) {
+                    statement.setObject(index++, arg);
+                }
+                if (before != null) {
+                    statement.setLong(index++, before.time());
+                    statement.setLong(index++, before.id());
+                }
+                if (floor != Long.MIN_VALUE) {
+                    statement.setLong(index++, floor);
+                }
+                statement.setInt(index, limit - result.size());
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(reader.read(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                // 归档库不含该表或文件损坏时跳过，不影响热库结果
+                log.warn("读取消息归档失败, file={}: {}", file.path().getFileName(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private <T> T find(ArchiveTable table, String filter, List<?> args, RowReader<T> reader) {
+        String sql = "SELECT " + table.columns + " FROM " + table.table + " WHERE " + filter + " LIMIT 1";
+        for (ArchiveFile file : files()) {
+            try (Connection connection = open(file.path());
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next()) {
+                        return reader.read(rs);
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("读取消息归档失败, file={}: {}", file.path().getFileName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static Connection open(Path path) throws SQLException {
+        org.sqlite.SQLiteConfig config = new org.sqlite.SQLiteConfig();
+        config.setReadOnly(true);
+        return config.createConnection("jdbc:sqlite:" + path.toAbsolutePath());
+    }
+
+    private static GroupMessages readGroup(ResultSet rs) throws SQLException {
+        GroupMessages message = new GroupMessages();
+        message.setId(rs.getLong("id"));
+        message.setBotId(rs.getString("bot_id"));
+        message.setGroupId(rs.getString("group_id"));
+        message.setMessageId(rs.getString("message_id"));
+        message.setSenderId(rs.getString("sender_id"));
+        message.setSegmentsJson(rs.getString("message_segments"));
+        message.setSegmentsBlob(rs.getBytes("message_segments_blob"));
+        message.setMessageTime(rs.getLong("message_time"));
+        message.setIsDelete(rs.getInt("is_delete"));
+        message.setParseMessage(rs.getString("parse_message"));
+        return message;
+    }
+
+    private static PrivateMessages readPrivate(ResultSet rs) throws SQLException {
+        PrivateMessages message = new PrivateMessages();
+        message.setId(rs.getLong("id"));
+        message.setBotId(rs.getString("bot_id"));
+        message.setFriendId(rs.getString("friend_id"));
+        message.setMessageId(rs.getString("message_id"));
+        message.setSenderId(rs.getString("sender_id"));
+        message.setSegmentsJson(rs.getString("message_segments"));
+        message.setSegmentsBlob(rs.getBytes("message_segments_blob"));
+        message.setMessageTime(rs.getLong("message_time"));
+        message.setIsDelete(rs.getInt("is_delete"));
+        message.setParseMessage(rs.getString("parse_message"));
+        return message;
+    }
+
+    private static ChatMessageWeb readChat(ResultSet rs) throws SQLException {
+        ChatMessageWeb message = new ChatMessageWeb();
+        message.setId(rs.getInt("id"));
+        message.setSessionId(rs.getInt("session_id"));
+        message.setRole(rs.getString("role"));
+        message.setContent(rs.getString("content"));
+        message.setCreateTime(new Date(rs.getLong("create_time")));
+        return message;
+    }
+}
@@ -0,0 +1,477 @@
+package io.github.mangomaner.mangobot.module.message.archive;
+
+import io.github.mangomaner.mangobot.api.MangoConfigApi;
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.system.common.KeysetCursor;
+import io.github.mangomaner.mangobot.utils.FileUtils;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 消息保留与归档
+ * <p>
+ * 每天凌晨（或手动触发）按保留策略将超出热数据窗口的消息移入按月划分的归档库（见 {@link MessageArchiveStore}）：
+ * <ul>
+ *     <li>群聊 / 私聊消息：Bot 配置 {@code message.retention.hot_days}，群可由 {@code message.retention.group_hot_days} 单独指定</li>
+ *     <li>Web 对话消息：系统配置 {@code db.archive.chat_hot_days}</li>
+ * </ul>
+ * 天数为 0 表示不归档。超出保留期且已软删除的消息直接清除，不进入归档。
+ * <p>
+ * 每个会话按 (时间, id) 顺序分批移动：先在归档库中提交插入，再在主库中删除，每批各一个短事务，
+ * 两步之间中断最多在两边各留一份，下次运行时插入被忽略、删除照常进行。
+ * 移动完成后以增量方式回收主库空闲页，主库文件随之缩小，热数据更容易完整留在页缓存中。
+ * 早期版本创建的数据库未开启增量回收，需由管理员通过 {@link #startCompaction()} 执行一次完整 VACUUM 转换，
+ * 定时任务不会自动执行（VACUUM 期间独占写连接）。
+ */
+@Slf4j
+@Component
+public class MessageArchiver {
+
+    public static final String ENABLED_KEY = "db.archive.enabled";
+    public static final String CHAT_HOT_DAYS_KEY = "db.archive.chat_hot_days";
+    public static final String HOT_DAYS_KEY = "message.retention.hot_days";
+    public static final String GROUP_HOT_DAYS_KEY = "message.retention.group_hot_days";
+
+    private static final int BATCH_SIZE = 2_000;
+
+    /**
+     * 每次增量回收的页数（4 KiB 页约 8 MiB），回收之间释放写连接
+     */
+    private static final int VACUUM_PAGES = 2_048;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private MessageArchiveStore messageArchiveStore;
+
+    @Resource
+    private ConversationMessageCache conversationMessageCache;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MessageArchiver() {
+    }
+
+    MessageArchiver(DataSource dataSource, MessageArchiveStore messageArchiveStore,
+                    ConversationMessageCache conversationMessageCache) {
+        this.dataSource = dataSource;
+        this.messageArchiveStore = messageArchiveStore;
+        this.conversationMessageCache = conversationMessageCache;
+    }
+
+    /**
+     * 定时任务线程池只有一个线程，归档在独立线程中执行，不阻塞其他定时任务
+     */
+    @Scheduled(cron = "0 30 4 * * *")
+    public void scheduledRun() {
+        if (Boolean.parseBoolean(readConfig(ENABLED_KEY))) {
+            start();
+        }
+    }
+
+    /**
+     * 在后台启动一次归档
+     *
+     * @return 已有归档任务在执行时返回 false
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("Message-Archiver").start(() -> {
+            try {
+                archive();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 是否有归档或转换任务在执行
+     */
+    boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 在后台将主库转换为增量回收模式（auto_vacuum = INCREMENTAL 后执行一次完整 VACUUM）
+     * <p>
+     * VACUUM 期间写连接被独占，消息写入会等待并重试；建议在消息较少的时段手动执行。
+     *
+     * @return 已有归档或转换任务在执行时返回 false
+     */
+    public boolean startCompaction() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("Message-Compaction").start(() -> {
+            try {
+                convertToIncremental();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    void convertToIncremental() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (queryInt(statement, "PRAGMA auto_vacuum") == 2) {
+                log.info("数据库已开启增量回收，无需转换");
+                return;
+            }
+            long begin = System.currentTimeMillis();
+            log.info("开始将数据库转换为增量回收模式，期间写入会等待");
+            statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            statement.execute("VACUUM");
+            log.info("数据库已转换为增量回收模式, 耗时={}ms", System.currentTimeMillis() - begin);
+        } catch (SQLException e) {
+            log.error("数据库转换为增量回收模式失败", e);
+        }
+    }
+
+    private void archive() {
+        long archived = 0;
+        long purged = 0;
+        long now = System.currentTimeMillis();
+        for (ArchiveTable table : ArchiveTable.values()) {
+            try {
+                long[] moved = archiveTable(table, now);
+                archived += moved[0];
+                purged += moved[1];
+            } catch (Exception e) {
+                log.error("消息归档失败, table={}", table.table, e);
+            }
+        }
+        messageArchiveStore.refresh();
+        if (archived + purged > 0) {
+            log.info("消息归档完成, 归档={}, 清除已删除={}", archived, purged);
+            reclaimSpace();
+        }
+    }
+
+    /**
+     * 归档一张表中所有超出保留期的会话
+     *
+     * @return {归档条数, 清除的已删除条数}
+     */
+    private long[] archiveTable(ArchiveTable table, long now) throws SQLException {
+        long[] total = new long[2];
+        Map<String, RetentionPolicy> policies = new HashMap<>();
+        for (Conversation conversation : listConversations(table)) {
+            long cutoff = cutoffOf(table, conversation, policies, now);
+            long oldest = conversation.oldest();
+            if (cutoff == Long.MIN_VALUE || oldest >= cutoff) {
+                continue;
+            }
+            // 按月移动，每月结束后取剩余最早的消息，跳过中间没有消息的月份
+            while (oldest < cutoff) {
+                YearMonth month = MessageArchiveStore.monthOf(oldest);
+                long end = Math.min(MessageArchiveStore.startOf(month.plusMonths(1)), cutoff);
+                long[] moved = moveRange(table, conversation, month, end);
+                total[0] += moved[0];
+                total[1] += moved[1];
+                Long next = oldestTime(table, conversation);
+                if (next == null) {
+                    break;
+                }
+                oldest = next;
+            }
+            invalidateCache(table, conversation);
+        }
+        return total;
+    }
+
+    /**
+     * 会话超出保留期的时间点，不归档时返回 {@link Long#MIN_VALUE}
+     */
+    private long cutoffOf(ArchiveTable table, Conversation conversation, Map<String, RetentionPolicy> policies, long now) {
+        int hotDays;
+        if (table == ArchiveTable.CHAT_MESSAGE_WEB) {
+            hotDays = parseDays(readConfig(CHAT_HOT_DAYS_KEY));
+        } else {
+            String botId = String.valueOf(conversation.key().get(0));
+            RetentionPolicy policy = policies.computeIfAbsent(botId, RetentionPolicy::load);
+            hotDays = table == ArchiveTable.GROUP_MESSAGES
+                    ? policy.groupHotDays(String.valueOf(conversation.key().get(1)))
+                    : policy.hotDays();
+        }
+        return hotDays > 0 ? now - hotDays * DAY_MILLIS : Long.MIN_VALUE;
+    }
+
+    /**
+     * 将会话在 [月初, end) 内的消息移入该月的归档库
+     *
+     * @return {归档条数, 清除的已删除条数}
+     */
+    long[] moveRange(ArchiveTable table, Conversation conversation, YearMonth month, long end) throws SQLException {
+        Path file = messageArchiveStore.pathOf(month);
+        FileUtils.createDirectory(file.getParent());
+        String time = table.timeColumn;
+        String range = table.conversationFilter() + " AND " + time + " >= ? AND " + time + " < ?";
+        String live = table.softDelete ? " AND COALESCE(is_delete, 0) = 0" : "";
+        long start = MessageArchiveStore.startOf(month);
+        boolean listed = messageArchiveStore.files().stream().anyMatch(archive -> archive.month().equals(month));
+
+        long archived = 0;
+        long deleted = 0;
+        while (true) {
+            try (Connection connection = dataSource.getConnection()) {
+                // ATTACH 不能在事务中执行，每批重新附加，批次之间写连接可供其他写入使用
+                try (PreparedStatement attach = connection.prepareStatement("ATTACH DATABASE ? AS archive")) {
+                    attach.setString(1, file.toAbsolutePath().toString());
+                    attach.execute();
+                }
+                try {
+                    if (!listed) {
+                        // 新月份的归档库建好表后立即对读取可见，再开始移动消息
+                        ensureArchiveSchema(connection);
+                        messageArchiveStore.refresh();
+                        listed = true;
+                    }
+                    // 本批最后一行的 (时间, id)，剩余不足一批时为 null，直接移动剩余全部
+                    KeysetCursor bound = null;
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "SELECT " + time + ", id FROM main." + table.table + " WHERE " + range
+                                    + " ORDER BY " + time + ", id LIMIT 1 OFFSET " + (BATCH_SIZE - 1))) {
+                        bindRange(statement, conversation, start, end);
+                        try (ResultSet rs = statement.executeQuery()) {
+                            if (rs.next()) {
+                                bound = new KeysetCursor(rs.getLong(1), rs.getLong(2));
+                            }
+                        }
+                    }
+                    String batch = range + (bound == null ? "" : " AND (" + time + ", id) <= (?, ?)");
+
+                    int inserted;
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "INSERT OR IGNORE INTO archive." + table.table + " (" + table.columns + ") SELECT "
+                                    + table.columns + " FROM main." + table.table + " WHERE " + batch + live)) {
+                        bindBound(statement, bindRange(statement, conversation, start, end), bound);
+                        inserted = statement.executeUpdate();
+                    }
+                    int removed;
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "DELETE FROM main." + table.table + " WHERE " + batch)) {
+                        bindBound(statement, bindRange(statement, conversation, start, end), bound);
+                        removed = statement.executeUpdate();
+                    }
+                    archived += inserted;
+                    deleted += Math.max(0, removed - inserted);
+                    if (bound == null || removed == 0) {
+                        break;
+                    }
+                } finally {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("DETACH DATABASE archive");
+                    }
+                }
+            }
+        }
+        return new long[]{archived, deleted};
+    }
+
+    /**
+     * 归档库中建齐所有表，读取时不必区分某个月份是否有该表的数据
+     */
+    private void ensureArchiveSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (ArchiveTable table : ArchiveTable.values()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS archive." + table.table + " (" + table.definition + ")");
+                for (int i = 0; i < table.indexes.size(); i++) {
+                    statement.execute("CREATE INDEX IF NOT EXISTS archive.idx_" + table.table + "_" + i
+                            + " ON " + table.table + " (" + table.indexes.get(i) + ")");
+                }
+            }
+        }
+    }
+
+    private static int bindRange(PreparedStatement statement, Conversation conversation, long start, long end) throws SQLException {
+        int index = 1;
+        for (Object value : conversation.key()) {
+            statement.setObject(index++, value);
+        }
+        statement.setLong(index++, start);
+        statement.setLong(index++, end);
+        return index;
+    }
+
+    private static void bindBound(PreparedStatement statement, int index, KeysetCursor bound) throws SQLException {
+        if (bound != null) {
+            statement.setLong(index, bound.time());
+            statement.setLong(index + 1, bound.id());
+        }
+    }
+
+    /**
+     * 列出所有会话及其最早消息时间，走 (会话键, 时间) 索引
+     */
+    private List<Conversation> listConversations(ArchiveTable table) throws SQLException {
+        String key = String.join(", ", table.conversationColumns);
+        String sql = "SELECT " + key + ", MIN(" + table.timeColumn + ") FROM " + table.table + " GROUP BY " + key;
+        List<Conversation> conversations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            int size = table.conversationColumns.size();
+            while (rs.next()) {
+                List<Object> values = new ArrayList<>(size);
+                for (int i = 1; i <= size; i++) {
+                    values.add(rs.getObject(i));
+                }
+                // 非毫秒时间戳（如文本格式的旧数据）不参与归档
+                Object oldest = rs.getObject(size + 1);
+                if (oldest instanceof Number number) {
+                    conversations.add(new Conversation(values, number.longValue()));
+                }
+            }
+        }
+        return conversations;
+    }
+
+    private Long oldestTime(ArchiveTable table, Conversation conversation) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT MIN(" + table.timeColumn + ") FROM " + table.table + " WHERE " + table.conversationFilter())) {
+            for (int i = 0; i < conversation.key().size(); i++) {
+                statement.setObject(i + 1, conversation.key().get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getObject(1) instanceof Number number ? number.longValue() : null;
+            }
+        }
+    }
+
+    private void invalidateCache(ArchiveTable table, Conversation conversation) {
+        String botId = String.valueOf(conversation.key().get(0));
+        switch (table) {
+            case GROUP_MESSAGES -> conversationMessageCache.invalidateGroup(botId, String.valueOf(conversation.key().get(1)));
+            case PRIVATE_MESSAGES -> conversationMessageCache.invalidatePrivate(botId, String.valueOf(conversation.key().get(1)));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 回收主库空闲页
+     * <p>
+     * 增量模式下分批执行 incremental_vacuum，每批一个短事务；
+     * 未开启增量模式的数据库跳过，不在定时任务中执行完整 VACUUM（见 {@link #startCompaction()}）。
+     */
+    void reclaimSpace() {
+        try {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                if (queryInt(statement, "PRAGMA auto_vacuum") != 2) {
+                    log.info("数据库未开启增量回收，跳过空闲页回收；可通过 POST /api/message/archive/compact 转换");
+                    return;
+                }
+            }
+            long reclaimed = 0;
+            while (true) {
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    int free = queryInt(statement, "PRAGMA freelist_count");
+                    if (free == 0) {
+                        break;
+                    }
+                    // incremental_vacuum 每释放一页返回一行，executeUpdate 会执行到结束
+                    statement.executeUpdate("PRAGMA incremental_vacuum(" + VACUUM_PAGES + ")");
+                    reclaimed += Math.min(free, VACUUM_PAGES);
+                }
+            }
+            if (reclaimed > 0) {
+                log.info("数据库空闲页回收完成, 页数={}", reclaimed);
+            }
+        } catch (SQLException e) {
+            log.error("数据库空闲页回收失败", e);
+        }
+    }
+
+    private static int queryInt(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static String readConfig(String key) {
+        try {
+            return MangoConfigApi.getSystemConfigValue(key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static int parseDays(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    record Conversation(List<Object> key, long oldest) {}
+
+    /**
+     * Bot 的保留策略：默认天数与按群覆盖的天数
+     */
+    private record RetentionPolicy(int hotDays, Map<String, Integer> groupHotDays) {
+
+        static RetentionPolicy load(String botId) {
+            Long id = parseBotId(botId);
+            int hotDays;
+            Map<String, Integer> groups = new HashMap<>();
+            try {
+                hotDays = parseDays(MangoConfigApi.getBotConfigValue(HOT_DAYS_KEY, id, null));
+                String overrides = MangoConfigApi.getBotConfigValue(GROUP_HOT_DAYS_KEY, id, null);
+                if (overrides != null && !overrides.isBlank()) {
+                    JsonCodec.read(overrides, JsonCodec.OBJECT_MAP)
+                            .forEach((group, days) -> groups.put(group, parseDays(String.valueOf(days))));
+                }
+            } catch (Exception e) {
+                log.warn("读取消息保留策略失败, botId={}: {}", botId, e.getMessage());
+                return new RetentionPolicy(0, Map.of());
+            }
+            return new RetentionPolicy(hotDays, groups);
+        }
+
+        int groupHotDays(String groupId) {
+            return groupHotDays.getOrDefault(groupId, hotDays);
+        }
+
+        private static Long parseBotId(String botId) {
+            try {
+                return Long.parseLong(botId);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
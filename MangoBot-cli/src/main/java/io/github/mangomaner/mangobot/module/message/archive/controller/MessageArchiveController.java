@@ -0,0 +1,55 @@
+package io.github.mangomaner.mangobot.module.message.archive.controller;
+
+import io.github.mangomaner.mangobot.module.message.archive.MessageArchiveStore;
+import io.github.mangomaner.mangobot.module.message.archive.MessageArchiver;
+import io.github.mangomaner.mangobot.system.common.BaseResponse;
+import io.github.mangomaner.mangobot.system.common.ResultUtils;
+import jakarta.annotation.Resource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/message/archive")
+public class MessageArchiveController {
+
+    @Resource
+    private MessageArchiver messageArchiver;
+
+    @Resource
+    private MessageArchiveStore messageArchiveStore;
+
+    /**
+     * 立即按当前保留策略执行一次归档（不受 db.archive.enabled 限制）
+     *
+     * @return 已有归档任务在执行时返回 false
+     */
+    @PostMapping("/run")
+    public BaseResponse<Boolean> run() {
+        return ResultUtils.success(messageArchiver.start());
+    }
+
+    /**
+     * 将主库转换为增量回收模式（执行一次完整 VACUUM，期间消息写入会等待）
+     *
+     * @return 已有归档或转换任务在执行时返回 false
+     */
+    @PostMapping("/compact")
+    public BaseResponse<Boolean> compact() {
+        return ResultUtils.success(messageArchiver.startCompaction());
+    }
+
+    /**
+     * 已有的归档月份（由新到旧）
+     */
+    @GetMapping("/months")
+    public BaseResponse<List<String>> listMonths() {
+        messageArchiveStore.refresh();
+        return ResultUtils.success(messageArchiveStore.files().stream()
+                .map(file -> file.month().toString())
+                .toList());
+    }
+}
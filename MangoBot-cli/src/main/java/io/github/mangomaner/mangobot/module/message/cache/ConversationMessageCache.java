@@ -0,0 +1,247 @@
+package io.github.mangomaner.mangobot.module.message.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * 会话最近消息缓存
+ * <p>
+ * 为每个 (botId, 群号/好友号) 保留最近 {@link #RING_CAPACITY} 条消息的环形缓冲区，
+ * 由消息写入路径（{@code MessageWriteJournal}）同步追加，{@code getLatestMessages} / {@code getMessagesByMessageId}
+ * 命中时不再查询 SQLite。
+ * <p>
+ * 缓冲区只在首次读取时从数据库加载（重启后自动回源），此后由写入路径维护；
+ * 写入时会话尚未加载则直接跳过，下次读取再从数据库（含写后日志中未落库的消息）完整加载。
+ * 长时间未访问的会话按 LRU 淘汰，消息被修改或删除时整个会话失效；只回写 parse_message 时原地更新缓冲区中的消息。
+ */
+@Component
+public class ConversationMessageCache {
+
+    public static final int RING_CAPACITY = 50;
+
+    private static final int MAXIMUM_CONVERSATIONS = 2_000;
+
+    private static final long IDLE_EXPIRE_MINUTES = 30;
+
+    private final Store<GroupMessages> groups =
+            new Store<>(GroupMessages::getId, GroupMessages::getMessageId, GroupMessages::getMessageTime,
+                    GroupMessages::setParseMessage);
+
+    private final Store<PrivateMessages> privates =
+            new Store<>(PrivateMessages::getId, PrivateMessages::getMessageId, PrivateMessages::getMessageTime,
+                    PrivateMessages::setParseMessage);
+
+    // ==================== 群消息 ====================
+
+    public void appendGroup(GroupMessages message) {
+        groups.append(new ConversationKey(message.getBotId(), message.getGroupId()), message);
+    }
+
+    /**
+     * 获取群最近消息（按时间倒序）
+     *
+     * @param loader 未命中时从数据库加载最近 n 条（倒序）
+     */
+    public List<GroupMessages> latestGroup(String botId, String groupId, int num, IntFunction<List<GroupMessages>> loader) {
+        return groups.latest(new ConversationKey(botId, groupId), num, loader);
+    }
+
+    /**
+     * 获取群中指定消息之前的消息，缓冲区无法完整提供时返回 null
+     */
+    public List<GroupMessages> beforeGroup(String botId, String groupId, String messageId, int num) {
+        return groups.before(new ConversationKey(botId, groupId), messageId, num);
+    }
+
+    public void invalidateGroup(String botId, String groupId) {
+        groups.invalidate(new ConversationKey(botId, groupId));
+    }
+
+    /**
+     * 更新缓冲区中群消息的解析结果，消息不在缓冲区时忽略
+     */
+    public void updateGroupParseMessage(String botId, String groupId, Long id, String parseMessage) {
+        groups.updateParseMessage(new ConversationKey(botId, groupId), id, parseMessage);
+    }
+
+    // ==================== 私聊消息 ====================
+
+    public void appendPrivate(PrivateMessages message) {
+        privates.append(new ConversationKey(message.getBotId(), message.getFriendId()), message);
+    }
+
+    public List<PrivateMessages> latestPrivate(String botId, String friendId, int num, IntFunction<List<PrivateMessages>> loader) {
+        return privates.latest(new ConversationKey(botId, friendId), num, loader);
+    }
+
+    public List<PrivateMessages> beforePrivate(String botId, String friendId, String messageId, int num) {
+        return privates.before(new ConversationKey(botId, friendId), messageId, num);
+    }
+
+    public void invalidatePrivate(String botId, String friendId) {
+        privates.invalidate(new ConversationKey(botId, friendId));
+    }
+
+    public void updatePrivateParseMessage(String botId, String friendId, Long id, String parseMessage) {
+        privates.updateParseMessage(new ConversationKey(botId, friendId), id, parseMessage);
+    }
+
+    private record ConversationKey(String botId, String targetId) {}
+
+    private static final class Store<T> {
+        private final Function<T, Long> idGetter;
+        private final Function<T, String> messageIdGetter;
+        private final Function<T, Long> timeGetter;
+        private final BiConsumer<T, String> parseMessageSetter;
+
+        private final Cache<ConversationKey, Ring<T>> rings = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_CONVERSATIONS)
+                .expireAfterAccess(IDLE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build();
+
+        Store(Function<T, Long> idGetter, Function<T, String> messageIdGetter, Function<T, Long> timeGetter,
+              BiConsumer<T, String> parseMessageSetter) {
+            this.idGetter = idGetter;
+            this.messageIdGetter = messageIdGetter;
+            this.timeGetter = timeGetter;
+            this.parseMessageSetter = parseMessageSetter;
+        }
+
+        void append(ConversationKey key, T message) {
+            // computeIfPresent 与加载互斥：加载过程中追加的消息会等待加载完成后再写入
+            rings.asMap().computeIfPresent(key, (k, ring) -> {
+                ring.add(message);
+                return ring;
+            });
+        }
+
+        List<T> latest(ConversationKey key, int num, IntFunction<List<T>> loader) {
+            if (num > RING_CAPACITY) {
+                return loader.apply(num);
+            }
+            Ring<T> ring = rings.get(key, k -> new Ring<>(this, loader.apply(RING_CAPACITY)));
+            return ring.latest(num);
+        }
+
+        List<T> before(ConversationKey key, String messageId, int num) {
+            Ring<T> ring = rings.getIfPresent(key);
+            return ring == null ? null : ring.before(messageId, num);
+        }
+
+        void invalidate(ConversationKey key) {
+            rings.invalidate(key);
+        }
+
+        void updateParseMessage(ConversationKey key, Long id, String parseMessage) {
+            Ring<T> ring = rings.getIfPresent(key);
+            if (ring != null && id != null) {
+                ring.updateParseMessage(id, parseMessage);
+            }
+        }
+    }
+
+    /**
+     * 按时间升序保存的定长消息缓冲区
+     */
+    private static final class Ring<T> {
+        private final Store<T> store;
+        private final ArrayList<T> messages = new ArrayList<>(RING_CAPACITY + 1);
+
+        /**
+         * 缓冲区是否包含会话的全部消息（加载时不足容量且此后未淘汰过）
+         */
+        private boolean complete;
+
+        Ring(Store<T> store, List<T> latestDesc) {
+            this.store = store;
+            for (int i = latestDesc.size() - 1; i >= 0; i--) {
+                messages.add(latestDesc.get(i));
+            }
+            this.complete = latestDesc.size() < RING_CAPACITY;
+        }
+
+        synchronized void add(T message) {
+            if (contains(message)) {
+                return;
+            }
+            long time = timeOf(message);
+            int index = messages.size();
+            while (index > 0 && timeOf(messages.get(index - 1)) > time) {
+                index--;
+            }
+            messages.add(index, message);
+            if (messages.size() > RING_CAPACITY) {
+                messages.remove(0);
+                complete = false;
+            }
+        }
+
+        synchronized List<T> latest(int num) {
+            int size = messages.size();
+            List<T> result = new ArrayList<>(Math.min(num, size));
+            for (int i = size - 1; i >= 0 && result.size() < num; i--) {
+                result.add(messages.get(i));
+            }
+            return result;
+        }
+
+        synchronized List<T> before(String messageId, int num) {
+            int anchor = -1;
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (Objects.equals(store.messageIdGetter.apply(messages.get(i)), messageId)) {
+                    anchor = i;
+                    break;
+                }
+            }
+            if (anchor < 0) {
+                return null;
+            }
+            // 缓冲区按 (时间, 到达顺序) 排列，与数据库按 (message_time, id) 分页一致；同一秒内更早到达的消息也在锚点之前
+            List<T> result = new ArrayList<>(num);
+            for (int i = anchor - 1; i >= 0 && result.size() < num; i--) {
+                result.add(messages.get(i));
+            }
+            // 缓冲区之前可能还有更早的消息，数量不足时交给数据库
+            return result.size() < num && !complete ? null : result;
+        }
+
+        synchronized void updateParseMessage(Long id, String parseMessage) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                T message = messages.get(i);
+                if (id.equals(store.idGetter.apply(message))) {
+                    store.parseMessageSetter.accept(message, parseMessage);
+                    return;
+                }
+            }
+        }
+
+        private boolean contains(T message) {
+            Long id = store.idGetter.apply(message);
+            String messageId = store.messageIdGetter.apply(message);
+            for (T existing : messages) {
+                if (existing == message
+                        || (id != null && id.equals(store.idGetter.apply(existing)))
+                        || (messageId != null && messageId.equals(store.messageIdGetter.apply(existing)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long timeOf(T message) {
+            Long time = store.timeGetter.apply(message);
+            return time == null ? 0L : time;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package io.github.mangomaner.mangobot.module.message.groupMessage.controller;
 
+import io.github.mangomaner.mangobot.module.message.search.MessageSearchIndex;
 import io.github.mangomaner.mangobot.system.common.BaseResponse;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
+import io.github.mangomaner.mangobot.system.common.ErrorCode;
 import io.github.mangomaner.mangobot.system.common.ResultUtils;
+import io.github.mangomaner.mangobot.system.exception.BusinessException;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
@@ -11,9 +16,11 @@ import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMe
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.sql.SQLException;
 import java.util.List;
 
 @RestController
@@ -23,6 +30,9 @@ public class GroupMessageController {
     @Resource
     private GroupMessagesService groupMessagesService;
 
+    @Resource
+    private MessageSearchIndex messageSearchIndex;
+
     @GetMapping("/getLatestMessages")
     public BaseResponse<List<GroupMessageVO>> getLatestMessages(QueryLatestMessagesRequest request) {
         return ResultUtils.success(groupMessagesService.convertToVOList(groupMessagesService.getLatestMessages(request)));
@@ -38,11 +48,41 @@ public class GroupMessageController {
         return ResultUtils.success(groupMessagesService.convertToVOList(groupMessagesService.getMessagesBySender(request)));
     }
 
+    /**
+     * 按游标向前翻阅会话历史
+     */
+    @GetMapping("/history")
+    public BaseResponse<CursorPage<GroupMessageVO>> getMessageHistory(QueryMessageHistoryRequest request) {
+        return ResultUtils.success(groupMessagesService.getMessageHistory(request).map(groupMessagesService::convertToVO));
+    }
+
+    /**
+     * 按游标分页获取发送者的消息
+     */
+    @GetMapping("/bySender/page")
+    public BaseResponse<CursorPage<GroupMessageVO>> pageMessagesBySender(QueryMessagesBySenderRequest request) {
+        return ResultUtils.success(groupMessagesService.pageMessagesBySender(request).map(groupMessagesService::convertToVO));
+    }
+
     @GetMapping("/search")
     public BaseResponse<List<GroupMessageVO>> searchMessages(SearchMessagesRequest request) {
         return ResultUtils.success(groupMessagesService.convertToVOList(groupMessagesService.searchMessages(request)));
     }
 
+    /**
+     * 重建消息全文索引（索引与数据不一致时使用）
+     */
+    @PostMapping("/search/rebuildIndex")
+    public BaseResponse<Boolean> rebuildSearchIndex() {
+        try {
+            messageSearchIndex.rebuild(MessageSearchIndex.GROUP_MESSAGES);
+        } catch (SQLException e) {
+            log.error("重建消息全文索引失败", e);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "重建消息全文索引失败");
+        }
+        return ResultUtils.success(true);
+    }
+
     @GetMapping("/id/{id}")
     public BaseResponse<GroupMessageVO> getMessageById(Integer id) {
         return ResultUtils.success(groupMessagesService.convertToVO(groupMessagesService.getMessageById(id)));
@@ -2,12 +2,14 @@ package io.github.mangomaner.mangobot.module.message.groupMessage.service;
 
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.UpdateMessageRequest;
 import io.github.mangomaner.mangobot.module.message.model.vo.GroupMessageVO;
 import com.baomidou.mybatisplus.extension.service.IService;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 
 import java.util.List;
 
@@ -22,18 +24,41 @@ public interface GroupMessagesService extends IService<GroupMessages> {
 
     List<GroupMessages> getMessagesByMessageId(QueryMessagesByMessageIdRequest request);
 
+    /**
+     * 按 (message_time, id) 游标向前翻阅会话历史，最新消息在前
+     */
+    CursorPage<GroupMessages> getMessageHistory(QueryMessageHistoryRequest request);
+
+    /**
+     * 获取发送者的消息，相当于 {@link #pageMessagesBySender} 的当前页
+     */
     List<GroupMessages> getMessagesBySender(QueryMessagesBySenderRequest request);
 
+    /**
+     * 按 (message_time, id) 游标分页获取发送者的消息，最新消息在前
+     */
+    CursorPage<GroupMessages> pageMessagesBySender(QueryMessagesBySenderRequest request);
+
     List<GroupMessages> searchMessages(SearchMessagesRequest request);
 
     GroupMessages getMessageById(Integer id);
 
+    /**
+     * 按协议端消息 ID 查找 Bot 收发的群消息（不查归档），用于解析回复引用
+     */
+    GroupMessages getByMessageId(String botId, String messageId);
+
     GroupMessages addGroupMessage(GroupMessages groupMessages);
 
     Boolean deleteMessage(Integer id);
 
     Boolean updateMessage(UpdateMessageRequest request);
 
+    /**
+     * 回写解析结果，并原地更新会话缓存中的对应消息
+     */
+    Boolean updateParseMessage(String botId, String groupId, Long id, String parseMessage);
+
     List<GroupMessageVO> convertToVOList(List<GroupMessages> messages);
 
     GroupMessageVO convertToVO(GroupMessages message);
@@ -1,22 +1,37 @@
 package io.github.mangomaner.mangobot.module.message.groupMessage.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.module.message.archive.MessageArchiveStore;
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.module.message.journal.MessageWriteJournal;
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.search.MessageSearchIndex;
+import io.github.mangomaner.mangobot.module.message.segment.MessageSegmentStorage;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.UpdateMessageRequest;
 import io.github.mangomaner.mangobot.module.message.model.vo.GroupMessageVO;
 import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
+import io.github.mangomaner.mangobot.system.common.ErrorCode;
+import io.github.mangomaner.mangobot.system.common.KeysetCursor;
+import io.github.mangomaner.mangobot.system.exception.BusinessException;
 import io.github.mangomaner.mangobot.system.mapper.GroupMessagesMapper;
+import io.github.mangomaner.mangobot.utils.SegmentCodec;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -29,49 +44,171 @@ public class GroupMessagesServiceImpl extends ServiceImpl<GroupMessagesMapper, G
     implements GroupMessagesService{
 
     private static final int PAGE_SIZE = 25;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int SEARCH_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Resource
+    private MessageWriteJournal messageWriteJournal;
+
+    @Resource
+    private ConversationMessageCache conversationMessageCache;
+
+    @Resource
+    private MessageSearchIndex messageSearchIndex;
+
+    @Resource
+    private MessageSegmentStorage messageSegmentStorage;
+
+    @Resource
+    private MessageArchiveStore messageArchiveStore;
 
     @Override
     public List<GroupMessages> getLatestMessages(QueryLatestMessagesRequest request) {
+        int num = request.getNum() == null ? PAGE_SIZE : request.getNum();
+        return conversationMessageCache.latestGroup(request.getBotId(), request.getTargetId(), num,
+                n -> loadLatestMessages(request.getBotId(), request.getTargetId(), n));
+    }
+
+    /**
+     * 从数据库加载最近消息，并合并写后日志中尚未落库的消息，保证刚收到的消息立即可见
+     * <p>
+     * 先取待写快照再查询：查询前已提交的批次在查询结果中，之后提交的仍在快照中，两者都有的按 id 与 message_id 去重。
+     */
+    private List<GroupMessages> loadLatestMessages(String botId, String targetId, int num) {
+        List<GroupMessages> pending = messageWriteJournal.pendingGroupMessages(botId, targetId);
+
         LambdaQueryWrapper<GroupMessages> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(GroupMessages::getBotId, request.getBotId())
-                .eq(GroupMessages::getGroupId, request.getTargetId())
+        wrapper.eq(GroupMessages::getBotId, botId)
+                .eq(GroupMessages::getGroupId, targetId)
                 .orderByDesc(GroupMessages::getMessageTime)
-                .last("LIMIT " + (request.getNum() == null ? PAGE_SIZE : request.getNum()));
-        return this.list(wrapper);
+                .last("LIMIT " + num);
+        List<GroupMessages> persisted = this.list(wrapper);
+
+        if (pending.isEmpty()) {
+            return persisted;
+        }
+        List<GroupMessages> merged = new ArrayList<>(persisted);
+        for (GroupMessages message : pending) {
+            // 回滚后重试的消息可能带着被复用的 id，需同时比较 message_id
+            boolean persistedAlready = message.getId() != null && persisted.stream().anyMatch(p ->
+                    message.getId().equals(p.getId()) && Objects.equals(message.getMessageId(), p.getMessageId()));
+            if (!persistedAlready) {
+                merged.add(message);
+            }
+        }
+        merged.sort(Comparator.comparing(GroupMessages::getMessageTime, Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged.size() > num ? new ArrayList<>(merged.subList(0, num)) : merged;
     }
 
     @Override
     public List<GroupMessages> getMessagesByMessageId(QueryMessagesByMessageIdRequest request) {
-        LambdaQueryWrapper<GroupMessages> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(GroupMessages::getBotId, request.getBotId())
+        int num = request.getNum() == null ? PAGE_SIZE : request.getNum();
+        List<GroupMessages> cached = conversationMessageCache.beforeGroup(
+                request.getBotId(), request.getTargetId(), request.getMessageId(), num);
+        // 缓冲区认为已是会话全部消息时，更早的消息仍可能在归档中
+        if (cached != null && (cached.size() >= num || !messageArchiveStore.hasArchives())) {
+            return cached;
+        }
+        // 锚点限定在当前会话内查找，走 (bot_id, message_id) 索引
+        GroupMessages anchor = this.getOne(new LambdaQueryWrapper<GroupMessages>()
+                .eq(GroupMessages::getBotId, request.getBotId())
+                .eq(GroupMessages::getMessageId, request.getMessageId())
                 .eq(GroupMessages::getGroupId, request.getTargetId())
-                .lt(GroupMessages::getMessageTime, 
-                    this.getOne(new LambdaQueryWrapper<GroupMessages>()
-                            .eq(GroupMessages::getMessageId, request.getMessageId()))
-                            .getMessageTime())
-                .orderByDesc(GroupMessages::getMessageTime)
-                .last("LIMIT " + (request.getNum() == null ? PAGE_SIZE : request.getNum()));
-        return this.list(wrapper);
+                .last("LIMIT 1"));
+        if (anchor == null) {
+            anchor = messageArchiveStore.findGroupMessage(request.getBotId(), request.getTargetId(), request.getMessageId());
+        }
+        if (anchor == null) {
+            return new ArrayList<>();
+        }
+        return listConversationBefore(request.getBotId(), request.getTargetId(), cursorOf(anchor), num);
+    }
+
+    @Override
+    public CursorPage<GroupMessages> getMessageHistory(QueryMessageHistoryRequest request) {
+        int pageSize = resolvePageSize(request.getPageSize());
+        List<GroupMessages> fetched = listConversationBefore(request.getBotId(), request.getTargetId(),
+                KeysetCursor.decode(request.getCursor()), pageSize + 1);
+        return CursorPage.of(fetched, pageSize, GroupMessagesServiceImpl::cursorOf);
     }
 
     @Override
     public List<GroupMessages> getMessagesBySender(QueryMessagesBySenderRequest request) {
+        return pageMessagesBySender(request).getRecords();
+    }
+
+    @Override
+    public CursorPage<GroupMessages> pageMessagesBySender(QueryMessagesBySenderRequest request) {
+        int pageSize = resolvePageSize(request.getPageSize());
         LambdaQueryWrapper<GroupMessages> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(GroupMessages::getBotId, request.getBotId())
-                .eq(GroupMessages::getSenderId, request.getSenderId())
-                .orderByDesc(GroupMessages::getMessageTime)
-                .last("LIMIT " + PAGE_SIZE);
-        return this.list(wrapper);
+                .eq(GroupMessages::getSenderId, request.getSenderId());
+        KeysetCursor cursor = KeysetCursor.decode(request.getCursor());
+        applyKeyset(wrapper, cursor);
+        wrapper.orderByDesc(GroupMessages::getMessageTime)
+                .orderByDesc(GroupMessages::getId)
+                .last("LIMIT " + (pageSize + 1));
+        List<GroupMessages> fetched = messageArchiveStore.merge(this.list(wrapper), cursor, pageSize + 1, GroupMessagesServiceImpl::cursorOf,
+                (before, floor, limit) -> messageArchiveStore.listGroupBySender(request.getBotId(), request.getSenderId(), before, floor, limit));
+        return CursorPage.of(fetched, pageSize, GroupMessagesServiceImpl::cursorOf);
+    }
+
+    /**
+     * 按 (message_time, id) 倒序查询会话中游标之前的消息，cursor 为 null 时从最新消息开始；
+     * 热库中的消息不足时继续从归档中读取
+     */
+    private List<GroupMessages> listConversationBefore(String botId, String targetId, KeysetCursor cursor, int limit) {
+        LambdaQueryWrapper<GroupMessages> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(GroupMessages::getBotId, botId)
+                .eq(GroupMessages::getGroupId, targetId);
+        applyKeyset(wrapper, cursor);
+        wrapper.orderByDesc(GroupMessages::getMessageTime)
+                .orderByDesc(GroupMessages::getId)
+                .last("LIMIT " + limit);
+        return messageArchiveStore.merge(this.list(wrapper), cursor, limit, GroupMessagesServiceImpl::cursorOf,
+                (before, floor, n) -> messageArchiveStore.listGroupConversation(botId, targetId, before, floor, n));
+    }
+
+    /**
+     * 行值比较可以直接作为 (..., message_time) 索引的范围条件，id 即 rowid，已隐含在索引末尾
+     */
+    private static void applyKeyset(LambdaQueryWrapper<GroupMessages> wrapper, KeysetCursor cursor) {
+        if (cursor != null) {
+            wrapper.apply("(message_time, id) < ({0}, {1})", cursor.time(), cursor.id());
+        }
+    }
+
+    private static KeysetCursor cursorOf(GroupMessages message) {
+        return new KeysetCursor(message.getMessageTime(), message.getId());
+    }
+
+    private static int resolvePageSize(Integer pageSize) {
+        return pageSize == null || pageSize <= 0 ? PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
     }
 
     @Override
     public List<GroupMessages> searchMessages(SearchMessagesRequest request) {
+        int pageSize = request.getPageSize() == null || request.getPageSize() <= 0
+                ? SEARCH_PAGE_SIZE
+                : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+        int page = request.getPage() == null || request.getPage() <= 0 ? 1 : request.getPage();
+        int offset = (page - 1) * pageSize;
+
+        String keyword = request.getKeyword();
+        if (MessageSearchIndex.isIndexable(keyword) && messageSearchIndex.isReady(MessageSearchIndex.GROUP_MESSAGES)) {
+            return this.baseMapper.searchByFullText(request.getBotId(), request.getTargetId(),
+                    MessageSearchIndex.toPhraseQuery(keyword), pageSize, offset);
+        }
+
+        // 关键词不足 3 个字符或索引尚在回填时，回退到会话内 LIKE 查询
         LambdaQueryWrapper<GroupMessages> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(GroupMessages::getBotId, request.getBotId())
                 .eq(GroupMessages::getGroupId, request.getTargetId())
-                .like(GroupMessages::getParseMessage, request.getKeyword())
-                .orderByDesc(GroupMessages::getMessageTime);
+                .like(GroupMessages::getParseMessage, keyword)
+                .orderByDesc(GroupMessages::getMessageTime)
+                .last("LIMIT " + pageSize + " OFFSET " + offset);
         return this.list(wrapper);
     }
 
@@ -80,6 +217,15 @@ public class GroupMessagesServiceImpl extends ServiceImpl<GroupMessagesMapper, G
         return this.getById(id);
     }
 
+    @Override
+    public GroupMessages getByMessageId(String botId, String messageId) {
+        // 走 (bot_id, message_id) 索引
+        return this.getOne(new LambdaQueryWrapper<GroupMessages>()
+                .eq(GroupMessages::getBotId, botId)
+                .eq(GroupMessages::getMessageId, messageId)
+                .last("LIMIT 1"));
+    }
+
     @Override
     public GroupMessages addGroupMessage(GroupMessages groupMessages) {
         this.save(groupMessages);
@@ -93,7 +239,9 @@ public class GroupMessagesServiceImpl extends ServiceImpl<GroupMessagesMapper, G
             return false;
         }
         message.setIsDelete(1);
-        return this.updateById(message);
+        boolean updated = this.updateById(message);
+        conversationMessageCache.invalidateGroup(message.getBotId(), message.getGroupId());
+        return updated;
     }
 
     @Override
@@ -102,13 +250,38 @@ public class GroupMessagesServiceImpl extends ServiceImpl<GroupMessagesMapper, G
         if (message == null) {
             return false;
         }
+        if (request.getMessageSegments() == null && request.getParseMessage() == null) {
+            return true;
+        }
+        LambdaUpdateWrapper<GroupMessages> update = new LambdaUpdateWrapper<GroupMessages>()
+                .eq(GroupMessages::getId, message.getId());
         if (request.getMessageSegments() != null) {
-            message.setMessageSegments(request.getMessageSegments());
+            try {
+                messageSegmentStorage.writeJson(message, request.getMessageSegments());
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "消息段格式错误");
+            }
+            // JSON 与紧凑编码两列同时写入，不留下另一种格式的旧数据
+            update.set(GroupMessages::getSegmentsJson, message.getSegmentsJson())
+                    .set(GroupMessages::getSegmentsBlob, message.getSegmentsBlob());
         }
         if (request.getParseMessage() != null) {
-            message.setParseMessage(request.getParseMessage());
+            update.set(GroupMessages::getParseMessage, request.getParseMessage());
+        }
+        boolean updated = this.update(update);
+        conversationMessageCache.invalidateGroup(message.getBotId(), message.getGroupId());
+        return updated;
+    }
+
+    @Override
+    public Boolean updateParseMessage(String botId, String groupId, Long id, String parseMessage) {
+        boolean updated = this.update(new LambdaUpdateWrapper<GroupMessages>()
+                .eq(GroupMessages::getId, id)
+                .set(GroupMessages::getParseMessage, parseMessage));
+        if (updated) {
+            conversationMessageCache.updateGroupParseMessage(botId, groupId, id, parseMessage);
         }
-        return this.updateById(message);
+        return updated;
     }
 
     @Override
@@ -134,10 +307,7 @@ public class GroupMessagesServiceImpl extends ServiceImpl<GroupMessagesMapper, G
         vo.setParseMessage(message.getParseMessage());
         
         try {
-            List<OneBotMessageSegment> segments = objectMapper.readValue(
-                message.getMessageSegments(),
-                new TypeReference<List<OneBotMessageSegment>>() {}
-            );
+            List<OneBotMessageSegment> segments = SegmentCodec.readSegments(message.getSegmentsJson(), message.getSegmentsBlob());
             vo.setMessageSegments(segments);
         } catch (Exception e) {
             vo.setMessageSegments(null);
@@ -0,0 +1,430 @@
+package io.github.mangomaner.mangobot.module.message.journal;
+
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
+import io.github.mangomaner.mangobot.system.mapper.GroupMessagesMapper;
+import io.github.mangomaner.mangobot.system.mapper.PrivateMessagesMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息写后日志（write-behind journal）
+ * <p>
+ * SQLite 默认自动提交，逐条保存聊天消息时每条都是一次独立事务和 fsync。
+ * 这里将群聊 / 私聊消息的插入先放入内存队列，由单独的刷盘线程按批（达到 {@link #MAX_BATCH_SIZE} 条
+ * 或等待 {@link #MAX_DELAY_MILLIS} 毫秒）在一个事务内写入，整批只提交一次。
+ * <p>
+ * 追加的消息同时写入 {@link ConversationMessageCache}；尚未落库的消息保留在待写集合中，
+ * 会话缓存未命中时 {@code getLatestMessages} 会合并这些消息，保证读己之写。
+ * 应用关闭时会在数据源销毁前将队列中剩余的消息全部写入。
+ * <p>
+ * 写连接被长时间占用（VACUUM、在线迁移）时会出现连接池超时或 SQLITE_BUSY，这类暂时性错误按退避间隔重试整批，
+ * 消息保留在待写集合中；只有约束、数据等错误才逐条重试并让对应消息失败。
+ * 待写消息最多 {@link #MAX_PENDING} 条，达到上限后追加会阻塞，直到有消息落库或失败。
+ */
+@Slf4j
+@Component
+public class MessageWriteJournal {
+
+    static final int MAX_BATCH_SIZE = 256;
+
+    static final long MAX_DELAY_MILLIS = 5;
+
+    /**
+     * 已入队但尚未落库的消息上限
+     */
+    static final int MAX_PENDING = 8192;
+
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static final long RETRY_INITIAL_MILLIS = 100;
+
+    private static final long RETRY_MAX_MILLIS = 5_000;
+
+    /**
+     * SQLite 主结果码 SQLITE_BUSY / SQLITE_LOCKED
+     */
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private final GroupMessagesMapper groupMessagesMapper;
+    private final PrivateMessagesMapper privateMessagesMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationMessageCache conversationMessageCache;
+
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>(MAX_PENDING);
+
+    /**
+     * 待写名额，入队前获取，消息落库或失败后归还
+     */
+    private final Semaphore capacity = new Semaphore(MAX_PENDING);
+
+    /**
+     * 各会话已入队但尚未提交的消息（包括正在刷盘的批次），按入队顺序排列；
+     * 同一会话的消息按顺序落库，移除时总在队首附近
+     */
+    private final ConcurrentHashMap<PendingKey, ConcurrentLinkedQueue<Entry>> unflushed = new ConcurrentHashMap<>();
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    /**
+     * 保证 running 检查与入队的原子性，关闭后不会再有消息进入无人消费的队列
+     */
+    private final Object appendLock = new Object();
+
+    public MessageWriteJournal(GroupMessagesMapper groupMessagesMapper,
+                               PrivateMessagesMapper privateMessagesMapper,
+                               TransactionTemplate transactionTemplate,
+                               ConversationMessageCache conversationMessageCache) {
+        this.groupMessagesMapper = groupMessagesMapper;
+        this.privateMessagesMapper = privateMessagesMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.conversationMessageCache = conversationMessageCache;
+        this.flusher = Thread.ofPlatform().name("Message-Journal").daemon(true).start(this::runFlushLoop);
+    }
+
+    /**
+     * 追加一条群消息
+     *
+     * @return 落库后完成的 Future，结果为已回填 id 的实体
+     */
+    public CompletableFuture<GroupMessages> appendGroup(GroupMessages message) {
+        CompletableFuture<GroupMessages> future = append(message);
+        conversationMessageCache.appendGroup(message);
+        return future;
+    }
+
+    /**
+     * 追加一条私聊消息
+     *
+     * @return 落库后完成的 Future，结果为已回填 id 的实体
+     */
+    public CompletableFuture<PrivateMessages> appendPrivate(PrivateMessages message) {
+        CompletableFuture<PrivateMessages> future = append(message);
+        conversationMessageCache.appendPrivate(message);
+        return future;
+    }
+
+    private <T> CompletableFuture<T> append(T message) {
+        Entry entry = new Entry(message);
+        boolean queued = false;
+        try {
+            // 写入积压达到上限时在此等待，向事件分发施加背压
+            capacity.acquire();
+            synchronized (appendLock) {
+                queued = running;
+                if (queued) {
+                    track(entry);
+                    queue.add(entry);
+                }
+            }
+            if (!queued) {
+                capacity.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entry.fail(e);
+            return typed(entry);
+        }
+        if (!queued) {
+            // 关闭后不再排队，直接同步写入
+            try {
+                withRetry(() -> insert(entry));
+                entry.complete();
+            } catch (Exception e) {
+                log.error("消息写入失败: {}", entry.message, e);
+                entry.fail(e);
+            }
+        }
+        return typed(entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> typed(Entry entry) {
+        return (CompletableFuture<T>) entry.future;
+    }
+
+    /**
+     * 获取指定群尚未落库的消息
+     */
+    public List<GroupMessages> pendingGroupMessages(String botId, String groupId) {
+        return pending(new PendingKey(GroupMessages.class, botId, groupId), GroupMessages.class);
+    }
+
+    /**
+     * 获取指定私聊尚未落库的消息
+     */
+    public List<PrivateMessages> pendingPrivateMessages(String botId, String friendId) {
+        return pending(new PendingKey(PrivateMessages.class, botId, friendId), PrivateMessages.class);
+    }
+
+    private <T> List<T> pending(PendingKey key, Class<T> type) {
+        ConcurrentLinkedQueue<Entry> entries = unflushed.get(key);
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+        List<T> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            result.add(type.cast(entry.message));
+        }
+        return result;
+    }
+
+    private void track(Entry entry) {
+        unflushed.compute(entry.key, (key, entries) -> {
+            ConcurrentLinkedQueue<Entry> target = entries != null ? entries : new ConcurrentLinkedQueue<>();
+            target.add(entry);
+            return target;
+        });
+    }
+
+    /**
+     * 移出待写集合并归还名额，每条消息只生效一次
+     */
+    private void settle(Entry entry) {
+        if (entry.settled) {
+            return;
+        }
+        entry.settled = true;
+        unflushed.computeIfPresent(entry.key, (key, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+        capacity.release();
+    }
+
+    private void runFlushLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS);
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时被中断，立即刷出已收集的消息
+                queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) {
+        try {
+            withRetry(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        for (Entry entry : batch) {
+                            insert(entry);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // 回滚后 id 已失效
+                    batch.forEach(this::clearGeneratedId);
+                    throw e;
+                }
+            });
+            // 已提交，先移出待写集合再通知调用方
+            for (Entry entry : batch) {
+                settle(entry);
+                entry.complete();
+            }
+        } catch (Exception e) {
+            // 整批回滚后逐条重试，避免一条坏数据拖累整批
+            log.warn("消息批量写入失败，改为逐条写入, size={}", batch.size(), e);
+            for (Entry entry : batch) {
+                try {
+                    withRetry(() -> {
+                        try {
+                            insert(entry);
+                        } catch (RuntimeException single) {
+                            clearGeneratedId(entry);
+                            throw single;
+                        }
+                    });
+                    settle(entry);
+                    entry.complete();
+                } catch (Exception single) {
+                    log.error("消息写入失败: {}", entry.message, single);
+                    settle(entry);
+                    entry.fail(single);
+                }
+            }
+        } finally {
+            // 意外错误时也不能让消息永久留在待写集合、占用名额
+            batch.forEach(this::settle);
+        }
+    }
+
+    /**
+     * 执行写入，暂时性错误按指数退避重试，其他错误直接抛出；
+     * 等待中被中断，或关闭后重试超过 {@link #SHUTDOWN_TIMEOUT_MILLIS} 时放弃
+     */
+    private void withRetry(Runnable write) {
+        long backoff = RETRY_INITIAL_MILLIS;
+        long start = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            try {
+                write.run();
+                return;
+            } catch (RuntimeException e) {
+                boolean expired = !running
+                        && System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+                if (!isTransient(e) || expired || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                attempt++;
+                log.warn("消息写入遇到暂时性错误，{} ms 后第 {} 次重试: {}", backoff, attempt, e.toString());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff = Math.min(backoff * 2, RETRY_MAX_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * 连接池获取超时、数据库忙 / 被锁定等可通过重试恢复的错误
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof SQLTransientException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql) {
+                int primary = sql.getErrorCode() & 0xff;
+                if (primary == SQLITE_BUSY || primary == SQLITE_LOCKED) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private void insert(Entry entry) {
+        if (entry.message instanceof GroupMessages message) {
+            groupMessagesMapper.insert(message);
+        } else if (entry.message instanceof PrivateMessages message) {
+            privateMessagesMapper.insert(message);
+        }
+    }
+
+    private void clearGeneratedId(Entry entry) {
+        if (entry.message instanceof GroupMessages message) {
+            message.setId(null);
+        } else if (entry.message instanceof PrivateMessages message) {
+            message.setId(null);
+        }
+    }
+
+    /**
+     * 停止接收新消息，并将队列中剩余消息全部落库
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (appendLock) {
+            running = false;
+        }
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT_MILLIS);
+            if (flusher.isAlive()) {
+                flusher.interrupt();
+                flusher.join(SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("消息写后日志关闭时刷盘线程仍未结束，仍有 {} 条消息未落库", queue.size());
+            return;
+        }
+        // 刷盘线程被中断退出时队列中可能还有消息，此后不会再有新消息入队
+        List<Entry> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    /**
+     * 待写消息所属的会话
+     */
+    private record PendingKey(Class<?> type, String botId, String targetId) {
+        static PendingKey of(Object message) {
+            if (message instanceof GroupMessages group) {
+                return new PendingKey(GroupMessages.class, group.getBotId(), group.getGroupId());
+            }
+            PrivateMessages friend = (PrivateMessages) message;
+            return new PendingKey(PrivateMessages.class, friend.getBotId(), friend.getFriendId());
+        }
+    }
+
+    private static final class Entry {
+        final Object message;
+        final PendingKey key;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        /**
+         * 只由刷盘线程（或刷盘线程结束后的关闭流程）读写
+         */
+        boolean settled;
+
+        Entry(Object message) {
+            this.message = message;
+            this.key = PendingKey.of(message);
+        }
+
+        void complete() {
+            future.complete(message);
+        }
+
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package io.github.mangomaner.mangobot.module.message.model.domain;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.github.mangomaner.mangobot.utils.SegmentCodec;
 import lombok.Data;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 
 /**
  * 
@@ -39,9 +43,18 @@ public class GroupMessages implements Serializable {
     private String senderId;
 
     /**
-     * 
+     * 消息段 JSON 文本（JSON 存储格式），请通过 {@link #getMessageSegments()} 读取
+     */
+    @JsonIgnore
+    @TableField(value = "message_segments")
+    private String segmentsJson;
+
+    /**
+     * 消息段紧凑编码（COMPACT 存储格式，见 {@link SegmentCodec}），与 segmentsJson 只会有一个非空
      */
-    private String messageSegments;
+    @JsonIgnore
+    @TableField(value = "message_segments_blob")
+    private byte[] segmentsBlob;
 
     /**
      * 
@@ -58,4 +71,35 @@ public class GroupMessages implements Serializable {
 
     @TableField(exist = false)
     private static final long serialVersionUID = 1L;
+
+    /**
+     * 消息段 JSON；紧凑编码存储的消息在调用时才解码，只读取 parseMessage 的场景不会产生解码开销
+     */
+    public String getMessageSegments() {
+        if (segmentsJson != null || segmentsBlob == null) {
+            return segmentsJson;
+        }
+        try {
+            return SegmentCodec.decodeToJson(segmentsBlob);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 以 JSON 格式设置消息段
+     */
+    public void setMessageSegments(String messageSegments) {
+        this.segmentsJson = messageSegments;
+        this.segmentsBlob = null;
+    }
+
+    /**
+     * 以紧凑编码设置消息段
+     */
+    @JsonIgnore
+    public void setMessageSegmentsBlob(byte[] segmentsBlob) {
+        this.segmentsJson = null;
+        this.segmentsBlob = segmentsBlob;
+    }
 }
\ No newline at end of file
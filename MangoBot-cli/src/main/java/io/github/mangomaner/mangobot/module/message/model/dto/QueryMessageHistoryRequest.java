@@ -0,0 +1,24 @@
+package io.github.mangomaner.mangobot.module.message.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "按游标向前翻阅会话历史请求")
+public class QueryMessageHistoryRequest {
+
+    @Schema(description = "Bot ID")
+    @NotBlank(message = "Bot ID不能为空")
+    private String botId;
+
+    @Schema(description = "群组ID或好友ID")
+    @NotBlank(message = "群组ID或好友ID不能为空")
+    private String targetId;
+
+    @Schema(description = "上一页返回的 nextCursor，为空时从最新消息开始")
+    private String cursor;
+
+    @Schema(description = "每页数量，最大 100", example = "25")
+    private Integer pageSize;
+}
@@ -15,4 +15,10 @@ public class QueryMessagesBySenderRequest {
     @Schema(description = "发送者ID")
     @NotBlank(message = "发送者ID不能为空")
     private String senderId;
+
+    @Schema(description = "上一页返回的 nextCursor，为空时从最新消息开始")
+    private String cursor;
+
+    @Schema(description = "每页数量，最大 100", example = "25")
+    private Integer pageSize;
 }
@@ -19,4 +19,10 @@ public class SearchMessagesRequest {
     @Schema(description = "搜索关键词")
     @NotBlank(message = "搜索关键词不能为空")
     private String keyword;
+
+    @Schema(description = "页码，从 1 开始", example = "1")
+    private Integer page;
+
+    @Schema(description = "每页数量，最大 100", example = "20")
+    private Integer pageSize;
 }
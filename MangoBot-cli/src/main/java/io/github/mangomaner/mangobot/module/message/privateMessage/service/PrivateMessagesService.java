@@ -2,12 +2,14 @@ package io.github.mangomaner.mangobot.module.message.privateMessage.service;
 
 import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryLatestMessagesRequest;
+import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessageHistoryRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesByMessageIdRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.QueryMessagesBySenderRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.SearchMessagesRequest;
 import io.github.mangomaner.mangobot.module.message.model.dto.UpdateMessageRequest;
 import io.github.mangomaner.mangobot.module.message.model.vo.PrivateMessageVO;
 import com.baomidou.mybatisplus.extension.service.IService;
+import io.github.mangomaner.mangobot.system.common.CursorPage;
 
 import java.util.List;
 
@@ -22,8 +24,21 @@ public interface PrivateMessagesService extends IService<PrivateMessages> {
 
     List<PrivateMessages> getMessagesByMessageId(QueryMessagesByMessageIdRequest request);
 
+    /**
+     * 按 (message_time, id) 游标向前翻阅会话历史，最新消息在前
+     */
+    CursorPage<PrivateMessages> getMessageHistory(QueryMessageHistoryRequest request);
+
+    /**
+     * 获取发送者的消息，相当于 {@link #pageMessagesBySender} 的当前页
+     */
     List<PrivateMessages> getMessagesBySender(QueryMessagesBySenderRequest request);
 
+    /**
+     * 按 (message_time, id) 游标分页获取发送者的消息，最新消息在前
+     */
+    CursorPage<PrivateMessages> pageMessagesBySender(QueryMessagesBySenderRequest request);
+
     List<PrivateMessages> searchMessages(SearchMessagesRequest request);
 
     PrivateMessages getMessageById(Integer id);
@@ -34,6 +49,11 @@ public interface PrivateMessagesService extends IService<PrivateMessages> {
 
     Boolean updateMessage(UpdateMessageRequest request);
 
+    /**
+     * 回写解析结果，并原地更新会话缓存中的对应消息
+     */
+    Boolean updateParseMessage(String botId, String friendId, Long id, String parseMessage);
+
     List<PrivateMessageVO> convertToVOList(List<PrivateMessages> messages);
 
     PrivateMessageVO convertToVO(PrivateMessages message);
@@ -0,0 +1,146 @@
+package io.github.mangomaner.mangobot.module.message.search;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息全文索引（SQLite FTS5）
+ * <p>
+ * group_messages / private_messages 的 parse_message 建有外部内容（external content）FTS5 表，
+ * 使用 trigram 分词，对中文等无空格语言同样有效。索引表、触发器和回填进度由迁移脚本 V9 创建，
+ * 此后的新消息、修改、删除由触发器同步。
+ * <p>
+ * 升级前已有的历史消息由后台线程按 id 分批回填，每批一个短事务，不会长时间占用写连接。
+ * 回填进度记录在 message_search_index 表中，重启后继续；回填完成前搜索回退到 LIKE 查询。
+ */
+@Slf4j
+@Component
+public class MessageSearchIndex {
+
+    public static final String GROUP_MESSAGES = "group_messages";
+    public static final String PRIVATE_MESSAGES = "private_messages";
+
+    /**
+     * trigram 分词最短可索引长度（字符数）
+     */
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int BACKFILL_BATCH_SIZE = 5_000;
+
+    @Resource
+    private DataSource dataSource;
+
+    private final Map<String, Boolean> ready = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("Message-Search-Index").start(() -> {
+            for (String table : new String[]{GROUP_MESSAGES, PRIVATE_MESSAGES}) {
+                try {
+                    backfill(table);
+                } catch (Exception e) {
+                    log.error("消息全文索引初始化失败, table={}", table, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 索引是否可用于搜索（已建立且历史消息回填完成）
+     */
+    public boolean isReady(String table) {
+        return ready.getOrDefault(table, false);
+    }
+
+    /**
+     * 分批回填建索引前已有的历史消息
+     */
+    void backfill(String table) throws SQLException {
+        String fts = table + "_fts";
+        long[] progress = readProgress(table);
+        long backfilledTo = progress[0];
+        long target = progress[1];
+        if (backfilledTo < target) {
+            log.info("开始回填消息全文索引, table={}, 进度={}/{}", table, backfilledTo, target);
+        }
+        while (backfilledTo < target) {
+            long upper = Math.min(backfilledTo + BACKFILL_BATCH_SIZE, target);
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO " + fts + " (rowid, parse_message) "
+                                + "SELECT id, parse_message FROM " + table + " WHERE id > ? AND id <= ?");
+                     PreparedStatement mark = connection.prepareStatement(
+                             "UPDATE message_search_index SET backfilled_to = ? WHERE table_name = ?")) {
+                    insert.setLong(1, backfilledTo);
+                    insert.setLong(2, upper);
+                    insert.executeUpdate();
+                    mark.setLong(1, upper);
+                    mark.setString(2, table);
+                    mark.executeUpdate();
+                }
+                connection.commit();
+            }
+            backfilledTo = upper;
+        }
+        ready.put(table, true);
+        log.info("消息全文索引就绪, table={}", table);
+    }
+
+    /**
+     * 按当前表内容重建整个索引
+     * <p>
+     * 用于索引与数据不一致（例如直接修改数据库文件）时的修复，整个重建在一个事务中完成，期间写入会等待。
+     */
+    public void rebuild(String table) throws SQLException {
+        String fts = table + "_fts";
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO " + fts + " (" + fts + ") VALUES ('rebuild')");
+                statement.execute("UPDATE message_search_index SET target = (SELECT COALESCE(MAX(id), 0) FROM " + table + "), "
+                        + "backfilled_to = (SELECT COALESCE(MAX(id), 0) FROM " + table + ") WHERE table_name = '" + table + "'");
+            }
+            connection.commit();
+        }
+        ready.put(table, true);
+        log.info("消息全文索引已重建, table={}", table);
+    }
+
+    private long[] readProgress(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT backfilled_to, target FROM message_search_index WHERE table_name = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new long[]{rs.getLong(1), rs.getLong(2)} : new long[]{0, 0};
+            }
+        }
+    }
+
+    /**
+     * 将关键词转为 FTS5 短语查询，避免关键词中的运算符被解析
+     */
+    public static String toPhraseQuery(String keyword) {
+        return "\"" + keyword.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * 关键词是否足够长，能使用 trigram 索引
+     */
+    public static boolean isIndexable(String keyword) {
+        return keyword != null && keyword.codePointCount(0, keyword.length()) >= MIN_QUERY_LENGTH;
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.mangomaner.mangobot.module.message.segment;
+
+import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
+import io.github.mangomaner.mangobot.events.configuration.SystemConfigChangedEvent;
+import io.github.mangomaner.mangobot.utils.SegmentCodec;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 消息段存储格式迁移
+ * <p>
+ * 切换 {@code db.message.segment_format} 后，将 group_messages / private_messages 中的历史消息段
+ * 在后台按 id 分批转换为目标格式，每批一个短事务。进度记录在 message_segment_migration 表（迁移脚本 V10）中，
+ * 重启后从上次位置继续；迁移过程中新旧格式共存，读取不受影响。
+ * <p>
+ * 迁移只更新消息段列，不触发全文索引的更新触发器；释放的页面会被后续写入复用，如需缩小文件可手动执行 VACUUM。
+ */
+@Slf4j
+@Component
+@MangoBotEventListener
+public class MessageSegmentMigrator {
+
+    private static final String[] TABLES = {"group_messages", "private_messages"};
+
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private MessageSegmentStorage messageSegmentStorage;
+
+    /**
+     * 最新的目标格式，迁移线程每批开始前检查，格式再次切换时当前迁移提前结束
+     */
+    private volatile SegmentStorageFormat target;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start(messageSegmentStorage.format());
+    }
+
+    @MangoBotEventListener
+    public boolean onSystemConfigChanged(SystemConfigChangedEvent event) {
+        if (MessageSegmentStorage.FORMAT_KEY.equals(event.getConfigKey())) {
+            start(SegmentStorageFormat.of(event.getNewValue()));
+        }
+        return true;
+    }
+
+    private void start(SegmentStorageFormat format) {
+        target = format;
+        Thread.ofVirtual().name("Message-Segment-Migrator").start(() -> {
+            for (String table : TABLES) {
+                try {
+                    migrate(table, format);
+                } catch (Exception e) {
+                    log.error("消息段存储格式迁移失败, table={}, format={}", table, format, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 将表中的消息段转换为指定格式，同一时刻只有一个迁移在执行
+     */
+    synchronized void migrate(String table, SegmentStorageFormat format) throws SQLException {
+        if (target != format) {
+            return;
+        }
+        long migratedTo = readProgress(table, format);
+        // 之后写入的消息已按目标格式保存，扫描到迁移开始时的最大 id 为止
+        long upper = maxId(table);
+        boolean toCompact = format == SegmentStorageFormat.COMPACT;
+        String select = toCompact
+                ? "SELECT id, message_segments FROM " + table
+                        + " WHERE id > ? AND id <= ? AND message_segments IS NOT NULL ORDER BY id LIMIT ?"
+                : "SELECT id, message_segments_blob FROM " + table
+                        + " WHERE id > ? AND id <= ? AND message_segments_blob IS NOT NULL ORDER BY id LIMIT ?";
+        // 条件中带上旧值，转换期间被编辑过的消息不会被覆盖
+        String update = toCompact
+                ? "UPDATE " + table + " SET message_segments_blob = ?, message_segments = NULL WHERE id = ? AND message_segments = ?"
+                : "UPDATE " + table + " SET message_segments = ?, message_segments_blob = NULL WHERE id = ? AND message_segments_blob = ?";
+
+        long converted = 0;
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        while (target == format) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                List<Row> rows = new ArrayList<>(BATCH_SIZE);
+                try (PreparedStatement statement = connection.prepareStatement(select)) {
+                    statement.setLong(1, migratedTo);
+                    statement.setLong(2, upper);
+                    statement.setInt(3, BATCH_SIZE);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            rows.add(toCompact
+                                    ? new Row(rs.getLong(1), rs.getString(2), null)
+                                    : new Row(rs.getLong(1), null, rs.getBytes(2)));
+                        }
+                    }
+                }
+                if (rows.isEmpty()) {
+                    // 记录扫描终点，下次启动只需检查此后的消息
+                    writeProgress(connection, table, format, Math.max(migratedTo, upper));
+                    connection.commit();
+                    break;
+                }
+                try (PreparedStatement statement = connection.prepareStatement(update)) {
+                    for (Row row : rows) {
+                        try {
+                            if (toCompact) {
+                                byte[] encoded = SegmentCodec.encodeJson(row.json());
+                                statement.setBytes(1, encoded);
+                                statement.setLong(2, row.id());
+                                statement.setString(3, row.json());
+                                bytesBefore += row.json().getBytes(StandardCharsets.UTF_8).length;
+                                bytesAfter += encoded.length;
+                            } else {
+                                String json = SegmentCodec.decodeToJson(row.blob());
+                                statement.setString(1, json);
+                                statement.setLong(2, row.id());
+                                statement.setBytes(3, row.blob());
+                                bytesBefore += row.blob().length;
+                                bytesAfter += json.getBytes(StandardCharsets.UTF_8).length;
+                            }
+                            statement.addBatch();
+                            converted++;
+                        } catch (IOException e) {
+                            // 无法解析的消息段保持原样
+                            log.warn("消息段格式转换失败，保持原格式, table={}, id={}: {}", table, row.id(), e.getMessage());
+                        }
+                    }
+                    statement.executeBatch();
+                }
+                migratedTo = rows.get(rows.size() - 1).id();
+                writeProgress(connection, table, format, migratedTo);
+                connection.commit();
+            }
+        }
+        if (converted > 0) {
+            log.info("消息段存储格式迁移完成, table={}, format={}, 条数={}, {} KB -> {} KB",
+                    table, format, converted, bytesBefore / 1024, bytesAfter / 1024);
+        }
+    }
+
+    private long readProgress(String table, SegmentStorageFormat format) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT format, migrated_to FROM message_segment_migration WHERE table_name = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                // 目标格式变化后需要从头扫描
+                return rs.next() && format.name().equals(rs.getString(1)) ? rs.getLong(2) : 0L;
+            }
+        }
+    }
+
+    private long maxId(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private void writeProgress(Connection connection, String table, SegmentStorageFormat format, long migratedTo) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT OR REPLACE INTO message_segment_migration (table_name, format, migrated_to) VALUES (?, ?, ?)")) {
+            statement.setString(1, table);
+            statement.setString(2, format.name());
+            statement.setLong(3, migratedTo);
+            statement.executeUpdate();
+        }
+    }
+
+    private record Row(long id, String json, byte[] blob) {}
+}
@@ -0,0 +1,67 @@
+package io.github.mangomaner.mangobot.module.message.segment;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.api.MangoConfigApi;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.model.domain.PrivateMessages;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+import io.github.mangomaner.mangobot.utils.SegmentCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 按系统配置 {@code db.message.segment_format} 选择的格式写入消息段
+ * <p>
+ * 读取不依赖配置：实体上 JSON 与紧凑编码只会有一个非空，切换格式后新旧数据可以共存，
+ * 历史数据由 {@link MessageSegmentMigrator} 在后台转换。
+ */
+@Component
+public class MessageSegmentStorage {
+
+    public static final String FORMAT_KEY = "db.message.segment_format";
+
+    public SegmentStorageFormat format() {
+        try {
+            return SegmentStorageFormat.of(MangoConfigApi.getSystemConfigValue(FORMAT_KEY));
+        } catch (Exception e) {
+            return SegmentStorageFormat.JSON;
+        }
+    }
+
+    public void write(GroupMessages message, List<? extends OneBotMessageSegment> segments) throws IOException {
+        if (format() == SegmentStorageFormat.COMPACT) {
+            message.setMessageSegmentsBlob(SegmentCodec.encode(segments));
+        } else {
+            message.setMessageSegments(JsonCodec.writeSegments(segments));
+        }
+    }
+
+    public void write(PrivateMessages message, List<? extends OneBotMessageSegment> segments) throws IOException {
+        if (format() == SegmentStorageFormat.COMPACT) {
+            message.setMessageSegmentsBlob(SegmentCodec.encode(segments));
+        } else {
+            message.setMessageSegments(JsonCodec.writeSegments(segments));
+        }
+    }
+
+    /**
+     * 写入已是 JSON 文本的消息段（如前端编辑提交的内容）
+     */
+    public void writeJson(GroupMessages message, String json) throws IOException {
+        if (format() == SegmentStorageFormat.COMPACT) {
+            message.setMessageSegmentsBlob(SegmentCodec.encodeJson(json));
+        } else {
+            message.setMessageSegments(json);
+        }
+    }
+
+    public void writeJson(PrivateMessages message, String json) throws IOException {
+        if (format() == SegmentStorageFormat.COMPACT) {
+            message.setMessageSegmentsBlob(SegmentCodec.encodeJson(json));
+        } else {
+            message.setMessageSegments(json);
+        }
+    }
+}
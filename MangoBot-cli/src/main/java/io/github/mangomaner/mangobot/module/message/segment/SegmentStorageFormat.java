@@ -0,0 +1,28 @@
+package io.github.mangomaner.mangobot.module.message.segment;
+
+/**
+ * 消息段存储格式，对应系统配置 {@code db.message.segment_format}
+ */
+public enum SegmentStorageFormat {
+
+    /**
+     * JSON 文本，存于 message_segments 列
+     */
+    JSON,
+
+    /**
+     * 紧凑二进制编码（见 {@link io.github.mangomaner.mangobot.utils.SegmentCodec}），存于 message_segments_blob 列
+     */
+    COMPACT;
+
+    public static SegmentStorageFormat of(String value) {
+        if (value != null) {
+            for (SegmentStorageFormat format : values()) {
+                if (format.name().equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.mangomaner.mangobot.system.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    /**
+     * 本页数据
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    public CursorPage(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    /**
+     * 由多查一行的结果构造分页：查询 pageSize + 1 行，多出的一行只用于判断是否还有下一页
+     *
+     * @param fetched  按分页顺序查询出的最多 pageSize + 1 行
+     * @param cursorOf 取行的游标
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> records = new ArrayList<>(fetched.subList(0, pageSize));
+        return new CursorPage<>(records, cursorOf.apply(records.get(pageSize - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(records.stream().map(mapper).toList(), nextCursor);
+    }
+}
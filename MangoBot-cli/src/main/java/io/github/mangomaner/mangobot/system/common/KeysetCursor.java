@@ -0,0 +1,35 @@
+package io.github.mangomaner.mangobot.system.common;
+
+import io.github.mangomaner.mangobot.system.exception.BusinessException;
+
+/**
+ * 键集分页游标
+ * <p>
+ * 记录上一页最后一行的 (时间, id)，下一页用 {@code (time, id) < (?, ?)} 直接在索引上定位，
+ * 不需要像 OFFSET 一样跳过前面的行，翻到多早的历史耗时都与第一页相同。
+ * 对外编码为 {@code "时间_id"} 字符串。
+ */
+public record KeysetCursor(long time, long id) {
+
+    public String encode() {
+        return time + "_" + id;
+    }
+
+    /**
+     * 解析游标，空字符串表示从最新一页开始
+     *
+     * @return 游标，参数为空时返回 null
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.indexOf('_');
+        try {
+            return new KeysetCursor(Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "无效的分页游标");
+        }
+    }
+}
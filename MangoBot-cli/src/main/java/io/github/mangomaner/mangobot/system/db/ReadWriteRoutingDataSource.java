@@ -0,0 +1,84 @@
+package io.github.mangomaner.mangobot.system.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.sqlite.SQLiteDataSource;
+
+import java.util.Map;
+
+/**
+ * SQLite 读写分离数据源
+ * <p>
+ * SQLite 同一时刻只允许一个写事务，多个写连接只会在文件锁上互相等待，因此写入固定使用单个连接；
+ * WAL 模式下读取不阻塞写入，查询使用只读连接池并发执行。
+ * <p>
+ * 默认路由到写连接（包括事务和直接 {@code getConnection()} 的调用方），只有
+ * {@link ReadWriteRoutingInterceptor} 标记为查询的 MyBatis 语句才使用只读连接。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Route { WRITE, READ }
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private final HikariDataSource writer;
+    private final HikariDataSource reader;
+
+    public ReadWriteRoutingDataSource(String url, SQLitePragmas pragmas) {
+        // 先打开写连接：新建数据库文件并切换日志模式，只读连接无法创建文件
+        this.writer = createPool(url, pragmas, false, 1, "SQLite-Writer");
+        this.reader = createPool(url, pragmas, true, pragmas.readPoolSize(), "SQLite-Reader");
+        setTargetDataSources(Map.of(Route.WRITE, writer, Route.READ, reader));
+        setDefaultTargetDataSource(writer);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 创建 SQLite 连接池
+     *
+     * @param readOnly 是否只读
+     * @param size     连接数
+     */
+    public static HikariDataSource createPool(String url, SQLitePragmas pragmas, boolean readOnly, int size, String poolName) {
+        SQLiteDataSource dataSource = new SQLiteDataSource(pragmas.toDriverConfig(readOnly));
+        dataSource.setUrl(url);
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(dataSource);
+        config.setPoolName(poolName);
+        // 连接池初始化时会调用 setReadOnly，需与驱动打开方式一致，否则 sqlite-jdbc 会拒绝修改
+        config.setReadOnly(readOnly);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        // SQLite 连接不会被服务端断开，无需定期回收
+        config.setMaxLifetime(0);
+        config.setIdleTimeout(0);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 设置当前线程的路由，返回之前的值以便恢复
+     */
+    static Route route(Route route) {
+        Route previous = CURRENT.get();
+        if (route == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(route);
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = CURRENT.get();
+        return route == null ? Route.WRITE : route;
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+        writer.close();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.mangomaner.mangobot.system.db;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+/**
+ * MyBatis 读写路由拦截器
+ * <p>
+ * 在执行器获取连接之前，按语句类型设置 {@link ReadWriteRoutingDataSource} 的路由：
+ * SELECT 走只读连接池，其余语句走写连接。已在事务中的语句沿用事务绑定的写连接，不受影响。
+ * <p>
+ * 声明为 {@code <select flushCache="true">} 的语句视为写入（如 {@code INSERT ... RETURNING} 需要以查询方式读取返回的行）。
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        ReadWriteRoutingDataSource.Route route = statement.getSqlCommandType() == SqlCommandType.SELECT
+                && !statement.isFlushCacheRequired()
+                ? ReadWriteRoutingDataSource.Route.READ
+                : ReadWriteRoutingDataSource.Route.WRITE;
+        ReadWriteRoutingDataSource.Route previous = ReadWriteRoutingDataSource.route(route);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.route(previous);
+        }
+    }
+}
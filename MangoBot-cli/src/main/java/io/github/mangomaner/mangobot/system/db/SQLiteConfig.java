@@ -1,27 +1,28 @@
 package io.github.mangomaner.mangobot.system.db;
 
 
+import io.github.mangomaner.mangobot.system.db.migration.SchemaMigrator;
 import io.github.mangomaner.mangobot.utils.FileUtils;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.event.EventListener;
 
 import javax.sql.DataSource;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.Connection;
-import java.sql.Statement;
 
 @Configuration
 public class SQLiteConfig {
 
     private static final String DATA_DIR = "data";
     private static final String DB_FILE = "mangobot.db";
-    private static final String SCHEMA_SQL = "schema.sql";
 
+    private SchemaMigrator schemaMigrator;
+
+    /**
+     * 创建数据源并执行结构迁移，依赖数据源的服务创建时数据库结构已是最新
+     */
     @Bean
     public DataSource dataSource() {
         Path dataDir = FileUtils.resolvePath(DATA_DIR);
@@ -30,44 +31,26 @@ public class SQLiteConfig {
 
         String url = "jdbc:sqlite:" + dbPath.toAbsolutePath();
 
-        return DataSourceBuilder.create()
-                .url(url)
-                .driverClassName("org.sqlite.JDBC")
-                .build();
-    }
-
-    @Bean
-    public CommandLineRunner databaseInitializer(DataSource dataSource) {
-        return args -> {
-            Path dataDir = FileUtils.resolvePath(DATA_DIR);
-            Path dbPath = dataDir.resolve(DB_FILE);
-
-            if (!Files.exists(dbPath)) {
-                initializeDatabase(dataSource);
-            }
-        };
+        // 写连接池启动时会创建文件，需在创建数据源之前判断
+        boolean databaseExisted = Files.exists(dbPath);
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(url, SQLitePragmas.load(dbPath));
+        try {
+            schemaMigrator = new SchemaMigrator(dataSource);
+            schemaMigrator.migrate(!databaseExisted);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        return dataSource;
     }
 
-    private void initializeDatabase(DataSource dataSource) {
-        try (Connection connection = dataSource.getConnection();
-             Statement statement = connection.createStatement()
-        ) {
-
-            ClassPathResource resource = new ClassPathResource(SCHEMA_SQL);
-            String sql = new String(resource.getContentAsByteArray(), StandardCharsets.UTF_8);
-
-            String[] statements = sql.split(";");
-            for (String stmt : statements) {
-                String trimmed = stmt.trim();
-                if (!trimmed.isEmpty()) {
-                    statement.execute(trimmed);
-                    System.out.println("执行SQL: " + trimmed);
-                }
-            }
-            System.out.println("Database加载完成.");
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize database", e);
+    /**
+     * 启动完成后在后台执行耗时的迁移（大表建索引等）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (schemaMigrator != null) {
+            schemaMigrator.migrateOnline();
         }
     }
 }
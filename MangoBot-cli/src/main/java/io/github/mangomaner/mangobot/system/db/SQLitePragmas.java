@@ -0,0 +1,118 @@
+package io.github.mangomaner.mangobot.system.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQLite 连接参数
+ * <p>
+ * 数据源在 Spring 容器中最先创建，此时配置服务尚不可用，因此直接从数据库文件的 system_configs 表读取，
+ * 修改后需重启生效。数据库不存在或读取失败时使用默认值。
+ *
+ * @param journalMode   日志模式，默认 WAL（读写互不阻塞）
+ * @param synchronous   同步级别，WAL 下 NORMAL 只在检查点时 fsync
+ * @param busyTimeout   等待文件锁的毫秒数
+ * @param cacheSize     页缓存大小，负数表示 KiB
+ * @param mmapSize      内存映射读取的字节数，0 表示关闭
+ * @param readPoolSize  只读连接池大小
+ */
+@Slf4j
+public record SQLitePragmas(String journalMode, String synchronous, int busyTimeout, int cacheSize,
+                            long mmapSize, int readPoolSize) {
+
+    public static final String JOURNAL_MODE_KEY = "db.sqlite.journal_mode";
+    public static final String SYNCHRONOUS_KEY = "db.sqlite.synchronous";
+    public static final String BUSY_TIMEOUT_KEY = "db.sqlite.busy_timeout";
+    public static final String CACHE_SIZE_KEY = "db.sqlite.cache_size";
+    public static final String MMAP_SIZE_KEY = "db.sqlite.mmap_size";
+    public static final String READ_POOL_SIZE_KEY = "db.sqlite.read_pool_size";
+
+    public static final SQLitePragmas DEFAULTS =
+            new SQLitePragmas("WAL", "NORMAL", 5000, -16000, 268_435_456L, 4);
+
+    /**
+     * 从数据库文件读取连接参数
+     */
+    public static SQLitePragmas load(Path dbPath) {
+        if (!Files.exists(dbPath)) {
+            return DEFAULTS;
+        }
+        Map<String, String> values = new HashMap<>();
+        String sql = "SELECT config_key, config_value FROM system_configs WHERE config_key LIKE 'db.sqlite.%'";
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath.toAbsolutePath());
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                values.put(rs.getString(1), rs.getString(2));
+            }
+        } catch (Exception e) {
+            // 旧版本数据库没有这些配置或 system_configs 表
+            log.debug("读取 SQLite 连接参数失败，使用默认值: {}", e.getMessage());
+            return DEFAULTS;
+        }
+        return new SQLitePragmas(
+                readEnum(values, JOURNAL_MODE_KEY, JournalMode.class, DEFAULTS.journalMode),
+                readEnum(values, SYNCHRONOUS_KEY, SynchronousMode.class, DEFAULTS.synchronous),
+                (int) readLong(values, BUSY_TIMEOUT_KEY, DEFAULTS.busyTimeout, false),
+                (int) readLong(values, CACHE_SIZE_KEY, DEFAULTS.cacheSize, true),
+                readLong(values, MMAP_SIZE_KEY, DEFAULTS.mmapSize, false),
+                Math.max(1, (int) readLong(values, READ_POOL_SIZE_KEY, DEFAULTS.readPoolSize, false)));
+    }
+
+    /**
+     * 生成 sqlite-jdbc 连接配置
+     *
+     * @param readOnly 是否以只读方式打开
+     */
+    public org.sqlite.SQLiteConfig toDriverConfig(boolean readOnly) {
+        org.sqlite.SQLiteConfig config = new org.sqlite.SQLiteConfig();
+        if (!readOnly) {
+            // 日志模式持久化在数据库文件中，由写连接设置即可
+            config.setJournalMode(JournalMode.valueOf(journalMode));
+            config.setSynchronous(SynchronousMode.valueOf(synchronous));
+        }
+        config.setBusyTimeout(busyTimeout);
+        config.setCacheSize(cacheSize);
+        config.setPragma(Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        config.setReadOnly(readOnly);
+        return config;
+    }
+
+    private static <E extends Enum<E>> String readEnum(Map<String, String> values, String key, Class<E> type, String defaultValue) {
+        String value = values.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase()).name();
+        } catch (IllegalArgumentException e) {
+            log.warn("无效的 SQLite 配置 {}={}，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static long readLong(Map<String, String> values, String key, long defaultValue, boolean allowNegative) {
+        String value = values.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            return parsed >= 0 || allowNegative ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("无效的 SQLite 配置 {}={}，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.mangomaner.mangobot.system.db.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 一个版本化迁移脚本
+ * <p>
+ * 文件名格式为 {@code V<版本号>__<描述>.sql}，如 {@code V5__keyset_indexes.sql}；
+ * 脚本中包含 {@code -- migration: online} 注释行的迁移在应用启动完成后于后台执行（用于大表建索引等耗时操作），
+ * 其余迁移在服务创建之前同步执行。
+ *
+ * @param version     版本号
+ * @param description 描述（文件名中的下划线替换为空格）
+ * @param statements  拆分后的语句
+ * @param online      是否在后台执行
+ * @param checksum    脚本内容的 CRC32，用于发现已执行的脚本被修改
+ */
+public record SchemaMigration(int version, String description, List<String> statements, boolean online, long checksum) {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final Pattern ONLINE = Pattern.compile("^\\s*--\\s*migration:\\s*online\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    /**
+     * 解析迁移脚本，文件名不符合格式时返回 null
+     */
+    public static SchemaMigration parse(String fileName, String script) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return new SchemaMigration(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '),
+                SqlScript.split(script),
+                ONLINE.matcher(script).find(),
+                crc.getValue());
+    }
+}
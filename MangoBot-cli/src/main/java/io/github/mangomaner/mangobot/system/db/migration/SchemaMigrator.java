@@ -0,0 +1,289 @@
+package io.github.mangomaner.mangobot.system.db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 数据库结构迁移
+ * <p>
+ * 已执行的版本记录在 schema_version 表中。新建数据库时执行 schema.sql（始终是最新的完整结构），
+ * 并将其作为基线版本 1、同时把现有迁移全部标记为已执行；已有数据库按版本号依次执行尚未执行的迁移，
+ * 每个迁移一个事务。没有 schema_version 表的旧数据库视为基线版本，其后的迁移全部重新执行，
+ * 因此迁移脚本需可重复执行：使用 IF NOT EXISTS / INSERT OR IGNORE，{@code ALTER TABLE ... ADD COLUMN}
+ * 在列已存在时自动跳过。
+ * <p>
+ * 标记为 online 的迁移（大表建索引等）不阻塞启动，由 {@link #migrateOnline()} 在后台逐条执行，
+ * 每条语句一个事务，语句之间释放写连接，全部完成后才记录版本，中断后下次启动重新执行。
+ */
+@Slf4j
+public class SchemaMigrator {
+
+    private static final String SCHEMA_SQL = "schema.sql";
+
+    private static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+    private static final int BASELINE_VERSION = 1;
+
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+[\"`]?(\\w+)[\"`]?\\s+ADD\\s+(?:COLUMN\\s+)?[\"`]?(\\w+)[\"`]?.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final DataSource dataSource;
+
+    private final List<SchemaMigration> migrations;
+
+    /**
+     * 等待后台执行的迁移
+     */
+    private List<SchemaMigration> pendingOnline = List.of();
+
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, loadMigrations());
+    }
+
+    SchemaMigrator(DataSource dataSource, List<SchemaMigration> migrations) {
+        this.dataSource = dataSource;
+        this.migrations = migrations.stream().sorted(Comparator.comparingInt(SchemaMigration::version)).toList();
+    }
+
+    /**
+     * 在服务创建之前执行：建库或执行待执行的同步迁移
+     *
+     * @param freshDatabase 数据库文件是否为本次启动新建
+     */
+    public void migrate(boolean freshDatabase) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (freshDatabase) {
+                initialize(connection);
+                return;
+            }
+            Map<Integer, Long> applied = appliedVersions(connection);
+            if (applied.isEmpty()) {
+                record(connection, BASELINE_VERSION, "baseline", 0, 0);
+                log.info("已有数据库未记录结构版本，以版本 {} 为基线", BASELINE_VERSION);
+            }
+            List<SchemaMigration> online = new ArrayList<>();
+            for (SchemaMigration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum != null) {
+                    if (checksum != 0 && checksum != migration.checksum()) {
+                        log.warn("迁移脚本 V{} ({}) 在执行后被修改，不会重新执行", migration.version(), migration.description());
+                    }
+                    continue;
+                }
+                if (migration.online()) {
+                    online.add(migration);
+                } else {
+                    apply(connection, migration);
+                }
+            }
+            pendingOnline = online;
+        } catch (SQLException e) {
+            throw new IllegalStateException("数据库结构迁移失败", e);
+        }
+    }
+
+    /**
+     * 在后台执行 online 迁移，应在应用启动完成后调用
+     */
+    public void migrateOnline() {
+        List<SchemaMigration> online = pendingOnline;
+        pendingOnline = List.of();
+        if (online.isEmpty()) {
+            return;
+        }
+        Thread.ofVirtual().name("Schema-Migrator").start(() -> {
+            for (SchemaMigration migration : online) {
+                try {
+                    applyOnline(migration);
+                } catch (Exception e) {
+                    // 后续迁移可能依赖这一个，停止执行，下次启动重试
+                    log.error("后台迁移 V{} ({}) 失败", migration.version(), migration.description(), e);
+                    return;
+                }
+            }
+        });
+    }
+
+    private void initialize(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // 连接打开时已设置 WAL，文件头已写入，需 VACUUM 使增量回收模式生效（空库瞬间完成）
+            statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            statement.execute("VACUUM");
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ensureVersionTable(connection);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SqlScript.split(readResource(new ClassPathResource(SCHEMA_SQL)))) {
+                    statement.execute(sql);
+                }
+            }
+            record(connection, BASELINE_VERSION, "baseline", 0, 0);
+            for (SchemaMigration migration : migrations) {
+                record(connection, migration.version(), migration.description(), migration.checksum(), 0);
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log.info("数据库初始化完成，结构版本 {}", migrations.isEmpty() ? BASELINE_VERSION : migrations.getLast().version());
+    }
+
+    private void apply(Connection connection, SchemaMigration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String sql : migration.statements()) {
+                execute(connection, sql);
+            }
+            record(connection, migration.version(), migration.description(), migration.checksum(),
+                    System.currentTimeMillis() - start);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new SQLException("迁移 V" + migration.version() + " (" + migration.description() + ") 执行失败", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log.info("已执行迁移 V{} ({})，耗时 {} ms", migration.version(), migration.description(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void applyOnline(SchemaMigration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        log.info("开始后台迁移 V{} ({})", migration.version(), migration.description());
+        for (String sql : migration.statements()) {
+            // 每条语句单独获取写连接，执行期间其他写入排队等待
+            try (Connection connection = dataSource.getConnection()) {
+                execute(connection, sql);
+            }
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            record(connection, migration.version(), migration.description(), migration.checksum(),
+                    System.currentTimeMillis() - start);
+        }
+        log.info("后台迁移 V{} ({}) 完成，耗时 {} ms", migration.version(), migration.description(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 执行一条语句，新增的列已存在时跳过
+     */
+    private void execute(Connection connection, String sql) throws SQLException {
+        Matcher matcher = ADD_COLUMN.matcher(sql);
+        if (matcher.matches() && hasColumn(connection, matcher.group(1), matcher.group(2))) {
+            log.debug("列已存在，跳过: {}", sql);
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet columns = statement.executeQuery("PRAGMA table_info(" + table + ")")
+        ) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void ensureVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INTEGER PRIMARY KEY, "
+                    + "description TEXT NOT NULL, "
+                    + "checksum INTEGER NOT NULL DEFAULT 0, "
+                    + "installed_at INTEGER NOT NULL, "
+                    + "execution_ms INTEGER NOT NULL DEFAULT 0)");
+        }
+    }
+
+    /**
+     * 已执行的版本及其脚本校验和
+     */
+    private Map<Integer, Long> appliedVersions(Connection connection) throws SQLException {
+        ensureVersionTable(connection);
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_version")
+        ) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection connection, int version, String description, long checksum, long executionMs) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO schema_version (version, description, checksum, installed_at, execution_ms) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            statement.setLong(3, checksum);
+            statement.setLong(4, System.currentTimeMillis());
+            statement.setLong(5, executionMs);
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<SchemaMigration> loadMigrations() {
+        List<SchemaMigration> migrations = new ArrayList<>();
+        Map<Integer, String> versions = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String fileName = resource.getFilename();
+                SchemaMigration migration = fileName == null ? null : SchemaMigration.parse(fileName, readResource(resource));
+                if (migration == null) {
+                    log.warn("忽略文件名不符合格式的迁移脚本: {}", fileName);
+                    continue;
+                }
+                String previous = versions.put(migration.version(), fileName);
+                if (previous != null) {
+                    throw new IllegalStateException("迁移版本号重复: " + previous + ", " + fileName);
+                }
+                migrations.add(migration);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("读取迁移脚本失败", e);
+        }
+        return migrations;
+    }
+
+    private static String readResource(Resource resource) {
+        try {
+            return new String(resource.getContentAsByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取 " + resource.getFilename() + " 失败", e);
+        }
+    }
+}
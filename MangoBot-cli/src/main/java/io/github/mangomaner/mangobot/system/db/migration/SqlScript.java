@@ -0,0 +1,115 @@
+package io.github.mangomaner.mangobot.system.db.migration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SQL 脚本拆分
+ * <p>
+ * 按语句末尾的分号拆分，跳过字符串、引号标识符和注释中的分号；
+ * CREATE TRIGGER 语句在 BEGIN ... END 结束后才算完整（其中 CASE ... END 按嵌套计数）。
+ * 注释不会保留在拆分结果中。
+ */
+public final class SqlScript {
+
+    private SqlScript() {}
+
+    public static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        boolean trigger = false;
+        boolean inBody = false;
+        int depth = 0;
+
+        int length = script.length();
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                word.append(c);
+                current.append(c);
+                continue;
+            }
+
+            // 单词结束
+            if (!word.isEmpty()) {
+                String keyword = word.toString().toUpperCase(Locale.ROOT);
+                word.setLength(0);
+                if (!trigger && keyword.equals("TRIGGER") && startsWithCreate(current)) {
+                    trigger = true;
+                } else if (trigger && (keyword.equals("BEGIN") || (inBody && keyword.equals("CASE")))) {
+                    inBody = true;
+                    depth++;
+                } else if (trigger && inBody && keyword.equals("END")) {
+                    depth--;
+                }
+            }
+
+            // 注释
+            if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? length : end;
+                current.append('\n');
+                continue;
+            }
+            if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+                current.append(' ');
+                continue;
+            }
+
+            // 字符串与引号标识符，成对的引号表示转义，整体原样保留
+            if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                char close = c == '[' ? ']' : c;
+                int end = i + 1;
+                while (end < length) {
+                    if (script.charAt(end) == close) {
+                        if (close != ']' && end + 1 < length && script.charAt(end + 1) == close) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.min(end, length - 1);
+                current.append(script, i, end + 1);
+                i = end;
+                continue;
+            }
+
+            if (c == ';' && (!trigger || (inBody && depth == 0))) {
+                addStatement(statements, current);
+                trigger = false;
+                inBody = false;
+                depth = 0;
+                continue;
+            }
+            current.append(c);
+        }
+        if (!word.isEmpty() && trigger && inBody && word.toString().equalsIgnoreCase("END")) {
+            depth--;
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    /**
+     * 当前语句是否以 CREATE 开头（TRIGGER 之前可能有 TEMP 等修饰词）
+     */
+    private static boolean startsWithCreate(StringBuilder current) {
+        String head = current.toString().stripLeading();
+        return head.regionMatches(true, 0, "CREATE", 0, 6);
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+}
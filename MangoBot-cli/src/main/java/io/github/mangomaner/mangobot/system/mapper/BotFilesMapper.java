@@ -2,6 +2,9 @@ package io.github.mangomaner.mangobot.system.mapper;
 
 import io.github.mangomaner.mangobot.module.file.model.domain.BotFiles;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
 * @author mangoman
@@ -11,6 +14,12 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface BotFilesMapper extends BaseMapper<BotFiles> {
 
+    /**
+     * 批量插入或合并文件记录（INSERT ... ON CONFLICT(file_id) DO UPDATE ... RETURNING）
+     *
+     * @return 插入或已存在的全部记录
+     */
+    List<BotFiles> upsertBatch(@Param("files") List<BotFiles> files);
 }
 
 
@@ -2,6 +2,9 @@ package io.github.mangomaner.mangobot.system.mapper;
 
 import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
 * @author mangoman
@@ -11,6 +14,17 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface GroupMessagesMapper extends BaseMapper<GroupMessages> {
 
+    /**
+     * 通过全文索引搜索消息，按相关度排序
+     *
+     * @param query FTS5 查询表达式
+     */
+    List<GroupMessages> searchByFullText(@Param("botId") String botId,
+                                         @Param("targetId") String targetId,
+                                         @Param("query") String query,
+                                         @Param("limit") int limit,
+                                         @Param("offset") int offset);
+
 }
 
 
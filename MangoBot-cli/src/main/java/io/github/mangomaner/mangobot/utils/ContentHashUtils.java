@@ -0,0 +1,85 @@
+package io.github.mangomaner.mangobot.utils;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 文件内容哈希工具类
+ * <p>
+ * 提供内容寻址所需的 SHA-256 摘要，以及用于识别近似重复图片的感知哈希（dHash）。
+ */
+public class ContentHashUtils {
+
+    private static final int DHASH_WIDTH = 9;
+    private static final int DHASH_HEIGHT = 8;
+
+    private ContentHashUtils() {}
+
+    /**
+     * 计算字节内容的 SHA-256 摘要
+     *
+     * @param bytes 文件内容
+     * @return 小写十六进制摘要
+     */
+    public static String sha256Hex(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 计算图片的 64 位差值哈希（dHash）
+     * <p>
+     * 图片缩放为 9x8 灰度图后比较相邻像素亮度，对重新压缩、缩放产生的差异不敏感。
+     * 无法解码的格式（如 WebP）返回 null。
+     *
+     * @param bytes 图片内容
+     * @return 感知哈希，无法解码时返回 null
+     */
+    public static Long perceptualHash(byte[] bytes) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (Exception e) {
+            return null;
+        }
+        if (source == null) {
+            return null;
+        }
+
+        BufferedImage scaled = new BufferedImage(DHASH_WIDTH, DHASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, DHASH_WIDTH, DHASH_HEIGHT, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < DHASH_HEIGHT; y++) {
+            for (int x = 0; x < DHASH_WIDTH - 1; x++) {
+                int left = scaled.getRaster().getSample(x, y, 0);
+                int right = scaled.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 计算两个感知哈希的汉明距离
+     */
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
@@ -267,4 +267,42 @@ public class FileUtils {
     public static File downloadFile(String url, String relativePath) {
         return downloadFile(url, resolvePath(relativePath));
     }
+
+    /**
+     * 从URL下载文件内容到内存
+     *
+     * @param url 文件URL
+     * @return 文件内容
+     */
+    public static byte[] downloadBytes(String url) {
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<byte[]> response = client.send(request,
+                    HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Failed to download file from URL: " + url + ", status code: " + response.statusCode());
+            }
+            return response.body();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to download file from URL: " + url, e);
+        }
+    }
+
+    /**
+     * 写入字节内容到文件（覆盖模式）
+     */
+    public static void writeBytes(Path path, byte[] content) {
+        createParentDirectories(path);
+        try {
+            Files.write(path, content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write to file: " + path.toAbsolutePath(), e);
+        }
+    }
 }
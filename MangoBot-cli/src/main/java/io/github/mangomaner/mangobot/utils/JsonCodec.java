@@ -0,0 +1,88 @@
+package io.github.mangomaner.mangobot.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 全局共享的 JSON 编解码工具类
+ * <p>
+ * 整个应用（Spring MVC 除外，见 JsonConfig）共用一个预先配置好的 {@link ObjectMapper}，
+ * 并按类型缓存 {@link ObjectReader} / {@link ObjectWriter}，避免各处重复创建 ObjectMapper
+ * 以及每次调用都要重新查找、冷启动序列化器。
+ * <p>
+ * 配置：忽略未知字段（OneBot 实现端经常新增字段，不应因此导致整条消息解析失败）。
+ */
+public final class JsonCodec {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public static final TypeReference<List<OneBotMessageSegment>> SEGMENT_LIST = new TypeReference<>() {};
+    public static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+    public static final TypeReference<Map<String, Object>> OBJECT_MAP = new TypeReference<>() {};
+
+    private static final ObjectReader SEGMENT_LIST_READER = MAPPER.readerFor(SEGMENT_LIST);
+    private static final ObjectWriter SEGMENT_LIST_WRITER = MAPPER.writerFor(SEGMENT_LIST);
+
+    private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private JsonCodec() {}
+
+    /**
+     * 共享的 ObjectMapper，仅用于 reader/writer 不便表达的场景（readTree、convertValue 等），不得修改其配置
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, t -> MAPPER.readerFor(type));
+    }
+
+    public static ObjectReader reader(TypeReference<?> type) {
+        return READERS.computeIfAbsent(type.getType(), t -> MAPPER.readerFor(type));
+    }
+
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, t -> MAPPER.writerFor(type));
+    }
+
+    public static <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    public static <T> T read(String json, TypeReference<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    /**
+     * 按运行时类型序列化，writer 按类型缓存
+     */
+    public static String write(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return "null";
+        }
+        return writer(value.getClass()).writeValueAsString(value);
+    }
+
+    public static List<OneBotMessageSegment> readSegments(String json) throws JsonProcessingException {
+        return SEGMENT_LIST_READER.readValue(json);
+    }
+
+    public static String writeSegments(List<? extends OneBotMessageSegment> segments) throws JsonProcessingException {
+        return SEGMENT_LIST_WRITER.writeValueAsString(segments);
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.mangomaner.mangobot.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 不可变的 long 原始类型哈希集合
+ * <p>
+ * 采用开放寻址（线性探测），查询时不产生装箱对象，适用于构建后只读、查询频繁的 ID 列表。
+ */
+public final class LongHashSet {
+
+    private static final LongHashSet EMPTY = new LongHashSet(new long[0], 0, false);
+
+    private static final long EMPTY_SLOT = 0L;
+
+    private final long[] slots;
+    private final int size;
+    private final boolean containsZero;
+
+    private LongHashSet(long[] slots, int size, boolean containsZero) {
+        this.slots = slots;
+        this.size = size;
+        this.containsZero = containsZero;
+    }
+
+    public static LongHashSet empty() {
+        return EMPTY;
+    }
+
+    public static LongHashSet of(Collection<Long> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        // 装载因子不超过 0.5，容量取 2 的幂便于取模
+        int capacity = Integer.highestOneBit(Math.max(values.size(), 1) * 2 - 1) << 1;
+        long[] slots = new long[capacity];
+        int size = 0;
+        boolean containsZero = false;
+        for (Long value : values) {
+            if (value == null) {
+                continue;
+            }
+            long v = value;
+            if (v == EMPTY_SLOT) {
+                if (!containsZero) {
+                    containsZero = true;
+                    size++;
+                }
+                continue;
+            }
+            int index = indexOf(v, capacity - 1);
+            while (slots[index] != EMPTY_SLOT && slots[index] != v) {
+                index = (index + 1) & (capacity - 1);
+            }
+            if (slots[index] == EMPTY_SLOT) {
+                slots[index] = v;
+                size++;
+            }
+        }
+        return new LongHashSet(slots, size, containsZero);
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY_SLOT) {
+            return containsZero;
+        }
+        if (slots.length == 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = indexOf(value, mask);
+        long slot;
+        while ((slot = slots[index]) != EMPTY_SLOT) {
+            if (slot == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int indexOf(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsZero) {
+            values[i++] = 0L;
+        }
+        for (long slot : slots) {
+            if (slot != EMPTY_SLOT) {
+                values[i++] = slot;
+            }
+        }
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.mangomaner.mangobot.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 消息段紧凑编码
+ * <p>
+ * 与 JSON 文本相比，每个消息段只保存一个类型标签和 Smile 编码的 data，较长的消息再整体 DEFLATE 压缩：
+ * <pre>
+ * [版本 1B][标志 1B][正文（标志 bit0 置位时为 DEFLATE 压缩）]
+ * 正文: varint 段数, 每段 { varint 类型标签, [标签为 0 时: varint 长度 + UTF-8 类型名], varint 长度 + Smile(data) }
+ * </pre>
+ * 类型标签为 {@link #TYPE_DICTIONARY} 下标 + 1，字典只能在末尾追加，不能调整顺序。
+ * 段对象上除 type、data 以外的派生字段（如 TextSegment 的 text）不保存，解码时由 data 还原。
+ */
+public final class SegmentCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final int FLAG_DEFLATE = 1;
+
+    /**
+     * 正文超过该长度才尝试压缩，短消息压缩后通常反而更长
+     */
+    private static final int DEFLATE_THRESHOLD = 128;
+
+    private static final List<String> TYPE_DICTIONARY = List.of(
+            "text", "image", "at", "reply", "face", "json", "file", "keyboard", "markdown", "video",
+            "record", "shake", "share", "node", "forward", "poke", "dice", "rps", "music", "location",
+            "contact", "anonymous", "xml", "mface");
+
+    private static final Map<String, Integer> TYPE_TAGS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < TYPE_DICTIONARY.size(); i++) {
+            TYPE_TAGS.put(TYPE_DICTIONARY.get(i), i + 1);
+        }
+    }
+
+    /**
+     * 每段单独编码，省去 4 字节的 Smile 头
+     */
+    private static final ObjectMapper SMILE = new SmileMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build());
+
+    private SegmentCodec() {}
+
+    public static byte[] encode(List<? extends OneBotMessageSegment> segments) throws IOException {
+        return encodeTree(JsonCodec.mapper().valueToTree(segments));
+    }
+
+    /**
+     * 将消息段 JSON 文本转为紧凑编码（迁移历史数据时使用，不要求段类型已注册）
+     */
+    public static byte[] encodeJson(String json) throws IOException {
+        return encodeTree(JsonCodec.mapper().readTree(json));
+    }
+
+    public static byte[] encodeTree(JsonNode segments) throws IOException {
+        if (segments == null || !segments.isArray()) {
+            throw new IOException("消息段必须是 JSON 数组");
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+        writeVarint(body, segments.size());
+        for (JsonNode segment : segments) {
+            String type = segment.path("type").asText("");
+            Integer tag = TYPE_TAGS.get(type);
+            if (tag != null) {
+                writeVarint(body, tag);
+            } else {
+                writeVarint(body, 0);
+                writeBytes(body, type.getBytes(StandardCharsets.UTF_8));
+            }
+            JsonNode data = segment.get("data");
+            writeBytes(body, data == null || data.isNull() ? new byte[0] : SMILE.writeValueAsBytes(data));
+        }
+
+        byte[] raw = body.toByteArray();
+        int flags = 0;
+        byte[] payload = raw;
+        if (raw.length >= DEFLATE_THRESHOLD) {
+            byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length) {
+                flags |= FLAG_DEFLATE;
+                payload = deflated;
+            }
+        }
+        byte[] result = new byte[payload.length + 2];
+        result[0] = VERSION;
+        result[1] = (byte) flags;
+        System.arraycopy(payload, 0, result, 2, payload.length);
+        return result;
+    }
+
+    /**
+     * 解码为与 JSON 存储时结构相同的树（每段 {type, data}）
+     */
+    public static ArrayNode decodeTree(byte[] encoded) throws IOException {
+        if (encoded.length < 2 || encoded[0] != VERSION) {
+            throw new IOException("不支持的消息段编码版本");
+        }
+        byte[] body = (encoded[1] & FLAG_DEFLATE) != 0
+                ? inflate(encoded, 2, encoded.length - 2)
+                : Arrays.copyOfRange(encoded, 2, encoded.length);
+
+        Cursor in = new Cursor(body);
+        int count = in.readVarint();
+        ArrayNode segments = JsonCodec.mapper().createArrayNode();
+        for (int i = 0; i < count; i++) {
+            int tag = in.readVarint();
+            String type;
+            if (tag == 0) {
+                type = new String(in.readBytes(), StandardCharsets.UTF_8);
+            } else if (tag <= TYPE_DICTIONARY.size()) {
+                type = TYPE_DICTIONARY.get(tag - 1);
+            } else {
+                throw new IOException("未知的消息段类型标签: " + tag);
+            }
+            byte[] data = in.readBytes();
+            ObjectNode segment = segments.addObject();
+            segment.put("type", type);
+            if (data.length > 0) {
+                segment.set("data", SMILE.readTree(data));
+            }
+        }
+        return segments;
+    }
+
+    public static List<OneBotMessageSegment> decode(byte[] encoded) throws IOException {
+        return JsonCodec.reader(JsonCodec.SEGMENT_LIST).readValue(decodeTree(encoded));
+    }
+
+    public static String decodeToJson(byte[] encoded) throws IOException {
+        return JsonCodec.mapper().writeValueAsString(decodeTree(encoded));
+    }
+
+    /**
+     * 读取消息段，JSON 文本与紧凑编码二者取非空的一个
+     */
+    public static List<OneBotMessageSegment> readSegments(String json, byte[] encoded) throws IOException {
+        if (json != null) {
+            return JsonCodec.readSegments(json);
+        }
+        return encoded == null ? null : decode(encoded);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("消息段压缩数据不完整");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("消息段压缩数据损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Cursor {
+        private final byte[] buffer;
+        private int position;
+
+        Cursor(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= buffer.length) {
+                    throw new IOException("消息段编码数据截断");
+                }
+                int b = buffer[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("消息段编码 varint 过长");
+        }
+
+        byte[] readBytes() throws IOException {
+            int length = readVarint();
+            if (length < 0 || position + length > buffer.length) {
+                throw new IOException("消息段编码数据截断");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
@@ -2,9 +2,14 @@ package io.github.mangomaner.mangobot.web_controller.bot_connect;
 
 import io.github.mangomaner.mangobot.system.common.BaseResponse;
 import io.github.mangomaner.mangobot.system.common.ResultUtils;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.EchoStatsVO;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotEchoHandler;
+import io.github.mangomaner.mangobot.infra.EventIngress;
+import io.github.mangomaner.mangobot.infra.model.IngressStatsVO;
 import io.github.mangomaner.mangobot.infra.websocket.ConnectionSessionManager;
 import io.github.mangomaner.mangobot.adapter.onebot.model.vo.LoginInfo;
 import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OneBotApiService;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OutboundStatsVO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +28,10 @@ public class BotConnectController {
     private ConnectionSessionManager connectionSessionManager;
     @Resource
     private OneBotApiService oneBotApiService;
+    @Resource
+    private EventIngress eventIngress;
+    @Resource
+    private OneBotEchoHandler oneBotEchoHandler;
 
     @GetMapping("/connectedBots")
     @Operation(summary = "获取所有已连接的bot")
@@ -46,4 +55,22 @@ public class BotConnectController {
         }
         return ResultUtils.success(loginInfos);
     }
+
+    @GetMapping("/ingressStats")
+    @Operation(summary = "获取各bot的事件队列统计（排队、丢弃、延迟）")
+    public BaseResponse<List<IngressStatsVO>> getIngressStats() {
+        return ResultUtils.success(eventIngress.getStats());
+    }
+
+    @GetMapping("/echoStats")
+    @Operation(summary = "获取 API 请求等待表统计（等待中请求数、最早请求等待时间、超时数）")
+    public BaseResponse<EchoStatsVO> getEchoStats() {
+        return ResultUtils.success(oneBotEchoHandler.getStats());
+    }
+
+    @GetMapping("/outboundStats")
+    @Operation(summary = "获取各bot的发送调度统计（排队、合并、排队与往返耗时）")
+    public BaseResponse<List<OutboundStatsVO>> getOutboundStats() {
+        return ResultUtils.success(oneBotApiService.getOutboundStats());
+    }
 }
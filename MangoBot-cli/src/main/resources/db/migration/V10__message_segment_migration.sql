@@ -0,0 +1,6 @@
+-- 消息段存储格式迁移进度
+CREATE TABLE IF NOT EXISTS message_segment_migration (
+    table_name  TEXT PRIMARY KEY,
+    format      TEXT NOT NULL,
+    migrated_to INTEGER NOT NULL
+);
@@ -0,0 +1,4 @@
+-- 文件内容哈希与感知哈希，用于重复文件识别
+ALTER TABLE bot_files ADD COLUMN content_hash TEXT;
+ALTER TABLE bot_files ADD COLUMN perceptual_hash INTEGER;
+CREATE INDEX IF NOT EXISTS idx_bot_files_content_hash ON bot_files (content_hash);
@@ -0,0 +1,5 @@
+-- 事件队列配置
+INSERT OR IGNORE INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
+    ('event.ingress.policy', 'DROP_NOTICE_FIRST', 'SELECT', '{"options":[{"label":"阻塞读取","value":"BLOCK"},{"label":"优先丢弃通知","value":"DROP_NOTICE_FIRST"},{"label":"丢弃会话最早事件","value":"DROP_OLDEST"}]}', '事件队列满载策略', '事件积压超过上限时的处理方式', 'event'),
+    ('event.ingress.capacity', '10000', 'INTEGER', NULL, '事件队列容量', '所有会话排队事件总数上限', 'event'),
+    ('event.ingress.lane_capacity', '1000', 'INTEGER', NULL, '单会话事件队列容量', '单个群/私聊排队事件上限，仅“丢弃会话最早事件”策略生效', 'event');
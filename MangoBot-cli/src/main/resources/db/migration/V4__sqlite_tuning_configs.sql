@@ -0,0 +1,8 @@
+-- SQLite 连接参数配置
+INSERT OR IGNORE INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
+    ('db.sqlite.journal_mode', 'WAL', 'SELECT', '{"options":[{"label":"WAL","value":"WAL"},{"label":"DELETE","value":"DELETE"},{"label":"TRUNCATE","value":"TRUNCATE"}]}', 'SQLite 日志模式', 'WAL 模式下读写互不阻塞，重启后生效', 'database'),
+    ('db.sqlite.synchronous', 'NORMAL', 'SELECT', '{"options":[{"label":"FULL","value":"FULL"},{"label":"NORMAL","value":"NORMAL"},{"label":"OFF","value":"OFF"}]}', 'SQLite 同步级别', 'WAL 模式下 NORMAL 仅在检查点时同步磁盘，重启后生效', 'database'),
+    ('db.sqlite.busy_timeout', '5000', 'INTEGER', NULL, 'SQLite 锁等待时间', '等待数据库文件锁的毫秒数，重启后生效', 'database'),
+    ('db.sqlite.cache_size', '-16000', 'INTEGER', NULL, 'SQLite 页缓存大小', '每个连接的页缓存，负数表示 KiB，重启后生效', 'database'),
+    ('db.sqlite.mmap_size', '268435456', 'INTEGER', NULL, 'SQLite 内存映射大小', '内存映射读取的字节数，0 表示关闭，重启后生效', 'database'),
+    ('db.sqlite.read_pool_size', '4', 'INTEGER', NULL, 'SQLite 只读连接数', '并发查询使用的只读连接池大小，重启后生效', 'database');
@@ -0,0 +1,8 @@
+-- migration: online
+-- 游标分页：(message_time, id) 键集扫描所需的复合索引，id 为 rowid 已隐含在索引末尾
+-- 消息表较大时建索引耗时较长，在启动完成后后台执行
+CREATE INDEX IF NOT EXISTS idx_group_messages_bot_sender_time ON group_messages (bot_id, sender_id, message_time);
+CREATE INDEX IF NOT EXISTS idx_group_messages_bot_message_id ON group_messages (bot_id, message_id);
+CREATE INDEX IF NOT EXISTS idx_private_messages_bot_sender_time ON private_messages (bot_id, sender_id, message_time);
+CREATE INDEX IF NOT EXISTS idx_private_messages_bot_message_id ON private_messages (bot_id, message_id);
+CREATE INDEX IF NOT EXISTS idx_chat_message_web_session_time ON chat_message_web (session_id, create_time);
@@ -0,0 +1,5 @@
+-- 消息段紧凑编码存储
+ALTER TABLE group_messages ADD COLUMN message_segments_blob BLOB;
+ALTER TABLE private_messages ADD COLUMN message_segments_blob BLOB;
+INSERT OR IGNORE INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
+    ('db.message.segment_format', 'JSON', 'SELECT', '{"options":[{"label":"JSON 文本","value":"JSON"},{"label":"紧凑编码","value":"COMPACT"}]}', '消息段存储格式', '紧凑编码可显著减少数据库体积，切换后历史消息在后台转换', 'database');
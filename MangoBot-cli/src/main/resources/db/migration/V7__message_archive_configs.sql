@@ -0,0 +1,12 @@
+-- 消息归档与保留策略配置
+INSERT OR IGNORE INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
+    ('db.archive.enabled', 'false', 'BOOLEAN', NULL, '消息归档', '每天凌晨将超出保留天数的消息移入 data/archive 下的按月归档库，并回收数据库空间', 'database'),
+    ('db.archive.chat_hot_days', '0', 'INTEGER', NULL, 'Web 对话保留天数', '超过天数的 Web 对话消息移入归档库，0 表示不归档', 'database');
+
+-- 默认 Bot 配置的 bot_id 为 NULL，唯一索引不约束 NULL，需先检查是否存在
+INSERT INTO bot_configs (bot_id, config_key, config_value, config_type, metadata, description, explain, category)
+SELECT NULL, 'message.retention.hot_days', '90', 'INTEGER', NULL, '消息保留天数', '超过天数的群聊/私聊消息移入按月归档库，0 表示不归档，需开启消息归档', 'retention'
+WHERE NOT EXISTS (SELECT 1 FROM bot_configs WHERE bot_id IS NULL AND config_key = 'message.retention.hot_days');
+INSERT INTO bot_configs (bot_id, config_key, config_value, config_type, metadata, description, explain, category)
+SELECT NULL, 'message.retention.group_hot_days', '{}', 'KEY_VALUE', NULL, '按群设置保留天数', '群号到天数的映射，如 {"123456":"30"}，未列出的群使用消息保留天数', 'retention'
+WHERE NOT EXISTS (SELECT 1 FROM bot_configs WHERE bot_id IS NULL AND config_key = 'message.retention.group_hot_days');
@@ -0,0 +1,7 @@
+-- 发送调度：限速与纯文本消息合并，默认均不开启，升级后发送行为不变
+INSERT OR IGNORE INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
+    ('onebot.send.bot_rate', '0', 'INTEGER', NULL, '单 Bot 发送速率', '每个 Bot 每分钟最多发送的请求数（查询类 API 不计入），0 表示不限制；容易触发风控的账号建议设为 40', 'send'),
+    ('onebot.send.bot_burst', '5', 'INTEGER', NULL, '单 Bot 突发发送数', '空闲后允许连续发送的请求数，单 Bot 发送速率不为 0 时生效', 'send'),
+    ('onebot.send.group_rate', '0', 'INTEGER', NULL, '单群发送速率', '每个群每分钟最多发送的请求数，0 表示不限制；建议设为 20', 'send'),
+    ('onebot.send.group_burst', '3', 'INTEGER', NULL, '单群突发发送数', '空闲后允许向同一群连续发送的请求数，单群发送速率不为 0 时生效', 'send'),
+    ('onebot.send.coalesce_window_ms', '0', 'INTEGER', NULL, '群消息合并窗口', '窗口内发往同一群的连续纯文本消息合并为一条发送（毫秒），0 表示不合并', 'send');
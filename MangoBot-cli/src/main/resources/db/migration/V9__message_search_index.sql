@@ -0,0 +1,62 @@
+-- 消息全文索引（FTS5 trigram，外部内容表），新消息、修改、删除由触发器同步
+-- 回填目标为建索引时已有的最大 id，历史消息由 MessageSearchIndex 在后台分批回填；
+-- 外部内容表删除未入索引的行会损坏索引，回填范围内尚未回填的旧消息在触发器中跳过
+CREATE TABLE IF NOT EXISTS message_search_index (
+    table_name    TEXT PRIMARY KEY,
+    backfilled_to INTEGER NOT NULL,
+    target        INTEGER NOT NULL
+);
+
+INSERT OR IGNORE INTO message_search_index (table_name, backfilled_to, target)
+    SELECT 'group_messages', 0, COALESCE(MAX(id), 0) FROM group_messages;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS group_messages_fts USING fts5(
+    parse_message, content='group_messages', content_rowid='id', tokenize='trigram'
+);
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_ai AFTER INSERT ON group_messages BEGIN
+    INSERT INTO group_messages_fts (rowid, parse_message) VALUES (new.id, new.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_ad AFTER DELETE ON group_messages
+    WHEN old.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+      OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages')
+BEGIN
+    INSERT INTO group_messages_fts (group_messages_fts, rowid, parse_message) VALUES ('delete', old.id, old.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_au AFTER UPDATE OF parse_message ON group_messages BEGIN
+    INSERT INTO group_messages_fts (group_messages_fts, rowid, parse_message)
+        SELECT 'delete', old.id, old.parse_message WHERE (old.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+            OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages'));
+    INSERT INTO group_messages_fts (rowid, parse_message)
+        SELECT new.id, new.parse_message WHERE (new.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+            OR new.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages'));
+END;
+
+INSERT OR IGNORE INTO message_search_index (table_name, backfilled_to, target)
+    SELECT 'private_messages', 0, COALESCE(MAX(id), 0) FROM private_messages;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS private_messages_fts USING fts5(
+    parse_message, content='private_messages', content_rowid='id', tokenize='trigram'
+);
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_ai AFTER INSERT ON private_messages BEGIN
+    INSERT INTO private_messages_fts (rowid, parse_message) VALUES (new.id, new.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_ad AFTER DELETE ON private_messages
+    WHEN old.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+      OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages')
+BEGIN
+    INSERT INTO private_messages_fts (private_messages_fts, rowid, parse_message) VALUES ('delete', old.id, old.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_au AFTER UPDATE OF parse_message ON private_messages BEGIN
+    INSERT INTO private_messages_fts (private_messages_fts, rowid, parse_message)
+        SELECT 'delete', old.id, old.parse_message WHERE (old.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+            OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages'));
+    INSERT INTO private_messages_fts (rowid, parse_message)
+        SELECT new.id, new.parse_message WHERE (new.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+            OR new.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages'));
+END;
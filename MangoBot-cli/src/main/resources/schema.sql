@@ -1,6 +1,7 @@
 -- MangoBot 数据库初始化脚本
 -- 创建时间: 2026-01-17
 -- 最后更新: 2026-03-12（配置系统重构 - 角色与模型分离）
+-- 仅用于新建数据库，始终保持最新的完整结构；结构变更需同时在 db/migration 下新增版本化迁移脚本
 
 -- ============================================
 -- 模型配置相关表
@@ -165,13 +166,32 @@ INSERT INTO bot_configs (bot_id, config_key, config_value, config_type, metadata
     (NULL, 'private.whitelist', '[]', 'PRIVATE_LIST_SELECTOR', '{"listType":"private"}', '私聊白名单', '用户QQ列表', 'BW_list'),
     (NULL, 'private.blacklist', '[]', 'PRIVATE_LIST_SELECTOR', '{"listType":"private"}', '私聊黑名单', '用户QQ列表', 'BW_list'),
     (NULL, 'private.enable_list', 'true', 'BOOLEAN', NULL, '启用私聊黑白名单', '', 'BW_list'),
-    (NULL, 'bot.markdown_to_txt', 'true', 'BOOLEAN', NULL, '将md格式转为纯文本发送', '', 'format');
+    (NULL, 'bot.markdown_to_txt', 'true', 'BOOLEAN', NULL, '将md格式转为纯文本发送', '', 'format'),
+    (NULL, 'message.retention.hot_days', '90', 'INTEGER', NULL, '消息保留天数', '超过天数的群聊/私聊消息移入按月归档库，0 表示不归档，需开启消息归档', 'retention'),
+    (NULL, 'message.retention.group_hot_days', '{}', 'KEY_VALUE', NULL, '按群设置保留天数', '群号到天数的映射，如 {"123456":"30"}，未列出的群使用消息保留天数', 'retention');
 -- 上述列表示例：["123456789","1011121314"]，true为白名单，false为黑名单
 
 -- 系统配置初始数据（全局配置，无 bot_id）
 INSERT INTO system_configs (config_key, config_value, config_type, metadata, description, explain, category) VALUES
     ('system.name', 'MangoBot', 'STRING', NULL, '系统名称', '显示在界面上的系统名称', 'general'),
-    ('system.version', '1.0.0', 'STRING', NULL, '系统版本', '当前系统版本号', 'general');
+    ('system.version', '1.0.0', 'STRING', NULL, '系统版本', '当前系统版本号', 'general'),
+    ('event.ingress.policy', 'DROP_NOTICE_FIRST', 'SELECT', '{"options":[{"label":"阻塞读取","value":"BLOCK"},{"label":"优先丢弃通知","value":"DROP_NOTICE_FIRST"},{"label":"丢弃会话最早事件","value":"DROP_OLDEST"}]}', '事件队列满载策略', '事件积压超过上限时的处理方式', 'event'),
+    ('event.ingress.capacity', '10000', 'INTEGER', NULL, '事件队列容量', '所有会话排队事件总数上限', 'event'),
+    ('event.ingress.lane_capacity', '1000', 'INTEGER', NULL, '单会话事件队列容量', '单个群/私聊排队事件上限，仅“丢弃会话最早事件”策略生效', 'event'),
+    ('db.sqlite.journal_mode', 'WAL', 'SELECT', '{"options":[{"label":"WAL","value":"WAL"},{"label":"DELETE","value":"DELETE"},{"label":"TRUNCATE","value":"TRUNCATE"}]}', 'SQLite 日志模式', 'WAL 模式下读写互不阻塞，重启后生效', 'database'),
+    ('db.sqlite.synchronous', 'NORMAL', 'SELECT', '{"options":[{"label":"FULL","value":"FULL"},{"label":"NORMAL","value":"NORMAL"},{"label":"OFF","value":"OFF"}]}', 'SQLite 同步级别', 'WAL 模式下 NORMAL 仅在检查点时同步磁盘，重启后生效', 'database'),
+    ('db.sqlite.busy_timeout', '5000', 'INTEGER', NULL, 'SQLite 锁等待时间', '等待数据库文件锁的毫秒数，重启后生效', 'database'),
+    ('db.sqlite.cache_size', '-16000', 'INTEGER', NULL, 'SQLite 页缓存大小', '每个连接的页缓存，负数表示 KiB，重启后生效', 'database'),
+    ('db.sqlite.mmap_size', '268435456', 'INTEGER', NULL, 'SQLite 内存映射大小', '内存映射读取的字节数，0 表示关闭，重启后生效', 'database'),
+    ('db.sqlite.read_pool_size', '4', 'INTEGER', NULL, 'SQLite 只读连接数', '并发查询使用的只读连接池大小，重启后生效', 'database'),
+    ('db.message.segment_format', 'JSON', 'SELECT', '{"options":[{"label":"JSON 文本","value":"JSON"},{"label":"紧凑编码","value":"COMPACT"}]}', '消息段存储格式', '紧凑编码可显著减少数据库体积，切换后历史消息在后台转换', 'database'),
+    ('db.archive.enabled', 'false', 'BOOLEAN', NULL, '消息归档', '每天凌晨将超出保留天数的消息移入 data/archive 下的按月归档库，并回收数据库空间', 'database'),
+    ('db.archive.chat_hot_days', '0', 'INTEGER', NULL, 'Web 对话保留天数', '超过天数的 Web 对话消息移入归档库，0 表示不归档', 'database'),
+    ('onebot.send.bot_rate', '0', 'INTEGER', NULL, '单 Bot 发送速率', '每个 Bot 每分钟最多发送的请求数（查询类 API 不计入），0 表示不限制；容易触发风控的账号建议设为 40', 'send'),
+    ('onebot.send.bot_burst', '5', 'INTEGER', NULL, '单 Bot 突发发送数', '空闲后允许连续发送的请求数，单 Bot 发送速率不为 0 时生效', 'send'),
+    ('onebot.send.group_rate', '0', 'INTEGER', NULL, '单群发送速率', '每个群每分钟最多发送的请求数，0 表示不限制；建议设为 20', 'send'),
+    ('onebot.send.group_burst', '3', 'INTEGER', NULL, '单群突发发送数', '空闲后允许向同一群连续发送的请求数，单群发送速率不为 0 时生效', 'send'),
+    ('onebot.send.coalesce_window_ms', '0', 'INTEGER', NULL, '群消息合并窗口', '窗口内发往同一群的连续纯文本消息合并为一条发送（毫秒），0 表示不合并', 'send');
 -- ============================================
 -- 消息存储表
 -- ============================================
@@ -186,6 +206,7 @@ CREATE TABLE IF NOT EXISTS group_messages
     message_id       TEXT,
     sender_id        TEXT,
     message_segments TEXT,
+    message_segments_blob BLOB,
     message_time     INTEGER default (strftime('%s', 'now') * 1000) not null,
     is_delete        INTEGER DEFAULT 0,
     parse_message    TEXT
@@ -197,6 +218,12 @@ CREATE INDEX IF NOT EXISTS idx_group_messages_bot_group_time
 CREATE INDEX IF NOT EXISTS group_messages_message_id_index
     ON group_messages (message_id);
 
+CREATE INDEX IF NOT EXISTS idx_group_messages_bot_sender_time
+    ON group_messages (bot_id, sender_id, message_time);
+
+CREATE INDEX IF NOT EXISTS idx_group_messages_bot_message_id
+    ON group_messages (bot_id, message_id);
+
 
 CREATE TABLE IF NOT EXISTS private_messages(
     id               INTEGER                                        not null
@@ -207,6 +234,7 @@ CREATE TABLE IF NOT EXISTS private_messages(
     message_id       TEXT,
     sender_id        TEXT,
     message_segments TEXT,
+    message_segments_blob BLOB,
     message_time     INTEGER default (strftime('%s', 'now') * 1000) not null,
     is_delete        INTEGER DEFAULT 0,
     parse_message    TEXT
@@ -218,6 +246,82 @@ CREATE INDEX IF NOT EXISTS idx_private_messages_bot_group_time
 CREATE INDEX IF NOT EXISTS private_messages_message_id_index
     ON private_messages (message_id);
 
+CREATE INDEX IF NOT EXISTS idx_private_messages_bot_sender_time
+    ON private_messages (bot_id, sender_id, message_time);
+
+CREATE INDEX IF NOT EXISTS idx_private_messages_bot_message_id
+    ON private_messages (bot_id, message_id);
+
+-- 消息全文索引（FTS5 trigram，外部内容表），新消息、修改、删除由触发器同步
+-- 回填目标为建索引时已有的最大 id，历史消息由 MessageSearchIndex 在后台分批回填；
+-- 外部内容表删除未入索引的行会损坏索引，回填范围内尚未回填的旧消息在触发器中跳过
+CREATE TABLE IF NOT EXISTS message_search_index (
+    table_name    TEXT PRIMARY KEY,
+    backfilled_to INTEGER NOT NULL,
+    target        INTEGER NOT NULL
+);
+
+INSERT OR IGNORE INTO message_search_index (table_name, backfilled_to, target)
+    SELECT 'group_messages', 0, COALESCE(MAX(id), 0) FROM group_messages;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS group_messages_fts USING fts5(
+    parse_message, content='group_messages', content_rowid='id', tokenize='trigram'
+);
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_ai AFTER INSERT ON group_messages BEGIN
+    INSERT INTO group_messages_fts (rowid, parse_message) VALUES (new.id, new.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_ad AFTER DELETE ON group_messages
+    WHEN old.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+      OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages')
+BEGIN
+    INSERT INTO group_messages_fts (group_messages_fts, rowid, parse_message) VALUES ('delete', old.id, old.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS group_messages_fts_au AFTER UPDATE OF parse_message ON group_messages BEGIN
+    INSERT INTO group_messages_fts (group_messages_fts, rowid, parse_message)
+        SELECT 'delete', old.id, old.parse_message WHERE (old.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+            OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages'));
+    INSERT INTO group_messages_fts (rowid, parse_message)
+        SELECT new.id, new.parse_message WHERE (new.id > (SELECT target FROM message_search_index WHERE table_name = 'group_messages')
+            OR new.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'group_messages'));
+END;
+
+INSERT OR IGNORE INTO message_search_index (table_name, backfilled_to, target)
+    SELECT 'private_messages', 0, COALESCE(MAX(id), 0) FROM private_messages;
+
+CREATE VIRTUAL TABLE IF NOT EXISTS private_messages_fts USING fts5(
+    parse_message, content='private_messages', content_rowid='id', tokenize='trigram'
+);
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_ai AFTER INSERT ON private_messages BEGIN
+    INSERT INTO private_messages_fts (rowid, parse_message) VALUES (new.id, new.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_ad AFTER DELETE ON private_messages
+    WHEN old.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+      OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages')
+BEGIN
+    INSERT INTO private_messages_fts (private_messages_fts, rowid, parse_message) VALUES ('delete', old.id, old.parse_message);
+END;
+
+CREATE TRIGGER IF NOT EXISTS private_messages_fts_au AFTER UPDATE OF parse_message ON private_messages BEGIN
+    INSERT INTO private_messages_fts (private_messages_fts, rowid, parse_message)
+        SELECT 'delete', old.id, old.parse_message WHERE (old.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+            OR old.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages'));
+    INSERT INTO private_messages_fts (rowid, parse_message)
+        SELECT new.id, new.parse_message WHERE (new.id > (SELECT target FROM message_search_index WHERE table_name = 'private_messages')
+            OR new.id <= (SELECT backfilled_to FROM message_search_index WHERE table_name = 'private_messages'));
+END;
+
+-- 消息段存储格式迁移进度
+CREATE TABLE IF NOT EXISTS message_segment_migration (
+    table_name  TEXT PRIMARY KEY,
+    format      TEXT NOT NULL,
+    migrated_to INTEGER NOT NULL
+);
+
 
 CREATE TABLE IF NOT EXISTS bot_files
 (
@@ -233,9 +337,13 @@ CREATE TABLE IF NOT EXISTS bot_files
     sub_type       INTEGER,
     file_size      INTEGER,
     description    TEXT,
-    create_time    INTEGER default (strftime('%s', 'now') * 1000)
+    create_time    INTEGER default (strftime('%s', 'now') * 1000),
+    content_hash   TEXT,                             -- 文件内容 SHA-256（十六进制）
+    perceptual_hash INTEGER                          -- 图片感知哈希（dHash，64 位）
 );
 
+CREATE INDEX IF NOT EXISTS idx_bot_files_content_hash ON bot_files (content_hash);
+
 
 CREATE TABLE IF NOT EXISTS plugins
 (
@@ -285,6 +393,7 @@ CREATE TABLE IF NOT EXISTS chat_message_web (
 -- 创建索引
 CREATE INDEX IF NOT EXISTS idx_chat_message_web_session ON chat_message_web(session_id);
 CREATE INDEX IF NOT EXISTS idx_chat_message_web_time ON chat_message_web(create_time);
+CREATE INDEX IF NOT EXISTS idx_chat_message_web_session_time ON chat_message_web(session_id, create_time);
 
 -- ========================================
 -- 1. Java 工具配置表
@@ -0,0 +1,87 @@
+package io.github.mangomaner.mangobot.manager.benchmark;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.infra.ListenerInvoker;
+import io.github.mangomaner.mangobot.infra.ListenerInvokers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听器调用方式对比：反射 / MethodHandle / LambdaMetafactory
+ * <p>
+ * 每次操作模拟一次事件分发到单个监听器。运行方式：在 IDE 中执行 main 方法，
+ * 或 {@code mvn test-compile} 后以 {@code org.openjdk.jmh.Main ListenerInvocationBenchmark} 运行。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerInvocationBenchmark {
+
+    public static class SampleListener {
+        private long counter;
+
+        public boolean onGroupMessage(OneBotGroupMessageEvent event) {
+            counter += event.getGroupId();
+            return true;
+        }
+    }
+
+    private SampleListener listener;
+    private OneBotEvent event;
+    private Method method;
+    private ListenerInvoker reflective;
+    private ListenerInvoker methodHandle;
+    private ListenerInvoker lambda;
+
+    @Setup
+    public void setup() throws Throwable {
+        listener = new SampleListener();
+        OneBotGroupMessageEvent groupEvent = new OneBotGroupMessageEvent();
+        groupEvent.setGroupId(123456L);
+        event = groupEvent;
+        method = SampleListener.class.getDeclaredMethod("onGroupMessage", OneBotGroupMessageEvent.class);
+        method.setAccessible(true);
+        reflective = ListenerInvokers.reflective(method);
+        methodHandle = ListenerInvokers.methodHandle(method);
+        lambda = ListenerInvokers.lambda(method);
+    }
+
+    /**
+     * 原有实现：Method.invoke 并对结果拆箱
+     */
+    @Benchmark
+    public boolean methodInvoke() throws Exception {
+        return (boolean) method.invoke(listener, event);
+    }
+
+    @Benchmark
+    public boolean reflectiveInvoker() throws Throwable {
+        return reflective.invoke(listener, event);
+    }
+
+    @Benchmark
+    public boolean methodHandleInvoker() throws Throwable {
+        return methodHandle.invoke(listener, event);
+    }
+
+    @Benchmark
+    public boolean lambdaInvoker() throws Throwable {
+        return lambda.invoke(listener, event);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ListenerInvocationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
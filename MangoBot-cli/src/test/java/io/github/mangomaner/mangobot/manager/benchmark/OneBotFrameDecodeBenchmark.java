@@ -0,0 +1,94 @@
+package io.github.mangomaner.mangobot.manager.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiResponse;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrame;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrameDecoder;
+import io.github.mangomaner.mangobot.adapter.onebot.model.event.OneBotEvent;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.events.onebot.meta.OneBotHeartbeatEvent;
+import io.github.mangomaner.mangobot.events.onebot.notice.OneBotGroupRecallEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 入站帧解码对比：原有路径（echo 检查 readTree + 事件 readTree + treeToValue）与单遍流式解码
+ * <p>
+ * 载荷取自 NapCat 与 Lagrange.OneBot 的实际上报。运行方式同 {@link ListenerInvocationBenchmark}。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OneBotFrameDecodeBenchmark {
+
+    private static final Map<String, String> PAYLOADS = Map.of(
+            "napcat_group_text",
+            "{\"self_id\":1461626638,\"user_id\":2756477287,\"time\":1768132933,\"message_id\":-2064532954,\"message_seq\":11925,\"message_type\":\"group\",\"sender\":{\"user_id\":2756477287,\"nickname\":\"盲果人\",\"card\":\"盲 果 人\",\"role\":\"owner\",\"title\":\"\"},\"raw_message\":\"纯文本测试\",\"font\":14,\"sub_type\":\"normal\",\"message\":[{\"type\":\"text\",\"data\":{\"text\":\"纯文本测试\"}}],\"message_format\":\"array\",\"post_type\":\"message\",\"raw_pb\":\"\",\"group_id\":220264051,\"group_name\":\"6\"}",
+            "lagrange_group_text",
+            "{\"message_type\":\"group\",\"sub_type\":\"normal\",\"message_id\":1874354122,\"group_id\":220264051,\"user_id\":2756477287,\"raw_message\":\"[CQ:at,qq=1461626638] 今天天气怎么样\",\"font\":0,\"sender\":{\"user_id\":2756477287,\"nickname\":\"盲果人\",\"card\":\"\",\"role\":\"member\",\"title\":\"\"},\"message\":[{\"type\":\"at\",\"data\":{\"qq\":\"1461626638\"}},{\"type\":\"text\",\"data\":{\"text\":\" 今天天气怎么样\"}}],\"time\":1768132990,\"self_id\":1461626638,\"post_type\":\"message\"}",
+            "napcat_group_recall",
+            "{\"time\":1768231994,\"self_id\":1461626638,\"post_type\":\"notice\",\"notice_type\":\"group_recall\",\"operator_id\":2756477287,\"message_id\":-1790873196,\"group_id\":220264051,\"user_id\":2756477287}",
+            "napcat_heartbeat",
+            "{\"time\":1768132988,\"self_id\":1461626638,\"post_type\":\"meta_event\",\"meta_event_type\":\"heartbeat\",\"status\":{\"online\":true,\"good\":true},\"interval\":60000}",
+            "napcat_echo",
+            "{\"status\":\"ok\",\"retcode\":0,\"data\":{\"message_id\":-2064532960},\"message\":\"\",\"wording\":\"\",\"echo\":\"3f1c2e7a-6f7d-4f0e-9a43-2a1f0b5f7c11\"}"
+    );
+
+    @Param({"napcat_group_text", "lagrange_group_text", "napcat_group_recall", "napcat_heartbeat", "napcat_echo"})
+    private String payload;
+
+    private String json;
+
+    private final ObjectMapper echoMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectMapper eventMapper = new ObjectMapper();
+
+    @Setup
+    public void setup() throws Exception {
+        json = PAYLOADS.get(payload);
+        if (streaming() == null) {
+            throw new IllegalStateException("无法解码载荷: " + payload);
+        }
+    }
+
+    /**
+     * 原有路径：OneBotEchoHandler.readTree，再由 OneBotEventDeserializer readTree + treeToValue
+     */
+    @Benchmark
+    public Object legacy() throws Exception {
+        JsonNode echoNode = echoMapper.readTree(json);
+        if (echoNode.has("echo")) {
+            return echoMapper.treeToValue(echoNode, OneBotApiResponse.class);
+        }
+        JsonNode node = eventMapper.readTree(json);
+        Class<? extends OneBotEvent> targetClass = switch (node.get("post_type").asText()) {
+            case "message" -> OneBotGroupMessageEvent.class;
+            case "meta_event" -> OneBotHeartbeatEvent.class;
+            default -> OneBotGroupRecallEvent.class;
+        };
+        return eventMapper.treeToValue(node, targetClass);
+    }
+
+    @Benchmark
+    public Object streaming() throws Exception {
+        OneBotFrame frame = OneBotFrameDecoder.decode(json);
+        return frame.isEcho() ? frame.response() : frame.event();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(OneBotFrameDecodeBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
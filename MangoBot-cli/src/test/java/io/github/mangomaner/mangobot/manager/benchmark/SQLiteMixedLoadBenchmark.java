@@ -0,0 +1,163 @@
+package io.github.mangomaner.mangobot.manager.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.mangomaner.mangobot.system.db.ReadWriteRoutingDataSource;
+import io.github.mangomaner.mangobot.system.db.SQLitePragmas;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 消息表混合读写负载：原有连接方式（默认连接池、DELETE 日志、FULL 同步）与
+ * 调优后的连接方式（WAL、单写连接 + 只读连接池）对比
+ * <p>
+ * 1 个线程持续写入群消息，3 个线程并发读取最近消息，模拟多 Bot 收消息的同时智能体查询上下文。
+ * 运行方式同 {@link ListenerInvocationBenchmark}。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class SQLiteMixedLoadBenchmark {
+
+    private static final int GROUPS = 50;
+
+    private static final int SEED_ROWS = 20_000;
+
+    private static final String INSERT_SQL = "INSERT INTO group_messages "
+            + "(bot_id, group_id, message_id, sender_id, message_segments, message_time, parse_message) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String LATEST_SQL = "SELECT * FROM group_messages "
+            + "WHERE bot_id = ? AND group_id = ? AND is_delete = 0 ORDER BY message_time DESC LIMIT 25";
+
+    @Param({"legacy", "tuned"})
+    private String profile;
+
+    private Path dir;
+
+    private HikariDataSource writer;
+
+    private HikariDataSource reader;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("mangobot-sqlite-bench");
+        String url = "jdbc:sqlite:" + dir.resolve("bench.db").toAbsolutePath();
+
+        if ("legacy".equals(profile)) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(url);
+            // 原有配置没有锁等待，读写并发时写入会直接报 SQLITE_BUSY，这里补上以便测出锁竞争的实际开销
+            config.addDataSourceProperty("busy_timeout", "5000");
+            writer = new HikariDataSource(config);
+            reader = writer;
+            createSchema();
+        } else {
+            SQLitePragmas pragmas = SQLitePragmas.DEFAULTS;
+            writer = ReadWriteRoutingDataSource.createPool(url, pragmas, false, 1, "Bench-Writer");
+            createSchema();
+            reader = ReadWriteRoutingDataSource.createPool(url, pragmas, true, pragmas.readPoolSize(), "Bench-Reader");
+        }
+        seed();
+    }
+
+    private void createSchema() throws Exception {
+        try (Connection connection = writer.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS group_messages ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT, bot_id TEXT NOT NULL, group_id TEXT NOT NULL, "
+                    + "message_id TEXT, sender_id TEXT, message_segments TEXT, message_time INTEGER NOT NULL, "
+                    + "is_delete INTEGER DEFAULT 0, parse_message TEXT)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_group_messages_bot_group_time "
+                    + "ON group_messages (bot_id, group_id, message_time)");
+        }
+    }
+
+    private void seed() throws Exception {
+        try (Connection connection = writer.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < SEED_ROWS; i++) {
+                    bind(statement, i % GROUPS, i);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int group, long seq) throws Exception {
+        statement.setString(1, "1461626638");
+        statement.setString(2, String.valueOf(220000000 + group));
+        statement.setString(3, String.valueOf(seq));
+        statement.setString(4, "2756477287");
+        statement.setString(5, "[{\"type\":\"text\",\"data\":{\"text\":\"测试消息 " + seq + "\"}}]");
+        statement.setLong(6, System.currentTimeMillis());
+        statement.setString(7, "盲果人: 测试消息 " + seq);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int write() throws Exception {
+        try (Connection connection = writer.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            bind(statement, random.nextInt(GROUPS), random.nextLong());
+            return statement.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public int readLatest() throws Exception {
+        try (Connection connection = reader.getConnection();
+             PreparedStatement statement = connection.prepareStatement(LATEST_SQL)) {
+            statement.setString(1, "1461626638");
+            statement.setString(2, String.valueOf(220000000 + ThreadLocalRandom.current().nextInt(GROUPS)));
+            int rows = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (reader != writer) {
+            reader.close();
+        }
+        writer.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(SQLiteMixedLoadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.mangomaner.mangobot.manager.db;
+
+import io.github.mangomaner.mangobot.system.db.migration.SchemaMigration;
+import io.github.mangomaner.mangobot.system.db.migration.SchemaMigrator;
+import io.github.mangomaner.mangobot.system.db.migration.SqlScript;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    @Test
+    public void testSplitIgnoresSemicolonsInStringsAndComments() {
+        String script = "-- 注释; 不是语句\n"
+                + "INSERT INTO t VALUES ('a;b', 'it''s; fine'); /* x; y */\n"
+                + "CREATE TRIGGER tr AFTER INSERT ON t BEGIN\n"
+                + "  UPDATE t SET v = CASE WHEN v = ';' THEN 1 ELSE 2 END;\n"
+                + "  DELETE FROM u;\n"
+                + "END;\n"
+                + "SELECT 1";
+
+        List<String> statements = SqlScript.split(script);
+
+        assertEquals(3, statements.size());
+        assertEquals("INSERT INTO t VALUES ('a;b', 'it''s; fine')", statements.get(0));
+        assertTrue(statements.get(1).startsWith("CREATE TRIGGER tr"));
+        assertTrue(statements.get(1).endsWith("END"));
+        assertEquals("SELECT 1", statements.get(2));
+    }
+
+    @Test
+    public void testParseMigrationFileName() {
+        SchemaMigration migration = SchemaMigration.parse("V12__add_user_index.sql",
+                "-- migration: online\nCREATE INDEX IF NOT EXISTS i ON t (c);");
+
+        assertNotNull(migration);
+        assertEquals(12, migration.version());
+        assertEquals("add user index", migration.description());
+        assertTrue(migration.online());
+        assertEquals(1, migration.statements().size());
+        assertNull(SchemaMigration.parse("add_user_index.sql", ""));
+    }
+
+    @Test
+    public void testFreshDatabaseAndLegacyUpgrade(@TempDir Path dir) throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dir.resolve("test.db").toAbsolutePath());
+
+        new SchemaMigrator(dataSource).migrate(true);
+        int versions = queryInt(dataSource, "SELECT COUNT(*) FROM schema_version");
+        assertTrue(versions > 1);
+        assertEquals(1, queryInt(dataSource, "SELECT COUNT(*) FROM system_configs WHERE config_key = 'db.archive.enabled'"));
+
+        // 没有版本记录的旧数据库：重新执行全部迁移，已存在的列和配置被跳过
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE schema_version");
+        }
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+        migrator.migrate(false);
+        assertEquals(1, queryInt(dataSource, "SELECT COUNT(*) FROM system_configs WHERE config_key = 'db.archive.enabled'"));
+        assertEquals(1, queryInt(dataSource, "SELECT COUNT(*) FROM bot_configs WHERE bot_id IS NULL AND config_key = 'message.retention.hot_days'"));
+
+        // online 迁移在后台执行完成后才记录版本
+        String count = "SELECT COUNT(*) FROM schema_version";
+        assertTrue(queryInt(dataSource, count) < versions);
+        migrator.migrateOnline();
+        for (int i = 0; i < 100 && queryInt(dataSource, count) < versions; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(versions, queryInt(dataSource, count));
+    }
+
+    @Test
+    public void testSearchIndexIsCreatedByMigration(@TempDir Path dir) throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dir.resolve("test.db").toAbsolutePath());
+        new SchemaMigrator(dataSource).migrate(true);
+        assertEquals(2, queryInt(dataSource, "SELECT COUNT(*) FROM message_search_index WHERE target = 0"));
+        assertEquals(0, queryInt(dataSource, "SELECT COUNT(*) FROM message_segment_migration"));
+
+        // 模拟全文索引之前的旧数据库：已有历史消息，没有索引表
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"group_messages", "private_messages"}) {
+                for (String suffix : new String[]{"ai", "ad", "au"}) {
+                    statement.execute("DROP TRIGGER " + table + "_fts_" + suffix);
+                }
+                statement.execute("DROP TABLE " + table + "_fts");
+            }
+            statement.execute("DROP TABLE message_search_index");
+            statement.execute("DROP TABLE message_segment_migration");
+            statement.execute("DELETE FROM schema_version WHERE version >= 9");
+            statement.execute("INSERT INTO group_messages (bot_id, group_id, message_id, parse_message) VALUES ('1', '100', 'm1', '历史消息内容')");
+        }
+        new SchemaMigrator(dataSource).migrate(false);
+
+        // 历史消息留给后台回填，之后的新消息由触发器立即索引
+        assertEquals(1, queryInt(dataSource, "SELECT target FROM message_search_index WHERE table_name = 'group_messages'"));
+        assertEquals(0, queryInt(dataSource, "SELECT COUNT(*) FROM message_segment_migration"));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO group_messages (bot_id, group_id, message_id, parse_message) VALUES ('1', '100', 'm2', '新消息内容')");
+        }
+        assertEquals(1, queryInt(dataSource, "SELECT COUNT(*) FROM group_messages_fts WHERE group_messages_fts MATCH '\"新消息\"'"));
+    }
+
+    private static int queryInt(SQLiteDataSource dataSource, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.mangomaner.mangobot.manager.infra;
+
+import io.github.mangomaner.mangobot.infra.KeyedLaneExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedLaneExecutorTest {
+
+    @Test
+    public void testTasksWithSameKeyRunInSubmissionOrder() throws Exception {
+        KeyedLaneExecutor executor = new KeyedLaneExecutor("Test-Lane-");
+        int keys = 8;
+        int tasksPerKey = 2000;
+        Map<Integer, List<Integer>> results = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int key = 0; key < keys; key++) {
+                int k = key;
+                int seq = i;
+                executor.execute(k, () -> {
+                    results.computeIfAbsent(k, x -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int key = 0; key < keys; key++) {
+            List<Integer> sequence = results.get(key);
+            assertEquals(tasksPerKey, sequence.size());
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertEquals(i, sequence.get(i));
+            }
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDifferentKeysRunConcurrently() throws Exception {
+        KeyedLaneExecutor executor = new KeyedLaneExecutor("Test-Lane-");
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch otherRan = new CountDownLatch(1);
+
+        executor.execute("group-a", () -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute("group-b", otherRan::countDown);
+
+        assertTrue(otherRan.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.activeLanes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.activeLanes());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPollOldestRemovesQueuedTask() throws Exception {
+        KeyedLaneExecutor executor = new KeyedLaneExecutor("Test-Lane-");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute("group", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute("group", () -> executed.add("oldest"));
+        executor.execute("group", () -> {
+            executed.add("newest");
+            done.countDown();
+        });
+
+        assertEquals(2, executor.pendingTasks("group"));
+        assertNotNull(executor.pollOldest("group"));
+        assertEquals(1, executor.pendingTasks("group"));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("newest"), executed);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.mangomaner.mangobot.manager.infra;
+
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.infra.ListenerInvoker;
+import io.github.mangomaner.mangobot.infra.ListenerInvokers;
+import io.github.mangomaner.mangobot.plugin.core.PluginClassLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListenerInvokersTest {
+
+    static class Listeners {
+        int calls;
+
+        private boolean privateListener(OneBotGroupMessageEvent event) {
+            calls++;
+            return event.getGroupId() > 0;
+        }
+
+        Boolean boxedListener(OneBotGroupMessageEvent event) {
+            calls++;
+            return Boolean.FALSE;
+        }
+
+        boolean failingListener(OneBotGroupMessageEvent event) {
+            throw new IllegalStateException("boom");
+        }
+
+        static boolean staticListener(OneBotGroupMessageEvent event) {
+            return true;
+        }
+    }
+
+    /**
+     * 通过独立的插件类加载器加载
+     */
+    static class PluginListener {
+        private boolean onMessage(OneBotGroupMessageEvent event) {
+            return event.getGroupId() == 42;
+        }
+    }
+
+    private static OneBotGroupMessageEvent event(long groupId) {
+        OneBotGroupMessageEvent event = new OneBotGroupMessageEvent();
+        event.setGroupId(groupId);
+        return event;
+    }
+
+    @Test
+    public void testLambdaInvokerForPrivateAndBoxedMethods() throws Throwable {
+        Listeners listeners = new Listeners();
+
+        ListenerInvoker privateInvoker = ListenerInvokers.lambda(
+                Listeners.class.getDeclaredMethod("privateListener", OneBotGroupMessageEvent.class));
+        assertTrue(privateInvoker.invoke(listeners, event(1)));
+        assertFalse(privateInvoker.invoke(listeners, event(-1)));
+
+        ListenerInvoker boxedInvoker = ListenerInvokers.lambda(
+                Listeners.class.getDeclaredMethod("boxedListener", OneBotGroupMessageEvent.class));
+        assertFalse(boxedInvoker.invoke(listeners, event(1)));
+
+        assertEquals(3, listeners.calls);
+    }
+
+    @Test
+    public void testCompiledInvokerPropagatesListenerException() throws Exception {
+        ListenerInvoker invoker = ListenerInvokers.compile(
+                Listeners.class.getDeclaredMethod("failingListener", OneBotGroupMessageEvent.class));
+        assertThrows(IllegalStateException.class, () -> invoker.invoke(new Listeners(), event(1)));
+
+        ListenerInvoker reflective = ListenerInvokers.reflective(
+                Listeners.class.getDeclaredMethod("failingListener", OneBotGroupMessageEvent.class));
+        assertThrows(IllegalStateException.class, () -> reflective.invoke(new Listeners(), event(1)));
+    }
+
+    @Test
+    public void testStaticListenerFallsBackToMethodHandle() throws Throwable {
+        ListenerInvoker invoker = ListenerInvokers.compile(
+                Listeners.class.getDeclaredMethod("staticListener", OneBotGroupMessageEvent.class));
+        assertTrue(invoker.invoke(null, event(1)));
+    }
+
+    @Test
+    public void testLambdaInvokerForListenerInPluginClassLoader(@TempDir Path dir) throws Throwable {
+        String entry = PluginListener.class.getName().replace('.', '/') + ".class";
+        File jar = dir.resolve("plugin.jar").toFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+             InputStream in = getClass().getClassLoader().getResourceAsStream(entry)) {
+            out.putNextEntry(new JarEntry(entry));
+            in.transferTo(out);
+            out.closeEntry();
+        }
+
+        try (PluginClassLoader loader = PluginClassLoader.create(jar, getClass().getClassLoader(), 1L)) {
+            Class<?> pluginClass = loader.loadClass(PluginListener.class.getName());
+            assertNotSame(PluginListener.class, pluginClass);
+            assertNotSame(ListenerInvokers.class.getModule(), pluginClass.getModule());
+
+            Constructor<?> constructor = pluginClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            Object listener = constructor.newInstance();
+            Method method = pluginClass.getDeclaredMethod("onMessage", OneBotGroupMessageEvent.class);
+
+            ListenerInvoker invoker = ListenerInvokers.lambda(method);
+            assertTrue(invoker.invoke(listener, event(42)));
+            assertFalse(invoker.invoke(listener, event(1)));
+
+            // 同一包中的第二个监听器复用已定义的锚点类
+            assertTrue(ListenerInvokers.lambda(method).invoke(listener, event(42)));
+        }
+    }
+}
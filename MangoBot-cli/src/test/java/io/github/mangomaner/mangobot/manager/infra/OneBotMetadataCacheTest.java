@@ -0,0 +1,106 @@
+package io.github.mangomaner.mangobot.manager.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OneBotMetadataCache;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OneBotMetadataCache.Kind;
+import io.github.mangomaner.mangobot.events.onebot.notice.OneBotGroupDecreaseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OneBotMetadataCacheTest {
+
+    @Test
+    public void testConcurrentCallersShareOneRequest() {
+        OneBotMetadataCache cache = new OneBotMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get(1, Kind.GROUP_INFO, 100, 0, false, () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = cache.get(1, Kind.GROUP_INFO, 100, 0, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        pending.complete("group");
+
+        assertEquals(1, loads.get());
+        assertEquals("group", first.join());
+        assertEquals("group", second.join());
+
+        // noCache 跳过缓存并替换旧值
+        assertEquals("fresh", cache.get(1, Kind.GROUP_INFO, 100, 0, true,
+                () -> CompletableFuture.completedFuture("fresh")).join());
+        assertEquals("fresh", cache.get(1, Kind.GROUP_INFO, 100, 0, false,
+                () -> CompletableFuture.completedFuture("stale")).join());
+    }
+
+    @Test
+    public void testFailedOrNullResultsAreNotCached() {
+        OneBotMetadataCache cache = new OneBotMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, Kind.STRANGER_INFO, 0, 2, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("offline"));
+        });
+        cache.get(1, Kind.STRANGER_INFO, 0, 2, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+        Object value = cache.get(1, Kind.STRANGER_INFO, 0, 2, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("stranger");
+        }).join();
+
+        assertEquals(3, loads.get());
+        assertEquals("stranger", value);
+    }
+
+    @Test
+    public void testMemberLeaveInvalidatesMemberAndGroup() {
+        OneBotMetadataCache cache = new OneBotMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        for (int round = 0; round < 2; round++) {
+            cache.get(1, Kind.GROUP_MEMBER_INFO, 100, 2, false, () -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("member");
+            });
+            cache.get(1, Kind.GROUP_INFO, 100, 0, false, () -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("group");
+            });
+            cache.get(1, Kind.GROUP_LIST, 0, 0, false, () -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("groups");
+            });
+        }
+        assertEquals(3, loads.get());
+
+        OneBotGroupDecreaseEvent event = new OneBotGroupDecreaseEvent();
+        event.setSelfId(1);
+        event.setGroupId(100);
+        event.setUserId(2);
+        event.setSubType("leave");
+        assertTrue(cache.onGroupDecrease(event));
+
+        cache.get(1, Kind.GROUP_MEMBER_INFO, 100, 2, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("member");
+        });
+        cache.get(1, Kind.GROUP_INFO, 100, 0, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("group");
+        });
+        cache.get(1, Kind.GROUP_LIST, 0, 0, false, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("groups");
+        });
+        // 其他成员离开不影响 Bot 的群列表
+        assertEquals(5, loads.get());
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.mangomaner.mangobot.manager.infra;
+
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OutboundPriority;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OutboundReceipt;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.outbound.send.OutboundScheduler;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.ImageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundSchedulerTest {
+
+    private final List<Map<String, Object>> sent = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<Object> record(long botId, String action, Map<String, Object> params) {
+        Map<String, Object> copy = new HashMap<>(params);
+        copy.put("action", action);
+        sent.add(copy);
+        return CompletableFuture.completedFuture(Map.of("message_id", sent.size()));
+    }
+
+    @Test
+    public void testHigherPriorityIsSentFirstWhenRateLimited() throws Exception {
+        // 每 100ms 一个令牌，第一个请求用掉令牌后其余请求排队
+        Map<String, String> config = Map.of(OutboundScheduler.BOT_RATE_KEY, "600", OutboundScheduler.BOT_BURST_KEY, "1");
+        OutboundScheduler scheduler = new OutboundScheduler(this::record, config::get);
+        try {
+            CompletableFuture<OutboundReceipt> first = scheduler.submit(1L, "set_group_card", params(), OutboundPriority.NORMAL, null);
+            first.get(5, TimeUnit.SECONDS);
+            CompletableFuture<OutboundReceipt> poke = scheduler.submit(1L, "group_poke", params(), OutboundPriority.BULK, null);
+            CompletableFuture<OutboundReceipt> reply = scheduler.submit(1L, "send_group_msg", params(), OutboundPriority.MESSAGE, null);
+            CompletableFuture.allOf(poke, reply).get(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of("set_group_card", "send_group_msg", "group_poke"),
+                    sent.stream().map(request -> request.get("action")).toList());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnconfiguredSchedulerDoesNotThrottle() throws Exception {
+        // 未配置速率时不限速：旧默认值下同一群第 4 条起需要等待约 3 秒
+        OutboundScheduler scheduler = new OutboundScheduler(this::record, key -> null);
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[20];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = submitText(scheduler, 100L, "消息" + i);
+            }
+            CompletableFuture.allOf(futures).get(2, TimeUnit.SECONDS);
+
+            assertEquals(20, sent.size());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testConsecutiveTextMessagesToSameGroupAreCoalesced() throws Exception {
+        Map<String, String> config = Map.of(OutboundScheduler.COALESCE_WINDOW_KEY, "200");
+        OutboundScheduler scheduler = new OutboundScheduler(this::record, config::get);
+        try {
+            CompletableFuture<OutboundReceipt> first = submitText(scheduler, 100L, "第一句");
+            CompletableFuture<OutboundReceipt> second = submitText(scheduler, 100L, "第二句");
+            CompletableFuture<OutboundReceipt> other = submitText(scheduler, 200L, "另一个群");
+
+            OutboundReceipt primary = first.get(5, TimeUnit.SECONDS);
+            OutboundReceipt merged = second.get(5, TimeUnit.SECONDS);
+            other.get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, sent.size());
+            assertTrue(primary.primary());
+            assertFalse(merged.primary());
+            assertEquals(primary.data(), merged.data());
+            assertEquals("第一句\n第二句", primary.message().stream()
+                    .map(segment -> ((TextSegment) segment).getText())
+                    .reduce("", String::concat));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testTextThenImageKeepsOrder() throws Exception {
+        Map<String, String> config = Map.of(OutboundScheduler.COALESCE_WINDOW_KEY, "300");
+        OutboundScheduler scheduler = new OutboundScheduler(this::record, config::get);
+        try {
+            CompletableFuture<OutboundReceipt> text = submitText(scheduler, 100L, "看这张图");
+            CompletableFuture<OutboundReceipt> image = submitImage(scheduler, 100L);
+            CompletableFuture<OutboundReceipt> after = submitText(scheduler, 100L, "就是这张");
+            CompletableFuture.allOf(text, image, after).get(5, TimeUnit.SECONDS);
+
+            // 图片结束了文本的合并窗口，之后的文本也不能并入图片之前的消息
+            assertEquals(3, sent.size());
+            assertEquals(List.of("看这张图", "image", "就是这张"), sent.stream()
+                    .map(request -> ((List<?>) request.get("message")).get(0))
+                    .map(segment -> segment instanceof TextSegment textSegment ? textSegment.getText() : "image")
+                    .toList());
+            assertTrue(after.get().primary());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private CompletableFuture<OutboundReceipt> submitImage(OutboundScheduler scheduler, long groupId) {
+        ImageSegment segment = new ImageSegment();
+        segment.setType("image");
+        segment.setData(new ImageSegment.ImageData());
+        segment.getData().setFile("https://example.com/a.png");
+        List<OneBotMessageSegment> message = List.of(segment);
+        Map<String, Object> params = params();
+        params.put("group_id", groupId);
+        params.put("message", message);
+        return scheduler.submit(1L, "send_group_msg", params, OutboundPriority.MESSAGE, message);
+    }
+
+    private CompletableFuture<OutboundReceipt> submitText(OutboundScheduler scheduler, long groupId, String text) {
+        TextSegment segment = new TextSegment();
+        segment.setType("text");
+        segment.setData(new TextSegment.TextData());
+        segment.getData().setText(text);
+        List<OneBotMessageSegment> message = List.of(segment);
+        Map<String, Object> params = params();
+        params.put("group_id", groupId);
+        params.put("message", message);
+        return scheduler.submit(1L, "send_group_msg", params, OutboundPriority.MESSAGE, message);
+    }
+
+    private static Map<String, Object> params() {
+        return new HashMap<>();
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversationMessageCacheTest {
+
+    private static GroupMessages message(long seq) {
+        GroupMessages message = new GroupMessages();
+        message.setBotId("1");
+        message.setGroupId("100");
+        message.setMessageId(String.valueOf(seq));
+        message.setMessageTime(seq * 1000);
+        return message;
+    }
+
+    private static List<GroupMessages> history(int count) {
+        List<GroupMessages> latestDesc = new ArrayList<>();
+        for (int i = count; i >= 1; i--) {
+            latestDesc.add(message(i));
+        }
+        return latestDesc;
+    }
+
+    @Test
+    public void testLoadsOnceThenServesAppendedMessages() {
+        ConversationMessageCache cache = new ConversationMessageCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        List<GroupMessages> first = cache.latestGroup("1", "100", 3, n -> {
+            loads.incrementAndGet();
+            return history(10);
+        });
+        assertEquals(List.of("10", "9", "8"), first.stream().map(GroupMessages::getMessageId).toList());
+
+        cache.appendGroup(message(11));
+        cache.appendGroup(message(11));
+        List<GroupMessages> second = cache.latestGroup("1", "100", 2, n -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(List.of("11", "10"), second.stream().map(GroupMessages::getMessageId).toList());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testAppendBeforeLoadIsIgnored() {
+        ConversationMessageCache cache = new ConversationMessageCache();
+        cache.appendGroup(message(1));
+
+        List<GroupMessages> latest = cache.latestGroup("1", "100", 5, n -> history(3));
+        assertEquals(3, latest.size());
+    }
+
+    @Test
+    public void testBeforeFallsBackWhenRingIsIncomplete() {
+        ConversationMessageCache cache = new ConversationMessageCache();
+        cache.latestGroup("1", "100", 1, n -> history(ConversationMessageCache.RING_CAPACITY));
+
+        List<GroupMessages> before = cache.beforeGroup("1", "100", "20", 5);
+        assertEquals(List.of("19", "18", "17", "16", "15"), before.stream().map(GroupMessages::getMessageId).toList());
+
+        // 缓冲区已满，更早的消息可能在数据库中
+        assertNull(cache.beforeGroup("1", "100", "3", 5));
+        assertNull(cache.beforeGroup("1", "100", "unknown", 5));
+
+        // 会话消息不足容量时，缓冲区即为全部历史
+        cache.invalidateGroup("1", "100");
+        cache.latestGroup("1", "100", 1, n -> history(5));
+        assertEquals(List.of("2", "1"), cache.beforeGroup("1", "100", "3", 5).stream().map(GroupMessages::getMessageId).toList());
+    }
+
+    @Test
+    public void testBeforeKeepsEarlierMessagesFromTheSameSecond() {
+        ConversationMessageCache cache = new ConversationMessageCache();
+        // 3、4、5 在同一秒收到，数据库按 (message_time, id) 分页时 3 在 4 之前
+        cache.latestGroup("1", "100", 1, n -> {
+            List<GroupMessages> latest = history(5);
+            for (GroupMessages message : latest) {
+                message.setId(Long.parseLong(message.getMessageId()));
+                message.setMessageTime(Math.min(message.getId(), 3) * 1000);
+            }
+            return latest;
+        });
+
+        assertEquals(List.of("3", "2", "1"), cache.beforeGroup("1", "100", "4", 5).stream().map(GroupMessages::getMessageId).toList());
+        assertEquals(List.of("4", "3"), cache.beforeGroup("1", "100", "5", 2).stream().map(GroupMessages::getMessageId).toList());
+    }
+
+    @Test
+    public void testUpdateParseMessagePatchesRingInPlace() {
+        ConversationMessageCache cache = new ConversationMessageCache();
+        AtomicInteger loads = new AtomicInteger();
+        cache.latestGroup("1", "100", 3, n -> {
+            loads.incrementAndGet();
+            List<GroupMessages> latest = history(3);
+            for (GroupMessages message : latest) {
+                message.setId(Long.parseLong(message.getMessageId()));
+            }
+            return latest;
+        });
+
+        cache.updateGroupParseMessage("1", "100", 2L, "图片描述");
+        // 不在缓冲区中的消息忽略
+        cache.updateGroupParseMessage("1", "100", 99L, "ignored");
+
+        List<GroupMessages> latest = cache.latestGroup("1", "100", 3, n -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals("图片描述", latest.get(1).getParseMessage());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import io.github.mangomaner.mangobot.module.message.archive.MessageArchiveStore;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.system.common.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageArchiveStoreTest {
+
+    private static final long JAN = LocalDate.of(2024, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long FEB = LocalDate.of(2024, 2, 1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long MAR = LocalDate.of(2024, 3, 1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    @TempDir
+    Path dir;
+
+    private MessageArchiveStore store;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // 一月：id 1~3，二月：id 4~6（其中 5、6 同一时间）
+        archive("messages-2024-01.db", new long[][]{{1, JAN + 1000}, {2, JAN + 2000}, {3, JAN + 3000}});
+        archive("messages-2024-02.db", new long[][]{{4, FEB + 1000}, {5, FEB + 2000}, {6, FEB + 2000}});
+        store = new MessageArchiveStore(dir);
+    }
+
+    private void archive(String name, long[][] rows) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve(name).toAbsolutePath());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE group_messages (id INTEGER PRIMARY KEY, bot_id TEXT NOT NULL, group_id TEXT NOT NULL, "
+                    + "message_id TEXT, sender_id TEXT, message_segments TEXT, message_segments_blob BLOB, "
+                    + "message_time INTEGER NOT NULL, is_delete INTEGER DEFAULT 0, parse_message TEXT)");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO group_messages (id, bot_id, group_id, message_id, sender_id, message_time) VALUES (?, '1', '100', ?, '9', ?)")) {
+                for (long[] row : rows) {
+                    insert.setLong(1, row[0]);
+                    insert.setString(2, "m" + row[0]);
+                    insert.setLong(3, row[1]);
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static GroupMessages hot(long id, long time) {
+        GroupMessages message = new GroupMessages();
+        message.setId(id);
+        message.setMessageTime(time);
+        return message;
+    }
+
+    private static KeysetCursor cursorOf(GroupMessages message) {
+        return new KeysetCursor(message.getMessageTime(), message.getId());
+    }
+
+    private static List<Long> ids(List<GroupMessages> messages) {
+        return messages.stream().map(GroupMessages::getId).toList();
+    }
+
+    @Test
+    public void testListIsNewestFirstAcrossMonths() {
+        assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), ids(store.listGroupConversation("1", "100", null, Long.MIN_VALUE, 10)));
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(store.listGroupConversation("1", "100", null, Long.MIN_VALUE, 4)));
+        assertTrue(store.listGroupConversation("1", "200", null, Long.MIN_VALUE, 10).isEmpty());
+    }
+
+    @Test
+    public void testListCursorIsExclusiveOnTimeAndId() {
+        // 同一时间的 5、6：游标 (t, 6) 之前只剩 5，游标本身不返回
+        assertEquals(List.of(5L, 4L, 3L), ids(store.listGroupConversation("1", "100", new KeysetCursor(FEB + 2000, 6), Long.MIN_VALUE, 3)));
+        // 游标落在二月最早一条上时，只读一月
+        assertEquals(List.of(3L, 2L, 1L), ids(store.listGroupConversation("1", "100", new KeysetCursor(FEB + 1000, 4), Long.MIN_VALUE, 10)));
+    }
+
+    @Test
+    public void testListFloorIsInclusive() {
+        assertEquals(List.of(6L, 5L, 4L), ids(store.listGroupConversation("1", "100", null, FEB + 1000, 10)));
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(store.listGroupConversation("1", "100", null, JAN + 3000, 10)));
+        assertTrue(store.listGroupConversation("1", "100", null, MAR, 10).isEmpty());
+    }
+
+    @Test
+    public void testMergeSkipsArchiveWhenHotPageIsNewer() {
+        List<GroupMessages> hot = List.of(hot(8, MAR + 2000), hot(7, MAR + 1000));
+
+        List<GroupMessages> merged = store.merge(hot, null, 2, MessageArchiveStoreTest::cursorOf,
+                (before, floor, limit) -> fail("不应查询归档"));
+
+        assertSame(hot, merged);
+    }
+
+    @Test
+    public void testMergeFillsShortHotPageFromArchive() {
+        List<GroupMessages> hot = List.of(hot(7, MAR + 1000));
+
+        List<GroupMessages> merged = store.merge(hot, null, 3, MessageArchiveStoreTest::cursorOf,
+                (before, floor, limit) -> {
+                    assertEquals(Long.MIN_VALUE, floor);
+                    return store.listGroupConversation("1", "100", before, floor, limit);
+                });
+
+        assertEquals(List.of(7L, 6L, 5L), ids(merged));
+    }
+
+    @Test
+    public void testMergeUsesLastHotTimeAsFloorAndDeduplicates() {
+        // 归档与删除之间中断：5、6 同时存在于热库与归档
+        List<GroupMessages> hot = List.of(hot(7, MAR + 1000), hot(6, FEB + 2000), hot(5, FEB + 2000));
+        List<Long> floors = new ArrayList<>();
+
+        List<GroupMessages> merged = store.merge(hot, new KeysetCursor(MAR + 5000, 99), 3, MessageArchiveStoreTest::cursorOf,
+                (before, floor, limit) -> {
+                    floors.add(floor);
+                    return store.listGroupConversation("1", "100", before, floor, limit);
+                });
+
+        assertEquals(List.of(FEB + 2000), floors);
+        assertEquals(List.of(7L, 6L, 5L), ids(merged));
+    }
+
+    @Test
+    public void testMergeWithoutArchivesReturnsHot(@TempDir Path empty) {
+        MessageArchiveStore none = new MessageArchiveStore(empty);
+        List<GroupMessages> hot = List.of(hot(1, JAN));
+
+        assertSame(hot, none.merge(hot, null, 10, MessageArchiveStoreTest::cursorOf,
+                (before, floor, limit) -> fail("不应查询归档")));
+    }
+}
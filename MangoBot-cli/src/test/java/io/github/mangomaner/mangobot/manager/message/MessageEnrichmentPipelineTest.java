@@ -0,0 +1,116 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.ImageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.TextSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageFileProcessor;
+import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotMessageParser;
+import io.github.mangomaner.mangobot.message_handler.enrichment.MessageEnrichmentPipeline;
+import io.github.mangomaner.mangobot.module.message.groupMessage.service.GroupMessagesService;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.module.message.privateMessage.service.PrivateMessagesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class MessageEnrichmentPipelineTest {
+
+    private final OneBotMessageFileProcessor fileProcessor = mock(OneBotMessageFileProcessor.class);
+    private final OneBotMessageParser messageParser = mock(OneBotMessageParser.class);
+    private final GroupMessagesService groupMessagesService = mock(GroupMessagesService.class);
+    private final MessageEnrichmentPipeline pipeline = new MessageEnrichmentPipeline(
+            fileProcessor, messageParser, groupMessagesService, mock(PrivateMessagesService.class));
+
+    @AfterEach
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    private static GroupMessages stored() {
+        return stored(5L);
+    }
+
+    private static GroupMessages stored(long id) {
+        GroupMessages message = new GroupMessages();
+        message.setId(id);
+        message.setBotId("1");
+        message.setGroupId("100");
+        message.setParseMessage("[图片] [回复: 加载中]");
+        return message;
+    }
+
+    @Test
+    public void testImageAndReplyAreWrittenOnceAfterBoth() throws Exception {
+        CountDownLatch filesDone = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            filesDone.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(fileProcessor).processReceivedFiles(any());
+        when(messageParser.parseMessage(any(), anyLong())).thenReturn("[图片: 一只猫] [回复: 你好]");
+        CompletableFuture<String> refreshed = new CompletableFuture<>();
+        List<OneBotMessageSegment> segments = List.of(new ImageSegment());
+
+        pipeline.submitGroupMessage(stored(), segments, 1L, refreshed);
+        refreshed.complete("[图片] [回复: 你好]");
+
+        // 引用内容先到达时不回写，等文件处理完成后按当前状态统一解析
+        verify(groupMessagesService, after(200).never()).updateParseMessage(any(), any(), any(), any());
+        filesDone.countDown();
+
+        verify(groupMessagesService, timeout(2000)).updateParseMessage("1", "100", 5L, "[图片: 一只猫] [回复: 你好]");
+        verify(groupMessagesService, after(200).times(1)).updateParseMessage(any(), any(), any(), any());
+        verify(messageParser, times(1)).parseMessage(segments, 1L);
+    }
+
+    @Test
+    public void testReplyRefreshIsWrittenOffTheCompletingThread() throws Exception {
+        AtomicReference<String> writer = new AtomicReference<>();
+        doAnswer(invocation -> {
+            writer.set(Thread.currentThread().getName());
+            return null;
+        }).when(groupMessagesService).updateParseMessage(any(), any(), any(), any());
+        when(messageParser.parseMessage(any(), anyLong())).thenReturn("[回复: 你好] 收到");
+        CompletableFuture<String> refreshed = new CompletableFuture<>();
+
+        pipeline.submitGroupMessage(stored(), List.of(new TextSegment()), 1L, refreshed);
+        refreshed.complete("[回复: 你好] 收到");
+
+        verify(groupMessagesService, timeout(2000)).updateParseMessage("1", "100", 5L, "[回复: 你好] 收到");
+        verify(fileProcessor, never()).processReceivedFiles(any());
+        assertTrue(writer.get().startsWith("Message-Enrich-"));
+    }
+
+    @Test
+    public void testReplyRefreshIsWrittenWhenFileQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(fileProcessor).processReceivedFiles(any());
+        when(messageParser.parseMessage(any(), anyLong())).thenReturn("[图片] [回复: 你好]");
+        try {
+            // 占满全部工作线程与文件处理队列
+            for (int i = 0; i < 4 + 256; i++) {
+                pipeline.submitGroupMessage(stored(1000L + i), List.of(new ImageSegment()), 1L, null);
+            }
+            CompletableFuture<String> refreshed = new CompletableFuture<>();
+
+            pipeline.submitGroupMessage(stored(), List.of(new ImageSegment()), 1L, refreshed);
+            refreshed.complete("[图片] [回复: 你好]");
+
+            verify(groupMessagesService, timeout(2000)).updateParseMessage("1", "100", 5L, "[图片] [回复: 你好]");
+        } finally {
+            release.countDown();
+        }
+    }
+}
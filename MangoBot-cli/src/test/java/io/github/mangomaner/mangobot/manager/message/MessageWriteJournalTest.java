@@ -0,0 +1,146 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.module.message.journal.MessageWriteJournal;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import io.github.mangomaner.mangobot.system.mapper.GroupMessagesMapper;
+import io.github.mangomaner.mangobot.system.mapper.PrivateMessagesMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MessageWriteJournalTest {
+
+    private static GroupMessages message(String messageId) {
+        return message("100", messageId);
+    }
+
+    private static GroupMessages message(String groupId, String messageId) {
+        GroupMessages message = new GroupMessages();
+        message.setBotId("1");
+        message.setGroupId(groupId);
+        message.setMessageId(messageId);
+        message.setMessageTime(System.currentTimeMillis());
+        return message;
+    }
+
+    private static MessageWriteJournal journal(GroupMessagesMapper mapper) {
+        return new MessageWriteJournal(mapper, mock(PrivateMessagesMapper.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new ConversationMessageCache());
+    }
+
+    @Test
+    public void testTransientFailureIsRetriedInsteadOfDropped() throws Exception {
+        GroupMessagesMapper mapper = mock(GroupMessagesMapper.class);
+        AtomicInteger attempts = new AtomicInteger();
+        when(mapper.insert(any(GroupMessages.class))).thenAnswer(invocation -> {
+            // 前两次模拟写连接被占用
+            if (attempts.incrementAndGet() <= 2) {
+                throw new CannotAcquireLockException("database is locked");
+            }
+            ((GroupMessages) invocation.getArgument(0)).setId(7L);
+            return 1;
+        });
+        MessageWriteJournal journal = journal(mapper);
+
+        GroupMessages saved = journal.appendGroup(message("m1")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(7L, saved.getId());
+        assertEquals(3, attempts.get());
+        assertTrue(journal.pendingGroupMessages("1", "100").isEmpty());
+        journal.shutdown();
+    }
+
+    @Test
+    public void testConstraintFailureFailsOnlyThatMessage() throws Exception {
+        GroupMessagesMapper mapper = mock(GroupMessagesMapper.class);
+        when(mapper.insert(any(GroupMessages.class))).thenAnswer(invocation -> {
+            GroupMessages message = invocation.getArgument(0);
+            if ("bad".equals(message.getMessageId())) {
+                throw new DataIntegrityViolationException("constraint failed");
+            }
+            return 1;
+        });
+        MessageWriteJournal journal = journal(mapper);
+
+        var bad = journal.appendGroup(message("bad"));
+        var good = journal.appendGroup(message("good"));
+
+        assertEquals("good", good.get(5, TimeUnit.SECONDS).getMessageId());
+        assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        journal.shutdown();
+    }
+
+    @Test
+    public void testPendingMessagesAreTrackedPerConversation() throws Exception {
+        GroupMessagesMapper mapper = mock(GroupMessagesMapper.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mapper.insert(any(GroupMessages.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        MessageWriteJournal journal = journal(mapper);
+
+        var first = journal.appendGroup(message("100", "a1"));
+        journal.appendGroup(message("200", "b1"));
+        var last = journal.appendGroup(message("100", "a2"));
+
+        assertEquals(List.of("a1", "a2"), journal.pendingGroupMessages("1", "100").stream().map(GroupMessages::getMessageId).toList());
+        assertEquals(List.of("b1"), journal.pendingGroupMessages("1", "200").stream().map(GroupMessages::getMessageId).toList());
+        assertTrue(journal.pendingPrivateMessages("1", "100").isEmpty());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        last.get(5, TimeUnit.SECONDS);
+        assertTrue(journal.pendingGroupMessages("1", "100").isEmpty());
+        journal.shutdown();
+    }
+
+    @Test
+    public void testAppendBlocksWhenBacklogIsFull() throws Exception {
+        GroupMessagesMapper mapper = mock(GroupMessagesMapper.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mapper.insert(any(GroupMessages.class))).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return 1;
+        });
+        MessageWriteJournal journal = journal(mapper);
+        for (int i = 0; i < 8192; i++) {
+            journal.appendGroup(message("m" + i));
+        }
+
+        // 写连接被占用时积压达到上限，后续追加等待名额
+        CompletableFuture<CompletableFuture<GroupMessages>> blocked =
+                CompletableFuture.supplyAsync(() -> journal.appendGroup(message("overflow")));
+        Thread.sleep(200);
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        assertEquals("overflow", blocked.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS).getMessageId());
+        journal.shutdown();
+    }
+
+    @Test
+    public void testAppendAfterShutdownIsWrittenDirectly() throws Exception {
+        GroupMessagesMapper mapper = mock(GroupMessagesMapper.class);
+        when(mapper.insert(any(GroupMessages.class))).thenReturn(1);
+        MessageWriteJournal journal = journal(mapper);
+        journal.shutdown();
+
+        assertTrue(journal.appendGroup(message("late")).isDone());
+    }
+}
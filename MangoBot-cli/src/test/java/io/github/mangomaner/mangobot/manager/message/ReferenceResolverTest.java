@@ -0,0 +1,93 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.TextSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.vo.MessageInfo;
+import io.github.mangomaner.mangobot.adapter.onebot.utils.OneBotReferenceResolver;
+import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceResolverTest {
+
+    @Test
+    public void testLocalMessageIsUsedWithoutRemoteCall() {
+        AtomicInteger remote = new AtomicInteger();
+        OneBotReferenceResolver resolver = new OneBotReferenceResolver(
+                (botId, messageId) -> {
+                    GroupMessages message = new GroupMessages();
+                    message.setSenderId("2");
+                    message.setParseMessage("本地消息");
+                    return message;
+                },
+                (botId, messageId) -> {
+                    remote.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                },
+                (botId, id) -> CompletableFuture.completedFuture(List.of()));
+
+        CompletableFuture<OneBotReferenceResolver.Quote> quote = resolver.reply(1, "100");
+
+        assertTrue(quote.isDone());
+        assertEquals("本地消息", quote.join().parsedText());
+        assertEquals("2", quote.join().senderId());
+        assertEquals(0, remote.get());
+    }
+
+    @Test
+    public void testRemoteReplyIsFetchedOnceAndCached() throws Exception {
+        AtomicInteger remote = new AtomicInteger();
+        CompletableFuture<MessageInfo> response = new CompletableFuture<>();
+        OneBotReferenceResolver resolver = new OneBotReferenceResolver(
+                (botId, messageId) -> null,
+                (botId, messageId) -> {
+                    remote.incrementAndGet();
+                    return response;
+                },
+                (botId, id) -> CompletableFuture.completedFuture(List.of()));
+
+        CompletableFuture<OneBotReferenceResolver.Quote> first = resolver.reply(1, "100");
+        CompletableFuture<OneBotReferenceResolver.Quote> second = resolver.reply(1, "100");
+        // 请求未返回时不阻塞调用方
+        assertFalse(first.isDone());
+
+        MessageInfo info = new MessageInfo();
+        info.setSender(Map.of("user_id", 2, "nickname", "芒果"));
+        info.setMessage(List.of(Map.of("type", "text", "data", Map.of("text", "远程消息"))));
+        response.complete(info);
+
+        OneBotReferenceResolver.Quote quote = first.get(5, TimeUnit.SECONDS);
+        assertSame(quote, second.get(5, TimeUnit.SECONDS));
+        assertEquals("芒果", quote.senderName());
+        assertEquals("2", quote.senderId());
+        assertEquals("远程消息", ((TextSegment) quote.segments().get(0)).getText());
+
+        assertTrue(resolver.reply(1, "100").isDone());
+        assertEquals(1, remote.get());
+        resolver.shutdown();
+    }
+
+    @Test
+    public void testFailedForwardCompletesEmptyAndIsNotRetriedImmediately() throws Exception {
+        AtomicInteger remote = new AtomicInteger();
+        OneBotReferenceResolver resolver = new OneBotReferenceResolver(
+                (botId, messageId) -> null,
+                (botId, messageId) -> CompletableFuture.completedFuture(null),
+                (botId, id) -> {
+                    remote.incrementAndGet();
+                    return CompletableFuture.<List<OneBotGroupMessageEvent>>failedFuture(new IllegalStateException("timeout"));
+                });
+
+        assertTrue(resolver.forward(1, "abc").get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(resolver.forward(1, "abc").get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(1, remote.get());
+        resolver.shutdown();
+    }
+}
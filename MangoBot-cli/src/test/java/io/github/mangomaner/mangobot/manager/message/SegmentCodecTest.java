@@ -0,0 +1,53 @@
+package io.github.mangomaner.mangobot.manager.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.OneBotMessageSegment;
+import io.github.mangomaner.mangobot.adapter.onebot.model.segment.TextSegment;
+import io.github.mangomaner.mangobot.utils.JsonCodec;
+import io.github.mangomaner.mangobot.utils.SegmentCodec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentCodecTest {
+
+    private static final String JSON = "[{\"type\":\"reply\",\"data\":{\"id\":\"123456\"}},"
+            + "{\"type\":\"at\",\"data\":{\"qq\":\"10001\",\"name\":\"mango\"}},"
+            + "{\"type\":\"text\",\"data\":{\"text\":\" 你好，今天天气怎么样？\"}},"
+            + "{\"type\":\"image\",\"data\":{\"file\":\"ABCDEF0123456789.jpg\",\"url\":\"https://example.com/download?appid=1407&fileid=ABCDEF0123456789\",\"summary\":\"[图片]\"}}]";
+
+    @Test
+    public void testRoundTripKeepsTypeAndData() throws Exception {
+        byte[] encoded = SegmentCodec.encodeJson(JSON);
+        assertTrue(encoded.length < JSON.getBytes(StandardCharsets.UTF_8).length);
+
+        JsonNode expected = JsonCodec.mapper().readTree(JSON);
+        assertEquals(expected, SegmentCodec.decodeTree(encoded));
+        assertEquals(expected, JsonCodec.mapper().readTree(SegmentCodec.decodeToJson(encoded)));
+
+        List<OneBotMessageSegment> segments = SegmentCodec.decode(encoded);
+        assertEquals(4, segments.size());
+        assertEquals(" 你好，今天天气怎么样？", ((TextSegment) segments.get(2)).getText());
+    }
+
+    @Test
+    public void testUnknownTypeAndLongMessage() throws Exception {
+        String text = "重复的长消息内容".repeat(100);
+        String json = "[{\"type\":\"mystery\",\"data\":{\"x\":1}},{\"type\":\"text\",\"data\":{\"text\":\"" + text + "\"}}]";
+
+        byte[] encoded = SegmentCodec.encodeJson(json);
+        // 长消息整体压缩
+        assertTrue(encoded.length < text.length());
+        assertEquals(JsonCodec.mapper().readTree(json), SegmentCodec.decodeTree(encoded));
+    }
+
+    @Test
+    public void testReadSegmentsPrefersJson() throws Exception {
+        assertNull(SegmentCodec.readSegments(null, null));
+        assertEquals(4, SegmentCodec.readSegments(JSON, null).size());
+        assertEquals(4, SegmentCodec.readSegments(null, SegmentCodec.encodeJson(JSON)).size());
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.mangomaner.mangobot.manager.model.onebot.event;
+
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.EchoStatsVO;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotApiResponse;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.echo.OneBotEchoHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EchoHandlerTest {
+
+    private final OneBotEchoHandler handler = new OneBotEchoHandler();
+
+    @BeforeEach
+    public void setUp() {
+        handler.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    public void testCompleteRemovesPending() {
+        String echo = handler.nextEcho();
+        CompletableFuture<OneBotApiResponse> future = handler.register(echo, "s1", 10, TimeUnit.SECONDS);
+
+        assertTrue(handler.isPending(echo));
+        assertFalse(handler.isPending("not-an-echo"));
+        assertTrue(handler.complete(echo, new OneBotApiResponse()));
+        assertTrue(future.isDone());
+        assertFalse(handler.complete(echo, new OneBotApiResponse()));
+        assertEquals(0, handler.getStats().getInFlight());
+    }
+
+    @Test
+    public void testSweeperTimesOutExpiredRequests() {
+        CompletableFuture<OneBotApiResponse> future = handler.register(handler.nextEcho(), "s1", 50, TimeUnit.MILLISECONDS);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(1, handler.getStats().getTimedOut());
+    }
+
+    @Test
+    public void testDisconnectFailsOnlyThatSession() {
+        String first = handler.nextEcho();
+        CompletableFuture<OneBotApiResponse> kept = handler.register(first, "s1", 10, TimeUnit.SECONDS);
+        CompletableFuture<OneBotApiResponse> failed = handler.register(handler.nextEcho(), "s2", 10, TimeUnit.SECONDS);
+
+        handler.failSession("s2");
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertFalse(kept.isDone());
+        EchoStatsVO stats = handler.getStats();
+        assertEquals(1, stats.getInFlight());
+        assertEquals(1, stats.getDisconnected());
+        assertTrue(stats.getOldestAgeMillis() >= 0);
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.mangomaner.mangobot.manager.model.onebot.event;
+
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrameClassifier;
+import io.github.mangomaner.mangobot.adapter.onebot.handler.inbound.json_to_event.OneBotFrameClassifier.Kind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameClassifierTest {
+
+    @Test
+    public void testHeartbeat() {
+        String json = "{\"time\":1768132988,\"self_id\":1461626638,\"post_type\":\"meta_event\",\"meta_event_type\":\"heartbeat\",\"status\":{\"online\":true,\"good\":true},\"interval\":60000}";
+        OneBotFrameClassifier.Result result = OneBotFrameClassifier.classify(json);
+        assertEquals(Kind.HEARTBEAT, result.kind());
+        assertEquals(60000L, result.interval());
+    }
+
+    @Test
+    public void testLifecycleIsNotFastPathed() {
+        String json = "{\"time\":1768132988,\"self_id\":1461626638,\"post_type\":\"meta_event\",\"meta_event_type\":\"lifecycle\",\"sub_type\":\"connect\"}";
+        assertEquals(Kind.OTHER, OneBotFrameClassifier.classify(json).kind());
+    }
+
+    @Test
+    public void testEcho() {
+        String json = "{\"status\":\"ok\",\"retcode\":0,\"data\":{\"echo\":\"nested\",\"message_id\":1},\"message\":\"\",\"wording\":\"\",\"echo\":\"3f1c2e7a-6f7d\"}";
+        OneBotFrameClassifier.Result result = OneBotFrameClassifier.classify(json);
+        assertEquals(Kind.ECHO, result.kind());
+        assertEquals("3f1c2e7a-6f7d", result.echo());
+    }
+
+    @Test
+    public void testEventsAndUnusualFramesFallBack() {
+        String message = "{\"self_id\":1,\"message\":[{\"type\":\"text\",\"data\":{\"text\":\"\\\"echo\\\":\\\"x\\\"}\"}}],\"post_type\":\"message\",\"message_type\":\"group\",\"group_id\":2}";
+        assertEquals(Kind.OTHER, OneBotFrameClassifier.classify(message).kind());
+
+        String escapedEcho = "{\"status\":\"ok\",\"retcode\":0,\"echo\":\"a\\\"b\"}";
+        assertEquals(Kind.OTHER, OneBotFrameClassifier.classify(escapedEcho).kind());
+
+        assertEquals(Kind.OTHER, OneBotFrameClassifier.classify("[1,2]").kind());
+        assertEquals(Kind.OTHER, OneBotFrameClassifier.classify("{\"echo\":").kind());
+    }
+}
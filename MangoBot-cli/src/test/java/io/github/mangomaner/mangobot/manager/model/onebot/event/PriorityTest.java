@@ -1,54 +1,62 @@
 package io.github.mangomaner.mangobot.manager.model.onebot.event;
 
+import io.github.mangomaner.mangobot.api.MangoConfigApi;
+import io.github.mangomaner.mangobot.infra.EventIngress;
 import io.github.mangomaner.mangobot.infra.MangoEventPublisher;
 import org.junit.jupiter.api.Test;
 import io.github.mangomaner.mangobot.annotation.messageHandler.MangoBotEventListener;
 import io.github.mangomaner.mangobot.annotation.PluginPriority;
 import io.github.mangomaner.mangobot.events.onebot.message.OneBotGroupMessageEvent;
+import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mockStatic;
 
-@SpringBootTest(classes = {MangoEventPublisher.class, PriorityTest.TestListener.class})
+@SpringBootTest(classes = {MangoEventPublisher.class, EventIngress.class, PriorityTest.TestListener.class})
 public class PriorityTest {
 
     @Autowired
     private MangoEventPublisher publisher;
 
     @Autowired
-    private TestListener listener;
+    private EventIngress eventIngress;
 
     @Test
-    public void testPriorityAndInterruption() {
-        
-        // Wait, the publisher creates NEW instances of handlers using reflection.
-        // It does NOT use the Spring beans.
-        // So the 'listener' autowired here is NOT the one used by publisher.
-        // We need to verify against the instance managed by publisher, or change design to support Spring beans if available.
-        
-        // Given the requirement "don't rely on Spring", the publisher manages its own instances.
-        // So we cannot easily access the internal state of the listener instance created by publisher
-        // unless we expose it or make the logs static.
-        
+    public void testPriorityAndInterruption() throws Exception {
         OneBotGroupMessageEvent event = new OneBotGroupMessageEvent();
+        event.setSelfId(1L);
+        event.setGroupId(100L);
         event.setRawMessage("Test");
 
-        publisher.publish(event);
-        
-        // Access static logs
+        try (MockedStatic<MangoConfigApi> config = mockStatic(MangoConfigApi.class)) {
+            // 白名单模式且群在名单内，事件放行
+            config.when(() -> MangoConfigApi.getBotConfigValue(anyString(), anyLong(), anyString())).thenReturn("true");
+            config.when(() -> MangoConfigApi.botConfigListContains(anyString(), anyLong(), anyLong())).thenReturn(true);
+
+            publisher.publish(event);
+        }
+
+        // 分发在会话通道上异步执行，同一通道按提交顺序执行，标记任务运行时前一个事件已分发完毕
+        CountDownLatch dispatched = new CountDownLatch(1);
+        eventIngress.submit(event, dispatched::countDown);
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+
         List<String> logs = TestListener.staticLogs;
-        
-        assertEquals(2, logs.size());
-        assertEquals("HighPriority", logs.get(0));
-        assertEquals("MediumPriority", logs.get(1));
+
+        assertEquals(List.of("HighPriority", "MediumPriority"), logs);
     }
 
+    @MangoBotEventListener
     public static class TestListener {
-        public static List<String> staticLogs = new ArrayList<>();
+        public static final List<String> staticLogs = new CopyOnWriteArrayList<>();
 
         public TestListener() {
             staticLogs.clear();
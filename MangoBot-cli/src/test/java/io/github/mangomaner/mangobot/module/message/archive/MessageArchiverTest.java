@@ -0,0 +1,152 @@
+package io.github.mangomaner.mangobot.module.message.archive;
+
+import io.github.mangomaner.mangobot.module.message.cache.ConversationMessageCache;
+import io.github.mangomaner.mangobot.module.message.model.domain.GroupMessages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 与包内 {@link MessageArchiver#moveRange} 同包，直接在临时库上验证移动过程
+ */
+public class MessageArchiverTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final long JAN = MessageArchiveStore.startOf(JANUARY);
+    private static final long FEB = MessageArchiveStore.startOf(JANUARY.plusMonths(1));
+
+    /**
+     * 超过一批，覆盖按 (时间, id) 分批的边界
+     */
+    private static final int ROWS = 2500;
+
+    @TempDir
+    Path dir;
+
+    private SQLiteDataSource dataSource;
+    private MessageArchiveStore store;
+    private MessageArchiver archiver;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dir.resolve("main.db").toAbsolutePath());
+        store = new MessageArchiveStore(dir.resolve("archive"));
+        archiver = new MessageArchiver(dataSource, store, new ConversationMessageCache());
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE group_messages (" + ArchiveTable.GROUP_MESSAGES.definition + ")");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO group_messages (id, bot_id, group_id, message_id, sender_id, message_time, is_delete, parse_message) "
+                            + "VALUES (?, '1', ?, ?, '9', ?, ?, ?)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    // 每两条共用一个时间戳；每 100 条有一条已软删除
+                    addRow(insert, i, "100", JAN + (i + 1) / 2 * 1000L, i % 100 == 0 ? 1 : 0);
+                }
+                addRow(insert, ROWS + 1, "100", FEB + 1000, 0);
+                addRow(insert, ROWS + 2, "200", JAN + 1000, 0);
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static void addRow(PreparedStatement insert, long id, String groupId, long time, int deleted) throws Exception {
+        insert.setLong(1, id);
+        insert.setString(2, groupId);
+        insert.setString(3, "m" + id);
+        insert.setLong(4, time);
+        insert.setInt(5, deleted);
+        insert.setString(6, "text-" + id);
+        insert.addBatch();
+    }
+
+    private long count(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Test
+    public void testMoveRangeRoundTrip() throws Exception {
+        long[] moved = archiver.moveRange(ArchiveTable.GROUP_MESSAGES,
+                new MessageArchiver.Conversation(List.of("1", "100"), JAN), JANUARY, FEB);
+
+        long softDeleted = ROWS / 100;
+        assertEquals(ROWS - softDeleted, moved[0]);
+        assertEquals(softDeleted, moved[1]);
+        assertTrue(Files.exists(store.pathOf(JANUARY)));
+
+        // 主库只剩下一个月与其他会话的消息
+        assertEquals(0, count("SELECT COUNT(*) FROM group_messages WHERE group_id = '100' AND message_time < " + FEB));
+        assertEquals(2, count("SELECT COUNT(*) FROM group_messages"));
+
+        // 归档库按 (时间, id) 倒序读回，内容与移动前一致
+        List<GroupMessages> archived = store.listGroupConversation("1", "100", null, Long.MIN_VALUE, ROWS);
+        assertEquals(ROWS - softDeleted, archived.size());
+        assertEquals(ROWS - 1L, archived.get(0).getId());
+        assertEquals(1L, archived.get(archived.size() - 1).getId());
+        assertEquals("text-1", archived.get(archived.size() - 1).getParseMessage());
+        assertTrue(archived.stream().noneMatch(message -> message.getId() % 100 == 0));
+        assertNull(store.findGroupMessage("1", "200", "m" + (ROWS + 2)));
+    }
+
+    @Test
+    public void testMoveRangeIsIdempotent() throws Exception {
+        MessageArchiver.Conversation conversation = new MessageArchiver.Conversation(List.of("1", "100"), JAN);
+        archiver.moveRange(ArchiveTable.GROUP_MESSAGES, conversation, JANUARY, FEB);
+
+        long[] again = archiver.moveRange(ArchiveTable.GROUP_MESSAGES, conversation, JANUARY, FEB);
+
+        assertEquals(0, again[0]);
+        assertEquals(0, again[1]);
+        assertEquals(ROWS - ROWS / 100, store.listGroupConversation("1", "100", null, Long.MIN_VALUE, ROWS).size());
+    }
+
+    @Test
+    public void testOnlyOneRunStartsAtATime() throws Exception {
+        // 持有排他锁，已启动的归档在第一次查询处等待
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("BEGIN EXCLUSIVE");
+            try {
+                assertTrue(archiver.start());
+                assertFalse(archiver.start());
+                assertFalse(archiver.startCompaction());
+            } finally {
+                statement.execute("COMMIT");
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (archiver.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(archiver.isRunning());
+    }
+
+    @Test
+    public void testScheduledReclaimDoesNotConvertDatabase() throws Exception {
+        archiver.reclaimSpace();
+        assertEquals(0, count("PRAGMA auto_vacuum"));
+
+        archiver.convertToIncremental();
+        assertEquals(2, count("PRAGMA auto_vacuum"));
+    }
+}